@@ -1,28 +1,106 @@
 package com.example.facerecognitionapp;
 
 import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
 
+import com.example.facerecognitionapp.camera.CameraFrameSource;
 import com.example.facerecognitionapp.camera.CameraManager;
-import com.example.facerecognitionapp.detection.ImageAnalyzer;
+import com.example.facerecognitionapp.detection.FaceAnalysisPipeline;
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.detection.FaceDetectorPool;
+import com.example.facerecognitionapp.detection.MlKitFaceDetector;
+import com.example.facerecognitionapp.enrollment.BulkEnrollmentImporter;
+import com.example.facerecognitionapp.enrollment.DuplicateReport;
+import com.example.facerecognitionapp.enrollment.EnrollmentGallery;
+import com.example.facerecognitionapp.enrollment.EnrollmentStore;
+import com.example.facerecognitionapp.enrollment.NearDuplicateDetector;
+import com.example.facerecognitionapp.journal.RecognitionJournal;
+import com.example.facerecognitionapp.metrics.PipelineMetrics;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
 import com.example.facerecognitionapp.permission.PermissionManager;
+import com.example.facerecognitionapp.recognition.EmbeddingIndex;
+import com.example.facerecognitionapp.recognition.ThumbnailFaceEmbedder;
+import com.example.facerecognitionapp.startup.DetectorWarmup;
+import com.example.facerecognitionapp.startup.StartupOrchestrator;
+import com.example.facerecognitionapp.startup.StartupTrace;
 import com.example.facerecognitionapp.ui.FaceOverlayView;
-import com.example.facerecognitionapp.util.FaceImageLoader;
+import com.example.facerecognitionapp.ui.MetricsOverlayView;
+import com.example.facerecognitionapp.util.FaceGalleryLoader;
+import com.example.facerecognitionapp.util.PhotoEnrollmentProcessor;
+import com.google.common.util.concurrent.ListenableFuture;
 
-import java.util.List;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
+    // 调试：通过该 Intent 参数开启相机帧录制
+    private static final String EXTRA_RECORD_FRAMES = "record_frames";
+    // 调试：通过该 Intent 参数指定批量注册的照片目录
+    private static final String EXTRA_IMPORT_DIR = "import_dir";
+    // 流水线检测最多使用的 ML Kit 实例数（每个实例约占一个核）
+    private static final int MAX_PIPELINED_DETECTORS = 4;
+    // 启动阶段名与里程碑
+    private static final String PHASE_CAMERA_PROVIDER = "camera_provider";
+    private static final String PHASE_CAMERA_PERMISSION = "camera_permission";
+    private static final String PHASE_DETECTORS = "detectors";
+    private static final String PHASE_GALLERY = "gallery";
+    private static final String PHASE_JOURNAL = "journal";
+    private static final String PHASE_PIPELINE = "pipeline";
+    private static final String PHASE_CAMERA_BIND = "camera_bind";
+    private static final String MILESTONE_ACTIVITY_CREATED = "activity_created";
+    private static final String MILESTONE_PREVIEW_STREAMING = "preview_streaming";
+    private static final String MILESTONE_FIRST_RESULT = "first_result";
+    private static final String MILESTONE_FIRST_FACE = "first_face";
+    private static final String MILESTONE_FIRST_RECOGNIZED_FACE = "first_recognized_face";
+    // 预热用合成帧尺寸，与分析流的默认分辨率一致
+    private static final int WARMUP_FRAME_WIDTH = 640;
+    private static final int WARMUP_FRAME_HEIGHT = 480;
+    // 识别事件日志：环形文件保留最近的事件（64B/条，约4MB）
+    private static final String JOURNAL_FILE_NAME = "recognition.journal";
+    private static final int JOURNAL_CAPACITY = 65536;
     private CameraManager cameraManager;
     private PreviewView previewView;
     private FaceOverlayView faceOverlayView;
-    private ImageAnalyzer analyzer;
-    private List<FaceImageLoader.FaceImage> faceImages;
+    private MetricsOverlayView metricsOverlayView;
+    private FaceAnalysisPipeline pipeline;
+    private CameraFrameSource frameSource;
+    // 检测回调线程，检测之后的跟踪与识别都在其上执行，不占用主线程
+    private ExecutorService detectionExecutor;
+    // 启动阶段在启动线程创建，经编排器交给主线程的后续阶段
+    private volatile FaceDetector fastDetector;
+    private volatile FaceDetector accurateDetector;
+    private volatile RecognitionJournal journal;
+    private ProcessCameraProvider cameraProvider;
+    private StartupOrchestrator.Completion permissionCompletion;
+    private ExecutorService startupExecutor;
+    private StartupTrace startupTrace;
+    // 已识别出第一张人脸，检测回调不再记录启动里程碑
+    private volatile boolean startupTraceFinished;
+    // 1:N 线性扫描的分片线程，分析线程自己也扫描一个分片
+    private ExecutorService searchExecutor;
+    // 注册库的后台压缩线程
+    private final ExecutorService enrollmentExecutor = Executors.newSingleThreadExecutor();
+    private EnrollmentStore enrollmentStore;
+    // 以下人脸库状态只在UI线程访问
+    private EnrollmentGallery faceGallery;
+    private Closeable faceGalleryLease;
+    private EmbeddingIndex galleryIndex;
+    private BulkEnrollmentImporter bulkImporter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,12 +116,20 @@ public class MainActivity extends AppCompatActivity {
 
         previewView = findViewById(R.id.previewView); // 相机预览
         faceOverlayView = findViewById(R.id.faceOverlayView); // 人脸UI
+        metricsOverlayView = findViewById(R.id.metricsOverlayView); // 调试统计
+        // 长按画面切换流水线统计显示
+        faceOverlayView.setOnLongClickListener(v -> {
+            metricsOverlayView.toggle();
+            return true;
+        });
         cameraManager = new CameraManager(this);
 
         // 设置相机初始化监听器
         cameraManager.setInitializationListener((success, message) -> {
             runOnUiThread(() -> {
                 if (success) {
+                    // 前置摄像头预览为镜像，叠加层需同步翻转
+                    faceOverlayView.setMirrored(cameraManager.isFrontCamera());
                     Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
                     Log.d(TAG, message);
                 } else {
@@ -53,56 +139,335 @@ public class MainActivity extends AppCompatActivity {
             });
         });
 
-        // 在后台线程同步加载人脸图片
-        loadFaceImagesInBackground();
+        // 相机提供者、检测器预热、人脸库加载并行进行，全部就绪后才绑定相机
+        startStartup();
+    }
+
+    /**
+     * 冷启动编排，依赖关系：
+     * <pre>
+     * camera_provider ─────────────┐
+     * camera_permission ───────────┼─> camera_bind
+     * detectors ──┬─> pipeline ────┘
+     * journal ────┘
+     * gallery（就绪后随时交给流水线）
+     * </pre>
+     * 检测器在合成帧上预热，模型加载不再落在第一帧真实画面上。
+     * 启动追踪以进程启动为起点，另记录预览出图、首个检测结果、首次识别出人脸等里程碑
+     */
+    private void startStartup() {
+        startupTrace = new StartupTrace(SystemClock::elapsedRealtimeNanos,
+                Process.getStartElapsedRealtime() * 1_000_000L);
+        startupTrace.mark(MILESTONE_ACTIVITY_CREATED);
+        // 启动线程只负责创建与预热检测器，人脸库在注册库线程加载
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        startupExecutor = executor;
+        Executor mainExecutor = ContextCompat.getMainExecutor(this);
+        StartupOrchestrator startup = new StartupOrchestrator(executor, startupTrace);
+        startup.addAsyncPhase(PHASE_CAMERA_PROVIDER, mainExecutor, this::prepareCameraProvider);
+        startup.addAsyncPhase(PHASE_CAMERA_PERMISSION, mainExecutor, this::checkCameraPermission);
+        startup.addAsyncPhase(PHASE_DETECTORS, executor, this::createDetectors);
+        // 人脸库加载与注册库后台压缩共用一个线程，保证压缩不会早于加载
+        startup.addAsyncPhase(PHASE_GALLERY, enrollmentExecutor, this::loadFaceGallery);
+        startup.addPhase(PHASE_JOURNAL, executor, this::openJournal);
+        startup.addPhase(PHASE_PIPELINE, mainExecutor, this::createPipeline, PHASE_DETECTORS, PHASE_JOURNAL);
+        startup.addPhase(PHASE_CAMERA_BIND, mainExecutor, this::bindCamera,
+                PHASE_CAMERA_PROVIDER, PHASE_CAMERA_PERMISSION, PHASE_PIPELINE);
+        startup.setListener(trace -> executor.shutdown());
+
+        previewView.getPreviewStreamState().observe(this, state -> {
+            if (state == PreviewView.StreamState.STREAMING) {
+                startupTrace.mark(MILESTONE_PREVIEW_STREAMING);
+            }
+        });
+        startup.start();
+    }
+
+    private void prepareCameraProvider(StartupOrchestrator.Completion completion) {
+        ListenableFuture<ProcessCameraProvider> future = cameraManager.prepareCameraProvider();
+        future.addListener(() -> {
+            try {
+                cameraProvider = future.get();
+                completion.complete();
+            } catch (ExecutionException | InterruptedException e) {
+                completion.fail(e);
+            }
+        }, ContextCompat.getMainExecutor(this));
+    }
 
-        // 检查摄像头权限
+    /**
+     * 已有权限时立即完成，否则请求权限，在 onRequestPermissionsResult 中完成
+     */
+    private void checkCameraPermission(StartupOrchestrator.Completion completion) {
         if (PermissionManager.hasCameraPermission(this)) {
-            startCamera();
+            completion.complete();
         } else {
-            // 请求权限
+            permissionCompletion = completion;
             PermissionManager.requestCameraPermission(this);
         }
     }
 
     /**
-     * 在后台线程加载人脸图片
+     * 在启动线程创建检测器并在合成帧上预热，预热完成前不会有真实帧送入
      */
-    private void loadFaceImagesInBackground() {
-        new Thread(() -> {
-            Log.d(TAG, "后台线程：开始加载人脸图片");
-            faceImages = FaceImageLoader.loadAllFaceImages(this);
-            runOnUiThread(() -> {
-                if (faceImages != null && !faceImages.isEmpty()) {
-                    Toast.makeText(MainActivity.this, "加载了 " + faceImages.size() + " 张人脸图片", Toast.LENGTH_SHORT).show();
-                    Log.d(TAG, "人脸图片加载完成，共 " + faceImages.size() + " 张");
-                    for (FaceImageLoader.FaceImage faceImage : faceImages) {
-                        Log.d(TAG, "  - 用户: " + faceImage.userName);
-                    }
-                } else {
-                    Toast.makeText(MainActivity.this, "未找到人脸图片", Toast.LENGTH_SHORT).show();
-                    Log.w(TAG, "未加载到任何人脸图片");
-                }
+    private void createDetectors(StartupOrchestrator.Completion completion) {
+        // 快速检测器逐帧定位，精确检测器（关键点 + 分类）按刷新策略间歇运行，两者共用检测线程
+        int detectors = Math.min(MAX_PIPELINED_DETECTORS, Runtime.getRuntime().availableProcessors() / 2);
+        ExecutorService executor = detectors > 1
+                ? Executors.newFixedThreadPool(detectors) : Executors.newSingleThreadExecutor();
+        detectionExecutor = executor;
+        FaceDetector detector = createFastDetector(detectors, executor);
+        FaceDetector accurate = new MlKitFaceDetector(MlKitFaceDetector.Mode.ACCURATE, executor);
+        fastDetector = detector;
+        accurateDetector = accurate;
+        DetectorWarmup.warmUp(DetectorWarmup.syntheticFrame(WARMUP_FRAME_WIDTH, WARMUP_FRAME_HEIGHT), completion,
+                detector, accurate);
+    }
+
+    /**
+     * 打开识别事件日志；失败时只记录日志，不识别事件照常进行
+     */
+    private void openJournal() {
+        try {
+            journal = RecognitionJournal.open(new File(getFilesDir(), JOURNAL_FILE_NAME), JOURNAL_CAPACITY,
+                    RecognitionJournal.DEFAULT_FLUSH_INTERVAL_MILLIS);
+        } catch (IOException e) {
+            Log.e(TAG, "打开识别事件日志失败", e);
+        }
+    }
+
+    /**
+     * 在注册库线程打开注册库（映射快照 + 回放增量日志）。先注册监听再读取当前版本，
+     * 之后的每次修改都会送达；各版本经UI线程按版本号顺序交给流水线，交出后阶段完成
+     */
+    private void loadFaceGallery(StartupOrchestrator.Completion completion) {
+        Log.d(TAG, "后台线程：开始加载人脸库");
+        EnrollmentStore store = FaceGalleryLoader.openEnrollmentStore(this, new ThumbnailFaceEmbedder(),
+                enrollmentExecutor);
+        if (store != null) {
+            // 运行时增删改后改用线性扫描，直到下次启动重建索引。
+            // 在发布线程取得基线快照的引用，保证送达UI线程前快照不会因压缩而关闭
+            store.setListener(changed -> {
+                Closeable lease = changed.retainBase();
+                runOnUiThread(() -> onFaceGalleryChanged(changed, null, lease));
             });
-        }).start();
+        }
+        EnrollmentGallery gallery = store != null ? store.getGallery() : null;
+        Closeable lease = gallery != null ? gallery.retainBase() : null;
+        EmbeddingIndex index = gallery != null ? FaceGalleryLoader.loadOrBuildIndex(this, gallery) : null;
+        runOnUiThread(() -> {
+            if (isDestroyed()) {
+                closeQuietly(lease);
+                closeEnrollmentStore(store);
+                completion.fail(new IllegalStateException("Activity 已销毁"));
+                return;
+            }
+            enrollmentStore = store;
+            onFaceGalleryChanged(gallery, index, lease);
+            if (store != null) {
+                String importDir = getIntent().getStringExtra(EXTRA_IMPORT_DIR);
+                if (importDir != null) {
+                    startBulkImport(store, new File(importDir));
+                }
+            }
+            if (gallery != null && gallery.size() > 0) {
+                Toast.makeText(MainActivity.this, "加载了 " + gallery.size() + " 个注册用户", Toast.LENGTH_SHORT).show();
+                Log.d(TAG, "人脸库加载完成，共 " + gallery.size() + " 人");
+                for (int i = 0; i < gallery.size(); i++) {
+                    Log.d(TAG, "  - 用户: " + gallery.getName(i));
+                }
+            } else {
+                Toast.makeText(MainActivity.this, "未找到人脸图片", Toast.LENGTH_SHORT).show();
+                Log.w(TAG, "未加载到任何注册用户");
+            }
+            if (store != null) {
+                completion.complete();
+            } else {
+                completion.fail(new IOException("打开注册库失败"));
+            }
+        });
+    }
+
+    /**
+     * 在UI线程切换到新的人脸库版本，早于当前版本的（加载期间已被修改取代）直接丢弃。
+     * Activity 持有当前版本的基线快照引用，流水线另外持有自己的引用，旧版本在比对结束后回收
+     */
+    private void onFaceGalleryChanged(EnrollmentGallery gallery, EmbeddingIndex index, Closeable lease) {
+        if (isDestroyed() || gallery == null
+                || (faceGallery != null && gallery.getVersion() < faceGallery.getVersion())) {
+            closeQuietly(lease);
+            return;
+        }
+        closeQuietly(faceGalleryLease);
+        faceGallery = gallery;
+        faceGalleryLease = lease;
+        galleryIndex = index;
+        if (pipeline != null) {
+            pipeline.setGallery(gallery, index, gallery.retainBase());
+        }
+    }
+
+    /**
+     * 用预热好的检测器组装分析流水线，并交给它当前的人脸库版本
+     */
+    private void createPipeline() {
+        checkNotDestroyed();
+        pipeline = new FaceAnalysisPipeline(fastDetector, accurateDetector);
+        if (fastDetector instanceof FaceDetectorPool) {
+            pipeline.setMaxInFlight(((FaceDetectorPool) fastDetector).size());
+        }
+        int searchParallelism = Runtime.getRuntime().availableProcessors() / 2;
+        if (searchParallelism > 1) {
+            searchExecutor = Executors.newFixedThreadPool(searchParallelism - 1);
+            pipeline.setSearchExecutor(searchExecutor, searchParallelism);
+        }
+        if (faceGallery != null) {
+            pipeline.setGallery(faceGallery, galleryIndex, faceGallery.retainBase());
+        }
+        pipeline.setJournal(journal);
+        // 无人时画面静止，只在有运动或强制间隔到达时检测
+        pipeline.getMotionGate().setEnabled(true);
+        PipelineMetrics metrics = pipeline.getMetrics();
+        faceOverlayView.setMetrics(metrics);
+        metricsOverlayView.setMetrics(metrics);
+
+        // 结果经三缓冲交给叠加层，发布时只请求在下一帧 vsync 重绘
+        faceOverlayView.setResults(pipeline.getResults());
+        pipeline.setListener(result -> {
+            faceOverlayView.onResultPublished();
+            if (!startupTraceFinished) {
+                traceFirstResults(result);
+            }
+        });
     }
 
     /**
-     * 启动摄像头
+     * 摄像头提供者、权限与流水线都就绪后绑定相机，此后的第一帧即可直接检测与识别
      */
-    private void startCamera() {
+    private void bindCamera() {
+        checkNotDestroyed();
         Log.d(TAG, "正在启动摄像头");
-        analyzer = new ImageAnalyzer();
+        // CameraX 帧经适配后送入分析流水线
+        frameSource = new CameraFrameSource();
+        frameSource.start(pipeline);
+        if (getIntent().getBooleanExtra(EXTRA_RECORD_FRAMES, false)) {
+            startFrameRecording();
+        }
+        if (!cameraManager.bindCamera(cameraProvider, this, previewView, frameSource)) {
+            throw new IllegalStateException("摄像头绑定失败");
+        }
+    }
 
-        // 设置帧分析监听器
-        analyzer.setListener((faceCount, faces, width, height) -> {
-            // 更新UI显示人脸检测结果
-            runOnUiThread(() -> {
-                faceOverlayView.updateFaces(faces, width, height);
-            });
+    private void checkNotDestroyed() {
+        if (isDestroyed()) {
+            throw new IllegalStateException("Activity 已销毁");
+        }
+    }
+
+    /**
+     * 在检测回调线程记录首个结果、首张人脸与首次识别出人脸的时刻，识别出人脸后输出启动追踪
+     */
+    private void traceFirstResults(FaceDetectionResult result) {
+        startupTrace.mark(MILESTONE_FIRST_RESULT);
+        if (result.faceCount == 0) {
+            return;
+        }
+        startupTrace.mark(MILESTONE_FIRST_FACE);
+        for (int i = 0; i < result.faceCount; i++) {
+            if (result.getFace(i).name != null) {
+                startupTraceFinished = true;
+                startupTrace.mark(MILESTONE_FIRST_RECOGNIZED_FACE);
+                Log.i(TAG, startupTrace.toReport());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 创建逐帧定位用的快速检测器。多核设备上开启流水线检测：多个 ML Kit 实例在检测线程池上并行，
+     * 检测帧拷贝后立即释放相机帧；核数不足时保持串行（单个检测线程，检测期间持有相机帧）
+     */
+    private FaceDetector createFastDetector(int detectors, ExecutorService executor) {
+        if (detectors <= 1) {
+            return new MlKitFaceDetector(MlKitFaceDetector.Mode.FAST, executor);
+        }
+        Log.d(TAG, "流水线检测，检测器实例数: " + detectors);
+        return new FaceDetectorPool(detectors, () -> new MlKitFaceDetector(MlKitFaceDetector.Mode.FAST, executor));
+    }
+
+    /**
+     * 录制相机帧供离线回放基准使用，文件位于 应用外部存储/recordings/ 下
+     * 启动方式：adb shell am start -n com.example.facerecognitionapp/.MainActivity --ez record_frames true
+     */
+    private void startFrameRecording() {
+        File dir = new File(getExternalFilesDir(null), "recordings");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "无法创建录制目录: " + dir);
+            return;
+        }
+        File file = new File(dir, "frames_" + System.currentTimeMillis() + ".frec");
+        frameSource.startRecording(file);
+        Log.d(TAG, "录制相机帧到 " + file);
+    }
+
+    /**
+     * 把目录中的照片批量导入注册库，检查点位于应用私有目录，中断后再次启动会接着导入
+     * 启动方式：adb shell am start -n com.example.facerecognitionapp/.MainActivity --es import_dir /sdcard/faces
+     */
+    private void startBulkImport(EnrollmentStore store, File dir) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        PhotoEnrollmentProcessor processor = new PhotoEnrollmentProcessor(new ThumbnailFaceEmbedder());
+        BulkEnrollmentImporter importer = new BulkEnrollmentImporter(store, processor, threads, threads * 2);
+        importer.setProgressListener((processed, total) -> {
+            if (processed % 100 == 0 || processed == total) {
+                Log.d(TAG, "批量注册进度 " + processed + "/" + total);
+            }
         });
+        bulkImporter = importer;
+        File checkpoint = new File(getFilesDir(),
+                "import_" + Integer.toHexString(dir.getAbsolutePath().hashCode()) + ".checkpoint");
+        new Thread(() -> {
+            EnrollmentGallery existing = store.getGallery();
+            // 近似重复检测读取导入前的视图，期间压缩不能关闭其快照
+            Closeable existingLease = existing.retainBase();
+            try {
+                importer.setDuplicateDetector(new NearDuplicateDetector(existingLease != null ? existing : null,
+                        store.getDimension(), NearDuplicateDetector.DEFAULT_THRESHOLD));
+                BulkEnrollmentImporter.Report report = importer.importDirectory(dir, checkpoint);
+                runOnUiThread(() -> Toast.makeText(MainActivity.this, "批量注册: " + report,
+                        Toast.LENGTH_LONG).show());
+                if (report.duplicates > 0) {
+                    logDuplicateReport(store);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "批量注册失败", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeQuietly(existingLease);
+                processor.close();
+            }
+        }, "bulk-enrollment").start();
+    }
 
-        cameraManager.startCamera(this, previewView, analyzer);
+    /**
+     * 对整个注册库做一次近似重复分组并写入日志（同一人以多个名字注册等），供人工清理
+     */
+    private static void logDuplicateReport(EnrollmentStore store) {
+        EnrollmentGallery gallery = store.getGallery();
+        Closeable lease = gallery.retainBase();
+        if (lease == null) {
+            return;
+        }
+        try {
+            DuplicateReport report = DuplicateReport.build(gallery, NearDuplicateDetector.DEFAULT_THRESHOLD);
+            Log.w(TAG, "近似重复报告: " + report);
+            for (DuplicateReport.Group group : report.groups) {
+                Log.w(TAG, "  " + group);
+            }
+        } finally {
+            closeQuietly(lease);
+        }
     }
 
     @Override
@@ -110,11 +475,18 @@ public class MainActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
 
         if (requestCode == PermissionManager.CAMERA_PERMISSION_REQUEST_CODE) {
+            StartupOrchestrator.Completion completion = permissionCompletion;
+            permissionCompletion = null;
             if (grantResults.length > 0 && grantResults[0] == android.content.pm.PackageManager.PERMISSION_GRANTED) {
                 Log.d(TAG, "摄像头权限已授予");
-                startCamera();
+                if (completion != null) {
+                    completion.complete();
+                }
             } else {
                 Log.d(TAG, "摄像头权限被拒绝");
+                if (completion != null) {
+                    completion.fail(new SecurityException("摄像头权限被拒绝"));
+                }
             }
         }
     }
@@ -122,11 +494,57 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (analyzer != null) {
-            analyzer.release();
+        if (frameSource != null) {
+            frameSource.stop();
         }
-        // 释放人脸图片资源
-        FaceImageLoader.releaseAll(faceImages);
+        if (pipeline != null) {
+            pipeline.release();
+        } else if (fastDetector != null) {
+            // 启动中途退出：检测器已创建但尚未交给流水线
+            fastDetector.close();
+            accurateDetector.close();
+        }
+        if (startupExecutor != null) {
+            startupExecutor.shutdown();
+        }
+        if (detectionExecutor != null) {
+            detectionExecutor.shutdown();
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
+        }
+        if (bulkImporter != null) {
+            bulkImporter.cancel();
+        }
+        // 关闭后仍在途的检测回调写入的事件被丢弃
+        closeQuietly(journal);
+        // 释放注册库文件句柄
+        closeQuietly(faceGalleryLease);
+        faceGalleryLease = null;
+        closeEnrollmentStore(enrollmentStore);
+        enrollmentExecutor.shutdown();
         cameraManager.stopCamera();
     }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "关闭资源失败", e);
+        }
+    }
+
+    private void closeEnrollmentStore(EnrollmentStore store) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            Log.e(TAG, "关闭注册库失败", e);
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package com.example.facerecognitionapp.camera;
+
+import android.util.Log;
+
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.FrameSource;
+import com.example.facerecognitionapp.replay.FrameRecorder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * CameraX 帧来源：作为 ImageAnalysis 分析器接收 ImageProxy，包装为 Frame 推给监听器
+ * 可选地把每一帧录制到文件，供离线回放基准使用
+ */
+public class CameraFrameSource implements FrameSource, ImageAnalysis.Analyzer {
+    private static final String TAG = "CameraFrameSource";
+    private volatile FrameListener listener;
+    // 复用的帧包装（仅在分析线程绑定，上一帧关闭后 CameraX 才会送来下一帧）
+    private final ImageProxyFrame frame = new ImageProxyFrame();
+
+    // 录制（仅在分析线程访问 recorder）
+    private volatile File recordingFile;
+    private FrameRecorder recorder;
+
+    @Override
+    public void start(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void stop() {
+        this.listener = null;
+        stopRecording();
+    }
+
+    /**
+     * 开始把帧录制到 file（在下一帧到达时创建文件）
+     */
+    public void startRecording(File file) {
+        this.recordingFile = file;
+    }
+
+    /**
+     * 停止录制，文件在分析线程处理下一帧时（或立即，若已无帧）关闭
+     */
+    public void stopRecording() {
+        this.recordingFile = null;
+    }
+
+    @Override
+    public void analyze(ImageProxy image) {
+        frame.bind(image);
+        record(frame);
+
+        FrameListener current = listener;
+        if (current == null) {
+            closeRecorder();
+            image.close();
+            return;
+        }
+        // 帧的所有权交给监听器，由其负责关闭
+        current.onFrame(frame);
+    }
+
+    private void record(Frame frame) {
+        File file = recordingFile;
+        if (file == null) {
+            closeRecorder();
+            return;
+        }
+        try {
+            if (recorder == null) {
+                recorder = new FrameRecorder(file, frame.getWidth(), frame.getHeight(),
+                        frame.getRotationDegrees());
+                Log.d(TAG, "开始录制帧: " + file);
+            }
+            recorder.write(frame);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.e(TAG, "录制帧失败", e);
+            recordingFile = null;
+            closeRecorder();
+        }
+    }
+
+    private void closeRecorder() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+            Log.d(TAG, "录制结束，共 " + recorder.getFrameCount() + " 帧");
+        } catch (IOException e) {
+            Log.e(TAG, "关闭录制文件失败", e);
+        }
+        recorder = null;
+    }
+}
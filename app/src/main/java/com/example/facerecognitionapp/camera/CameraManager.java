@@ -20,11 +20,13 @@ import java.util.concurrent.Executors;
 public class CameraManager {
 
     private static final String TAG = "CameraManager";
+    private ListenableFuture<ProcessCameraProvider> cameraProviderFuture;
     private ProcessCameraProvider cameraProvider; // 摄像头提供者
     private Camera camera;
     private ImageAnalysis imageAnalysis;
     private Context context;
     private CameraInitializationListener initListener;
+    private boolean usingFrontCamera; // 当前是否使用前置摄像头
 
     /**
      * 相机初始化监听器接口
@@ -44,68 +46,91 @@ public class CameraManager {
         this.initListener = listener;
     }
 
+    /**
+     * 提前开始初始化摄像头提供者（连接相机服务、枚举摄像头），可在权限与分析器就绪前调用。
+     * 重复调用返回同一个 future
+     */
+    public ListenableFuture<ProcessCameraProvider> prepareCameraProvider() {
+        if (cameraProviderFuture == null) {
+            cameraProviderFuture = ProcessCameraProvider.getInstance(context);
+        }
+        return cameraProviderFuture;
+    }
+
     /**
      * 启动摄像头
      */
     public void startCamera(LifecycleOwner lifecycleOwner, PreviewView previewView,
                             ImageAnalysis.Analyzer analyzer) {
         // 向系统请求摄像头-异步-等待所有初始化
-        ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
-                ProcessCameraProvider.getInstance(context);
+        ListenableFuture<ProcessCameraProvider> future = prepareCameraProvider();
 
-        cameraProviderFuture.addListener(() -> {
+        future.addListener(() -> {
             try {
                 // 获取CameraProvider实例，拿到摄像头控制权
-                cameraProvider = cameraProviderFuture.get();
-
-                // 配置Preview
-                Preview preview = new Preview.Builder().build();
-                preview.setSurfaceProvider(previewView.getSurfaceProvider()); // 把相机内容挂载到UI
-
-                // 配置ImageAnalysis（用于实时分析每一帧）
-                imageAnalysis = new ImageAnalysis.Builder()
-                        .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST) // 只处理最新帧
-                        .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888) // ML Kit 适配格式
-                        .build();
-//                imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(context), analyzer); // 不要放在主线程可能会影响程序运行
-                imageAnalysis.setAnalyzer(Executors.newSingleThreadExecutor(), analyzer); // 分析器放到后台线程中进行
-
-                // 选择摄像头：优先前置，不可用则使用后置
-                CameraSelector cameraSelector = selectCamera(cameraProvider);
-                if (cameraSelector == null) {
-                    throw new Exception("设备无可用的前置/后置摄像头");
-                }
-
-                // 先清理旧的绑定
-                cameraProvider.unbindAll();
-
-                // 绑定用例到Activity 
-                camera = cameraProvider.bindToLifecycle(
-                        lifecycleOwner,
-                        cameraSelector,
-                        preview,
-                        imageAnalysis
-                );
-
-                Log.d(TAG, "摄像头启动成功");
-                if (initListener != null) {
-                    initListener.onCameraInitialized(true, "摄像头初始化成功");
-                }
-
+                bindCamera(future.get(), lifecycleOwner, previewView, analyzer);
             } catch (ExecutionException | InterruptedException e) {
                 Log.e(TAG, "摄像头启动异常", e);
                 if (initListener != null) {
                     initListener.onCameraInitialized(false, "摄像头启动异常：" + e.getMessage());
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "摄像头启动失败：" + e.getMessage(), e);
-                if (initListener != null) {
-                    initListener.onCameraInitialized(false, "摄像头启动失败：" + e.getMessage());
-                }
             }
         }, ContextCompat.getMainExecutor(context));
     }
 
+    /**
+     * 用已初始化的摄像头提供者绑定预览与分析用例，须在主线程调用；结果同时经初始化监听器通知
+     *
+     * @return 是否绑定成功
+     */
+    public boolean bindCamera(ProcessCameraProvider provider, LifecycleOwner lifecycleOwner, PreviewView previewView,
+                           ImageAnalysis.Analyzer analyzer) {
+        try {
+            cameraProvider = provider;
+
+            // 配置Preview
+            Preview preview = new Preview.Builder().build();
+            preview.setSurfaceProvider(previewView.getSurfaceProvider()); // 把相机内容挂载到UI
+
+            // 配置ImageAnalysis（用于实时分析每一帧）
+            imageAnalysis = new ImageAnalysis.Builder()
+                    .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST) // 只处理最新帧
+                    .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888) // ML Kit 适配格式
+                    .build();
+//            imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(context), analyzer); // 不要放在主线程可能会影响程序运行
+            imageAnalysis.setAnalyzer(Executors.newSingleThreadExecutor(), analyzer); // 分析器放到后台线程中进行
+
+            // 选择摄像头：优先前置，不可用则使用后置
+            CameraSelector cameraSelector = selectCamera(cameraProvider);
+            if (cameraSelector == null) {
+                throw new Exception("设备无可用的前置/后置摄像头");
+            }
+
+            // 先清理旧的绑定
+            cameraProvider.unbindAll();
+
+            // 绑定用例到Activity
+            camera = cameraProvider.bindToLifecycle(
+                    lifecycleOwner,
+                    cameraSelector,
+                    preview,
+                    imageAnalysis
+            );
+
+            Log.d(TAG, "摄像头启动成功");
+            if (initListener != null) {
+                initListener.onCameraInitialized(true, "摄像头初始化成功");
+            }
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "摄像头启动失败：" + e.getMessage(), e);
+            if (initListener != null) {
+                initListener.onCameraInitialized(false, "摄像头启动失败：" + e.getMessage());
+            }
+            return false;
+        }
+    }
+
     /**
      * 选择摄像头：优先前置，不可用则使用后置
      */
@@ -125,9 +150,11 @@ public class CameraManager {
 
             if (hasFront) {
                 Log.d(TAG, "使用前置摄像头");
+                this.usingFrontCamera = true;
                 return frontCamera;
             } else if (hasBack) {
                 Log.i(TAG, "前置摄像头不可用，切换到后置摄像头");
+                this.usingFrontCamera = false;
                 return backCamera;
             } else {
                 Log.e(TAG, "没有可用的摄像头");
@@ -135,6 +162,7 @@ public class CameraManager {
             }
         } catch (Exception e) {
             Log.e(TAG, "摄像头选择失败", e);
+            this.usingFrontCamera = true;
             return frontCamera;
         }
     }
@@ -156,6 +184,13 @@ public class CameraManager {
         return camera;
     }
 
+    /**
+     * 当前绑定的是否为前置摄像头
+     */
+    public boolean isFrontCamera() {
+        return usingFrontCamera;
+    }
+
     /**
      * 获取CameraProvider
      */
@@ -0,0 +1,90 @@
+package com.example.facerecognitionapp.camera;
+
+import androidx.camera.core.ImageProxy;
+
+import com.example.facerecognitionapp.frame.Frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 把 CameraX ImageProxy 适配为 Frame
+ * 同一实例逐帧重新绑定，分析路径上不为每帧分配包装对象；
+ * 仅在上一帧关闭后才能绑定下一帧（STRATEGY_KEEP_ONLY_LATEST 下 CameraX 本身即保证这一点）
+ */
+public class ImageProxyFrame implements Frame {
+    private ImageProxy imageProxy;
+    private PlaneAdapter[] planes = new PlaneAdapter[0];
+
+    /**
+     * 绑定到新的相机帧
+     */
+    void bind(ImageProxy imageProxy) {
+        this.imageProxy = imageProxy;
+        ImageProxy.PlaneProxy[] proxies = imageProxy.getPlanes();
+        if (planes.length != proxies.length) {
+            planes = new PlaneAdapter[proxies.length];
+            for (int i = 0; i < proxies.length; i++) {
+                planes[i] = new PlaneAdapter();
+            }
+        }
+        for (int i = 0; i < proxies.length; i++) {
+            planes[i].proxy = proxies[i];
+        }
+    }
+
+    /**
+     * 获取底层 ImageProxy（ML Kit 适配器直接使用其 media Image）
+     */
+    public ImageProxy getImageProxy() {
+        return imageProxy;
+    }
+
+    @Override
+    public int getWidth() {
+        return imageProxy.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return imageProxy.getHeight();
+    }
+
+    @Override
+    public int getRotationDegrees() {
+        return imageProxy.getImageInfo().getRotationDegrees();
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return imageProxy.getImageInfo().getTimestamp();
+    }
+
+    @Override
+    public Plane getPlane(int index) {
+        return planes[index];
+    }
+
+    @Override
+    public void close() {
+        imageProxy.close();
+    }
+
+    private static class PlaneAdapter implements Plane {
+        ImageProxy.PlaneProxy proxy;
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return proxy.getBuffer();
+        }
+
+        @Override
+        public int getRowStride() {
+            return proxy.getRowStride();
+        }
+
+        @Override
+        public int getPixelStride() {
+            return proxy.getPixelStride();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.facerecognitionapp.detection;
+
+import android.graphics.Rect;
+import android.media.Image;
+import android.util.Log;
+
+import androidx.annotation.OptIn;
+import androidx.camera.core.ExperimentalGetImage;
+
+import com.example.facerecognitionapp.camera.ImageProxyFrame;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.FrameGeometry;
+import com.example.facerecognitionapp.frame.PooledFrame;
+import com.example.facerecognitionapp.frame.YuvCropper;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+import com.google.mlkit.vision.face.FaceLandmark;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 人脸检测器 - 使用Google ML Kit（FaceDetector SPI 的 Android 实现）
+ * 检测与回调都在指定的 executor 上执行（流水线模式下多个实例并行），回调中的跟踪与识别不会占用主线程
+ * FAST 模式只定位人脸（不做关键点/分类），ACCURATE 模式输出全部关键点与分类，供周期性刷新使用
+ */
+public class MlKitFaceDetector implements FaceDetector {
+    private static final String TAG = "MlKitFaceDetector";
+    // 池化拷贝帧整帧直接以 YV12 交给 ML Kit，要求色度行宽按16字节对齐
+    private static final int YV12_WIDTH_ALIGNMENT = 32;
+    // 与 FaceInfo.LANDMARK_* 顺序一致
+    private static final int[] LANDMARK_TYPES = {
+            FaceLandmark.LEFT_EYE, FaceLandmark.RIGHT_EYE, FaceLandmark.NOSE_BASE,
+            FaceLandmark.MOUTH_LEFT, FaceLandmark.MOUTH_RIGHT
+    };
+
+    /**
+     * 检测模式
+     */
+    public enum Mode {
+        FAST,     // 快速模式，无关键点/分类，用于逐帧定位
+        ACCURATE  // 高精度模式，全部关键点 + 分类
+    }
+
+    private final com.google.mlkit.vision.face.FaceDetector detector;
+    private final Executor executor;
+
+    // 裁剪复用的缓冲区及结果对象（单个实例的检测串行进行，上一帧完成前不会被覆盖）
+    private final int[] rawRoi = new int[4];
+    private final int[] fullFrame = new int[4];
+    private byte[] nv21Buffer = new byte[0];
+    private final FaceDetectionResult result = new FaceDetectionResult();
+
+    /**
+     * @param executor 检测及回调所在的线程池（不能是主线程）
+     */
+    public MlKitFaceDetector(Mode mode, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor 不能为null");
+        }
+        this.executor = executor;
+        boolean accurate = mode == Mode.ACCURATE;
+        // 配置人脸检测选项
+        FaceDetectorOptions.Builder builder = new FaceDetectorOptions.Builder()
+                // PERFORMANCE_MODE_ACCURATE/PERFORMANCE_MODE_FAST 高精度/快速模式，高精度对性能不太友好
+                .setPerformanceMode(accurate
+                        ? FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE : FaceDetectorOptions.PERFORMANCE_MODE_FAST)
+                // 关键点与分类只在精确模式下计算
+                .setLandmarkMode(accurate
+                        ? FaceDetectorOptions.LANDMARK_MODE_ALL : FaceDetectorOptions.LANDMARK_MODE_NONE)
+                .setClassificationMode(accurate
+                        ? FaceDetectorOptions.CLASSIFICATION_MODE_ALL : FaceDetectorOptions.CLASSIFICATION_MODE_NONE)
+                .setMinFaceSize(0.15f) // 表示只检测占图像 15% 以上的人脸
+                .setExecutor(executor);
+
+        this.detector = FaceDetection.getClient(builder.build());
+    }
+
+    /**
+     * 处理图像帧进行人脸检测
+     *
+     * @param uprightRoi 正立坐标系下的检测区域 [left, top, right, bottom)（偶数对齐），为null时全帧检测
+     */
+    @Override
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+        try {
+            int rotationDegrees = frame.getRotationDegrees();
+            InputImage image;
+            int offsetX = 0;
+            int offsetY = 0;
+
+            Image mediaImage = frame instanceof ImageProxyFrame
+                    ? ((ImageProxyFrame) frame).getImageProxy().getImage() : null;
+            if (uprightRoi == null && mediaImage != null) {
+                // 创建ML Kit输入图像
+                image = InputImage.fromMediaImage(mediaImage, rotationDegrees);
+            } else if (uprightRoi == null && frame instanceof PooledFrame
+                    && frame.getWidth() % YV12_WIDTH_ALIGNMENT == 0) {
+                // 流水线模式下的整帧拷贝已是紧凑 YV12，无需再转换
+                image = InputImage.fromByteBuffer(((PooledFrame) frame).getYv12Buffer(),
+                        frame.getWidth(), frame.getHeight(), rotationDegrees, InputImage.IMAGE_FORMAT_YV12);
+            } else {
+                // 只把ROI区域（或非相机帧的整帧）的Y/UV平面拷贝给检测器
+                if (uprightRoi == null) {
+                    boolean swap = rotationDegrees == 90 || rotationDegrees == 270;
+                    fullFrame[0] = 0;
+                    fullFrame[1] = 0;
+                    fullFrame[2] = (swap ? frame.getHeight() : frame.getWidth()) & ~1;
+                    fullFrame[3] = (swap ? frame.getWidth() : frame.getHeight()) & ~1;
+                    uprightRoi = fullFrame;
+                }
+                image = cropRoi(frame, uprightRoi, rotationDegrees);
+                offsetX = uprightRoi[0];
+                offsetY = uprightRoi[1];
+            }
+
+            final int resultOffsetX = offsetX;
+            final int resultOffsetY = offsetY;
+            OnSuccessListener<List<Face>> onSuccess = faces -> {
+                fillResult(faces, frame, resultOffsetX, resultOffsetY);
+                callback.onFacesDetected(result);
+            };
+            OnFailureListener onFailure = e -> {
+                Log.e(TAG, "人脸检测失败", e);
+                callback.onDetectionError(e);
+            };
+            // 执行人脸检测
+            Task<List<Face>> task = detector.process(image);
+            task.addOnSuccessListener(executor, onSuccess).addOnFailureListener(executor, onFailure);
+
+        } catch (Exception e) {
+            Log.e(TAG, "处理图像异常", e);
+            callback.onDetectionError(e);
+        }
+    }
+
+    /**
+     * 把 ML Kit 结果转换为与检测器无关的结果（ROI检测时加上偏移换算到整帧正立坐标）
+     */
+    private void fillResult(List<Face> faces, Frame frame, int offsetX, int offsetY) {
+        result.clear();
+        result.imageWidth = frame.getWidth();
+        result.imageHeight = frame.getHeight();
+        result.timestamp = frame.getTimestampNanos();
+        for (int i = 0; i < faces.size(); i++) {
+            Face face = faces.get(i);
+            Rect box = face.getBoundingBox();
+            FaceDetectionResult.FaceInfo info = result.addFace();
+            info.setBoundingBox(box.left + offsetX, box.top + offsetY,
+                    box.right + offsetX, box.bottom + offsetY);
+            info.smileProbability = toProbability(face.getSmilingProbability());
+            info.leftEyeOpenProbability = toProbability(face.getLeftEyeOpenProbability());
+            info.rightEyeOpenProbability = toProbability(face.getRightEyeOpenProbability());
+            info.headEulerAngleX = face.getHeadEulerAngleX();
+            info.headEulerAngleY = face.getHeadEulerAngleY();
+            info.headEulerAngleZ = face.getHeadEulerAngleZ();
+            fillLandmarks(face, info, offsetX, offsetY);
+        }
+    }
+
+    /**
+     * 拷贝五点关键点，任一缺失时视为无关键点
+     */
+    private static void fillLandmarks(Face face, FaceDetectionResult.FaceInfo info, int offsetX, int offsetY) {
+        for (int i = 0; i < LANDMARK_TYPES.length; i++) {
+            FaceLandmark landmark = face.getLandmark(LANDMARK_TYPES[i]);
+            if (landmark == null) {
+                info.hasLandmarks = false;
+                return;
+            }
+            info.landmarks[2 * i] = landmark.getPosition().x + offsetX;
+            info.landmarks[2 * i + 1] = landmark.getPosition().y + offsetY;
+        }
+        info.hasLandmarks = true;
+    }
+
+    private static float toProbability(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+
+    /**
+     * 将正立坐标系ROI换算到传感器坐标系并裁剪为NV21输入图像
+     */
+    private InputImage cropRoi(Frame frame, int[] uprightRoi, int rotationDegrees) {
+        FrameGeometry.uprightToRaw(uprightRoi[0], uprightRoi[1], uprightRoi[2], uprightRoi[3],
+                rotationDegrees, frame.getWidth(), frame.getHeight(), rawRoi);
+        int width = rawRoi[2] - rawRoi[0];
+        int height = rawRoi[3] - rawRoi[1];
+        int size = YuvCropper.nv21Size(width, height);
+        if (nv21Buffer.length < size) {
+            nv21Buffer = new byte[size];
+        }
+
+        Frame.Plane y = frame.getPlane(0);
+        Frame.Plane u = frame.getPlane(1);
+        Frame.Plane v = frame.getPlane(2);
+        YuvCropper.cropToNv21(
+                y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                u.getBuffer(), u.getRowStride(), u.getPixelStride(),
+                v.getBuffer(), v.getRowStride(), v.getPixelStride(),
+                rawRoi[0], rawRoi[1], width, height, nv21Buffer);
+        return InputImage.fromByteArray(nv21Buffer, width, height, rotationDegrees,
+                InputImage.IMAGE_FORMAT_NV21);
+    }
+
+    /**
+     * 释放资源
+     */
+    @Override
+    public void close() {
+        try {
+            detector.close();
+        } catch (Exception e) {
+            Log.e(TAG, "释放检测器失败", e);
+        }
+    }
+}
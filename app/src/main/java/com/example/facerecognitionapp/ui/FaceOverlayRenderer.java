@@ -0,0 +1,158 @@
+package com.example.facerecognitionapp.ui;
+
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+/**
+ * 人脸叠加层绘制逻辑（与 Canvas 解耦，便于在JVM上测试）
+ * 直接读取三缓冲中的结果快照，文本写入复用的 char 缓冲区，概率通过查表格式化，
+ * 稳态下 draw 不产生堆分配
+ */
+public class FaceOverlayRenderer {
+    private static final char[] SMILE = "微笑: ".toCharArray();
+    private static final char[] LEFT_EYE = "左眼: ".toCharArray();
+    private static final char[] RIGHT_EYE = "右眼: ".toCharArray();
+    private static final char[][] PERCENT = new char[101][];
+
+    static {
+        for (int i = 0; i <= 100; i++) {
+            PERCENT[i] = (i + "%").toCharArray();
+        }
+    }
+
+    /**
+     * 绘制目标，由 View 用 Canvas 实现
+     */
+    public interface Target {
+        void drawBox(float left, float top, float right, float bottom);
+
+        void drawText(char[] text, int start, int count, float x, float y);
+    }
+
+    private final OverlayTransform transform = new OverlayTransform();
+    private final float[] rect = new float[4];
+    private char[] text = new char[64];
+    private float textSize = 40f;
+
+    public OverlayTransform getTransform() {
+        return transform;
+    }
+
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+    }
+
+    /**
+     * 绘制一份结果快照（result 为 null 时不绘制）
+     */
+    public void draw(FaceDetectionResult result, Target target) {
+        if (result == null) {
+            return;
+        }
+        transform.setImageSize(result.imageWidth, result.imageHeight, result.rotationDegrees);
+        for (int i = 0; i < result.faceCount; i++) {
+            FaceDetectionResult.FaceInfo face = result.getFace(i);
+            if (!transform.mapRect(face.left, face.top, face.right, face.bottom, rect)) {
+                return;
+            }
+            target.drawBox(rect[0], rect[1], rect[2], rect[3]);
+
+            // 人脸属性
+            int length = buildFaceInfo(face);
+            if (length > 0) {
+                target.drawText(text, 0, length, rect[0], rect[1] - 10);
+            }
+
+            // 轨迹ID与识别结果
+            length = buildLabel(face);
+            target.drawText(text, 0, length, rect[0], rect[3] + textSize);
+        }
+    }
+
+    /**
+     * 构建人脸属性文本，返回写入 text 的字符数
+     */
+    int buildFaceInfo(FaceDetectionResult.FaceInfo face) {
+        int pos = 0;
+        if (!Float.isNaN(face.smileProbability)) {
+            pos = append(SMILE, pos);
+            pos = append(percent(face.smileProbability), pos);
+        }
+        if (!Float.isNaN(face.leftEyeOpenProbability)) {
+            pos = appendSeparator(pos);
+            pos = append(LEFT_EYE, pos);
+            pos = append(percent(face.leftEyeOpenProbability), pos);
+        }
+        if (!Float.isNaN(face.rightEyeOpenProbability)) {
+            pos = appendSeparator(pos);
+            pos = append(RIGHT_EYE, pos);
+            pos = append(percent(face.rightEyeOpenProbability), pos);
+        }
+        return pos;
+    }
+
+    /**
+     * 构建 "#id 姓名" 标签，返回写入 text 的字符数
+     */
+    int buildLabel(FaceDetectionResult.FaceInfo face) {
+        ensureCapacity(12);
+        int pos = 0;
+        text[pos++] = '#';
+        pos = appendInt(face.trackId, pos);
+        if (face.name != null) {
+            String name = face.name;
+            ensureCapacity(pos + 1 + name.length());
+            text[pos++] = ' ';
+            name.getChars(0, name.length(), text, pos);
+            pos += name.length();
+        }
+        return pos;
+    }
+
+    char[] getText() {
+        return text;
+    }
+
+    static char[] percent(float probability) {
+        int value = Math.round(probability * 100f);
+        return PERCENT[Math.max(0, Math.min(100, value))];
+    }
+
+    private int append(char[] chars, int pos) {
+        ensureCapacity(pos + chars.length);
+        System.arraycopy(chars, 0, text, pos, chars.length);
+        return pos + chars.length;
+    }
+
+    private int appendSeparator(int pos) {
+        if (pos == 0) {
+            return 0;
+        }
+        ensureCapacity(pos + 1);
+        text[pos] = ' ';
+        return pos + 1;
+    }
+
+    private int appendInt(int value, int pos) {
+        if (value < 0) {
+            text[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (text.length < capacity) {
+            char[] grown = new char[Math.max(capacity, text.length * 2)];
+            System.arraycopy(text, 0, grown, 0, text.length);
+            text = grown;
+        }
+    }
+}
@@ -4,28 +4,28 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.View;
 
 import androidx.annotation.Nullable;
 
-import com.google.mlkit.vision.face.Face;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.facerecognitionapp.concurrent.TripleBuffer;
+import com.example.facerecognitionapp.metrics.PipelineMetrics;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
 
 /**
  * 人脸检测结果绘制视图
+ * 分析线程发布结果后调用 onResultPublished()，下一次 vsync 绘制时从三缓冲取最新结果；
+ * 两次绘制之间的中间结果被直接覆盖。绘制逻辑见 FaceOverlayRenderer，onDraw 稳态下无堆分配
  */
 public class FaceOverlayView extends View {
-    private List<Face> faces = new ArrayList<>();
+    private final FaceOverlayRenderer renderer = new FaceOverlayRenderer();
+    private final CanvasTarget canvasTarget = new CanvasTarget();
     private Paint boxPaint;
     private Paint textPaint;
-    private int imageWidth = 1;
-    private int imageHeight = 1;
-    private float scaleX = 1.0f;
-    private float scaleY = 1.0f;
+    private PipelineMetrics metrics;
+    private TripleBuffer<FaceDetectionResult> results;
+    private boolean cleared;
 
     public FaceOverlayView(Context context) {
         super(context);
@@ -54,86 +54,93 @@ public class FaceOverlayView extends View {
         textPaint.setColor(Color.GREEN);
         textPaint.setTextSize(40);
         textPaint.setStyle(Paint.Style.FILL);
+        renderer.setTextSize(textPaint.getTextSize());
     }
 
     /**
-     * 更新人脸检测结果
+     * 设置埋点统计，记录每次绘制耗时
      */
-    public void updateFaces(List<Face> detectedFaces, int imageWidth, int imageHeight) {
-        this.faces = detectedFaces;
-        this.imageWidth = imageWidth;
-        this.imageHeight = imageHeight;
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
 
-        // 计算缩放比例
-        this.scaleX = (float) getWidth() / imageWidth;
-        this.scaleY = (float) getHeight() / imageHeight;
+    /**
+     * 设置是否水平镜像（前置摄像头预览为镜像）
+     */
+    public void setMirrored(boolean mirrored) {
+        renderer.getTransform().setMirrored(mirrored);
+        invalidate();
+    }
 
-        postInvalidate();
+    /**
+     * 设置结果来源（读端只在UI线程使用）
+     */
+    public void setResults(TripleBuffer<FaceDetectionResult> results) {
+        this.results = results;
+        invalidate();
+    }
+
+    /**
+     * 有新结果发布（可在任意线程调用），在下一帧 vsync 时重绘
+     */
+    public void onResultPublished() {
+        postInvalidateOnAnimation();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        renderer.getTransform().setViewSize(w, h);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-
-        if (faces == null || faces.isEmpty()) {
-            return;
+        long start = System.nanoTime();
+
+        if (results != null) {
+            if (results.swapIfNew()) {
+                cleared = false;
+                if (metrics != null) {
+                    // 发布 -> 实际绘制的等待时间
+                    metrics.record(PipelineMetrics.Stage.UI_DISPATCH,
+                            start - results.getReadBuffer().publishedNanos);
+                }
+            }
+            if (!cleared) {
+                canvasTarget.canvas = canvas;
+                renderer.draw(results.getReadBuffer(), canvasTarget);
+                canvasTarget.canvas = null;
+            }
         }
 
-        for (Face face : faces) {
-            drawFace(canvas, face);
+        if (metrics != null) {
+            metrics.record(PipelineMetrics.Stage.DRAW, System.nanoTime() - start);
         }
     }
 
     /**
-     * 绘制单个人脸
+     * 清空人脸数据
      */
-    private void drawFace(Canvas canvas, Face face) {
-        Rect boundingBox = face.getBoundingBox();
-
-        // 转换坐标到View坐标系
-        float left = boundingBox.left * scaleX;
-        float top = boundingBox.top * scaleY;
-        float right = boundingBox.right * scaleX;
-        float bottom = boundingBox.bottom * scaleY;
-
-        // 绘制边框
-        canvas.drawRect(left, top, right, bottom, boxPaint);
-
-        // 绘制人脸信息
-        String faceInfo = buildFaceInfo(face);
-        canvas.drawText(faceInfo, left, top - 10, textPaint);
+    public void clearFaces() {
+        cleared = true;
+        invalidate();
     }
 
     /**
-     * 构建人脸信息文本
+     * 把绘制请求转发给当前 Canvas
      */
-    private String buildFaceInfo(Face face) {
-        StringBuilder info = new StringBuilder();
-        // info.append("人脸 ");
-
-        // 微笑概率
-        if (face.getSmilingProbability() != null) {
-            info.append("微笑: ").append(String.format("%.0f%%", face.getSmilingProbability() * 100));
-        }
+    private class CanvasTarget implements FaceOverlayRenderer.Target {
+        Canvas canvas;
 
-        // 左眼睁开概率
-        if (face.getLeftEyeOpenProbability() != null) {
-            info.append("左眼: ").append(String.format("%.0f%%", face.getLeftEyeOpenProbability() * 100));
+        @Override
+        public void drawBox(float left, float top, float right, float bottom) {
+            canvas.drawRect(left, top, right, bottom, boxPaint);
         }
 
-        // 右眼睁开概率
-        if (face.getRightEyeOpenProbability() != null) {
-            info.append(" 右眼: ").append(String.format("%.0f%%", face.getRightEyeOpenProbability() * 100));
+        @Override
+        public void drawText(char[] text, int start, int count, float x, float y) {
+            canvas.drawText(text, start, count, x, y, textPaint);
         }
-
-        return info.toString();
-    }
-
-    /**
-     * 清空人脸数据
-     */
-    public void clearFaces() {
-        this.faces = new ArrayList<>();
-        postInvalidate();
     }
 }
@@ -0,0 +1,107 @@
+package com.example.facerecognitionapp.ui;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.example.facerecognitionapp.metrics.PipelineMetrics;
+
+/**
+ * 调试用流水线统计叠加层，可见时每隔 REFRESH_INTERVAL_MS 刷新一次
+ */
+public class MetricsOverlayView extends View {
+    private static final long REFRESH_INTERVAL_MS = 500;
+
+    private Paint textPaint;
+    private Paint backgroundPaint;
+    private PipelineMetrics metrics;
+    private String[] lines = new String[0];
+
+    private final Runnable refreshTask = new Runnable() {
+        @Override
+        public void run() {
+            if (metrics != null) {
+                lines = metrics.snapshot().toString().split("\n");
+                invalidate();
+            }
+            if (getVisibility() == VISIBLE && isAttachedToWindow()) {
+                postDelayed(this, REFRESH_INTERVAL_MS);
+            }
+        }
+    };
+
+    public MetricsOverlayView(Context context) {
+        super(context);
+        init();
+    }
+
+    public MetricsOverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public MetricsOverlayView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        textPaint = new Paint();
+        textPaint.setColor(Color.YELLOW);
+        textPaint.setTextSize(26);
+        textPaint.setTypeface(Typeface.MONOSPACE);
+
+        backgroundPaint = new Paint();
+        backgroundPaint.setColor(0x99000000);
+    }
+
+    /**
+     * 设置要显示的埋点统计
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 切换显示/隐藏
+     */
+    public void toggle() {
+        setVisibility(getVisibility() == VISIBLE ? GONE : VISIBLE);
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        removeCallbacks(refreshTask);
+        if (visibility == VISIBLE && getVisibility() == VISIBLE) {
+            post(refreshTask);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(refreshTask);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (lines.length == 0) {
+            return;
+        }
+        float lineHeight = textPaint.getTextSize() * 1.2f;
+        canvas.drawRect(0, 0, getWidth(), lineHeight * lines.length + 16, backgroundPaint);
+        float y = lineHeight;
+        for (String line : lines) {
+            canvas.drawText(line, 8, y, textPaint);
+            y += lineHeight;
+        }
+    }
+}
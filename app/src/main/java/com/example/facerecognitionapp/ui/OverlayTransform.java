@@ -0,0 +1,110 @@
+package com.example.facerecognitionapp.ui;
+
+/**
+ * 图像坐标 -> View坐标 的变换（与 PreviewView 默认的 FILL_CENTER 一致）
+ * 输入框为正立图像坐标系；旋转只影响正立尺寸，前置摄像头预览为镜像，需水平翻转。
+ * 仅在尺寸/旋转/镜像变化时重新计算参数，map 过程无分配
+ */
+public class OverlayTransform {
+    private int viewWidth;
+    private int viewHeight;
+    private int imageWidth;
+    private int imageHeight;
+    private int rotationDegrees;
+    private boolean mirrored;
+    private boolean dirty = true;
+
+    private float scale = 1f;
+    private float offsetX;
+    private float offsetY;
+
+    public void setViewSize(int width, int height) {
+        if (width != viewWidth || height != viewHeight) {
+            viewWidth = width;
+            viewHeight = height;
+            dirty = true;
+        }
+    }
+
+    /**
+     * 设置原始（传感器方向）帧尺寸及需要顺时针旋转的角度
+     */
+    public void setImageSize(int width, int height, int rotationDegrees) {
+        if (width != imageWidth || height != imageHeight || rotationDegrees != this.rotationDegrees) {
+            imageWidth = width;
+            imageHeight = height;
+            this.rotationDegrees = rotationDegrees;
+            dirty = true;
+        }
+    }
+
+    public void setMirrored(boolean mirrored) {
+        if (mirrored != this.mirrored) {
+            this.mirrored = mirrored;
+            dirty = true;
+        }
+    }
+
+    public boolean isMirrored() {
+        return mirrored;
+    }
+
+    public int getUprightWidth() {
+        return isSwapped() ? imageHeight : imageWidth;
+    }
+
+    public int getUprightHeight() {
+        return isSwapped() ? imageWidth : imageHeight;
+    }
+
+    public float getScale() {
+        update();
+        return scale;
+    }
+
+    /**
+     * 变换一个正立图像坐标系中的框，结果写入 out[0..3]（保证 left <= right）
+     * 尺寸未知时返回 false
+     */
+    public boolean mapRect(float left, float top, float right, float bottom, float[] out) {
+        update();
+        if (imageWidth <= 0 || imageHeight <= 0 || viewWidth <= 0 || viewHeight <= 0) {
+            return false;
+        }
+        float l = left * scale + offsetX;
+        float r = right * scale + offsetX;
+        if (mirrored) {
+            float mirroredLeft = viewWidth - r;
+            r = viewWidth - l;
+            l = mirroredLeft;
+        }
+        out[0] = l;
+        out[1] = top * scale + offsetY;
+        out[2] = r;
+        out[3] = bottom * scale + offsetY;
+        return true;
+    }
+
+    private boolean isSwapped() {
+        return rotationDegrees == 90 || rotationDegrees == 270;
+    }
+
+    private void update() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        int uprightWidth = getUprightWidth();
+        int uprightHeight = getUprightHeight();
+        if (uprightWidth <= 0 || uprightHeight <= 0) {
+            scale = 1f;
+            offsetX = 0f;
+            offsetY = 0f;
+            return;
+        }
+        // 等比缩放铺满View，居中裁剪
+        scale = Math.max((float) viewWidth / uprightWidth, (float) viewHeight / uprightHeight);
+        offsetX = (viewWidth - uprightWidth * scale) * 0.5f;
+        offsetY = (viewHeight - uprightHeight * scale) * 0.5f;
+    }
+}
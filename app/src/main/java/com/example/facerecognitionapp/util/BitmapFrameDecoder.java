@@ -0,0 +1,44 @@
+package com.example.facerecognitionapp.util;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.example.facerecognitionapp.batch.BatchIdentifier;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 离线批量识别的图片解码：与批量注册相同，先只读尺寸再按2的幂降采样解码，
+ * 转成 I420 帧后立即回收位图，检测器按非相机帧处理
+ */
+public class BitmapFrameDecoder implements BatchIdentifier.ImageDecoder {
+
+    @Override
+    public Frame decode(File image, int targetSize) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(image.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("无法读取图片尺寸: " + image);
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = PhotoEnrollmentProcessor.sampleSize(options.outWidth, options.outHeight, targetSize);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = BitmapFactory.decodeFile(image.getPath(), options);
+        if (bitmap == null) {
+            throw new IOException("解码图片失败: " + image);
+        }
+        try {
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+            int[] pixels = new int[width * height];
+            bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+            return YuvFrame.fromArgb(pixels, width, height);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.facerecognitionapp.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.example.facerecognitionapp.enrollment.EnrollmentGallery;
+import com.example.facerecognitionapp.enrollment.EnrollmentStore;
+import com.example.facerecognitionapp.enrollment.NearDuplicateDetector;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.recognition.BruteForceIndex;
+import com.example.facerecognitionapp.recognition.EmbeddingIndex;
+import com.example.facerecognitionapp.recognition.FaceEmbedder;
+import com.example.facerecognitionapp.recognition.HnswIndex;
+import com.example.facerecognitionapp.recognition.QuantizedIndex;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 人脸库加载器
+ * 人脸库保存在可增删改的注册库（EnrollmentStore）中，启动时映射快照并回放增量日志；
+ * assets/face 中的照片只作为初始数据：仅当其内容或应用版本变化时才解码照片、提取特征并写入注册库
+ */
+public final class FaceGalleryLoader {
+    private static final String TAG = "FaceGalleryLoader";
+    private static final String ENROLLMENT_DIR_NAME = "enrollment";
+    // 记录最近一次导入 assets 时的源指纹
+    private static final String ASSETS_FINGERPRINT_FILE_NAME = "assets.fingerprint";
+    // 旧版本直接由 assets 生成的人脸库文件，已由注册库取代
+    private static final String LEGACY_GALLERY_FILE_NAME = "face_gallery.bin";
+    private static final String INDEX_FILE_NAME = "face_gallery.hnsw";
+    // 人数低于该值时线性扫描已足够快，不建立HNSW索引
+    private static final int HNSW_MIN_GALLERY_SIZE = 256;
+
+    private FaceGalleryLoader() {
+    }
+
+    /**
+     * 打开注册库，assets 有变化时把其中的照片导入（同名覆盖），失败时返回null
+     *
+     * @param compactionExecutor 注册库后台压缩所在线程池
+     */
+    @WorkerThread
+    public static EnrollmentStore openEnrollmentStore(@NonNull Context context, @NonNull FaceEmbedder embedder,
+                                                      @NonNull Executor compactionExecutor) {
+        File dir = new File(context.getFilesDir(), ENROLLMENT_DIR_NAME);
+        EnrollmentStore store;
+        try {
+            store = EnrollmentStore.open(dir, embedder.getDimension(), compactionExecutor);
+        } catch (IOException e) {
+            Log.e(TAG, "打开注册库失败", e);
+            return null;
+        }
+        Log.d(TAG, "打开注册库，共 " + store.getGallery().size() + " 人，回放日志 "
+                + store.getLogRecordCount() + " 条");
+
+        List<String> fileNames = FaceImageLoader.listFaceImageFiles(context);
+        long fingerprint = computeFingerprint(context, fileNames, embedder);
+        File fingerprintFile = new File(dir, ASSETS_FINGERPRINT_FILE_NAME);
+        if (readFingerprint(fingerprintFile) != fingerprint) {
+            try {
+                importAssets(context, embedder, store);
+                writeFingerprint(fingerprintFile, fingerprint);
+            } catch (IOException e) {
+                Log.e(TAG, "导入注册照片失败", e);
+            }
+        }
+        File legacy = new File(context.getFilesDir(), LEGACY_GALLERY_FILE_NAME);
+        if (legacy.exists() && !legacy.delete()) {
+            Log.w(TAG, "删除旧人脸库文件失败: " + legacy);
+        }
+        return store;
+    }
+
+    /**
+     * 为人脸库选择检索索引：小库线性扫描；低内存设备上的大库只把 int8 量化码常驻内存，
+     * 粗排后读映射的原始向量精排；其余大库加载（必要时构建并保存）HNSW索引，
+     * 索引文件以注册库内容版本作为指纹
+     */
+    @WorkerThread
+    public static EmbeddingIndex loadOrBuildIndex(@NonNull Context context, @NonNull EnrollmentGallery gallery) {
+        if (gallery.size() < HNSW_MIN_GALLERY_SIZE) {
+            return new BruteForceIndex(gallery);
+        }
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.isLowRamDevice()) {
+            long start = System.currentTimeMillis();
+            QuantizedIndex index = QuantizedIndex.buildInt8(gallery);
+            Log.d(TAG, "低内存设备，构建int8量化索引耗时 " + (System.currentTimeMillis() - start) + "ms，常驻 "
+                    + index.getMemoryBytes() / 1024 + "KB");
+            return index;
+        }
+
+        File indexFile = new File(context.getFilesDir(), INDEX_FILE_NAME);
+        if (indexFile.exists()) {
+            try {
+                HnswIndex index = HnswIndex.load(indexFile, gallery, gallery.getVersion());
+                if (index.size() == gallery.size()) {
+                    Log.d(TAG, "加载HNSW索引，共 " + index.size() + " 个节点");
+                    return index;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "HNSW索引无效，重新构建", e);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        HnswIndex index = HnswIndex.build(gallery, HnswIndex.DEFAULT_M, HnswIndex.DEFAULT_EF_CONSTRUCTION);
+        Log.d(TAG, "构建HNSW索引耗时 " + (System.currentTimeMillis() - start) + "ms");
+        try {
+            index.save(indexFile, gallery.getVersion());
+        } catch (IOException e) {
+            Log.w(TAG, "保存HNSW索引失败", e);
+        }
+        return index;
+    }
+
+    /**
+     * 逐张解码注册照片，检测最大的人脸并提取特征，按用户名写入注册库；
+     * 与库中或本次已导入的其他用户名近似重复时记录警告（仍然导入）
+     */
+    private static void importAssets(Context context, FaceEmbedder embedder, EnrollmentStore store)
+            throws IOException {
+        FaceDetectorOptions options = new FaceDetectorOptions.Builder()
+                .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE)
+                .build();
+        FaceDetector detector = FaceDetection.getClient(options);
+        EnrollmentGallery existing = store.getGallery();
+        Closeable existingLease = existing.retainBase();
+        NearDuplicateDetector duplicates = new NearDuplicateDetector(existingLease != null ? existing : null,
+                embedder.getDimension(), NearDuplicateDetector.DEFAULT_THRESHOLD);
+
+        IOException[] failure = new IOException[1];
+        int[] imported = new int[1];
+        try {
+            FaceImageLoader.visitFaceImages(context, faceImage -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                float[] embedding = embedLargestFace(detector, embedder, faceImage.inputImage,
+                        faceImage.bitmap, faceImage.userName);
+                if (embedding == null) {
+                    Log.w(TAG, "注册照片中未检测到人脸: " + faceImage.userName);
+                    return;
+                }
+                List<NearDuplicateDetector.Duplicate> found = duplicates.add(faceImage.userName, embedding);
+                if (!found.isEmpty()) {
+                    Log.w(TAG, "疑似重复注册: " + found);
+                }
+                try {
+                    store.put(faceImage.userName, embedding);
+                    imported[0]++;
+                    Log.d(TAG, "注册用户: " + faceImage.userName);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+        } finally {
+            detector.close();
+            if (existingLease != null) {
+                existingLease.close();
+            }
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        Log.d(TAG, "注册照片导入完成，共 " + imported[0] + " 人");
+    }
+
+    /**
+     * 检测照片中面积最大的人脸并提取特征，未检测到人脸时返回null；
+     * 与批量导入（PhotoEnrollmentProcessor）共用
+     */
+    static float[] embedLargestFace(FaceDetector detector, FaceEmbedder embedder, InputImage inputImage,
+                                    Bitmap bitmap, String label) {
+        List<Face> faces;
+        try {
+            faces = Tasks.await(detector.process(inputImage));
+        } catch (Exception e) {
+            Log.e(TAG, "注册照片人脸检测失败: " + label, e);
+            return null;
+        }
+        if (faces == null || faces.isEmpty()) {
+            return null;
+        }
+
+        // 取面积最大的人脸
+        Rect box = faces.get(0).getBoundingBox();
+        for (Face face : faces) {
+            Rect candidate = face.getBoundingBox();
+            if (candidate.width() * candidate.height() > box.width() * box.height()) {
+                box = candidate;
+            }
+        }
+
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+        LumaImage luma = LumaImage.fromArgb(pixels, width, height);
+
+        float[] embedding = new float[embedder.getDimension()];
+        embedder.embed(luma, box.left, box.top, box.right, box.bottom, embedding);
+        return embedding;
+    }
+
+    /**
+     * 源数据指纹：注册文件名 + 应用安装更新时间 + 特征维度
+     * assets随APK打包，APK更新时lastUpdateTime一定变化
+     */
+    private static long computeFingerprint(Context context, List<String> fileNames, FaceEmbedder embedder) {
+        List<String> sorted = new ArrayList<>(fileNames);
+        Collections.sort(sorted);
+        long hash = 1125899906842597L;
+        for (String name : sorted) {
+            hash = 31 * hash + name.hashCode();
+        }
+        try {
+            long updateTime = context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+            hash = 31 * hash + updateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "读取安装信息失败", e);
+        }
+        hash = 31 * hash + embedder.getDimension();
+        return hash;
+    }
+
+    private static long readFingerprint(File file) {
+        if (!file.exists()) {
+            return 0L;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readLong();
+        } catch (IOException e) {
+            Log.w(TAG, "读取注册照片指纹失败", e);
+            return 0L;
+        }
+    }
+
+    private static void writeFingerprint(File file, long fingerprint) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeLong(fingerprint);
+        }
+    }
+}
@@ -24,14 +24,14 @@ public class FaceImageLoader {
     private static final String FACE_PREFIX = "face_";
 
     /**
-     * 人脸图片信息
+     * 人脸图片信息，只在 visitFaceImages 的回调期间有效（回调返回后位图即被回收）
      */
     public static class FaceImage {
-        public String userName;      // 用户名（文件后缀）
-        public InputImage inputImage; // ML Kit输入图像
-        public Bitmap bitmap;         // 原始位图
+        public final String userName;       // 用户名（文件后缀）
+        public final InputImage inputImage; // ML Kit输入图像
+        public final Bitmap bitmap;         // 原始位图
 
-        public FaceImage(String userName, InputImage inputImage, Bitmap bitmap) {
+        private FaceImage(String userName, InputImage inputImage, Bitmap bitmap) {
             this.userName = userName;
             this.inputImage = inputImage;
             this.bitmap = bitmap;
@@ -39,37 +39,48 @@ public class FaceImageLoader {
     }
 
     /**
-     * 从assets加载所有人脸图片
+     * 逐张访问人脸图片的回调
      */
-    public static List<FaceImage> loadAllFaceImages(@NonNull Context context) {
-        List<FaceImage> faceImages = new ArrayList<>();
+    public interface FaceImageVisitor {
+        void onFaceImage(FaceImage faceImage);
+    }
 
+    /**
+     * 列出assets/face目录下所有符合命名规范的文件名
+     */
+    public static List<String> listFaceImageFiles(@NonNull Context context) {
+        List<String> fileNames = new ArrayList<>();
         try {
-            // 获取assets/face目录下的所有文件
             String[] files = context.getAssets().list(FACE_ASSETS_DIR);
-            if (files == null || files.length == 0) {
-                Log.w(TAG, "assets/face目录为空或不存在");
-                return faceImages;
-            }
-
-            for (String fileName : files) {
-                // 检查文件是否符合命名规范：face_xxx
-                if (fileName.startsWith(FACE_PREFIX)) {
-                    FaceImage faceImage = loadFaceImage(context, fileName);
-                    if (faceImage != null) {
-                        faceImages.add(faceImage);
-                        Log.d(TAG, "加载人脸图片: " + fileName + " (用户: " + faceImage.userName + ")");
+            if (files != null) {
+                for (String fileName : files) {
+                    if (fileName.startsWith(FACE_PREFIX)) {
+                        fileNames.add(fileName);
                     }
                 }
             }
-
-            Log.d(TAG, "成功加载 " + faceImages.size() + " 张人脸图片");
-
         } catch (IOException e) {
             Log.e(TAG, "读取assets/face目录失败", e);
         }
+        return fileNames;
+    }
 
-        return faceImages;
+    /**
+     * 逐张加载人脸图片并回调，回调返回后立即回收位图，
+     * 任意时刻只有一张位图驻留在内存中
+     */
+    public static void visitFaceImages(@NonNull Context context, @NonNull FaceImageVisitor visitor) {
+        for (String fileName : listFaceImageFiles(context)) {
+            FaceImage faceImage = loadFaceImage(context, fileName);
+            if (faceImage == null) {
+                continue;
+            }
+            try {
+                visitor.onFaceImage(faceImage);
+            } finally {
+                faceImage.bitmap.recycle();
+            }
+        }
     }
 
     /**
@@ -118,19 +129,4 @@ public class FaceImageLoader {
         
         return withoutPrefix;
     }
-
-    /**
-     * 释放所有图片资源
-     */
-    public static void releaseAll(List<FaceImage> faceImages) {
-        if (faceImages != null) {
-            for (FaceImage faceImage : faceImages) {
-                if (faceImage.bitmap != null) {
-                    faceImage.bitmap.recycle();
-                }
-                // InputImage 不需要手动释放，GC会自动处理
-            }
-            faceImages.clear();
-        }
-    }
 }
@@ -0,0 +1,82 @@
+package com.example.facerecognitionapp.util;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+
+import com.example.facerecognitionapp.enrollment.BulkEnrollmentImporter;
+import com.example.facerecognitionapp.recognition.FaceEmbedder;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 批量注册的单张照片处理：先只读尺寸，按检测所需的分辨率以2的幂降采样解码，
+ * 检测最大人脸并提取特征后立即回收位图。ML Kit 检测器线程安全，各工作线程共用一个实例
+ */
+public class PhotoEnrollmentProcessor implements BulkEnrollmentImporter.PhotoProcessor, Closeable {
+    // 解码后长边不低于该值：注册照片中的人脸通常占画面较大比例，足够检测与提取特征
+    public static final int DEFAULT_TARGET_SIZE = 640;
+
+    private final FaceEmbedder embedder;
+    private final FaceDetector detector;
+    private final int targetSize;
+
+    public PhotoEnrollmentProcessor(@NonNull FaceEmbedder embedder) {
+        this(embedder, DEFAULT_TARGET_SIZE);
+    }
+
+    public PhotoEnrollmentProcessor(@NonNull FaceEmbedder embedder, int targetSize) {
+        this.embedder = embedder;
+        this.targetSize = targetSize;
+        FaceDetectorOptions options = new FaceDetectorOptions.Builder()
+                .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE)
+                .build();
+        this.detector = FaceDetection.getClient(options);
+    }
+
+    @Override
+    public float[] process(File photo) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(photo.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("无法读取图片尺寸: " + photo);
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, targetSize);
+        Bitmap bitmap = BitmapFactory.decodeFile(photo.getPath(), options);
+        if (bitmap == null) {
+            throw new IOException("解码图片失败: " + photo);
+        }
+        try {
+            InputImage inputImage = InputImage.fromBitmap(bitmap, 0);
+            return FaceGalleryLoader.embedLargestFace(detector, embedder, inputImage, bitmap, photo.getName());
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * 解码降采样倍数：2的幂，且降采样后长边不小于 targetSize
+     */
+    static int sampleSize(int width, int height, int targetSize) {
+        int longSide = Math.max(width, height);
+        int sampleSize = 1;
+        while (longSide / (sampleSize * 2) >= targetSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @Override
+    public void close() {
+        detector.close();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.facerecognitionapp.ui;
+
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class FaceOverlayRendererTest {
+
+    @Test
+    public void transform_fillsCenterWithRotationAndMirror() {
+        OverlayTransform transform = new OverlayTransform();
+        transform.setViewSize(1080, 1920);
+        // 640x480 传感器帧旋转90度后为 480x640，等比放大 3 倍后宽 1440，左右各裁 180
+        transform.setImageSize(640, 480, 90);
+        assertEquals(480, transform.getUprightWidth());
+        assertEquals(640, transform.getUprightHeight());
+        assertEquals(3f, transform.getScale(), 1e-6f);
+
+        float[] out = new float[4];
+        assertTrue(transform.mapRect(100, 200, 200, 300, out));
+        assertArrayEquals(new float[]{120, 600, 420, 900}, out, 1e-3f);
+
+        transform.setMirrored(true);
+        assertTrue(transform.mapRect(100, 200, 200, 300, out));
+        assertArrayEquals(new float[]{1080 - 420, 600, 1080 - 120, 900}, out, 1e-3f);
+
+        transform.setViewSize(0, 0);
+        assertFalse(transform.mapRect(100, 200, 200, 300, out));
+    }
+
+    @Test
+    public void buildsTextWithoutFormat() {
+        FaceOverlayRenderer renderer = new FaceOverlayRenderer();
+        FaceDetectionResult.FaceInfo face = new FaceDetectionResult.FaceInfo();
+        face.trackId = 12;
+        face.smileProbability = 0.804f;
+        face.rightEyeOpenProbability = 1f;
+        int length = renderer.buildFaceInfo(face);
+        assertEquals("微笑: 80% 右眼: 100%", new String(renderer.getText(), 0, length));
+
+        face.smileProbability = Float.NaN;
+        length = renderer.buildFaceInfo(face);
+        assertEquals("右眼: 100%", new String(renderer.getText(), 0, length));
+
+        length = renderer.buildLabel(face);
+        assertEquals("#12", new String(renderer.getText(), 0, length));
+        face.name = "alice";
+        length = renderer.buildLabel(face);
+        assertEquals("#12 alice", new String(renderer.getText(), 0, length));
+    }
+
+    @Test
+    public void steadyStateDrawDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        FaceDetectionResult result = new FaceDetectionResult();
+        result.imageWidth = 640;
+        result.imageHeight = 480;
+        result.rotationDegrees = 270;
+        for (int i = 0; i < 5; i++) {
+            FaceDetectionResult.FaceInfo face = result.addFace();
+            face.setBoundingBox(i * 100, 50, i * 100 + 80, 150);
+            face.trackId = 100 + i;
+            face.smileProbability = i * 0.2f;
+            face.leftEyeOpenProbability = 0.5f;
+            face.rightEyeOpenProbability = 0.9f;
+            face.name = "user_" + i;
+        }
+        FaceOverlayRenderer renderer = new FaceOverlayRenderer();
+        renderer.getTransform().setViewSize(1080, 1920);
+        renderer.getTransform().setMirrored(true);
+        CountingTarget target = new CountingTarget();
+
+        // 预热：文本缓冲区扩容、JIT
+        for (int i = 0; i < 20_000; i++) {
+            renderer.draw(result, target);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            renderer.draw(result, target);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(target.boxes > 0 && target.chars > 0);
+        // 允许测量本身的少量噪声
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static class CountingTarget implements FaceOverlayRenderer.Target {
+        long boxes;
+        long chars;
+
+        @Override
+        public void drawBox(float left, float top, float right, float bottom) {
+            boxes++;
+        }
+
+        @Override
+        public void drawText(char[] text, int start, int count, float x, float y) {
+            chars += count;
+        }
+    }
+}
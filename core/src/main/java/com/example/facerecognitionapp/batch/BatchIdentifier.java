@@ -0,0 +1,431 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.enrollment.BulkEnrollmentImporter;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.example.facerecognitionapp.recognition.FaceEmbedder;
+import com.example.facerecognitionapp.recognition.FaceRecognizer;
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 离线批量 1:N 识别：遍历目录中的图片，检测每张图片中的所有人脸并与人脸库比对，结果流式写出
+ * <p>
+ * 检测、特征提取与比对与实时流水线相同（FaceDetector + FaceRecognizer.recognizeBatch），
+ * 只是帧来自解码后的图片。图片列表按 fork/join 二分切成小段，由 ForkJoinPool 工作窃取均衡负载，
+ * 人脸多、分辨率高的图片不会拖住某一个线程。
+ * <p>
+ * 每个并行度对应一个 Worker（检测器 + 识别器 + 复用的缓冲区），任务处理一张图片前取得一个 Worker，
+ * 同时解码/检测中的图片不超过 Worker 数，峰值内存与图片总数无关；结果写出后即丢弃。
+ * 检测器为异步接口时，等待回调经 ForkJoinPool.managedBlock 阻塞，线程池可临时补偿线程，不会饿死
+ */
+public class BatchIdentifier {
+    private static final String TAG = "BatchIdentifier";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    // 解码目标尺寸：长边降采样到不低于该值，与批量注册一致
+    public static final int DEFAULT_TARGET_SIZE = 640;
+    // 叶子任务处理的图片数：足够小以便窃取均衡负载，足够大以摊薄任务开销
+    private static final int LEAF_SIZE = 4;
+
+    /**
+     * 图片解码器：按 targetSize 降采样（如 2 的幂次采样，长边不低于 targetSize）后转为帧。
+     * 在工作线程并发调用，实现须线程安全
+     */
+    public interface ImageDecoder {
+        /**
+         * @return 正立的帧，由调用方 close
+         * @throws IOException 图片无法读取或解码
+         */
+        Frame decode(File image, int targetSize) throws IOException;
+    }
+
+    /**
+     * 进度监听器，在工作线程回调
+     */
+    public interface ProgressListener {
+        void onProgress(int processed, int total);
+    }
+
+    /**
+     * 批量识别统计
+     */
+    public static class Report {
+        public final int total;      // 目录中的图片数
+        public final int processed;  // 已处理的图片数
+        public final int faces;      // 检测到的人脸数
+        public final int matched;    // 识别出身份的人脸数
+        public final int noFace;     // 未检测到人脸的图片数
+        public final int failed;     // 解码或检测失败的图片数
+        public final boolean completed; // false 表示被取消或写出失败而中断
+        public final long elapsedNanos;
+
+        Report(int total, int processed, int faces, int matched, int noFace, int failed, boolean completed,
+               long elapsedNanos) {
+            this.total = total;
+            this.processed = processed;
+            this.faces = faces;
+            this.matched = matched;
+            this.noFace = noFace;
+            this.failed = failed;
+            this.completed = completed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format(Locale.US,
+                    "total %d processed %d faces %d matched %d noFace %d failed %d%s in %.1fs (%.1f images/s)",
+                    total, processed, faces, matched, noFace, failed, completed ? "" : " (interrupted)",
+                    seconds, seconds > 0 ? processed / seconds : 0.0);
+        }
+    }
+
+    private final NamedVectorStore gallery;
+    private final ImageDecoder decoder;
+    private final Supplier<? extends FaceDetector> detectorFactory;
+    private final Supplier<? extends FaceEmbedder> embedderFactory;
+    private final int parallelism;
+    private int targetSize = DEFAULT_TARGET_SIZE;
+    private float matchThreshold = FaceRecognizer.DEFAULT_MATCH_THRESHOLD;
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    /**
+     * @param detectorFactory 每个 Worker 调用一次；检测器只在持有该 Worker 的线程上使用
+     * @param embedderFactory 每个 Worker 调用一次，特征提取器可以有状态（如复用的输入张量）
+     * @param parallelism     并行度（线程数与 Worker 数）
+     */
+    public BatchIdentifier(NamedVectorStore gallery, ImageDecoder decoder,
+                           Supplier<? extends FaceDetector> detectorFactory,
+                           Supplier<? extends FaceEmbedder> embedderFactory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism 必须大于0");
+        }
+        this.gallery = gallery;
+        this.decoder = decoder;
+        this.detectorFactory = detectorFactory;
+        this.embedderFactory = embedderFactory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 设置解码目标尺寸（像素）
+     */
+    public void setTargetSize(int targetSize) {
+        this.targetSize = Math.max(1, targetSize);
+    }
+
+    /**
+     * 设置匹配阈值（余弦相似度）
+     */
+    public void setMatchThreshold(float matchThreshold) {
+        this.matchThreshold = matchThreshold;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * 请求停止：不再开始新图片，已在处理的图片完成后 identifyDirectory 返回
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 识别目录（含子目录）中的所有图片，结果按完成顺序写出。
+     * 不关闭 writer，返回前 flush
+     *
+     * @throws IOException 写出结果失败
+     */
+    public Report identifyDirectory(File dir, ResultWriter writer) throws IOException {
+        return identify(dir, BulkEnrollmentImporter.listPhotos(dir), writer);
+    }
+
+    /**
+     * 识别给定的图片
+     *
+     * @param images 相对 dir 的路径
+     */
+    public Report identify(File dir, List<String> images, ResultWriter writer) throws IOException {
+        long start = System.nanoTime();
+        cancelled = false;
+        Run run = new Run(dir, images, writer);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                run.workers.add(new Worker(detectorFactory.get(), embedderFactory.get()));
+            }
+            pool.invoke(run.new Split(0, images.size()));
+        } finally {
+            pool.shutdown();
+            for (Worker worker : run.workers) {
+                worker.detector.close();
+            }
+        }
+        if (run.writeError != null) {
+            throw run.writeError;
+        }
+        writer.flush();
+        Report report = new Report(images.size(), run.processed.get(), run.faces.get(), run.matched.get(),
+                run.noFace.get(), run.failed.get(), !cancelled && run.processed.get() == images.size(),
+                System.nanoTime() - start);
+        LOG.info("批量识别完成: " + report);
+        return report;
+    }
+
+    /**
+     * 一次批量识别的状态
+     */
+    private final class Run {
+        final File dir;
+        final List<String> images;
+        final ResultWriter writer;
+        final BlockingQueue<Worker> workers = new ArrayBlockingQueue<>(parallelism);
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger faces = new AtomicInteger();
+        final AtomicInteger matched = new AtomicInteger();
+        final AtomicInteger noFace = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        // 首个写出错误，由 writer 锁保护
+        IOException writeError;
+
+        Run(File dir, List<String> images, ResultWriter writer) {
+            this.dir = dir;
+            this.images = images;
+            this.writer = writer;
+        }
+
+        /**
+         * 二分图片区间，叶子区间顺序处理
+         */
+        final class Split extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            Split(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > LEAF_SIZE) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new Split(from, mid), new Split(mid, to));
+                    return;
+                }
+                for (int i = from; i < to && !cancelled; i++) {
+                    Worker worker = acquire();
+                    if (worker == null) {
+                        return;
+                    }
+                    try {
+                        process(images.get(i), worker);
+                    } finally {
+                        workers.add(worker);
+                    }
+                }
+            }
+        }
+
+        private Worker acquire() {
+            WorkerBlocker blocker = new WorkerBlocker(workers);
+            try {
+                ForkJoinPool.managedBlock(blocker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+                return null;
+            }
+            return blocker.worker;
+        }
+
+        private void process(String path, Worker worker) {
+            Frame frame;
+            try {
+                frame = decoder.decode(new File(dir, path), targetSize);
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "图片解码失败: " + path, e);
+                failed.incrementAndGet();
+                write(path, ResultWriter.Status.FAILED, 0, worker);
+                return;
+            }
+            try {
+                worker.detect(frame);
+                int count = worker.faceCount;
+                if (count == 0) {
+                    noFace.incrementAndGet();
+                    write(path, ResultWriter.Status.NO_FACE, 0, worker);
+                    return;
+                }
+                Frame.Plane y = frame.getPlane(0);
+                worker.luma.set(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                        frame.getWidth(), frame.getHeight(), frame.getRotationDegrees());
+                worker.recognizer.recognizeBatch(worker.luma, worker.boxes, count, worker.matches);
+                int recognized = 0;
+                for (int i = 0; i < count; i++) {
+                    if (worker.matches[i] != null) {
+                        recognized++;
+                    }
+                }
+                faces.addAndGet(count);
+                matched.addAndGet(recognized);
+                write(path, ResultWriter.Status.OK, count, worker);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "人脸检测失败: " + path, e);
+                failed.incrementAndGet();
+                write(path, ResultWriter.Status.FAILED, 0, worker);
+            } finally {
+                frame.close();
+            }
+        }
+
+        private void write(String path, ResultWriter.Status status, int count, Worker worker) {
+            synchronized (writer) {
+                if (writeError != null) {
+                    return;
+                }
+                try {
+                    writer.write(path, status, count, worker.boxes, worker.matches);
+                } catch (IOException e) {
+                    LOG.log(Level.SEVERE, "写出识别结果失败", e);
+                    writeError = e;
+                    cancelled = true;
+                    return;
+                }
+            }
+            int done = processed.incrementAndGet();
+            ProgressListener listener = progressListener;
+            if (listener != null) {
+                listener.onProgress(done, images.size());
+            }
+        }
+    }
+
+    /**
+     * 从空闲队列取 Worker；取不到时经 managedBlock 阻塞
+     */
+    private static final class WorkerBlocker implements ForkJoinPool.ManagedBlocker {
+        private final BlockingQueue<Worker> queue;
+        Worker worker;
+
+        WorkerBlocker(BlockingQueue<Worker> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (worker == null) {
+                worker = queue.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return worker != null || (worker = queue.poll()) != null;
+        }
+    }
+
+    /**
+     * 一路处理能力：检测器、识别器与复用的缓冲区，同一时刻只被一个任务持有。
+     * 同时作为检测回调，在回调中拷贝人脸框（结果仅在回调期间有效）
+     */
+    private final class Worker implements FaceDetector.Callback, ForkJoinPool.ManagedBlocker {
+        final FaceDetector detector;
+        final FaceRecognizer recognizer;
+        final LumaImage luma = new LumaImage();
+        float[] boxes = new float[16];
+        GalleryMatch[] matches = new GalleryMatch[4];
+        int faceCount;
+        // 以下由 this 锁保护
+        private boolean done;
+        private Exception error;
+
+        Worker(FaceDetector detector, FaceEmbedder embedder) {
+            this.detector = detector;
+            this.recognizer = new FaceRecognizer(embedder);
+            recognizer.setMatchThreshold(matchThreshold);
+            recognizer.setGallery(gallery);
+        }
+
+        /**
+         * 全帧检测并等待回调，结果在 faceCount/boxes 中
+         */
+        void detect(Frame frame) throws Exception {
+            synchronized (this) {
+                done = false;
+                error = null;
+            }
+            faceCount = 0;
+            detector.detect(frame, null, this);
+            ForkJoinPool.managedBlock(this);
+            synchronized (this) {
+                if (error != null) {
+                    throw error;
+                }
+            }
+        }
+
+        @Override
+        public void onFacesDetected(FaceDetectionResult result) {
+            int count = result.faceCount;
+            if (boxes.length < count * 4) {
+                boxes = new float[count * 4];
+                matches = new GalleryMatch[count];
+            }
+            for (int i = 0; i < count; i++) {
+                FaceDetectionResult.FaceInfo face = result.getFace(i);
+                boxes[i * 4] = face.left;
+                boxes[i * 4 + 1] = face.top;
+                boxes[i * 4 + 2] = face.right;
+                boxes[i * 4 + 3] = face.bottom;
+            }
+            synchronized (this) {
+                faceCount = count;
+                done = true;
+                notifyAll();
+            }
+        }
+
+        @Override
+        public synchronized void onDetectionError(Exception e) {
+            error = e;
+            done = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized boolean block() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isReleasable() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 紧凑的二进制输出（DataOutput，大端序），供对账程序直接读取：
+ * <pre>
+ * [header]  magic(int), version(int)
+ * [images]  path(UTF), status(byte), faceCount(int),
+ *           faceCount x { left, top, right, bottom (float), galleryIndex(int), score(float), identity(UTF，未识别为空) }
+ * </pre>
+ */
+public class BinaryResultWriter implements ResultWriter {
+    static final int MAGIC = 0x46424952; // "FBIR"
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+
+    /**
+     * 读取回调，boxes/galleryIndices/scores/identities 仅在回调期间有效
+     */
+    public interface RecordVisitor {
+        void onImage(String path, Status status, int faceCount, float[] boxes, int[] galleryIndices,
+                     float[] scores, String[] identities);
+    }
+
+    public BinaryResultWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    @Override
+    public void write(String path, Status status, int faceCount, float[] boxes, GalleryMatch[] matches)
+            throws IOException {
+        out.writeUTF(path);
+        out.writeByte(status.ordinal());
+        out.writeInt(faceCount);
+        for (int i = 0; i < faceCount; i++) {
+            for (int j = 0; j < 4; j++) {
+                out.writeFloat(boxes[i * 4 + j]);
+            }
+            GalleryMatch match = matches[i];
+            out.writeInt(match != null ? match.index : -1);
+            out.writeFloat(match != null ? match.score : Float.NaN);
+            out.writeUTF(match != null ? match.name : "");
+        }
+    }
+
+    /**
+     * 逐张读取二进制结果，返回图片数
+     */
+    public static int read(InputStream in, RecordVisitor visitor) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("不是有效的批量识别结果文件");
+        }
+        if (data.readInt() != VERSION) {
+            throw new IOException("不支持的批量识别结果版本");
+        }
+        Status[] statuses = Status.values();
+        float[] boxes = new float[16];
+        int[] indices = new int[4];
+        float[] scores = new float[4];
+        String[] identities = new String[4];
+        int images = 0;
+        while (true) {
+            String path;
+            try {
+                path = data.readUTF();
+            } catch (EOFException e) {
+                return images;
+            }
+            Status status = statuses[data.readUnsignedByte()];
+            int faceCount = data.readInt();
+            if (indices.length < faceCount) {
+                boxes = new float[faceCount * 4];
+                indices = new int[faceCount];
+                scores = new float[faceCount];
+                identities = new String[faceCount];
+            }
+            for (int i = 0; i < faceCount; i++) {
+                for (int j = 0; j < 4; j++) {
+                    boxes[i * 4 + j] = data.readFloat();
+                }
+                indices[i] = data.readInt();
+                scores[i] = data.readFloat();
+                String identity = data.readUTF();
+                identities[i] = identity.isEmpty() ? null : identity;
+            }
+            visitor.onImage(path, status, faceCount, boxes, indices, scores, identities);
+            images++;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
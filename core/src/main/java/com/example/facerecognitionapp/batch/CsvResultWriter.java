@@ -0,0 +1,84 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * CSV 输出（UTF-8），每张人脸一行，无人脸或失败的图片各一行（face 列为 -1）：
+ * <pre>
+ * path,face,left,top,right,bottom,identity,gallery_index,score,status
+ * </pre>
+ * 未识别的人脸 identity 为空、gallery_index 为 -1
+ */
+public class CsvResultWriter implements ResultWriter {
+    static final String HEADER = "path,face,left,top,right,bottom,identity,gallery_index,score,status";
+
+    private final Writer out;
+
+    public CsvResultWriter(OutputStream out) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.out.write(HEADER);
+        this.out.write('\n');
+    }
+
+    @Override
+    public void write(String path, Status status, int faceCount, float[] boxes, GalleryMatch[] matches)
+            throws IOException {
+        if (status != Status.OK || faceCount == 0) {
+            writeField(path);
+            out.write(",-1,,,,,,-1,,");
+            out.write(status.name());
+            out.write('\n');
+            return;
+        }
+        for (int i = 0; i < faceCount; i++) {
+            GalleryMatch match = matches[i];
+            writeField(path);
+            out.write(String.format(Locale.US, ",%d,%.1f,%.1f,%.1f,%.1f,", i,
+                    boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]));
+            if (match != null) {
+                writeField(match.name);
+                out.write(String.format(Locale.US, ",%d,%.4f,", match.index, match.score));
+            } else {
+                out.write(",-1,,");
+            }
+            out.write(status.name());
+            out.write('\n');
+        }
+    }
+
+    /**
+     * 含逗号、引号或换行的字段加引号，引号转义为两个引号
+     */
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
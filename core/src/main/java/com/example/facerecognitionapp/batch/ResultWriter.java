@@ -0,0 +1,31 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 批量识别结果的输出。BatchIdentifier 串行调用 write（持有自身的锁），实现无需线程安全
+ */
+public interface ResultWriter extends Closeable {
+
+    /**
+     * 单张图片的处理结果
+     */
+    enum Status {
+        OK,       // 检测到人脸（逐张给出比对结果）
+        NO_FACE,  // 未检测到人脸
+        FAILED    // 解码或检测失败
+    }
+
+    /**
+     * 写出一张图片的结果
+     *
+     * @param boxes   前 faceCount 个人脸框 [left, top, right, bottom]，坐标为解码后（降采样）图像的像素
+     * @param matches 前 faceCount 个比对结果，未识别为null
+     */
+    void write(String path, Status status, int faceCount, float[] boxes, GalleryMatch[] matches) throws IOException;
+
+    void flush() throws IOException;
+}
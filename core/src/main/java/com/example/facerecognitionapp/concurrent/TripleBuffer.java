@@ -0,0 +1,59 @@
+package com.example.facerecognitionapp.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 无锁三缓冲：单写者写入后台缓冲区并发布，单读者随时取最新一份完整数据
+ * 写者与读者各自独占一个缓冲区，中间缓冲区通过一次原子交换传递；
+ * 读者来不及读取的中间结果直接被下一次发布覆盖，全程无锁、无分配
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0x3;
+    private static final int DIRTY = 0x4; // 中间缓冲区有读者尚未取走的新数据
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int writeIndex = 0; // 仅写者访问
+    private int readIndex = 2;  // 仅读者访问
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * 写者：获取当前可写的缓冲区
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    /**
+     * 写者：发布已写完的缓冲区，并换到一个空闲缓冲区继续写
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | DIRTY) & INDEX_MASK;
+    }
+
+    /**
+     * 读者：若有新发布的数据则换入，返回是否换入了新数据
+     */
+    public boolean swapIfNew() {
+        if ((middle.get() & DIRTY) == 0) {
+            return false;
+        }
+        readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * 读者：获取当前读缓冲区（最近一次 swapIfNew 换入的数据）
+     */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        return (T) buffers[readIndex];
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.facerecognitionapp.detection;
+
+/**
+ * 自适应检测调度器
+ * 在滑动窗口内统计检测器往返耗时，逐帧决定：完整检测、仅跟踪（复用/预测上次结果）或丢帧。
+ * <ul>
+ *   <li>CPU预算：每个检测器实例占用的墙钟时间比例不超过 cpuBudget，
+ *   即两次检测间隔 >= 平均耗时 / (cpuBudget * parallelism)，parallelism 为可并行检测的实例数</li>
+ *   <li>结果帧率：两次检测之间按 targetResultFps 输出跟踪结果，保证叠加层刷新稳定</li>
+ * </ul>
+ * decide 在分析线程调用，onDetectionFinished 在检测回调线程调用，两者通过对象锁同步
+ */
+public class DetectionScheduler {
+    public static final float DEFAULT_TARGET_RESULT_FPS = 30f;
+    public static final float DEFAULT_CPU_BUDGET = 0.5f;
+    public static final int DEFAULT_WINDOW_SIZE = 16;
+
+    /**
+     * 单帧调度决策
+     */
+    public enum Decision {
+        DETECT,  // 运行完整检测
+        TRACK,   // 仅跟踪，输出预测结果
+        DROP     // 直接丢弃
+    }
+
+    private final long[] latencyWindow;
+    private int latencyCount;
+    private int latencyCursor;
+    private long latencySum;
+
+    private float targetResultFps = DEFAULT_TARGET_RESULT_FPS;
+    private float cpuBudget = DEFAULT_CPU_BUDGET;
+    private int parallelism = 1;
+
+    // 下一次允许检测/输出结果的时间点，按理想时间轴累加以抵消帧间隔量化误差
+    private long nextDetectNanos = Long.MIN_VALUE;
+    private long nextResultNanos = Long.MIN_VALUE;
+
+    private long detectCount;
+    private long trackCount;
+    private long dropCount;
+
+    public DetectionScheduler() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    public DetectionScheduler(int windowSize) {
+        this.latencyWindow = new long[Math.max(1, windowSize)];
+    }
+
+    /**
+     * 设置目标结果帧率（检测 + 跟踪输出的总频率）
+     */
+    public synchronized void setTargetResultFps(float targetResultFps) {
+        this.targetResultFps = Math.max(1f, targetResultFps);
+    }
+
+    /**
+     * 设置检测器可占用的CPU时间比例（0-1]
+     */
+    public synchronized void setCpuBudget(float cpuBudget) {
+        this.cpuBudget = Math.min(1f, Math.max(0.01f, cpuBudget));
+    }
+
+    /**
+     * 设置可同时进行的检测数（流水线模式下的检测器实例数），默认1
+     */
+    public synchronized void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 按CPU预算与并行度允许的最小检测间隔
+     */
+    private long budgetIntervalNanos() {
+        return (long) (getAverageLatencyNanos() / (cpuBudget * parallelism));
+    }
+
+    /**
+     * 对当前帧做出调度决策
+     */
+    public synchronized Decision decide(long nowNanos) {
+        long resultIntervalNanos = (long) (1_000_000_000L / targetResultFps);
+        long detectIntervalNanos = Math.max(resultIntervalNanos, budgetIntervalNanos());
+
+        Decision decision;
+        if (nowNanos >= nextDetectNanos) {
+            decision = Decision.DETECT;
+            detectCount++;
+            nextDetectNanos = advance(nextDetectNanos, detectIntervalNanos, nowNanos);
+            nextResultNanos = advance(nextResultNanos, resultIntervalNanos, nowNanos);
+        } else if (nowNanos >= nextResultNanos) {
+            decision = Decision.TRACK;
+            trackCount++;
+            nextResultNanos = advance(nextResultNanos, resultIntervalNanos, nowNanos);
+        } else {
+            decision = Decision.DROP;
+            dropCount++;
+        }
+        return decision;
+    }
+
+    /**
+     * 检测完成（成功或失败）时调用，startNanos 为对应帧 decide 时传入的时间
+     */
+    public synchronized void onDetectionFinished(long startNanos, long endNanos) {
+        long latency = Math.max(0L, endNanos - startNanos);
+        if (latencyCount == latencyWindow.length) {
+            latencySum -= latencyWindow[latencyCursor];
+        } else {
+            latencyCount++;
+        }
+        latencyWindow[latencyCursor] = latency;
+        latencySum += latency;
+        latencyCursor = (latencyCursor + 1) % latencyWindow.length;
+
+        // 用最新耗时修正下一次检测时间，慢帧立即生效而不是等到下一次 decide
+        long budgetInterval = budgetIntervalNanos();
+        if (nextDetectNanos != Long.MIN_VALUE) {
+            nextDetectNanos = Math.max(nextDetectNanos, startNanos + budgetInterval);
+        }
+    }
+
+    /**
+     * 推进截止时间；落后超过半个周期（如卡顿后）时从当前时间重新起算，避免连续补帧
+     */
+    private static long advance(long deadline, long interval, long nowNanos) {
+        if (deadline == Long.MIN_VALUE) {
+            return nowNanos + interval;
+        }
+        return Math.max(deadline + interval, nowNanos + interval / 2);
+    }
+
+    /**
+     * 窗口内检测平均耗时，尚无样本时为0
+     */
+    public synchronized long getAverageLatencyNanos() {
+        return latencyCount == 0 ? 0L : latencySum / latencyCount;
+    }
+
+    public synchronized long getDetectCount() {
+        return detectCount;
+    }
+
+    public synchronized long getTrackCount() {
+        return trackCount;
+    }
+
+    public synchronized long getDropCount() {
+        return dropCount;
+    }
+}
@@ -0,0 +1,687 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.concurrent.TripleBuffer;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.FrameCopyPool;
+import com.example.facerecognitionapp.frame.FrameSource;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.journal.RecognitionJournal;
+import com.example.facerecognitionapp.metrics.PipelineMetrics;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.example.facerecognitionapp.recognition.EmbeddingIndex;
+import com.example.facerecognitionapp.recognition.FaceQualityScorer;
+import com.example.facerecognitionapp.recognition.FaceRecognizer;
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+import com.example.facerecognitionapp.recognition.IdentityCache;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+import com.example.facerecognitionapp.recognition.ThumbnailFaceEmbedder;
+import com.example.facerecognitionapp.tracking.FaceTrack;
+import com.example.facerecognitionapp.tracking.FaceTracker;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 人脸分析流水线：调度 -> 检测（ROI）-> 跟踪 -> 识别 -> 发布结果
+ * 与相机/检测器实现无关，帧来自任意 FrameSource，检测器通过 FaceDetector SPI 注入。
+ * 每帧结果写入三缓冲中复用的 FaceDetectionResult 后发布，UI 在 vsync 时取最新一份，无锁无分配
+ * <p>
+ * 默认串行：检测期间一直持有原始帧（相机在帧关闭前不会送出下一帧），同一时刻最多一个在途检测。
+ * 调用 setMaxInFlight(n > 1) 开启流水线模式：检测帧先拷贝到池化的直接缓冲区并立即关闭原始帧，
+ * 最多 n 帧同时检测（配合 FaceDetectorPool），检测结果按发起顺序交付给跟踪器。
+ * <p>
+ * 可同时注入快速与精确两个检测器：快速检测器负责逐帧定位，精确检测器（关键点 + 分类）
+ * 按 RefreshPolicy 周期性或在新轨迹/识别置信度下降时运行，其关键点与属性保存在轨迹上随框移动。
+ * 识别结果按轨迹缓存在 IdentityCache 中投票稳定，只在到期、质量提升或外观漂移时重新比对
+ */
+public class FaceAnalysisPipeline implements FrameSource.FrameListener {
+    private static final String TAG = "FaceAnalysisPipeline";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    // 帧持有超过该时长即视为"迟关闭"（30fps下约两帧），会阻塞相机输出下一帧
+    private static final long LATE_CLOSE_NANOS = 66_000_000L;
+    public static final int MAX_IN_FLIGHT_LIMIT = 8;
+    private final FaceDetector faceDetector;
+    private final FaceDetector accurateDetector;
+    private final RefreshPolicy refreshPolicy = new RefreshPolicy();
+    private final FaceRecognizer faceRecognizer;
+    private final DetectionScheduler scheduler = new DetectionScheduler();
+    private final FaceTracker tracker = new FaceTracker();
+    private final RoiPlanner roiPlanner = new RoiPlanner();
+    private final MotionGate motionGate = new MotionGate();
+    private final FaceQualityScorer qualityScorer = new FaceQualityScorer();
+    private final IdentityCache identityCache = new IdentityCache();
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final int[] roi = new int[4];
+    private final LumaImage lumaImage = new LumaImage();
+    // 写端只在持有 tracker 锁时访问（检测回调线程与分析线程都会发布）
+    private final TripleBuffer<FaceDetectionResult> results = new TripleBuffer<>(FaceDetectionResult::new);
+    private float[] detectionBoxes = new float[16];
+    // 本帧需要 1:N 比对的轨迹，整批提取特征后一次检索
+    private FaceTrack[] pendingTracks = new FaceTrack[4];
+    private float[] pendingBoxes = new float[16];
+    private GalleryMatch[] pendingMatches = new GalleryMatch[4];
+    private int pendingCount;
+    // 身份缓存对应的人脸库版本，只在 tracker 锁内访问
+    private long identityVersion;
+    private FrameAnalysisListener listener;
+    private volatile RecognitionJournal journal;
+    private volatile LongSupplier clock = System::nanoTime;
+
+    // 在途检测按发起顺序排队，队首完成后才交付，保证跟踪器按时间顺序接收检测结果
+    private final ArrayDeque<DetectionCallback> inFlight = new ArrayDeque<>(MAX_IN_FLIGHT_LIMIT);
+    private final ArrayDeque<DetectionCallback> idleCallbacks = new ArrayDeque<>(MAX_IN_FLIGHT_LIMIT);
+    private final Object deliveryLock = new Object();
+    private int maxInFlight = 1;
+    private int createdCallbacks;
+    // 流水线模式下的帧拷贝池，串行模式为null
+    private volatile FrameCopyPool framePool;
+
+    private volatile int lastWidth;
+    private volatile int lastHeight;
+    private volatile int lastRotation;
+
+    /**
+     * 帧分析监听器接口
+     */
+    public interface FrameAnalysisListener {
+        /**
+         * 一份新结果已发布到 getResults()（人脸框为正立图像坐标系）。
+         * result 即刚发布的缓冲区，只读且仅在回调期间有效；UI 应在绘制时通过 getResults() 读取
+         */
+        void onFrameAnalyzed(FaceDetectionResult result);
+    }
+
+    public FaceAnalysisPipeline(FaceDetector faceDetector) {
+        this(faceDetector, null);
+    }
+
+    /**
+     * @param fastDetector     逐帧定位用的快速检测器
+     * @param accurateDetector 周期刷新关键点/属性的精确检测器，为null时所有检测都用 fastDetector
+     */
+    public FaceAnalysisPipeline(FaceDetector fastDetector, FaceDetector accurateDetector) {
+        this.faceDetector = fastDetector;
+        this.accurateDetector = accurateDetector;
+        this.faceRecognizer = new FaceRecognizer(new ThumbnailFaceEmbedder());
+        // 在 tracker 锁内回调（update/reset 只在持锁时调用）
+        tracker.setTrackListener(track -> identityCache.remove(track.getId()));
+    }
+
+    /**
+     * 设置 1:N 线性扫描的分片并行线程池（人脸库未提供索引时生效），须在 setGallery 之前调用
+     *
+     * @param parallelism 分片数上限（含分析线程）
+     */
+    public void setSearchExecutor(Executor executor, int parallelism) {
+        faceRecognizer.setSearchExecutor(executor, parallelism);
+    }
+
+    /**
+     * 设置用于 1:N 比对的人脸库
+     */
+    public void setGallery(NamedVectorStore gallery, EmbeddingIndex index) {
+        setGallery(gallery, index, null);
+    }
+
+    /**
+     * 发布新的人脸库版本，可在任意线程调用：原子替换后立即返回，不等待进行中的比对，
+     * 身份缓存由分析线程在下一次比对前发现版本变化时清空
+     *
+     * @param resource 该版本不再被比对使用时关闭的资源（如映射快照的引用），可为null
+     */
+    public void setGallery(NamedVectorStore gallery, EmbeddingIndex index, Closeable resource) {
+        faceRecognizer.setGallery(gallery, index, resource);
+    }
+
+    /**
+     * 获取检测调度器，用于调整目标结果帧率与CPU预算
+     */
+    public DetectionScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 获取结果三缓冲（读端供UI线程使用：swapIfNew() 后读取 getReadBuffer()）
+     */
+    public TripleBuffer<FaceDetectionResult> getResults() {
+        return results;
+    }
+
+    /**
+     * 获取流水线埋点统计
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取精确检测刷新策略（仅在注入了精确检测器时生效）
+     */
+    public RefreshPolicy getRefreshPolicy() {
+        return refreshPolicy;
+    }
+
+    /**
+     * 获取运动门控（默认关闭），用于在无人脸的静止画面上省掉检测
+     */
+    public MotionGate getMotionGate() {
+        return motionGate;
+    }
+
+    /**
+     * 获取识别前的人脸质量评估器，用于调整清晰度/曝光/姿态阈值及查看各结论计数
+     */
+    public FaceQualityScorer getQualityScorer() {
+        return qualityScorer;
+    }
+
+    /**
+     * 获取按轨迹缓存身份的投票缓存，用于调整重新验证间隔/漂移阈值（须在非检测期间调整）
+     */
+    public IdentityCache getIdentityCache() {
+        return identityCache;
+    }
+
+    /**
+     * 获取ROI检测规划器，用于开关ROI模式及调整边距/全帧扫描间隔
+     */
+    public RoiPlanner getRoiPlanner() {
+        return roiPlanner;
+    }
+
+    /**
+     * 设置调度与埋点使用的时钟（纳秒），默认 System.nanoTime；回放基准可注入虚拟时钟
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 设置同时在途的检测数上限（1 - MAX_IN_FLIGHT_LIMIT），须在开始送帧前调用。
+     * 大于1时开启流水线模式：检测帧拷贝后立即关闭原始帧，检测器应能并行处理多帧（如 FaceDetectorPool）
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        int limit = Math.min(MAX_IN_FLIGHT_LIMIT, Math.max(1, maxInFlight));
+        synchronized (inFlight) {
+            this.maxInFlight = limit;
+        }
+        framePool = limit > 1 ? new FrameCopyPool(limit) : null;
+        scheduler.setParallelism(limit);
+    }
+
+    public int getMaxInFlight() {
+        synchronized (inFlight) {
+            return maxInFlight;
+        }
+    }
+
+    /**
+     * 设置帧分析监听器
+     */
+    public void setListener(FrameAnalysisListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 设置识别事件日志（可为null）：每次实际的 1:N 比对写入一条定长记录。
+     * 写入发生在 tracker 锁内，满足日志的单写者要求
+     */
+    public void setJournal(RecognitionJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void onFrame(Frame frame) {
+        long analyzeStart = clock.getAsLong();
+        metrics.onFrameReceived();
+        try {
+            switch (scheduler.decide(analyzeStart)) {
+                case DETECT:
+                    if (!passesMotionGate(frame, analyzeStart)) {
+                        metrics.onFrameGated();
+                        frame.close();
+                        break;
+                    }
+                    DetectionCallback callback = obtainCallback();
+                    if (callback == null) {
+                        // 在途检测已满，本帧改为跟踪
+                        trackFrame(frame);
+                        break;
+                    }
+                    metrics.onFrameDetected();
+                    detectFrame(frame, callback, analyzeStart);
+                    break;
+                case TRACK:
+                    trackFrame(frame);
+                    break;
+                default:
+                    metrics.onFrameDropped();
+                    frame.close();
+                    break;
+            }
+
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "分析帧异常", e);
+            frame.close();
+        }
+        metrics.record(PipelineMetrics.Stage.ANALYZE, clock.getAsLong() - analyzeStart);
+    }
+
+    /**
+     * 画面中有人脸时总是放行（并让门控在人脸离开后重新取参考），否则由运动门控判断
+     */
+    private boolean passesMotionGate(Frame frame, long nowNanos) {
+        if (!motionGate.isEnabled()) {
+            return true;
+        }
+        boolean hasTracks;
+        synchronized (tracker) {
+            hasTracks = !tracker.getTracks().isEmpty();
+        }
+        if (hasTracks) {
+            motionGate.invalidate();
+            return true;
+        }
+        return motionGate.shouldDetect(frame, nowNanos);
+    }
+
+    /**
+     * 跳过检测，由跟踪器外推人脸框
+     */
+    private void trackFrame(Frame frame) {
+        metrics.onFrameTracked();
+        long timestamp = frame.getTimestampNanos();
+        frame.close();
+        if (lastWidth > 0) {
+            publishPrediction(timestamp);
+        }
+    }
+
+    /**
+     * 发起检测：近期有人脸时只检测其周围区域；流水线模式下先拷贝帧并立即关闭原始帧
+     */
+    private void detectFrame(Frame frame, DetectionCallback callback, long startNanos) {
+        Frame target = frame;
+        FrameCopyPool pool = framePool;
+        boolean useRoi;
+        try {
+            if (pool != null) {
+                target = pool.copyOf(frame);
+                if (target == null) {
+                    // 拷贝与回调同数量且一起归还，正常不会发生
+                    abandon(callback);
+                    trackFrame(frame);
+                    return;
+                }
+                closeSourceFrame(frame, startNanos);
+            }
+            useRoi = planRoi(target);
+        } catch (RuntimeException e) {
+            // 尚未发起检测，撤销回调以免阻塞后续交付
+            if (target != frame) {
+                target.close();
+            }
+            abandon(callback);
+            throw e;
+        }
+        boolean refined = accurateDetector != null
+                && refreshPolicy.shouldRefresh() != RefreshPolicy.Reason.NONE;
+        if (refined) {
+            metrics.onFrameRefined();
+        }
+        callback.start(target, pool != null, startNanos, useRoi, refined);
+        // 检测器按约定通过回调报告错误，回调总会到达
+        (refined ? accurateDetector : faceDetector).detect(target, useRoi ? roi : null, callback);
+    }
+
+    /**
+     * 取一个空闲回调并加入在途队列，在途数已达上限时返回null
+     */
+    private DetectionCallback obtainCallback() {
+        synchronized (inFlight) {
+            if (inFlight.size() >= maxInFlight) {
+                return null;
+            }
+            DetectionCallback callback = idleCallbacks.pollFirst();
+            if (callback == null) {
+                if (createdCallbacks >= maxInFlight) {
+                    return null;
+                }
+                createdCallbacks++;
+                callback = new DetectionCallback();
+            }
+            // 复用的回调仍带着上次的完成标记，入队前重置，避免被当作已完成交付
+            callback.done = false;
+            inFlight.addLast(callback);
+            return callback;
+        }
+    }
+
+    /**
+     * 撤销尚未发起检测的回调
+     */
+    private void abandon(DetectionCallback callback) {
+        synchronized (inFlight) {
+            inFlight.removeLastOccurrence(callback);
+            idleCallbacks.addLast(callback);
+        }
+    }
+
+    /**
+     * 单次检测的回调与状态，复用对象池（数量不超过 maxInFlight）。
+     * 检测器回调时先保存结果副本，再按发起顺序交付，交付结束时关闭帧
+     */
+    private class DetectionCallback implements FaceDetector.Callback {
+        private final FaceDetectionResult result = new FaceDetectionResult();
+        private Frame frame;
+        private boolean copied;
+        private long startNanos;
+        private long finishedNanos;
+        private boolean usedRoi;
+        private boolean refined;
+        private Exception error;
+        private volatile boolean done;
+
+        void start(Frame frame, boolean copied, long startNanos, boolean usedRoi, boolean refined) {
+            this.frame = frame;
+            this.copied = copied;
+            this.startNanos = startNanos;
+            this.usedRoi = usedRoi;
+            this.refined = refined;
+            this.error = null;
+        }
+
+        @Override
+        public void onFacesDetected(FaceDetectionResult detected) {
+            finishedNanos = clock.getAsLong();
+            // 检测器的结果只在回调期间有效，排队等待交付前先拷贝
+            result.copyFrom(detected);
+            complete(this);
+        }
+
+        @Override
+        public void onDetectionError(Exception e) {
+            finishedNanos = clock.getAsLong();
+            result.clear();
+            error = e;
+            complete(this);
+        }
+    }
+
+    /**
+     * 标记检测完成，并交付队首所有已完成的检测（可能由任一检测器回调线程执行）
+     */
+    private void complete(DetectionCallback callback) {
+        callback.done = true;
+        synchronized (deliveryLock) {
+            while (true) {
+                DetectionCallback head;
+                synchronized (inFlight) {
+                    head = inFlight.peekFirst();
+                    if (head == null || !head.done) {
+                        return;
+                    }
+                    inFlight.pollFirst();
+                }
+                Frame frame = head.frame;
+                boolean copied = head.copied;
+                long startNanos = head.startNanos;
+                head.frame = null;
+                deliver(head, frame);
+                synchronized (inFlight) {
+                    idleCallbacks.addLast(head);
+                }
+                // 先归还回调再关闭帧：串行模式下帧一关闭就会送来下一帧，此时应能立即发起检测
+                if (copied) {
+                    frame.close();
+                } else {
+                    closeSourceFrame(frame, startNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按发起顺序交付一次检测：记录耗时、更新ROI规划与轨迹并发布（帧由调用方关闭）
+     */
+    private void deliver(DetectionCallback callback, Frame frame) {
+        long deliverStart = clock.getAsLong();
+        if (callback.refined) {
+            refreshPolicy.onRefreshFinished();
+        }
+        try {
+            scheduler.onDetectionFinished(callback.startNanos, callback.finishedNanos);
+            metrics.record(PipelineMetrics.Stage.DETECT, callback.finishedNanos - callback.startNanos);
+            if (callback.error != null) {
+                LOG.log(Level.WARNING, "人脸检测错误", callback.error);
+                return;
+            }
+            roiPlanner.onDetectionResult(callback.usedRoi, callback.result.faceCount);
+            lastWidth = frame.getWidth();
+            lastHeight = frame.getHeight();
+            lastRotation = frame.getRotationDegrees();
+            updateTracks(callback.result, frame);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "处理检测结果异常", e);
+            return;
+        }
+        metrics.record(PipelineMetrics.Stage.LISTENER, clock.getAsLong() - deliverStart);
+    }
+
+    /**
+     * 关闭原始帧并检查持有时长，过长会阻塞相机输出下一帧（在关闭前取时间，关闭后帧源可能推进时钟）
+     */
+    private void closeSourceFrame(Frame frame, long receivedNanos) {
+        long heldNanos = clock.getAsLong() - receivedNanos;
+        frame.close();
+        if (heldNanos > LATE_CLOSE_NANOS) {
+            metrics.onFrameClosedLate();
+        }
+    }
+
+    /**
+     * 根据外推到当前帧的轨迹规划ROI，返回是否使用ROI
+     */
+    private boolean planRoi(Frame frame) {
+        int rotation = frame.getRotationDegrees();
+        boolean swap = rotation == 90 || rotation == 270;
+        int uprightWidth = swap ? frame.getHeight() : frame.getWidth();
+        int uprightHeight = swap ? frame.getWidth() : frame.getHeight();
+        synchronized (tracker) {
+            List<FaceTrack> tracks = tracker.predict(frame.getTimestampNanos());
+            return roiPlanner.plan(tracks, uprightWidth, uprightHeight, roi);
+        }
+    }
+
+    /**
+     * 将轨迹外推到当前帧时间并发布
+     */
+    private void publishPrediction(long timestampNanos) {
+        synchronized (tracker) {
+            publish(tracker.predict(timestampNanos), timestampNanos);
+        }
+    }
+
+    /**
+     * 用检测结果更新轨迹，并对新匹配的人脸做属性拷贝与 1:N 比对（此时帧仍未关闭），然后发布。
+     * 流水线模式下期间发布过的预测可能比该帧更新，跟踪器会忽略倒退的时间差，直接用该检测校正
+     */
+    private void updateTracks(FaceDetectionResult result, Frame frame) {
+        int count = result.faceCount;
+        if (detectionBoxes.length < count * 4) {
+            detectionBoxes = new float[count * 8];
+        }
+        for (int i = 0; i < count; i++) {
+            FaceDetectionResult.FaceInfo face = result.getFace(i);
+            detectionBoxes[i * 4] = face.left;
+            detectionBoxes[i * 4 + 1] = face.top;
+            detectionBoxes[i * 4 + 2] = face.right;
+            detectionBoxes[i * 4 + 3] = face.bottom;
+        }
+
+        NamedVectorStore gallery = faceRecognizer.getGallery();
+        boolean recognize = gallery != null && gallery.size() > 0;
+        if (recognize) {
+            Frame.Plane yPlane = frame.getPlane(0);
+            lumaImage.set(yPlane.getBuffer(), yPlane.getRowStride(), yPlane.getPixelStride(),
+                    frame.getWidth(), frame.getHeight(), frame.getRotationDegrees());
+        }
+
+        synchronized (tracker) {
+            List<FaceTrack> tracks = tracker.update(detectionBoxes, count, frame.getTimestampNanos());
+            pendingCount = 0;
+            long galleryVersion = faceRecognizer.getGalleryVersion();
+            if (galleryVersion != identityVersion) {
+                // 旧人脸库的序号与身份不再有效
+                identityCache.clear();
+                identityVersion = galleryVersion;
+            }
+            for (int i = 0; i < tracks.size(); i++) {
+                FaceTrack track = tracks.get(i);
+                if (track.detectionIndex < 0) {
+                    continue;
+                }
+                FaceDetectionResult.FaceInfo face = result.getFace(track.detectionIndex);
+                // 快速检测不带分类/关键点，保留上次精确检测的值
+                if (!Float.isNaN(face.smileProbability)) {
+                    track.smileProbability = face.smileProbability;
+                }
+                if (!Float.isNaN(face.leftEyeOpenProbability)) {
+                    track.leftEyeOpenProbability = face.leftEyeOpenProbability;
+                }
+                if (!Float.isNaN(face.rightEyeOpenProbability)) {
+                    track.rightEyeOpenProbability = face.rightEyeOpenProbability;
+                }
+                if (face.hasLandmarks) {
+                    track.setLandmarks(face.landmarks, face.left, face.top, face.right, face.bottom,
+                            frame.getTimestampNanos());
+                } else if (track.hits == 1) {
+                    refreshPolicy.onNewTrack();
+                }
+                // 模糊、曝光不当或侧脸不做识别，沿用该轨迹上次的识别结果
+                if (recognize && qualityScorer.evaluate(lumaImage, face) == FaceQualityScorer.Verdict.GOOD) {
+                    checkIdentity(track, qualityScorer.getScore(), frame.getTimestampNanos());
+                }
+            }
+            if (pendingCount > 0) {
+                recognizePending(frame.getTimestampNanos());
+            }
+            publish(tracks, frame.getTimestampNanos());
+        }
+    }
+
+    /**
+     * 身份缓存命中时沿用缓存身份；需要重新验证时加入本帧的待比对批次。
+     * 批次已达身份缓存容量时本帧不再检查其余轨迹（沿用其上次的识别结果），
+     * 否则新轨迹会淘汰仍在等待比对结果的条目
+     * （调用方须持有 tracker 锁，lumaImage 已绑定当前帧）
+     */
+    private void checkIdentity(FaceTrack track, float quality, long timestampNanos) {
+        if (pendingCount >= identityCache.getCapacity()) {
+            return;
+        }
+        track.quality = quality;
+        int d = track.detectionIndex * 4;
+        float left = detectionBoxes[d];
+        float top = detectionBoxes[d + 1];
+        float right = detectionBoxes[d + 2];
+        float bottom = detectionBoxes[d + 3];
+        if (identityCache.check(track.getId(), lumaImage, left, top, right, bottom, quality, timestampNanos)
+                == IdentityCache.Reason.NONE) {
+            metrics.onIdentityCacheHit();
+            return;
+        }
+        metrics.onIdentityCacheMiss();
+        if (pendingTracks.length == pendingCount) {
+            pendingTracks = Arrays.copyOf(pendingTracks, pendingCount * 2);
+            pendingMatches = new GalleryMatch[pendingCount * 2];
+            pendingBoxes = Arrays.copyOf(pendingBoxes, pendingCount * 8);
+        }
+        pendingTracks[pendingCount] = track;
+        System.arraycopy(detectionBoxes, d, pendingBoxes, pendingCount * 4, 4);
+        pendingCount++;
+    }
+
+    /**
+     * 对本帧待比对的人脸批量做 1:N 比对（人脸库只遍历一次），结果经投票后写回轨迹
+     * （调用方须持有 tracker 锁，lumaImage 已绑定当前帧）
+     */
+    private void recognizePending(long timestampNanos) {
+        faceRecognizer.recognizeBatch(lumaImage, pendingBoxes, pendingCount, pendingMatches);
+        RecognitionJournal journal = this.journal;
+        long wallMillis = journal != null ? System.currentTimeMillis() : 0L;
+        for (int i = 0; i < pendingCount; i++) {
+            FaceTrack track = pendingTracks[i];
+            GalleryMatch match = pendingMatches[i];
+            int id = track.getId();
+            float previousScore = track.match != null ? track.match.score : Float.NaN;
+            track.match = identityCache.onVerified(id, match, track.quality, timestampNanos);
+            track.matchConfidence = identityCache.getConfidence(id);
+            track.verifiedNanos = timestampNanos;
+            // 置信度下降按本次比对的原始分数判断，投票只用于稳定显示的标签
+            refreshPolicy.onRecognition(previousScore, match != null ? match.score : Float.NaN);
+            if (journal != null) {
+                GalleryMatch identity = track.match;
+                int b = i * 4;
+                journal.append(wallMillis, id, identity != null ? identity.index : -1,
+                        RecognitionJournal.identityOf(identity != null ? identity.name : null),
+                        match != null ? match.score : Float.NaN, track.matchConfidence, track.quality,
+                        pendingBoxes[b], pendingBoxes[b + 1], pendingBoxes[b + 2], pendingBoxes[b + 3]);
+            }
+            pendingTracks[i] = null;
+            pendingMatches[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * 把轨迹写入三缓冲的写缓冲区并发布（调用方须持有 tracker 锁）
+     */
+    private void publish(List<FaceTrack> tracks, long timestampNanos) {
+        FaceDetectionResult out = results.getWriteBuffer();
+        out.clear();
+        out.imageWidth = lastWidth;
+        out.imageHeight = lastHeight;
+        out.rotationDegrees = lastRotation;
+        out.timestamp = timestampNanos;
+        for (int i = 0; i < tracks.size(); i++) {
+            FaceTrack track = tracks.get(i);
+            FaceDetectionResult.FaceInfo info = out.addFace();
+            info.setBoundingBox(track.left, track.top, track.right, track.bottom);
+            info.smileProbability = track.smileProbability;
+            info.leftEyeOpenProbability = track.leftEyeOpenProbability;
+            info.rightEyeOpenProbability = track.rightEyeOpenProbability;
+            if (track.hasLandmarks) {
+                track.getLandmarks(info.landmarks);
+                info.hasLandmarks = true;
+            }
+            info.trackId = track.getId();
+            if (track.match != null) {
+                info.name = track.match.name;
+                info.matchScore = track.match.score;
+            }
+        }
+        out.publishedNanos = clock.getAsLong();
+        results.publish();
+        // 下一次 publish 前写端不会再触碰 out，回调期间可安全读取
+        if (listener != null) {
+            listener.onFrameAnalyzed(out);
+        }
+    }
+
+    /**
+     * 释放资源
+     */
+    public void release() {
+        faceDetector.close();
+        if (accurateDetector != null) {
+            accurateDetector.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+/**
+ * 人脸检测器 SPI（ML Kit 等具体实现见 app 模块中的适配器）
+ * 检测可以是异步的：每次 detect 恰好回调一次，回调返回前调用方不会关闭 frame
+ */
+public interface FaceDetector {
+
+    /**
+     * 检测回调
+     */
+    interface Callback {
+        /**
+         * result 中的人脸框已换算到整帧正立坐标系；result 仅在回调期间有效
+         */
+        void onFacesDetected(FaceDetectionResult result);
+
+        void onDetectionError(Exception e);
+    }
+
+    /**
+     * 检测一帧
+     *
+     * @param uprightRoi 正立坐标系下的检测区域 [left, top, right, bottom)（偶数对齐），为null时全帧检测
+     */
+    void detect(Frame frame, int[] uprightRoi, Callback callback);
+
+    /**
+     * 释放资源
+     */
+    void close();
+}
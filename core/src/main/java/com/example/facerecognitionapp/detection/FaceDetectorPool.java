@@ -0,0 +1,104 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import java.util.function.Supplier;
+
+/**
+ * 检测器池：持有多个 FaceDetector 实例，每次 detect 分派给一个空闲实例，使多帧可以并行检测
+ * 各实例同一时刻只处理一帧（实例内部复用的缓冲区/结果对象不会被覆盖）；
+ * 没有空闲实例时直接回调 onDetectionError，调用方应把在途检测数限制在 size() 以内
+ */
+public class FaceDetectorPool implements FaceDetector {
+    private final Slot[] slots;
+    private final Slot[] idle;
+    private int idleCount;
+
+    public FaceDetectorPool(int size, Supplier<? extends FaceDetector> factory) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("检测器数量必须大于0");
+        }
+        slots = new Slot[size];
+        idle = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(factory.get());
+            idle[i] = slots[i];
+        }
+        idleCount = size;
+    }
+
+    /**
+     * 检测器实例数，即可同时进行的检测数上限
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * 当前空闲的检测器数
+     */
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    @Override
+    public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+        Slot slot;
+        synchronized (this) {
+            slot = idleCount > 0 ? idle[--idleCount] : null;
+        }
+        if (slot == null) {
+            callback.onDetectionError(new IllegalStateException("没有空闲的检测器"));
+            return;
+        }
+        slot.callback = callback;
+        slot.detector.detect(frame, uprightRoi, slot);
+    }
+
+    private synchronized void release(Slot slot) {
+        idle[idleCount++] = slot;
+    }
+
+    @Override
+    public void close() {
+        for (Slot slot : slots) {
+            slot.detector.close();
+        }
+    }
+
+    /**
+     * 单个检测器实例及其当前检测的回调（作为转发回调复用，分派时不产生分配）
+     */
+    private class Slot implements Callback {
+        final FaceDetector detector;
+        volatile Callback callback;
+
+        Slot(FaceDetector detector) {
+            this.detector = detector;
+        }
+
+        @Override
+        public void onFacesDetected(FaceDetectionResult result) {
+            Callback target = callback;
+            callback = null;
+            // 结果只在回调期间有效，回调返回后实例才能接受下一帧
+            try {
+                target.onFacesDetected(result);
+            } finally {
+                release(this);
+            }
+        }
+
+        @Override
+        public void onDetectionError(Exception e) {
+            Callback target = callback;
+            callback = null;
+            try {
+                target.onDetectionError(e);
+            } finally {
+                release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.frame.Frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 运动门控：画面中没有人脸时，只有场景发生变化才运行检测
+ * 直接读取Y平面，按 GRID_WIDTH x GRID_HEIGHT 网格做块平均得到缩略图（复用数组，无分配），
+ * 与上一次检测时的参考缩略图比较，变化超过阈值的格子占比达到 motionFraction 即视为有运动；
+ * 每隔 forceIntervalNanos 强制检测一次，以免漏掉缓慢进入画面的人脸
+ * 非线程安全：只应在分析线程调用
+ */
+public class MotionGate {
+    public static final int GRID_WIDTH = 32;
+    public static final int GRID_HEIGHT = 24;
+    public static final int DEFAULT_CELL_THRESHOLD = 12;
+    public static final float DEFAULT_MOTION_FRACTION = 0.02f;
+    public static final long DEFAULT_FORCE_INTERVAL_NANOS = 1_000_000_000L;
+    // 每个格子内按该步长采样，640x480 下每格约 4x4 个采样点
+    private static final int SAMPLE_STEP = 5;
+
+    private final int[] current = new int[GRID_WIDTH * GRID_HEIGHT];
+    private final int[] reference = new int[GRID_WIDTH * GRID_HEIGHT];
+    private int cellThreshold = DEFAULT_CELL_THRESHOLD;
+    private float motionFraction = DEFAULT_MOTION_FRACTION;
+    private long forceIntervalNanos = DEFAULT_FORCE_INTERVAL_NANOS;
+    private volatile boolean enabled;
+
+    private boolean hasReference;
+    private int referenceWidth;
+    private int referenceHeight;
+    private long lastDetectNanos;
+
+    private long checkCount;
+    private long motionCount;
+    private long forcedCount;
+    private long gatedCount;
+
+    /**
+     * 启用/关闭门控（默认关闭），关闭时 shouldDetect 总是返回true
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        hasReference = false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 单个格子平均亮度变化超过该值（0-255）即视为变化
+     */
+    public void setCellThreshold(int cellThreshold) {
+        this.cellThreshold = Math.max(1, cellThreshold);
+    }
+
+    /**
+     * 变化格子占比达到该值即视为有运动
+     */
+    public void setMotionFraction(float motionFraction) {
+        this.motionFraction = Math.min(1f, Math.max(0f, motionFraction));
+    }
+
+    /**
+     * 无运动时强制检测的间隔
+     */
+    public void setForceIntervalNanos(long forceIntervalNanos) {
+        this.forceIntervalNanos = Math.max(0L, forceIntervalNanos);
+    }
+
+    /**
+     * 丢弃参考缩略图，下一帧必定检测（画面中有人脸时由流水线调用，人脸离开后从新画面重新起算）
+     */
+    public void invalidate() {
+        hasReference = false;
+    }
+
+    /**
+     * 判断该帧是否需要检测；需要时把该帧缩略图作为新的参考
+     */
+    public boolean shouldDetect(Frame frame, long nowNanos) {
+        if (!enabled) {
+            return true;
+        }
+        checkCount++;
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        Frame.Plane y = frame.getPlane(0);
+        downsample(y.getBuffer(), y.getRowStride(), y.getPixelStride(), width, height, current);
+
+        boolean detect;
+        if (!hasReference || width != referenceWidth || height != referenceHeight) {
+            detect = true;
+        } else if (changedCells() >= motionFraction * current.length) {
+            motionCount++;
+            detect = true;
+        } else if (nowNanos - lastDetectNanos >= forceIntervalNanos) {
+            forcedCount++;
+            detect = true;
+        } else {
+            gatedCount++;
+            detect = false;
+        }
+
+        if (detect) {
+            System.arraycopy(current, 0, reference, 0, current.length);
+            hasReference = true;
+            referenceWidth = width;
+            referenceHeight = height;
+            lastDetectNanos = nowNanos;
+        }
+        return detect;
+    }
+
+    private int changedCells() {
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (Math.abs(current[i] - reference[i]) > cellThreshold) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 对Y平面做网格块平均（每格内稀疏采样）
+     */
+    static void downsample(ByteBuffer buffer, int rowStride, int pixelStride,
+                           int width, int height, int[] out) {
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            int y0 = gy * height / GRID_HEIGHT;
+            int y1 = Math.max(y0 + 1, (gy + 1) * height / GRID_HEIGHT);
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                int x0 = gx * width / GRID_WIDTH;
+                int x1 = Math.max(x0 + 1, (gx + 1) * width / GRID_WIDTH);
+                int sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += SAMPLE_STEP) {
+                    int row = y * rowStride;
+                    for (int x = x0; x < x1; x += SAMPLE_STEP) {
+                        sum += buffer.get(row + x * pixelStride) & 0xFF;
+                        count++;
+                    }
+                }
+                out[gy * GRID_WIDTH + gx] = sum / count;
+            }
+        }
+    }
+
+    /**
+     * 门控判断的帧数
+     */
+    public long getCheckCount() {
+        return checkCount;
+    }
+
+    /**
+     * 因检测到运动而放行的帧数
+     */
+    public long getMotionCount() {
+        return motionCount;
+    }
+
+    /**
+     * 因强制间隔放行的帧数
+     */
+    public long getForcedCount() {
+        return forcedCount;
+    }
+
+    /**
+     * 被门控跳过检测的帧数
+     */
+    public long getGatedCount() {
+        return gatedCount;
+    }
+}
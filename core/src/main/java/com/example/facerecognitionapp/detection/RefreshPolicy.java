@@ -0,0 +1,146 @@
+package com.example.facerecognitionapp.detection;
+
+/**
+ * 精确检测刷新策略：平时用快速检测器（无关键点/分类）逐帧定位，
+ * 满足以下任一条件时下一次检测改用精确检测器（全部关键点 + 分类）：
+ * <ul>
+ *   <li>距上次精确检测已过 refreshInterval 次检测</li>
+ *   <li>出现新轨迹（还没有关键点可用于对齐）</li>
+ *   <li>识别置信度下降：已识别的轨迹丢失匹配，或分数比上次低 confidenceDrop 以上</li>
+ * </ul>
+ * shouldRefresh 在分析线程调用，其余方法在检测结果交付线程调用，通过对象锁同步
+ */
+public class RefreshPolicy {
+    public static final int DEFAULT_REFRESH_INTERVAL = 15;
+    public static final float DEFAULT_CONFIDENCE_DROP = 0.08f;
+
+    /**
+     * 触发精确检测的原因
+     */
+    public enum Reason {
+        NONE,
+        INTERVAL,
+        NEW_TRACK,
+        LOW_CONFIDENCE
+    }
+
+    private int refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private float confidenceDrop = DEFAULT_CONFIDENCE_DROP;
+    private boolean enabled = true;
+
+    // 初始为最大值，第一次检测即为精确检测
+    private int detectionsSinceRefresh = Integer.MAX_VALUE;
+    private Reason pending = Reason.NONE;
+    private boolean refreshInFlight;
+
+    private long intervalCount;
+    private long newTrackCount;
+    private long lowConfidenceCount;
+
+    /**
+     * 设置两次精确检测之间最多的快速检测次数
+     */
+    public synchronized void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = Math.max(1, refreshInterval);
+    }
+
+    /**
+     * 设置触发刷新的识别分数降幅
+     */
+    public synchronized void setConfidenceDrop(float confidenceDrop) {
+        this.confidenceDrop = Math.max(0f, confidenceDrop);
+    }
+
+    public synchronized float getConfidenceDrop() {
+        return confidenceDrop;
+    }
+
+    /**
+     * 关闭后只在没有快速检测器时才使用精确检测器
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 对将要发起的检测决定是否使用精确检测器，返回触发原因（NONE 表示用快速检测器）。
+     * 上一次精确检测尚未交付时不会重复触发，原因保留到下一次
+     */
+    public synchronized Reason shouldRefresh() {
+        if (!enabled || refreshInFlight) {
+            countFastDetection();
+            return Reason.NONE;
+        }
+        Reason reason = pending;
+        if (reason == Reason.NONE && detectionsSinceRefresh >= refreshInterval) {
+            reason = Reason.INTERVAL;
+        }
+        if (reason == Reason.NONE) {
+            countFastDetection();
+            return Reason.NONE;
+        }
+        switch (reason) {
+            case INTERVAL:
+                intervalCount++;
+                break;
+            case NEW_TRACK:
+                newTrackCount++;
+                break;
+            default:
+                lowConfidenceCount++;
+                break;
+        }
+        pending = Reason.NONE;
+        refreshInFlight = true;
+        detectionsSinceRefresh = 0;
+        return reason;
+    }
+
+    private void countFastDetection() {
+        if (detectionsSinceRefresh < Integer.MAX_VALUE) {
+            detectionsSinceRefresh++;
+        }
+    }
+
+    /**
+     * 精确检测已交付（成功或失败）
+     */
+    public synchronized void onRefreshFinished() {
+        refreshInFlight = false;
+    }
+
+    /**
+     * 快速检测中出现了新轨迹
+     */
+    public synchronized void onNewTrack() {
+        if (pending == Reason.NONE) {
+            pending = Reason.NEW_TRACK;
+        }
+    }
+
+    /**
+     * 识别分数由 previousScore 变为 score（未匹配为NaN），下降明显时请求刷新
+     */
+    public synchronized void onRecognition(float previousScore, float score) {
+        if (Float.isNaN(previousScore)) {
+            return;
+        }
+        if (Float.isNaN(score) || previousScore - score > confidenceDrop) {
+            if (pending == Reason.NONE) {
+                pending = Reason.LOW_CONFIDENCE;
+            }
+        }
+    }
+
+    public synchronized long getIntervalCount() {
+        return intervalCount;
+    }
+
+    public synchronized long getNewTrackCount() {
+        return newTrackCount;
+    }
+
+    public synchronized long getLowConfidenceCount() {
+        return lowConfidenceCount;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.tracking.FaceTrack;
+
+import java.util.List;
+
+/**
+ * 感兴趣区域（ROI）检测规划
+ * 最近有人脸时只在预测人脸框（加边距）的并集区域内检测；
+ * 每隔若干次检测、ROI过大或ROI中丢失人脸时回退为全帧扫描，以发现新进入画面的人脸
+ */
+public class RoiPlanner {
+    public static final float DEFAULT_MARGIN = 0.5f;
+    public static final int DEFAULT_FULL_SCAN_INTERVAL = 10;
+    public static final float DEFAULT_MAX_ROI_FRACTION = 0.5f;
+
+    private float margin = DEFAULT_MARGIN;
+    private int fullScanInterval = DEFAULT_FULL_SCAN_INTERVAL;
+    private float maxRoiFraction = DEFAULT_MAX_ROI_FRACTION;
+    private boolean enabled = true;
+
+    private int detectionsSinceFullScan;
+    private boolean forceFullScan = true;
+    private long roiScanCount;
+    private long fullScanCount;
+
+    /**
+     * 启用/关闭ROI模式，关闭时总是全帧检测
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 人脸框每侧外扩的比例（相对框宽高）
+     */
+    public void setMargin(float margin) {
+        this.margin = Math.max(0f, margin);
+    }
+
+    /**
+     * 两次全帧扫描之间最多进行的ROI检测次数
+     */
+    public void setFullScanInterval(int fullScanInterval) {
+        this.fullScanInterval = Math.max(1, fullScanInterval);
+    }
+
+    /**
+     * ROI面积超过该比例时直接全帧检测
+     */
+    public void setMaxRoiFraction(float maxRoiFraction) {
+        this.maxRoiFraction = maxRoiFraction;
+    }
+
+    /**
+     * 规划本次检测区域
+     *
+     * @param tracks  已外推到当前帧的轨迹
+     * @param outRect 输出正立坐标系下的ROI [left, top, right, bottom)，按偶数对齐
+     * @return true 表示使用ROI，false 表示全帧检测
+     */
+    public boolean plan(List<FaceTrack> tracks, int uprightWidth, int uprightHeight, int[] outRect) {
+        if (!enabled || forceFullScan || tracks.isEmpty() || detectionsSinceFullScan >= fullScanInterval) {
+            return fullScan();
+        }
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for (int i = 0; i < tracks.size(); i++) {
+            FaceTrack track = tracks.get(i);
+            float mx = (track.right - track.left) * margin;
+            float my = (track.bottom - track.top) * margin;
+            left = Math.min(left, track.left - mx);
+            top = Math.min(top, track.top - my);
+            right = Math.max(right, track.right + mx);
+            bottom = Math.max(bottom, track.bottom + my);
+        }
+
+        int l = clampEven((int) Math.floor(left), uprightWidth);
+        int t = clampEven((int) Math.floor(top), uprightHeight);
+        int r = clampEven((int) Math.ceil(right) + 1, uprightWidth);
+        int b = clampEven((int) Math.ceil(bottom) + 1, uprightHeight);
+        if (r - l < 2 || b - t < 2
+                || (float) (r - l) * (b - t) > maxRoiFraction * uprightWidth * uprightHeight) {
+            return fullScan();
+        }
+
+        outRect[0] = l;
+        outRect[1] = t;
+        outRect[2] = r;
+        outRect[3] = b;
+        detectionsSinceFullScan++;
+        roiScanCount++;
+        return true;
+    }
+
+    /**
+     * 反馈检测结果：ROI内未检测到任何人脸时，下一次强制全帧扫描
+     */
+    public void onDetectionResult(boolean usedRoi, int faceCount) {
+        forceFullScan = usedRoi && faceCount == 0;
+    }
+
+    public long getRoiScanCount() {
+        return roiScanCount;
+    }
+
+    public long getFullScanCount() {
+        return fullScanCount;
+    }
+
+    private boolean fullScan() {
+        detectionsSinceFullScan = 0;
+        forceFullScan = false;
+        fullScanCount++;
+        return false;
+    }
+
+    private static int clampEven(int value, int max) {
+        value = Math.max(0, Math.min(value, max));
+        return value & ~1;
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.facerecognitionapp.enrollment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 批量注册导入器：把一个目录中的照片并行解码、检测、提取特征，逐张写入注册库
+ * <p>
+ * 处理流水线由 threads 个工作线程并行执行，同时处理中的照片不超过 maxInFlight 张，
+ * 提交线程在达到上限时阻塞，内存占用与照片总数无关；结果写入注册库后即丢弃，不保留位图。
+ * <p>
+ * 特征按批（batchSize）写入注册库，每批只落盘、发布一次。照片无人脸/解码失败，或其特征所在的批
+ * 写入注册库后，把其相对路径追加到检查点文件，中断后用同一检查点重新导入会跳过已处理的照片。注册库按名字覆盖写入，
+ * 崩溃时已写库但未记入检查点的照片重做一遍也不会产生重复
+ */
+public class BulkEnrollmentImporter {
+    private static final String TAG = "BulkEnrollmentImporter";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    private static final String[] PHOTO_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp", ".bmp"};
+    // 注册照片命名规范中的前缀（face_<name>.jpg），导入时去掉
+    private static final String FACE_PREFIX = "face_";
+    // 特征攒够一批再写注册库：每批只落盘、发布一次视图
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    /**
+     * 单张照片的处理：解码（按检测所需分辨率降采样）-> 检测最大人脸 -> 提取特征。
+     * 在工作线程并发调用，实现须线程安全，且返回前释放解码出的图像
+     */
+    public interface PhotoProcessor {
+        /**
+         * @return 特征向量，照片中没有人脸时返回null
+         * @throws IOException 照片无法读取或解码
+         */
+        float[] process(File photo) throws IOException;
+    }
+
+    /**
+     * 导入进度监听器，在工作线程回调
+     */
+    public interface ProgressListener {
+        void onProgress(int processed, int total);
+    }
+
+    /**
+     * 导入统计
+     */
+    public static class Report {
+        public final int total;      // 目录中的照片数
+        public final int skipped;    // 检查点中已处理过的
+        public final int imported;   // 本次写入注册库的
+        public final int noFace;     // 未检测到人脸的
+        public final int failed;     // 解码失败的
+        public final int duplicates; // 与其他用户名近似重复的（仍会导入，仅报告）
+        public final boolean completed; // false 表示被取消或写库失败而中断
+        public final long elapsedNanos;
+
+        Report(int total, int skipped, int imported, int noFace, int failed, int duplicates, boolean completed,
+               long elapsedNanos) {
+            this.total = total;
+            this.skipped = skipped;
+            this.imported = imported;
+            this.noFace = noFace;
+            this.failed = failed;
+            this.duplicates = duplicates;
+            this.completed = completed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            int processed = imported + noFace + failed;
+            return String.format(Locale.US,
+                    "total %d skipped %d imported %d noFace %d failed %d duplicates %d%s in %.1fs (%.1f photos/s)",
+                    total, skipped, imported, noFace, failed, duplicates, completed ? "" : " (interrupted)",
+                    seconds, seconds > 0 ? processed / seconds : 0.0);
+        }
+    }
+
+    private final EnrollmentStore store;
+    private final PhotoProcessor processor;
+    private final int threads;
+    private final int maxInFlight;
+    private ProgressListener progressListener;
+    private NearDuplicateDetector duplicateDetector;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile boolean cancelled;
+
+    // 待写入注册库的一批结果与近似重复计数，由 this 锁保护
+    private int duplicates;
+    private final List<String> batchPaths = new ArrayList<>();
+    private final List<String> batchNames = new ArrayList<>();
+    private final List<float[]> batchEmbeddings = new ArrayList<>();
+
+    /**
+     * @param threads     并行处理的线程数
+     * @param maxInFlight 同时处理中（已提交未完成）的照片上限，决定峰值内存
+     */
+    public BulkEnrollmentImporter(EnrollmentStore store, PhotoProcessor processor, int threads, int maxInFlight) {
+        if (threads <= 0 || maxInFlight < threads) {
+            throw new IllegalArgumentException("threads 必须大于0且不超过 maxInFlight");
+        }
+        this.store = store;
+        this.processor = processor;
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * 设置近似重复检测器：每张照片的特征加入批次前检测，与其他用户名近似重复时记录警告并计数
+     */
+    public void setDuplicateDetector(NearDuplicateDetector duplicateDetector) {
+        this.duplicateDetector = duplicateDetector;
+    }
+
+    /**
+     * 设置每批写入注册库的特征数
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 请求停止：不再提交新照片，已在处理的照片完成后 importDirectory 返回
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 导入目录（含子目录）中的所有照片
+     *
+     * @param checkpoint 检查点文件，不存在时新建
+     */
+    public Report importDirectory(File dir, File checkpoint) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        cancelled = false;
+        synchronized (this) {
+            duplicates = 0;
+        }
+        List<String> photos = listPhotos(dir);
+        Set<String> done = readCheckpoint(checkpoint);
+        terminateLastLine(checkpoint);
+        int total = photos.size();
+        int skipped = 0;
+
+        AtomicInteger imported = new AtomicInteger();
+        AtomicInteger noFace = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        IOException[] storeFailure = new IOException[1];
+        Semaphore slots = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (Writer checkpointWriter = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(checkpoint, true), StandardCharsets.UTF_8))) {
+            for (String path : photos) {
+                if (done.contains(path)) {
+                    skipped++;
+                    processed.incrementAndGet();
+                    continue;
+                }
+                slots.acquire();
+                if (cancelled) {
+                    slots.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        File photo = new File(dir, path);
+                        float[] embedding;
+                        try {
+                            embedding = processor.process(photo);
+                        } catch (IOException | RuntimeException e) {
+                            LOG.log(Level.WARNING, "处理照片失败: " + path, e);
+                            failed.incrementAndGet();
+                            markDone(checkpointWriter, path);
+                            return;
+                        }
+                        if (embedding == null) {
+                            noFace.incrementAndGet();
+                            markDone(checkpointWriter, path);
+                        } else {
+                            imported.addAndGet(addToBatch(path, embedding, checkpointWriter));
+                        }
+                    } catch (IOException e) {
+                        // 注册库或检查点写入失败，继续导入没有意义
+                        synchronized (storeFailure) {
+                            if (storeFailure[0] == null) {
+                                storeFailure[0] = e;
+                            }
+                        }
+                        cancelled = true;
+                    } finally {
+                        int count = processed.incrementAndGet();
+                        ProgressListener listener = progressListener;
+                        if (listener != null) {
+                            listener.onProgress(count, total);
+                        }
+                        // 最后归还槽位，importDirectory 等到全部归还时计数已完整
+                        slots.release();
+                    }
+                });
+            }
+            // 等待在途照片全部完成，写入最后一批
+            slots.acquire(maxInFlight);
+            slots.release(maxInFlight);
+            if (storeFailure[0] == null) {
+                imported.addAndGet(flushBatch(checkpointWriter));
+            }
+        } finally {
+            clearBatch();
+            executor.shutdown();
+        }
+        if (storeFailure[0] != null) {
+            throw storeFailure[0];
+        }
+        int duplicateCount;
+        synchronized (this) {
+            duplicateCount = duplicates;
+        }
+        Report report = new Report(total, skipped, imported.get(), noFace.get(), failed.get(), duplicateCount,
+                processed.get() == total, System.nanoTime() - start);
+        LOG.info("批量导入: " + report);
+        return report;
+    }
+
+    /**
+     * 把一张照片的结果加入当前批，满批时写入注册库，返回本次写入的数量
+     */
+    private synchronized int addToBatch(String path, float[] embedding, Writer checkpoint) throws IOException {
+        String name = nameOf(path);
+        if (duplicateDetector != null) {
+            List<NearDuplicateDetector.Duplicate> found = duplicateDetector.add(name, embedding);
+            if (!found.isEmpty()) {
+                duplicates++;
+                LOG.warning("疑似重复注册: " + path + " ~ " + found);
+            }
+        }
+        batchPaths.add(path);
+        batchNames.add(name);
+        batchEmbeddings.add(embedding);
+        return batchPaths.size() >= batchSize ? flushBatch(checkpoint) : 0;
+    }
+
+    /**
+     * 当前批写入注册库后再记入检查点，返回写入的数量
+     */
+    private synchronized int flushBatch(Writer checkpoint) throws IOException {
+        int count = batchPaths.size();
+        if (count == 0) {
+            return 0;
+        }
+        store.putAll(batchNames, batchEmbeddings);
+        for (String path : batchPaths) {
+            markDone(checkpoint, path);
+        }
+        clearBatch();
+        return count;
+    }
+
+    private synchronized void clearBatch() {
+        batchPaths.clear();
+        batchNames.clear();
+        batchEmbeddings.clear();
+    }
+
+    private static void markDone(Writer checkpoint, String path) throws IOException {
+        synchronized (checkpoint) {
+            checkpoint.write(path);
+            checkpoint.write('\n');
+            checkpoint.flush();
+        }
+    }
+
+    /**
+     * 目录（含子目录）中的照片，按相对路径排序，保证多次导入顺序一致
+     */
+    public static List<String> listPhotos(File dir) {
+        List<String> photos = new ArrayList<>();
+        collectPhotos(dir, "", photos);
+        photos.sort(null);
+        return photos;
+    }
+
+    private static void collectPhotos(File dir, String prefix, List<String> out) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                collectPhotos(file, path + "/", out);
+            } else if (isPhoto(file.getName())) {
+                out.add(path);
+            }
+        }
+    }
+
+    private static boolean isPhoto(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : PHOTO_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 由照片路径得到用户名：取文件名，去掉扩展名与 face_ 前缀
+     * 例如: dept/face_john.jpg -> john
+     */
+    public static String nameOf(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        if (name.startsWith(FACE_PREFIX) && name.length() > FACE_PREFIX.length()) {
+            name = name.substring(FACE_PREFIX.length());
+        }
+        return name;
+    }
+
+    /**
+     * 崩溃时检查点最后一行可能缺少换行，补上后再追加，避免与下一条路径粘连
+     */
+    private static void terminateLastLine(File checkpoint) throws IOException {
+        if (!checkpoint.exists() || checkpoint.length() == 0) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(checkpoint, "rw")) {
+            raf.seek(raf.length() - 1);
+            if (raf.read() != '\n') {
+                raf.write('\n');
+            }
+        }
+    }
+
+    private static Set<String> readCheckpoint(File checkpoint) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!checkpoint.exists()) {
+            return done;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(checkpoint), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // 崩溃时最后一行可能不完整，不完整的路径不会与任何照片匹配，重做即可
+                if (!line.isEmpty()) {
+                    done.add(line);
+                }
+            }
+        }
+        return done;
+    }
+}
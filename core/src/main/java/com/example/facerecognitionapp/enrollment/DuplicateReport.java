@@ -0,0 +1,138 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.LshIndex;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全库近似重复报告：把相似度不低于阈值的条目按连通关系分组（a~b、b~c 则 a、b、c 同组）
+ * <p>
+ * 对全库建 LSH 索引后只比较同桶的候选对，而不是 n(n-1)/2 对全部比较，10 万人规模下候选对通常只有
+ * 百万量级；代价是相似度接近阈值的少数对可能漏报（见 LshIndex 的召回说明）
+ */
+public class DuplicateReport {
+    public final int identities;       // 人脸库人数
+    public final int pairs;            // 近似重复的条目对数
+    public final long candidatePairs;  // 精确比较过的候选对数
+    public final List<Group> groups;   // 按组大小降序
+    public final long elapsedNanos;
+
+    /**
+     * 一组互为近似重复的条目
+     */
+    public static class Group {
+        public final int[] indices;    // 人脸库序号，升序
+        public final String[] names;
+        public final float maxScore;   // 组内最高相似度
+
+        Group(int[] indices, String[] names, float maxScore) {
+            this.indices = indices;
+            this.names = names;
+            this.maxScore = maxScore;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(", ", names) + String.format(Locale.US, " (max %.3f)", maxScore);
+        }
+    }
+
+    private DuplicateReport(int identities, int pairs, long candidatePairs, List<Group> groups,
+                            long elapsedNanos) {
+        this.identities = identities;
+        this.pairs = pairs;
+        this.candidatePairs = candidatePairs;
+        this.groups = groups;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 扫描整个人脸库，调用期间人脸库须保持可读
+     */
+    public static DuplicateReport build(NamedVectorStore gallery, float threshold) {
+        long start = System.nanoTime();
+        int n = gallery.size();
+        LshIndex index = LshIndex.build(gallery);
+
+        // 并查集合并近似重复对
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        float[] maxScores = new float[n];
+        int[] pairs = new int[1];
+        long candidates = index.forEachPair(threshold, (a, b, score) -> {
+            pairs[0]++;
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra != rb) {
+                parent[rb] = ra;
+                maxScores[ra] = Math.max(maxScores[ra], maxScores[rb]);
+            }
+            maxScores[ra] = Math.max(maxScores[ra], score);
+        });
+
+        // 按根收集组员（序号升序遍历，组内自然有序）
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            sizes[find(parent, i)]++;
+        }
+        int[][] members = new int[n][];
+        int[] filled = new int[n];
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (sizes[root] < 2) {
+                continue;
+            }
+            if (members[root] == null) {
+                members[root] = new int[sizes[root]];
+            }
+            members[root][filled[root]++] = i;
+            if (filled[root] == sizes[root]) {
+                String[] names = new String[sizes[root]];
+                for (int k = 0; k < names.length; k++) {
+                    names[k] = gallery.getName(members[root][k]);
+                }
+                groups.add(new Group(members[root], names, maxScores[root]));
+                members[root] = null;
+            }
+        }
+        groups.sort((a, b) -> b.indices.length != a.indices.length
+                ? b.indices.length - a.indices.length : Integer.compare(a.indices[0], b.indices[0]));
+        return new DuplicateReport(n, pairs[0], candidates, Collections.unmodifiableList(groups),
+                System.nanoTime() - start);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * 涉及近似重复的条目数
+     */
+    public int getDuplicateCount() {
+        int count = 0;
+        for (Group group : groups) {
+            count += group.indices.length;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        long allPairs = (long) identities * (identities - 1) / 2;
+        return String.format(Locale.US,
+                "identities %d groups %d duplicates %d pairs %d, compared %d of %d pairs in %.1fs",
+                identities, groups.size(), getDuplicateCount(), pairs, candidatePairs, allPairs,
+                elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 注册库某一时刻的不可变视图：基线（快照）中仍有效的记录 + 其后的增量记录，编号连续。
+ * 基线向量不拷贝，直接读取快照（内存映射）；增量向量按行连续存放。
+ * 可在任意线程读取，注册库修改时发布新的视图而不修改旧视图。
+ * 跨越压缩长期持有视图的读取方应先 retainBase，保证期间快照文件不被关闭
+ */
+public class EnrollmentGallery implements NamedVectorStore {
+    private final NamedVectorStore base;
+    // 基线中仍有效的序号（升序），null 表示基线全部有效
+    private final int[] baseSlots;
+    private final int baseCount;
+    private final String[] deltaNames;
+    private final float[] deltaVectors;
+    private final int dimension;
+    private final long version;
+    // 基线所在映射快照的引用计数，基线不来自快照时为null
+    private final SnapshotLease lease;
+
+    EnrollmentGallery(NamedVectorStore base, SnapshotLease lease, int[] baseSlots, String[] deltaNames,
+                      float[] deltaVectors, int dimension, long version) {
+        this.base = base;
+        this.lease = lease;
+        this.baseSlots = baseSlots;
+        this.baseCount = baseSlots != null ? baseSlots.length : (base != null ? base.size() : 0);
+        this.deltaNames = deltaNames;
+        this.deltaVectors = deltaVectors;
+        this.dimension = dimension;
+        this.version = version;
+    }
+
+    /**
+     * 空库
+     */
+    static EnrollmentGallery empty(int dimension) {
+        return new EnrollmentGallery(null, null, null, new String[0], new float[0], dimension, 0L);
+    }
+
+    /**
+     * 内容版本：(快照代数 << 32) | 本代日志记录数，内容相同的视图版本相同，可作为索引文件的指纹
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 持有基线快照的一个引用，返回的 Closeable 关闭时归还（重复关闭无效），归还前快照文件不会被关闭。
+     * 视图过旧、其快照已被回收时返回null
+     */
+    public Closeable retainBase() {
+        if (lease == null) {
+            return () -> {
+            };
+        }
+        if (!lease.retain()) {
+            return null;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                lease.release();
+            }
+        };
+    }
+
+    /**
+     * 基线快照是否已关闭（供测试）
+     */
+    boolean isBaseClosed() {
+        return lease != null && lease.isClosed();
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return baseCount + deltaNames.length;
+    }
+
+    @Override
+    public String getName(int index) {
+        if (index < baseCount) {
+            return base.getName(baseSlot(index));
+        }
+        return deltaNames[index - baseCount];
+    }
+
+    @Override
+    public float dot(int index, float[] query) {
+        if (index < baseCount) {
+            return base.dot(baseSlot(index), query);
+        }
+        int offset = (index - baseCount) * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += deltaVectors[offset + i] * query[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void getEmbedding(int index, float[] out) {
+        if (index < baseCount) {
+            base.getEmbedding(baseSlot(index), out);
+            return;
+        }
+        System.arraycopy(deltaVectors, (index - baseCount) * dimension, out, 0, dimension);
+    }
+
+    private int baseSlot(int index) {
+        return baseSlots != null ? baseSlots[index] : index;
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.facerecognitionapp.enrollment;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * 注册库的追加写日志，记录某一代快照之后的增量修改
+ * 文件布局（小端序）：
+ * <pre>
+ * [header 24B] magic, version, dimension, reserved, generation(long)
+ * [records]    length(int), crc32(int), payload[length]
+ * payload:     op(byte), baseSlot(int), nameLength(int), name(UTF-8), [dimension 个 float，仅 PUT]
+ * </pre>
+ * baseSlot 是被替换/删除的人在本代基线（快照）中的序号，-1 表示不在基线中，
+ * 回放时无需按名字查找基线，启动耗时只与日志长度成正比。
+ * 追加后调用 sync() 落盘，崩溃时最多丢失未 sync 的记录；回放遇到残缺或校验失败的尾部时截断
+ */
+public class EnrollmentLog implements Closeable {
+    static final int MAGIC = 0x464C4F47; // "FLOG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    private static final int RECORD_HEADER_SIZE = 8;
+    static final byte OP_PUT = 1;
+    static final byte OP_REMOVE = 2;
+
+    /**
+     * 日志回放回调
+     */
+    public interface RecordVisitor {
+        /**
+         * 新增或更新一个人；baseSlot >= 0 时该人原先在基线中的记录作废
+         */
+        void onPut(String name, int baseSlot, float[] embedding);
+
+        /**
+         * 删除一个人；baseSlot >= 0 时删除的是基线中的记录，否则删除的是增量中的记录
+         */
+        void onRemove(String name, int baseSlot);
+    }
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int dimension;
+    private final long generation;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer;
+    private int recordCount;
+
+    private EnrollmentLog(RandomAccessFile file, int dimension, long generation) {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.dimension = dimension;
+        this.generation = generation;
+        this.buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + 64 + dimension * 4).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 新建（覆盖）一代空日志
+     */
+    public static EnrollmentLog create(File path, int dimension, long generation) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(path, "rw");
+        try {
+            raf.setLength(0);
+            EnrollmentLog log = new EnrollmentLog(raf, dimension, generation);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(0).putLong(generation);
+            header.flip();
+            log.writeFully(header, 0);
+            log.channel.force(true);
+            log.channel.position(HEADER_SIZE);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开已有日志：校验文件头，逐条回放有效记录，截断残缺的尾部，之后可继续追加
+     */
+    public static EnrollmentLog open(File path, int dimension, long generation, RecordVisitor visitor)
+            throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(path, "rw");
+        try {
+            EnrollmentLog log = new EnrollmentLog(raf, dimension, generation);
+            log.replay(visitor);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 本代日志中的有效记录数
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 日志文件字节数
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * 追加一条新增/更新记录
+     */
+    public void appendPut(String name, int baseSlot, float[] embedding) throws IOException {
+        if (embedding.length != dimension) {
+            throw new IllegalArgumentException("特征维度不一致: " + embedding.length);
+        }
+        append(OP_PUT, name, baseSlot, embedding);
+    }
+
+    /**
+     * 追加一条删除记录
+     */
+    public void appendRemove(String name, int baseSlot) throws IOException {
+        append(OP_REMOVE, name, baseSlot, null);
+    }
+
+    private void append(byte op, String name, int baseSlot, float[] embedding) throws IOException {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int payload = 1 + 4 + 4 + encoded.length + (embedding != null ? dimension * 4 : 0);
+        ensureBuffer(RECORD_HEADER_SIZE + payload);
+        buffer.clear();
+        buffer.position(RECORD_HEADER_SIZE);
+        buffer.put(op).putInt(baseSlot).putInt(encoded.length).put(encoded);
+        if (embedding != null) {
+            for (float v : embedding) {
+                buffer.putFloat(v);
+            }
+        }
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER_SIZE, payload);
+        buffer.putInt(0, payload);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        long position = channel.position();
+        writeFully(buffer, position);
+        channel.position(position + RECORD_HEADER_SIZE + payload);
+        recordCount++;
+    }
+
+    /**
+     * 把已追加的记录刷到存储设备
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    private void replay(RecordVisitor visitor) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("注册日志文件头不完整");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的注册日志文件");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("不支持的注册日志版本: " + header.getInt(4));
+        }
+        if (header.getInt(8) != dimension || header.getLong(16) != generation) {
+            throw new IOException("注册日志与快照不匹配");
+        }
+
+        long position = HEADER_SIZE;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            int payload = recordHeader.getInt(0);
+            int checksum = recordHeader.getInt(4);
+            if (payload < 9 || position + RECORD_HEADER_SIZE + payload > size) {
+                break;
+            }
+            ensureBuffer(payload);
+            buffer.clear();
+            buffer.limit(payload);
+            readFully(buffer, position + RECORD_HEADER_SIZE);
+            crc.reset();
+            crc.update(buffer.array(), 0, payload);
+            if ((int) crc.getValue() != checksum || !dispatch(buffer, payload, visitor)) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + payload;
+            recordCount++;
+        }
+        if (position < size) {
+            // 崩溃时写了一半的记录，丢弃后从有效末尾继续追加
+            channel.truncate(position);
+            channel.force(true);
+        }
+        channel.position(position);
+    }
+
+    /**
+     * 解析一条已通过校验的记录并回调，格式不符时返回false
+     */
+    private boolean dispatch(ByteBuffer record, int payload, RecordVisitor visitor) {
+        record.position(0);
+        byte op = record.get();
+        int baseSlot = record.getInt();
+        int nameLength = record.getInt();
+        if (nameLength < 0 || 9 + nameLength > payload) {
+            return false;
+        }
+        String name = new String(record.array(), 9, nameLength, StandardCharsets.UTF_8);
+        if (op == OP_PUT) {
+            if (payload != 9 + nameLength + dimension * 4) {
+                return false;
+            }
+            record.position(9 + nameLength);
+            float[] embedding = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                embedding[i] = record.getFloat();
+            }
+            visitor.onPut(name, baseSlot, embedding);
+            return true;
+        }
+        if (op == OP_REMOVE && payload == 9 + nameLength) {
+            visitor.onRemove(name, baseSlot);
+            return true;
+        }
+        return false;
+    }
+
+    private void ensureBuffer(int capacity) {
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private void writeFully(ByteBuffer src, long position) throws IOException {
+        while (src.hasRemaining()) {
+            position += channel.write(src, position);
+        }
+    }
+
+    private void readFully(ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, position);
+            if (read < 0) {
+                throw new IOException("注册日志意外结束");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,467 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.FaceGallery;
+import com.example.facerecognitionapp.recognition.FaceGalleryWriter;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 可在运行时增删改的持久化注册库
+ * <p>
+ * 目录下按"代"保存文件：快照 snapshot.&lt;gen&gt;.bin（FaceGallery 格式，内存映射）+
+ * 追加写日志 enrollment.&lt;gen&gt;.log（该代快照之后的修改）。启动时映射最新快照并回放日志，
+ * 耗时只与上次快照以来的修改量成正比，与人脸库规模无关。
+ * <p>
+ * 日志记录数超过阈值时在后台压缩：先切到新一代空日志（以当前视图为基线，之后的修改写入新日志），
+ * 再把当前视图写成新快照，成功后删除旧文件。压缩途中崩溃时，启动会依次回放各代日志恢复同样的内容。
+ * <p>
+ * 每次修改后发布新的不可变 EnrollmentGallery，读取方（识别线程）无需加锁。
+ * 压缩换上新快照后，旧快照文件在仍持有它的读取方（EnrollmentGallery.retainBase）全部归还后才关闭
+ */
+public class EnrollmentStore implements Closeable {
+    private static final String TAG = "EnrollmentStore";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    private static final String SNAPSHOT_PREFIX = "snapshot.";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String LOG_PREFIX = "enrollment.";
+    private static final String LOG_SUFFIX = ".log";
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 256;
+    // 大库按基线规模的比例放宽压缩阈值，避免频繁重写整份快照
+    private static final int COMPACTION_BASE_DIVISOR = 8;
+
+    /**
+     * 注册库内容变化监听器，在修改线程（或后台压缩线程）回调，不应阻塞
+     */
+    public interface Listener {
+        void onGalleryChanged(EnrollmentGallery gallery);
+    }
+
+    private final File dir;
+    private final int dimension;
+    private final Executor compactionExecutor;
+
+    // 以下状态都由 this 锁保护
+    private long generation;
+    private NamedVectorStore base;        // 本代基线：映射的快照，或压缩期间尚未落盘的上一版视图
+    private SnapshotLease lease;          // 基线所在映射快照的引用计数，注册库自己持有一个引用
+    private final BitSet baseRemoved = new BitSet();
+    private Map<String, Integer> baseIndex; // 基线 名字 -> 序号，首次修改时才建立
+    private final LinkedHashMap<String, float[]> delta = new LinkedHashMap<>();
+    private EnrollmentLog log;
+    private Listener listener;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private boolean compacting;
+    private boolean closed;
+
+    private volatile EnrollmentGallery gallery;
+
+    private final EnrollmentLog.RecordVisitor replayVisitor = new EnrollmentLog.RecordVisitor() {
+        @Override
+        public void onPut(String name, int baseSlot, float[] embedding) {
+            applyPut(name, baseSlot, embedding);
+        }
+
+        @Override
+        public void onRemove(String name, int baseSlot) {
+            applyRemove(name, baseSlot);
+        }
+    };
+
+    private EnrollmentStore(File dir, int dimension, Executor compactionExecutor) {
+        this.dir = dir;
+        this.dimension = dimension;
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    /**
+     * 打开（不存在时新建）注册库目录
+     *
+     * @param compactionExecutor 后台压缩所在线程池，为null时只在显式调用 compact() 时压缩
+     */
+    public static EnrollmentStore open(File dir, int dimension, Executor compactionExecutor) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建注册库目录: " + dir);
+        }
+        EnrollmentStore store = new EnrollmentStore(dir, dimension, compactionExecutor);
+        try {
+            store.recover();
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * 映射最新快照，按代依次回放其后的日志；多于一代日志说明上次压缩未完成，重新压缩
+     */
+    private synchronized void recover() throws IOException {
+        long snapshotGeneration = latestGeneration(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshotGeneration >= 0) {
+            FaceGallery snapshot = FaceGallery.open(snapshotFile(snapshotGeneration));
+            lease = new SnapshotLease(snapshot);
+            if (snapshot.getDimension() != dimension) {
+                throw new IOException("注册库快照维度不一致: " + snapshot.getDimension());
+            }
+            base = snapshot;
+            generation = snapshotGeneration;
+        }
+
+        long first = Math.max(0L, snapshotGeneration);
+        int replayed = 0;
+        for (long g = first; logFile(g).exists(); g++) {
+            if (g > first) {
+                // 上一代日志回放后的内容即为这一代的基线（与压缩时的编号一致）
+                closeLog();
+                rebase(buildGallery());
+                generation = g;
+            }
+            log = EnrollmentLog.open(logFile(g), dimension, g, replayVisitor);
+            replayed++;
+        }
+        if (log == null) {
+            log = EnrollmentLog.create(logFile(generation), dimension, generation);
+        }
+        deleteGenerationsBefore(first);
+        publish();
+        LOG.fine("注册库打开完成: 第 " + generation + " 代，" + gallery.size() + " 人，回放 "
+                + log.getRecordCount() + " 条日志");
+        if (replayed > 1) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * 当前内容（不可变视图，可在任意线程读取）
+     */
+    public EnrollmentGallery getGallery() {
+        return gallery;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 设置内容变化监听器（可为null）
+     */
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 设置触发后台压缩的日志记录数（大库会按基线规模适当放宽）
+     */
+    public synchronized void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = Math.max(1, compactionThreshold);
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 当前一代日志中的记录数（即启动时需要回放的修改量）
+     */
+    public synchronized int getLogRecordCount() {
+        return log.getRecordCount();
+    }
+
+    public synchronized boolean contains(String name) {
+        return delta.containsKey(name) || baseSlotOf(name) >= 0;
+    }
+
+    /**
+     * 注册或更新一个人，写入日志后立即生效
+     */
+    public synchronized void put(String name, float[] embedding) throws IOException {
+        putAll(Collections.singletonList(name), Collections.singletonList(embedding));
+    }
+
+    /**
+     * 批量注册或更新：逐条写日志后只落盘、发布一次，用于批量导入
+     */
+    public synchronized void putAll(List<String> names, List<float[]> embeddings) throws IOException {
+        checkOpen();
+        if (names.size() != embeddings.size()) {
+            throw new IllegalArgumentException("names/embeddings 数量不一致");
+        }
+        for (float[] embedding : embeddings) {
+            if (embedding.length != dimension) {
+                throw new IllegalArgumentException("特征维度不一致: " + embedding.length);
+            }
+        }
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            int baseSlot = baseSlotOf(name);
+            log.appendPut(name, baseSlot, embeddings.get(i));
+            applyPut(name, baseSlot, embeddings.get(i).clone());
+        }
+        log.sync();
+        publish();
+        maybeScheduleCompaction();
+    }
+
+    /**
+     * 删除一个人，不存在时返回false
+     */
+    public synchronized boolean remove(String name) throws IOException {
+        checkOpen();
+        int baseSlot = baseSlotOf(name);
+        if (baseSlot < 0 && !delta.containsKey(name)) {
+            return false;
+        }
+        log.appendRemove(name, baseSlot);
+        log.sync();
+        applyRemove(name, baseSlot);
+        publish();
+        maybeScheduleCompaction();
+        return true;
+    }
+
+    /**
+     * 立即在调用线程压缩：当前内容写成新一代快照并清空日志。期间的修改写入新一代日志，不受阻塞
+     */
+    public void compact() throws IOException {
+        EnrollmentGallery source;
+        long target;
+        synchronized (this) {
+            if (compacting || closed) {
+                return;
+            }
+            EnrollmentLog next = EnrollmentLog.create(logFile(generation + 1), dimension, generation + 1);
+            compacting = true;
+            source = gallery;
+            target = generation + 1;
+            closeLog();
+            log = next;
+            generation = target;
+            rebase(source);
+            publish();
+        }
+
+        SnapshotLease previous = null;
+        try {
+            writeSnapshot(source, target);
+            FaceGallery mapped = FaceGallery.open(snapshotFile(target));
+            synchronized (this) {
+                if (closed) {
+                    mapped.close();
+                    return;
+                }
+                previous = lease;
+                lease = new SnapshotLease(mapped);
+                // 快照编号与 source 一致，只是把基线换成映射文件，内容不变
+                base = mapped;
+                publish();
+            }
+            deleteGenerationsBefore(target);
+            LOG.fine("注册库压缩完成: 第 " + target + " 代，" + source.size() + " 人");
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+            if (previous != null) {
+                // 仍在匹配中的旧视图归还后才真正关闭
+                previous.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        closeLog();
+        if (lease != null) {
+            lease.release();
+            lease = null;
+        }
+    }
+
+    private void applyPut(String name, int baseSlot, float[] embedding) {
+        if (baseSlot >= 0) {
+            baseRemoved.set(baseSlot);
+        }
+        delta.put(name, embedding);
+    }
+
+    private void applyRemove(String name, int baseSlot) {
+        if (baseSlot >= 0) {
+            baseRemoved.set(baseSlot);
+        } else {
+            delta.remove(name);
+        }
+    }
+
+    /**
+     * 名字在基线中的有效序号，不存在或已被替换/删除时返回 -1
+     */
+    private int baseSlotOf(String name) {
+        if (base == null) {
+            return -1;
+        }
+        if (baseIndex == null) {
+            int count = base.size();
+            Map<String, Integer> index = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                index.put(base.getName(i), i);
+            }
+            baseIndex = index;
+        }
+        Integer slot = baseIndex.get(name);
+        return slot != null && !baseRemoved.get(slot) ? slot : -1;
+    }
+
+    /**
+     * 以 view 为新的基线，清空增量
+     */
+    private void rebase(NamedVectorStore view) {
+        base = view;
+        baseRemoved.clear();
+        baseIndex = null;
+        delta.clear();
+    }
+
+    private void publish() {
+        gallery = buildGallery();
+        if (listener != null) {
+            listener.onGalleryChanged(gallery);
+        }
+    }
+
+    private EnrollmentGallery buildGallery() {
+        int[] baseSlots = null;
+        if (base != null && !baseRemoved.isEmpty()) {
+            int count = base.size();
+            baseSlots = new int[count - baseRemoved.cardinality()];
+            int n = 0;
+            for (int i = baseRemoved.nextClearBit(0); i < count; i = baseRemoved.nextClearBit(i + 1)) {
+                baseSlots[n++] = i;
+            }
+        }
+        String[] names = new String[delta.size()];
+        float[] vectors = new float[delta.size() * dimension];
+        int i = 0;
+        for (Map.Entry<String, float[]> entry : delta.entrySet()) {
+            names[i] = entry.getKey();
+            System.arraycopy(entry.getValue(), 0, vectors, i * dimension, dimension);
+            i++;
+        }
+        int records = log != null ? log.getRecordCount() : 0;
+        return new EnrollmentGallery(base, lease, baseSlots, names, vectors, dimension,
+                (generation << 32) | records);
+    }
+
+    private void maybeScheduleCompaction() {
+        int baseSize = base != null ? base.size() : 0;
+        int threshold = Math.max(compactionThreshold, baseSize / COMPACTION_BASE_DIVISOR);
+        if (!compacting && log.getRecordCount() >= threshold) {
+            scheduleCompaction();
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (compactionExecutor == null) {
+            return;
+        }
+        compactionExecutor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "注册库压缩失败，下次启动时回放日志", e);
+            }
+        });
+    }
+
+    private void writeSnapshot(EnrollmentGallery source, long generation) throws IOException {
+        int count = source.size();
+        List<String> names = new ArrayList<>(count);
+        List<float[]> embeddings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] embedding = new float[source.getDimension()];
+            source.getEmbedding(i, embedding);
+            names.add(source.getName(i));
+            embeddings.add(embedding);
+        }
+        // 快照的源指纹字段记录代数
+        FaceGalleryWriter.write(snapshotFile(generation), source.getDimension(), names, embeddings, generation);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("注册库已关闭");
+        }
+    }
+
+    private void closeLog() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private File snapshotFile(long generation) {
+        return new File(dir, SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    private File logFile(long generation) {
+        return new File(dir, LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    /**
+     * 目录中某类文件的最大代数，没有时返回 -1
+     */
+    private long latestGeneration(String prefix, String suffix) {
+        long latest = -1;
+        for (long g : listGenerations(prefix, suffix)) {
+            latest = Math.max(latest, g);
+        }
+        return latest;
+    }
+
+    private List<Long> listGenerations(String prefix, String suffix) {
+        String[] files = dir.list();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<Long> generations = new ArrayList<>();
+        for (String file : files) {
+            if (file.startsWith(prefix) && file.endsWith(suffix)) {
+                try {
+                    generations.add(Long.parseLong(file.substring(prefix.length(), file.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {
+                    // 非本库文件（如写快照的 .tmp）
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * 删除早于 generation 的快照与日志
+     */
+    private void deleteGenerationsBefore(long generation) {
+        for (long g : listGenerations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (g < generation && !snapshotFile(g).delete()) {
+                LOG.warning("删除旧快照失败: " + snapshotFile(g));
+            }
+        }
+        for (long g : listGenerations(LOG_PREFIX, LOG_SUFFIX)) {
+            if (g < generation && !logFile(g).delete()) {
+                LOG.warning("删除旧日志失败: " + logFile(g));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.ArrayVectorStore;
+import com.example.facerecognitionapp.recognition.LshIndex;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 注册时的近似重复检测：每条新注册的特征与已有人脸库及本次已注册的特征比对，
+ * 找出余弦相似度不低于阈值、但用户名不同的条目（同一人以多个名字注册，或同一照片的多个副本）。
+ * <p>
+ * 已有人脸库只建 LSH 签名（不拷贝向量，读取映射的快照确认候选），本次新增的特征另存一份，
+ * 每次检测只比较与其同桶的候选，耗时与库规模基本无关。
+ * 同名条目视为更新，不报告。线程安全
+ */
+public class NearDuplicateDetector {
+    // 同一人不同照片的相似度通常明显低于该值，超过时多为同一照片或几乎相同的照片
+    public static final float DEFAULT_THRESHOLD = 0.92f;
+    // 单次报告的近似重复条目上限
+    private static final int MAX_DUPLICATES = 8;
+
+    /**
+     * 一条近似重复
+     */
+    public static class Duplicate {
+        public final String name;       // 新注册的用户名
+        public final String otherName;  // 与之重复的已有用户名
+        public final float score;
+
+        Duplicate(String name, String otherName, float score) {
+            this.name = name;
+            this.otherName = otherName;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return name + " ~ " + otherName + " (" + score + ")";
+        }
+    }
+
+    private final NamedVectorStore existing;
+    private final LshIndex existingIndex;
+    private final ArrayVectorStore added;
+    private final List<String> addedNames = new ArrayList<>();
+    private final LshIndex addedIndex;
+    private final float threshold;
+    private final int[] ids = new int[MAX_DUPLICATES];
+    private final float[] scores = new float[MAX_DUPLICATES];
+
+    /**
+     * @param existing 已有人脸库，为null时只检测本次注册的条目之间的重复；检测期间须保持可读
+     */
+    public NearDuplicateDetector(NamedVectorStore existing, int dimension, float threshold) {
+        this.existing = existing;
+        this.existingIndex = existing != null && existing.size() > 0 ? LshIndex.build(existing) : null;
+        this.added = new ArrayVectorStore(dimension, 64);
+        this.addedIndex = new LshIndex(added);
+        this.threshold = threshold;
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 检测一条新注册的特征并记入本次注册，返回与之近似重复的条目（按相似度降序），没有时返回空列表
+     */
+    public synchronized List<Duplicate> add(String name, float[] embedding) {
+        List<Duplicate> duplicates = Collections.emptyList();
+        if (existingIndex != null) {
+            int found = existingIndex.search(embedding, threshold, ids, scores);
+            duplicates = collect(name, found, existing::getName, duplicates);
+        }
+        int found = addedIndex.search(embedding, threshold, ids, scores);
+        duplicates = collect(name, found, addedNames::get, duplicates);
+        if (duplicates.size() > 1) {
+            duplicates.sort((a, b) -> Float.compare(b.score, a.score));
+        }
+        added.add(embedding);
+        addedNames.add(name);
+        addedIndex.addAll();
+        return duplicates;
+    }
+
+    private List<Duplicate> collect(String name, int found, IntFunction<String> names,
+                                    List<Duplicate> out) {
+        for (int i = 0; i < found; i++) {
+            String other = names.apply(ids[i]);
+            if (name.equals(other)) {
+                continue;
+            }
+            if (out.isEmpty()) {
+                out = new ArrayList<>();
+            }
+            out.add(new Duplicate(name, other, scores[i]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.FaceGallery;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 映射快照的引用计数：注册库持有一个引用，读取方经 EnrollmentGallery.retainBase 各持有一个，
+ * 计数归零时关闭快照文件。压缩换上新快照后注册库归还自己的引用，
+ * 旧快照在最后一个仍在使用它的读取方归还后才关闭
+ */
+final class SnapshotLease {
+    private static final String TAG = "SnapshotLease";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    private final FaceGallery snapshot;
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    SnapshotLease(FaceGallery snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    FaceGallery getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 增加一个引用，快照已关闭时返回false
+     */
+    boolean retain() {
+        while (true) {
+            int count = refs.get();
+            if (count == 0) {
+                return false;
+            }
+            if (refs.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还一个引用，最后一个引用归还时关闭快照文件（在归还方线程执行）
+     */
+    void release() {
+        int count = refs.decrementAndGet();
+        if (count < 0) {
+            throw new IllegalStateException("快照引用计数为负");
+        }
+        if (count == 0) {
+            try {
+                snapshot.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "关闭快照失败", e);
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return refs.get() == 0;
+    }
+}
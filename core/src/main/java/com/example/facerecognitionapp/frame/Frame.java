@@ -0,0 +1,51 @@
+package com.example.facerecognitionapp.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 一帧 YUV_420_888 图像（与具体相机实现无关）
+ * 帧由消费方负责 close；close 后不得再访问平面数据
+ */
+public interface Frame {
+
+    /**
+     * 单个图像平面
+     */
+    interface Plane {
+        ByteBuffer getBuffer();
+
+        int getRowStride();
+
+        int getPixelStride();
+    }
+
+    /**
+     * 原始（传感器方向）宽度
+     */
+    int getWidth();
+
+    /**
+     * 原始（传感器方向）高度
+     */
+    int getHeight();
+
+    /**
+     * 帧需要顺时针旋转的角度（0/90/180/270）才能正立显示
+     */
+    int getRotationDegrees();
+
+    /**
+     * 采集时间戳（纳秒，单调递增）
+     */
+    long getTimestampNanos();
+
+    /**
+     * 平面：0 = Y，1 = U，2 = V
+     */
+    Plane getPlane(int index);
+
+    /**
+     * 释放帧，相机实现会把缓冲区还给相机
+     */
+    void close();
+}
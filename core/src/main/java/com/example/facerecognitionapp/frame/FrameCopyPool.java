@@ -0,0 +1,52 @@
+package com.example.facerecognitionapp.frame;
+
+/**
+ * 帧拷贝池：把相机帧拷贝到固定数量的复用直接缓冲区中，使原始帧可以立即关闭
+ * 池容量即同时存活的拷贝数上限，稳态下（帧尺寸不变）不产生分配；线程安全
+ */
+public class FrameCopyPool {
+    private final PooledFrame[] free;
+    private int freeCount;
+
+    public FrameCopyPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0");
+        }
+        free = new PooledFrame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = new PooledFrame(this);
+        }
+        freeCount = capacity;
+    }
+
+    /**
+     * 拷贝 source（不会关闭它），池已耗尽时返回null；返回的帧用完后须 close 以归还
+     */
+    public PooledFrame copyOf(Frame source) {
+        PooledFrame frame;
+        synchronized (this) {
+            if (freeCount == 0) {
+                return null;
+            }
+            frame = free[--freeCount];
+        }
+        // 拷贝在锁外进行，各拷贝互不共享缓冲区
+        frame.copyFrom(source);
+        return frame;
+    }
+
+    synchronized void recycle(PooledFrame frame) {
+        free[freeCount++] = frame;
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+
+    /**
+     * 当前空闲的拷贝数
+     */
+    public synchronized int getAvailable() {
+        return freeCount;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.facerecognitionapp.frame;
+
+/**
+ * 正立坐标系（检测结果所在坐标系）与传感器原始坐标系之间的矩形换算
+ */
+public final class FrameGeometry {
+
+    private FrameGeometry() {
+    }
+
+    /**
+     * 将正立坐标系下的矩形 [left, top, right, bottom) 换算为原始坐标系矩形，写入 out
+     *
+     * @param rawWidth  原始（传感器方向）宽度
+     * @param rawHeight 原始（传感器方向）高度
+     */
+    public static void uprightToRaw(int left, int top, int right, int bottom,
+                                    int rotationDegrees, int rawWidth, int rawHeight, int[] out) {
+        switch (rotationDegrees) {
+            case 90:
+                out[0] = top;
+                out[1] = rawHeight - right;
+                out[2] = bottom;
+                out[3] = rawHeight - left;
+                break;
+            case 180:
+                out[0] = rawWidth - right;
+                out[1] = rawHeight - bottom;
+                out[2] = rawWidth - left;
+                out[3] = rawHeight - top;
+                break;
+            case 270:
+                out[0] = rawWidth - bottom;
+                out[1] = left;
+                out[2] = rawWidth - top;
+                out[3] = right;
+                break;
+            default:
+                out[0] = left;
+                out[1] = top;
+                out[2] = right;
+                out[3] = bottom;
+                break;
+        }
+    }
+}
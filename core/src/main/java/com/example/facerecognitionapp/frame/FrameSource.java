@@ -0,0 +1,24 @@
+package com.example.facerecognitionapp.frame;
+
+/**
+ * 帧来源（相机、录制回放等）
+ */
+public interface FrameSource {
+
+    /**
+     * 帧监听器；帧的所有权随回调转移，监听器负责 close
+     */
+    interface FrameListener {
+        void onFrame(Frame frame);
+    }
+
+    /**
+     * 开始推送帧
+     */
+    void start(FrameListener listener);
+
+    /**
+     * 停止推送帧
+     */
+    void stop();
+}
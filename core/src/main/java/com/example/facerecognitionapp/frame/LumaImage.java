@@ -0,0 +1,126 @@
+package com.example.facerecognitionapp.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 亮度(Y)平面视图
+ * 直接包装相机帧的Y平面缓冲区（不拷贝），并按旋转角度提供"正立"坐标系下的访问，
+ * 正立坐标系与ML Kit返回的人脸框坐标系一致
+ */
+public class LumaImage {
+    private ByteBuffer buffer;
+    private int rowStride;
+    private int pixelStride;
+    private int width;            // 原始（传感器方向）宽度
+    private int height;           // 原始（传感器方向）高度
+    private int rotationDegrees;  // 0/90/180/270
+
+    /**
+     * 绑定一块Y平面缓冲区，可在每帧重复调用以复用对象
+     */
+    public void set(ByteBuffer buffer, int rowStride, int pixelStride,
+                    int width, int height, int rotationDegrees) {
+        this.buffer = buffer;
+        this.rowStride = rowStride;
+        this.pixelStride = pixelStride;
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = ((rotationDegrees % 360) + 360) % 360;
+    }
+
+    /**
+     * 由ARGB像素构建亮度图像（用于注册照片等非相机来源）
+     */
+    public static LumaImage fromArgb(int[] pixels, int width, int height) {
+        byte[] luma = new byte[width * height];
+        for (int i = 0; i < luma.length; i++) {
+            int c = pixels[i];
+            int r = (c >> 16) & 0xFF;
+            int g = (c >> 8) & 0xFF;
+            int b = c & 0xFF;
+            // BT.601 亮度近似
+            luma[i] = (byte) ((77 * r + 150 * g + 29 * b) >> 8);
+        }
+        LumaImage image = new LumaImage();
+        image.set(ByteBuffer.wrap(luma), width, 1, width, height, 0);
+        return image;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    public int getPixelStride() {
+        return pixelStride;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    /**
+     * 正立坐标系宽度
+     */
+    public int getUprightWidth() {
+        return (rotationDegrees == 90 || rotationDegrees == 270) ? height : width;
+    }
+
+    /**
+     * 正立坐标系高度
+     */
+    public int getUprightHeight() {
+        return (rotationDegrees == 90 || rotationDegrees == 270) ? width : height;
+    }
+
+    /**
+     * 读取原始坐标的亮度值（0-255）
+     */
+    public int getRaw(int x, int y) {
+        return buffer.get(y * rowStride + x * pixelStride) & 0xFF;
+    }
+
+    /**
+     * 读取正立坐标的亮度值（最近邻，越界时截断到边缘）
+     */
+    public int getUpright(int ux, int uy) {
+        int uw = getUprightWidth();
+        int uh = getUprightHeight();
+        ux = ux < 0 ? 0 : (ux >= uw ? uw - 1 : ux);
+        uy = uy < 0 ? 0 : (uy >= uh ? uh - 1 : uy);
+        switch (rotationDegrees) {
+            case 90:
+                return getRaw(uy, height - 1 - ux);
+            case 180:
+                return getRaw(width - 1 - ux, height - 1 - uy);
+            case 270:
+                return getRaw(width - 1 - uy, ux);
+            default:
+                return getRaw(ux, uy);
+        }
+    }
+
+    /**
+     * 正立坐标双线性采样
+     */
+    public float sampleUpright(float ux, float uy) {
+        int x0 = (int) Math.floor(ux);
+        int y0 = (int) Math.floor(uy);
+        float fx = ux - x0;
+        float fy = uy - y0;
+        float top = getUpright(x0, y0) * (1 - fx) + getUpright(x0 + 1, y0) * fx;
+        float bottom = getUpright(x0, y0 + 1) * (1 - fx) + getUpright(x0 + 1, y0 + 1) * fx;
+        return top * (1 - fy) + bottom * fy;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.facerecognitionapp.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 帧的紧凑拷贝，数据位于 FrameCopyPool 复用的直接缓冲区中
+ * 平面按 YV12 顺序（Y、V、U，无行填充）连续存放，可整体交给支持 YV12 的检测器；
+ * close 时把缓冲区归还所属的池
+ */
+public final class PooledFrame implements Frame {
+    private final FrameCopyPool pool;
+    private final YuvFrame.BufferPlane[] planes = new YuvFrame.BufferPlane[3];
+    private ByteBuffer buffer;
+    private int width;
+    private int height;
+    private int rotationDegrees;
+    private long timestampNanos;
+    private boolean inUse;
+
+    PooledFrame(FrameCopyPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 从 source 拷贝三个平面及元数据（尺寸变化时重新分配缓冲区）
+     */
+    void copyFrom(Frame source) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        int chromaWidth = (w + 1) / 2;
+        int chromaHeight = (h + 1) / 2;
+        if (buffer == null || w != width || h != height) {
+            allocate(w, h, chromaWidth, chromaHeight);
+        }
+        rotationDegrees = source.getRotationDegrees();
+        timestampNanos = source.getTimestampNanos();
+        inUse = true;
+
+        buffer.clear();
+        copyPlane(source.getPlane(0), w, h);
+        copyPlane(source.getPlane(2), chromaWidth, chromaHeight);
+        copyPlane(source.getPlane(1), chromaWidth, chromaHeight);
+        buffer.flip();
+    }
+
+    private void allocate(int w, int h, int chromaWidth, int chromaHeight) {
+        int ySize = w * h;
+        int chromaSize = chromaWidth * chromaHeight;
+        buffer = ByteBuffer.allocateDirect(ySize + 2 * chromaSize);
+        width = w;
+        height = h;
+        planes[0] = new YuvFrame.BufferPlane(slice(0, ySize), w, 1);
+        planes[2] = new YuvFrame.BufferPlane(slice(ySize, chromaSize), chromaWidth, 1);
+        planes[1] = new YuvFrame.BufferPlane(slice(ySize + chromaSize, chromaSize), chromaWidth, 1);
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    private void copyPlane(Plane plane, int planeWidth, int planeHeight) {
+        YuvCropper.packPlane(plane.getBuffer(), plane.getRowStride(), plane.getPixelStride(),
+                planeWidth, planeHeight, buffer);
+    }
+
+    /**
+     * 整帧 YV12 数据（position 为0，limit 为数据长度），仅在 close 前有效
+     */
+    public ByteBuffer getYv12Buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    @Override
+    public Plane getPlane(int index) {
+        return planes[index];
+    }
+
+    @Override
+    public void close() {
+        // 重复关闭不会把同一块缓冲区两次放回池中
+        if (inUse) {
+            inUse = false;
+            pool.recycle(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.facerecognitionapp.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * YUV_420_888 平面裁剪：把原始坐标系中的一块区域拷贝为紧凑的NV21数据，或把单个平面紧凑拷贝
+ * 直接按行/像素步长读取各平面，不经过Bitmap
+ */
+public final class YuvCropper {
+
+    private YuvCropper() {
+    }
+
+    /**
+     * NV21 数据所需字节数
+     */
+    public static int nv21Size(int width, int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    /**
+     * 裁剪 [x, y, x + width, y + height) 区域为NV21，x/y/width/height 必须为偶数
+     */
+    public static void cropToNv21(ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                                  ByteBuffer uBuffer, int uRowStride, int uPixelStride,
+                                  ByteBuffer vBuffer, int vRowStride, int vPixelStride,
+                                  int x, int y, int width, int height, byte[] out) {
+        if (((x | y | width | height) & 1) != 0) {
+            throw new IllegalArgumentException("裁剪区域必须按偶数对齐");
+        }
+        int o = 0;
+        for (int row = 0; row < height; row++) {
+            int base = (y + row) * yRowStride + x * yPixelStride;
+            if (yPixelStride == 1) {
+                yBuffer.position(base);
+                yBuffer.get(out, o, width);
+                o += width;
+            } else {
+                for (int col = 0; col < width; col++) {
+                    out[o++] = yBuffer.get(base + col * yPixelStride);
+                }
+            }
+        }
+        yBuffer.rewind();
+
+        // 色度平面 2x2 下采样，NV21 为 V/U 交错
+        int chromaX = x / 2;
+        int chromaY = y / 2;
+        int chromaW = width / 2;
+        int chromaH = height / 2;
+        for (int row = 0; row < chromaH; row++) {
+            int uBase = (chromaY + row) * uRowStride + chromaX * uPixelStride;
+            int vBase = (chromaY + row) * vRowStride + chromaX * vPixelStride;
+            for (int col = 0; col < chromaW; col++) {
+                out[o++] = vBuffer.get(vBase + col * vPixelStride);
+                out[o++] = uBuffer.get(uBase + col * uPixelStride);
+            }
+        }
+    }
+
+    /**
+     * 把一个平面按行紧凑写入 dst 当前位置，跳过行尾填充与像素间隔（dst 位置随之前移）
+     * 拷贝期间会临时修改 src 的 position/limit，结束后恢复 limit 并回到起点
+     */
+    public static void packPlane(ByteBuffer src, int rowStride, int pixelStride,
+                                 int width, int height, ByteBuffer dst) {
+        int limit = src.limit();
+        for (int row = 0; row < height; row++) {
+            int rowStart = row * rowStride;
+            if (pixelStride == 1) {
+                src.limit(rowStart + width);
+                src.position(rowStart);
+                dst.put(src);
+                src.limit(limit);
+            } else {
+                for (int col = 0; col < width; col++) {
+                    dst.put(src.get(rowStart + col * pixelStride));
+                }
+            }
+        }
+        src.rewind();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.facerecognitionapp.frame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 基于内存缓冲区的帧实现，用于回放、测试及离线处理
+ * 平面数据在构造时指定，close 为空操作
+ */
+public class YuvFrame implements Frame {
+    private final int width;
+    private final int height;
+    private final int rotationDegrees;
+    private final long timestampNanos;
+    private final Plane[] planes;
+
+    public YuvFrame(int width, int height, int rotationDegrees, long timestampNanos,
+                    Plane y, Plane u, Plane v) {
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = rotationDegrees;
+        this.timestampNanos = timestampNanos;
+        this.planes = new Plane[]{y, u, v};
+    }
+
+    /**
+     * 由紧凑的 I420 数据（Y 全分辨率，U/V 各为 (w/2)x(h/2)）构造
+     */
+    public static YuvFrame fromI420(byte[] data, int width, int height, int rotationDegrees,
+                                    long timestampNanos) {
+        int ySize = width * height;
+        int chromaWidth = (width + 1) / 2;
+        int chromaSize = chromaWidth * ((height + 1) / 2);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        return new YuvFrame(width, height, rotationDegrees, timestampNanos,
+                new BufferPlane(slice(buffer, 0, ySize), width, 1),
+                new BufferPlane(slice(buffer, ySize, chromaSize), chromaWidth, 1),
+                new BufferPlane(slice(buffer, ySize + chromaSize, chromaSize), chromaWidth, 1));
+    }
+
+    /**
+     * 由ARGB像素构建 I420 帧（用于照片等非相机来源）：亮度按 BT.601 近似，色度取中性灰。
+     * 检测与特征提取只用亮度，省去色度转换
+     */
+    public static YuvFrame fromArgb(int[] pixels, int width, int height) {
+        int ySize = width * height;
+        int chromaSize = ((width + 1) / 2) * ((height + 1) / 2);
+        byte[] data = new byte[ySize + 2 * chromaSize];
+        for (int i = 0; i < ySize; i++) {
+            int c = pixels[i];
+            int r = (c >> 16) & 0xFF;
+            int g = (c >> 8) & 0xFF;
+            int b = c & 0xFF;
+            data[i] = (byte) ((77 * r + 150 * g + 29 * b) >> 8);
+        }
+        Arrays.fill(data, ySize, data.length, (byte) 128);
+        return fromI420(data, width, height, 0, 0L);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    @Override
+    public Plane getPlane(int index) {
+        return planes[index];
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * 简单的平面实现
+     */
+    public static class BufferPlane implements Plane {
+        private final ByteBuffer buffer;
+        private final int rowStride;
+        private final int pixelStride;
+
+        public BufferPlane(ByteBuffer buffer, int rowStride, int pixelStride) {
+            this.buffer = buffer;
+            this.rowStride = rowStride;
+            this.pixelStride = pixelStride;
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public int getRowStride() {
+            return rowStride;
+        }
+
+        @Override
+        public int getPixelStride() {
+            return pixelStride;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.facerecognitionapp.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * 识别事件日志的读取器：按序号顺序流式读取，或按时间范围查询（日志内时间单调，二分定位起点）
+ * <p>
+ * 每条记录先整体拷贝到本地缓冲再校验，与写者并发时读到写了一半或已被覆盖的槽会被跳过。
+ * 读取不分配对象，事件经复用的 RecognitionEvent 交给回调。非线程安全
+ */
+public class JournalReader implements Closeable {
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final LongSupplier lastSequence;
+    private final Closeable file;
+    private final byte[] scratch = new byte[RecognitionJournal.RECORD_SIZE];
+    private final ByteBuffer record = ByteBuffer.wrap(scratch).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private final RecognitionEvent event = new RecognitionEvent();
+
+    /**
+     * 事件回调
+     */
+    public interface EventVisitor {
+        /**
+         * @return false 停止读取
+         */
+        boolean onEvent(RecognitionEvent event);
+    }
+
+    JournalReader(ByteBuffer buffer, int capacity, LongSupplier lastSequence, Closeable file) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.lastSequence = lastSequence;
+        this.file = file;
+    }
+
+    /**
+     * 以只读方式打开日志文件（例如离线审计或另一进程），范围固定为打开时恢复出的记录
+     */
+    public static JournalReader open(File path) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(path, "r");
+        try {
+            int capacity = readCapacity(raf);
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    RecognitionJournal.HEADER_SIZE + (long) capacity * RecognitionJournal.RECORD_SIZE);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            long last = recover(mapped, capacity, new RecognitionEvent());
+            return new JournalReader(mapped, capacity, () -> last, raf);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 校验文件头并返回容量
+     */
+    static int readCapacity(RandomAccessFile raf) throws IOException {
+        if (raf.length() < RecognitionJournal.HEADER_SIZE) {
+            throw new IOException("事件日志文件头不完整");
+        }
+        ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        raf.getChannel().read(header, 0);
+        if (header.getInt(0) != RecognitionJournal.MAGIC) {
+            throw new IOException("不是有效的事件日志文件");
+        }
+        if (header.getInt(4) != RecognitionJournal.VERSION || header.getInt(8) != RecognitionJournal.RECORD_SIZE) {
+            throw new IOException("不支持的事件日志版本: " + header.getInt(4));
+        }
+        int capacity = header.getInt(12);
+        if (capacity <= 0
+                || raf.length() < RecognitionJournal.HEADER_SIZE + (long) capacity * RecognitionJournal.RECORD_SIZE) {
+            throw new IOException("事件日志文件已损坏");
+        }
+        return capacity;
+    }
+
+    /**
+     * 扫描所有槽，返回校验通过的最大序号（空日志为0），并把该记录读入 last
+     */
+    static long recover(ByteBuffer buffer, int capacity, RecognitionEvent last) {
+        JournalReader reader = new JournalReader(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), capacity,
+                () -> 0L, null);
+        long max = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long sequence = reader.readSlot(RecognitionJournal.HEADER_SIZE + slot * RecognitionJournal.RECORD_SIZE);
+            // 序号须与所在槽一致，防止把损坏的序号当作最新
+            if (sequence > max && (sequence - 1) % capacity == slot) {
+                max = sequence;
+                last.copyFrom(reader.event);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 当前可读的最后序号，空日志为0
+     */
+    public long getLastSequence() {
+        return lastSequence.getAsLong();
+    }
+
+    /**
+     * 当前可读的第一个序号（更早的已被覆盖）
+     */
+    public long getFirstSequence() {
+        return Math.max(1L, getLastSequence() - capacity + 1);
+    }
+
+    /**
+     * 读取指定序号的事件到 out；已被覆盖、尚未写入或校验失败时返回false
+     */
+    public boolean read(long sequence, RecognitionEvent out) {
+        if (!load(sequence)) {
+            return false;
+        }
+        out.copyFrom(event);
+        return true;
+    }
+
+    /**
+     * 从最旧到最新流式读取全部事件，返回读到的条数
+     */
+    public int forEach(EventVisitor visitor) {
+        return scan(getFirstSequence(), getLastSequence(), Long.MIN_VALUE, Long.MAX_VALUE, visitor);
+    }
+
+    /**
+     * 读取序号不小于 fromSequence 的事件（增量导出时从上次的最后序号 + 1 继续），返回读到的条数
+     */
+    public int readFrom(long fromSequence, EventVisitor visitor) {
+        return scan(Math.max(fromSequence, getFirstSequence()), getLastSequence(), Long.MIN_VALUE, Long.MAX_VALUE,
+                visitor);
+    }
+
+    /**
+     * 读取时间在 [fromMillis, toMillis] 内的事件，返回读到的条数
+     */
+    public int query(long fromMillis, long toMillis, EventVisitor visitor) {
+        long first = getFirstSequence();
+        long last = getLastSequence();
+        // 二分找到第一条时间 >= fromMillis 的记录
+        long low = first;
+        long high = last + 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            long probe = nextValid(mid, high);
+            if (probe < high && event.timeMillis < fromMillis) {
+                low = probe + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return scan(low, last, fromMillis, toMillis, visitor);
+    }
+
+    /**
+     * [sequence, limit) 中第一条可读的记录序号（已载入 event），都不可读时返回 limit
+     */
+    private long nextValid(long sequence, long limit) {
+        for (long s = sequence; s < limit; s++) {
+            if (load(s)) {
+                return s;
+            }
+        }
+        return limit;
+    }
+
+    private int scan(long from, long to, long fromMillis, long toMillis, EventVisitor visitor) {
+        int count = 0;
+        for (long s = from; s <= to; s++) {
+            if (!load(s) || event.timeMillis < fromMillis) {
+                continue;
+            }
+            if (event.timeMillis > toMillis) {
+                break;
+            }
+            count++;
+            if (!visitor.onEvent(event)) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private boolean load(long sequence) {
+        if (sequence < 1) {
+            return false;
+        }
+        int offset = RecognitionJournal.HEADER_SIZE + (int) ((sequence - 1) % capacity) * RecognitionJournal.RECORD_SIZE;
+        return readSlot(offset) == sequence;
+    }
+
+    /**
+     * 把槽拷贝到本地缓冲并校验，通过时解析到 event 并返回其序号，否则返回0
+     */
+    private long readSlot(int offset) {
+        buffer.limit(offset + RecognitionJournal.RECORD_SIZE).position(offset);
+        buffer.get(scratch);
+        crc.reset();
+        crc.update(scratch, 0, RecognitionJournal.CRC_OFFSET);
+        long sequence = record.getLong(0);
+        if (sequence <= 0 || (int) crc.getValue() != record.getInt(RecognitionJournal.CRC_OFFSET)) {
+            return 0L;
+        }
+        event.sequence = sequence;
+        event.timeMillis = record.getLong(8);
+        event.trackId = record.getInt(16);
+        event.galleryIndex = record.getInt(20);
+        event.identityId = record.getInt(24);
+        event.score = record.getFloat(28);
+        event.quality = record.getFloat(32);
+        event.left = record.getFloat(36);
+        event.top = record.getFloat(40);
+        event.right = record.getFloat(44);
+        event.bottom = record.getFloat(48);
+        event.confidence = record.getFloat(52);
+        return sequence;
+    }
+
+    /**
+     * 只读打开的读取器关闭文件；共享写者映射区的读取器无需关闭
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+}
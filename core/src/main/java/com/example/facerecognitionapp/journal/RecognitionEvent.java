@@ -0,0 +1,38 @@
+package com.example.facerecognitionapp.journal;
+
+/**
+ * 一条识别事件（一次实际的 1:N 比对）。读取时复用同一个对象，仅在回调期间有效
+ */
+public class RecognitionEvent {
+    public long sequence;        // 写入序号，从1开始连续递增
+    public long timeMillis;      // 墙上时间（毫秒），日志内单调不减
+    public int trackId;
+    public int galleryIndex;     // 投票后身份在当时人脸库中的序号，未识别为 -1
+    public int identityId;       // 投票后身份的稳定编号（RecognitionJournal.identityOf），未识别为0
+    public float score;          // 本次比对的相似度，低于阈值为 NaN
+    public float confidence;     // 身份投票置信度（0-1）
+    public float quality;        // 人脸质量分（0-1）
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public boolean isRecognized() {
+        return galleryIndex >= 0;
+    }
+
+    public void copyFrom(RecognitionEvent other) {
+        sequence = other.sequence;
+        timeMillis = other.timeMillis;
+        trackId = other.trackId;
+        galleryIndex = other.galleryIndex;
+        identityId = other.identityId;
+        score = other.score;
+        confidence = other.confidence;
+        quality = other.quality;
+        left = other.left;
+        top = other.top;
+        right = other.right;
+        bottom = other.bottom;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.facerecognitionapp.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * 识别事件日志：定长二进制记录写入内存映射的环形文件，写满后覆盖最旧的记录
+ * 文件布局（小端序）：
+ * <pre>
+ * [header 64B]  magic, version, recordSize, capacity, 其余保留
+ * [slots]       capacity 个 64B 记录，序号为 seq 的记录位于第 (seq - 1) % capacity 个槽
+ * record:       seq(long), timeMillis(long), trackId, galleryIndex, identityId, score, quality,
+ *               left, top, right, bottom, confidence, reserved, crc32(前60字节)
+ * </pre>
+ * 写入只是对映射区的若干次绝对写，不分配对象、不发起系统调用；后台刷盘线程定期 force，
+ * 进程崩溃后已写入映射区的记录仍在页缓存中，掉电最多丢失一个刷盘周期。
+ * 文件头在创建后不再改写，打开时扫描所有槽，以校验通过的最大序号作为续写位置，
+ * 写到一半的记录因校验失败被忽略
+ * <p>
+ * 单写者：append 须在同一线程（或外部串行）调用；读取方经 newReader 并发读取
+ */
+public class RecognitionJournal implements Closeable {
+    private static final String TAG = "RecognitionJournal";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    static final int MAGIC = 0x464A4E4C; // "FJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    static final int CRC_OFFSET = 60;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer mapped;
+    private final int capacity;
+    // 计算校验用的视图与校验器，只在写线程使用
+    private final ByteBuffer crcView;
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+    private volatile boolean closed;
+    // 最后写入的序号；写线程写完整条记录后才更新，读取方据此确定范围
+    private volatile long lastSequence;
+    private long lastTimeMillis;
+    private long flushedSequence;
+
+    private RecognitionJournal(RandomAccessFile file, MappedByteBuffer mapped, int capacity,
+                               long flushIntervalMillis) {
+        this.file = file;
+        this.mapped = mapped;
+        this.capacity = capacity;
+        this.crcView = mapped.duplicate();
+        RecognitionEvent event = new RecognitionEvent();
+        this.lastSequence = JournalReader.recover(mapped, capacity, event);
+        this.flushedSequence = lastSequence;
+        this.lastTimeMillis = lastSequence > 0 ? event.timeMillis : 0L;
+        if (flushIntervalMillis > 0) {
+            flusher = new Thread(() -> flushLoop(flushIntervalMillis), "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * 打开日志文件，不存在时按 capacity 创建；已存在时沿用文件中的容量
+     *
+     * @param capacity            环中记录数
+     * @param flushIntervalMillis 后台刷盘周期，0 表示不启动刷盘线程（只在 flush/close 时刷盘）
+     */
+    public static RecognitionJournal open(File path, int capacity, long flushIntervalMillis) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0");
+        }
+        RandomAccessFile raf = new RandomAccessFile(path, "rw");
+        try {
+            boolean created = raf.length() == 0;
+            if (created) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(capacity);
+                raf.setLength(HEADER_SIZE + (long) capacity * RECORD_SIZE);
+                raf.write(header.array());
+                raf.getChannel().force(true);
+            }
+            int existing = JournalReader.readCapacity(raf);
+            if (!created && existing != capacity) {
+                LOG.fine("沿用已有事件日志的容量 " + existing + "（请求 " + capacity + "）");
+            }
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) existing * RECORD_SIZE);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            // 预先缺页，避免写入时才触发
+            mapped.load();
+            return new RecognitionJournal(raf, mapped, existing, flushIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 身份的稳定编号：用户名的 String.hashCode（规范定义、跨进程一致且有缓存），未识别为0。
+     * 读取方用同样的方法把人脸库中的用户名映射回来
+     */
+    public static int identityOf(String name) {
+        return name != null ? name.hashCode() : 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 最后写入的序号，空日志为0
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * 追加一条识别事件，返回其序号。时间早于上一条时按上一条记录（墙上时间回拨），
+     * 保证日志内时间单调，按时间范围查询可以二分。
+     * 日志已关闭时丢弃事件并返回 -1（关闭与最后几个检测回调之间存在竞争，不应使分析线程出错）
+     */
+    public long append(long timeMillis, int trackId, int galleryIndex, int identityId, float score,
+                       float confidence, float quality, float left, float top, float right, float bottom) {
+        if (closed) {
+            return -1L;
+        }
+        long sequence = lastSequence + 1;
+        long time = Math.max(timeMillis, lastTimeMillis);
+        int base = slotOffset(sequence);
+        mapped.putLong(base, sequence);
+        mapped.putLong(base + 8, time);
+        mapped.putInt(base + 16, trackId);
+        mapped.putInt(base + 20, galleryIndex);
+        mapped.putInt(base + 24, identityId);
+        mapped.putFloat(base + 28, score);
+        mapped.putFloat(base + 32, quality);
+        mapped.putFloat(base + 36, left);
+        mapped.putFloat(base + 40, top);
+        mapped.putFloat(base + 44, right);
+        mapped.putFloat(base + 48, bottom);
+        mapped.putFloat(base + 52, confidence);
+        mapped.putInt(base + 56, 0);
+        crcView.limit(base + CRC_OFFSET).position(base);
+        crc.reset();
+        crc.update(crcView);
+        mapped.putInt(base + CRC_OFFSET, (int) crc.getValue());
+        lastTimeMillis = time;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    int slotOffset(long sequence) {
+        return HEADER_SIZE + (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+    }
+
+    /**
+     * 共享映射区的读取器，可在任意线程使用（每个读取器只能由一个线程使用）
+     */
+    public JournalReader newReader() {
+        return new JournalReader(mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN), capacity, this::getLastSequence,
+                null);
+    }
+
+    /**
+     * 把已写入的记录刷到存储设备
+     */
+    public synchronized void flush() {
+        long sequence = lastSequence;
+        if (sequence != flushedSequence) {
+            mapped.force();
+            flushedSequence = sequence;
+        }
+    }
+
+    private void flushLoop(long intervalMillis) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (closed) {
+                break;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "事件日志刷盘失败", e);
+            }
+        }
+    }
+
+    /**
+     * 停止刷盘线程，最后刷盘一次后关闭文件，之后的 append 被丢弃
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        file.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.facerecognitionapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定内存的对数分桶延迟直方图（单位：微秒）
+ * 每个2的幂区间再细分为 SUB_BUCKETS 个子桶，相对误差约 1/SUB_BUCKETS。
+ * 可被多个线程并发记录，记录过程无分配、无锁
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;         // 8
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;     // 16：小于该值逐值计数
+    private static final int MAX_EXPONENT = 40;                   // 约 12.7 天，足够覆盖任何延迟
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * 记录一次耗时（纳秒）
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000L);
+    }
+
+    /**
+     * 记录一次耗时（微秒）
+     */
+    public void recordMicros(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = maxMicros.get())) {
+            if (maxMicros.compareAndSet(max, micros)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long getMeanMicros() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalMicros.get() / count;
+    }
+
+    /**
+     * 估算分位数（0-100），返回所在桶的上界，无样本时返回0
+     */
+    public long percentileMicros(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        rank = Math.max(1, Math.min(rank, count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * 清空所有样本
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + mantissa;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + SUB_BITS + 1;
+        int mantissa = offset % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.facerecognitionapp.metrics;
+
+import java.util.Locale;
+
+/**
+ * 流水线统计快照（不可变）
+ */
+public class MetricsSnapshot {
+    public final long uptimeNanos;
+    public final StageStats[] stages;
+    public final long framesReceived;
+    public final long framesDetected;
+    public final long framesRefined;   // 其中走精确检测器的帧数
+    public final long framesTracked;
+    public final long framesDropped;
+    public final long framesGated;     // 被运动门控省掉的检测
+    public final long framesClosedLate;
+    public final long identityHits;    // 身份缓存命中（省掉的 1:N 比对）
+    public final long identityMisses;  // 实际做了 1:N 比对
+
+    /**
+     * 单个阶段的延迟分布（微秒）
+     */
+    public static class StageStats {
+        public final PipelineMetrics.Stage stage;
+        public final long count;
+        public final long p50Micros;
+        public final long p95Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+
+        public StageStats(PipelineMetrics.Stage stage, long count,
+                          long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+            this.stage = stage;
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+    }
+
+    public MetricsSnapshot(long uptimeNanos, StageStats[] stages, long framesReceived,
+                           long framesDetected, long framesRefined, long framesTracked,
+                           long framesDropped, long framesGated, long framesClosedLate,
+                           long identityHits, long identityMisses) {
+        this.uptimeNanos = uptimeNanos;
+        this.stages = stages;
+        this.framesReceived = framesReceived;
+        this.framesDetected = framesDetected;
+        this.framesRefined = framesRefined;
+        this.framesTracked = framesTracked;
+        this.framesDropped = framesDropped;
+        this.framesGated = framesGated;
+        this.framesClosedLate = framesClosedLate;
+        this.identityHits = identityHits;
+        this.identityMisses = identityMisses;
+    }
+
+    public StageStats get(PipelineMetrics.Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * 多行文本，用于日志或调试叠加层
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double seconds = uptimeNanos / 1e9;
+        sb.append(String.format(Locale.US, "frames recv %d det %d (acc %d) trk %d drop %d gate %d late %d (%.1f fps)%n",
+                framesReceived, framesDetected, framesRefined, framesTracked, framesDropped, framesGated,
+                framesClosedLate,
+                seconds > 0 ? framesReceived / seconds : 0.0));
+        sb.append(String.format(Locale.US, "identity hit %d miss %d%n", identityHits, identityMisses));
+        for (StageStats s : stages) {
+            sb.append(String.format(Locale.US, "%-11s p50 %6.1f p95 %6.1f p99 %6.1f max %6.1f ms%n",
+                    s.stage.name(), s.p50Micros / 1000.0, s.p95Micros / 1000.0,
+                    s.p99Micros / 1000.0, s.maxMicros / 1000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.facerecognitionapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 检测流水线埋点：各阶段延迟直方图 + 帧计数
+ * 各线程直接调用 record/count 方法，开销为若干次原子操作；通过 snapshot() 读取汇总
+ */
+public class PipelineMetrics {
+
+    /**
+     * 流水线阶段
+     */
+    public enum Stage {
+        ANALYZE,      // ImageAnalyzer.analyze 本身（分析线程）
+        DETECT,       // ML Kit process 往返
+        LISTENER,     // 检测回调：跟踪 + 识别 + 监听器
+        UI_DISPATCH,  // 结果发布到UI绘制取走的等待时间
+        DRAW          // FaceOverlayView.onDraw
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesDetected = new AtomicLong();
+    private final AtomicLong framesRefined = new AtomicLong();
+    private final AtomicLong framesTracked = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesGated = new AtomicLong();
+    private final AtomicLong framesClosedLate = new AtomicLong();
+    private final AtomicLong identityHits = new AtomicLong();
+    private final AtomicLong identityMisses = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+
+    public PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 记录某阶段耗时（纳秒）
+     */
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].recordNanos(nanos);
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * 分析器收到一帧
+     */
+    public void onFrameReceived() {
+        framesReceived.incrementAndGet();
+    }
+
+    /**
+     * 该帧送入检测器
+     */
+    public void onFrameDetected() {
+        framesDetected.incrementAndGet();
+    }
+
+    /**
+     * 该帧送入精确（带关键点）检测器，同时也计入 onFrameDetected
+     */
+    public void onFrameRefined() {
+        framesRefined.incrementAndGet();
+    }
+
+    /**
+     * 该帧只做跟踪外推
+     */
+    public void onFrameTracked() {
+        framesTracked.incrementAndGet();
+    }
+
+    /**
+     * 该帧被直接丢弃
+     */
+    public void onFrameDropped() {
+        framesDropped.incrementAndGet();
+    }
+
+    /**
+     * 该帧本应检测，但画面静止被运动门控跳过
+     */
+    public void onFrameGated() {
+        framesGated.incrementAndGet();
+    }
+
+    /**
+     * 帧持有时间超过预期（阻塞了相机的下一帧）
+     */
+    public void onFrameClosedLate() {
+        framesClosedLate.incrementAndGet();
+    }
+
+    /**
+     * 轨迹身份缓存命中，省掉一次特征提取与 1:N 比对
+     */
+    public void onIdentityCacheHit() {
+        identityHits.incrementAndGet();
+    }
+
+    /**
+     * 轨迹身份需要重新验证（新轨迹、到期、质量提升或外观漂移）
+     */
+    public void onIdentityCacheMiss() {
+        identityMisses.incrementAndGet();
+    }
+
+    /**
+     * 生成当前统计快照
+     */
+    public MetricsSnapshot snapshot() {
+        Stage[] stages = Stage.values();
+        MetricsSnapshot.StageStats[] stats = new MetricsSnapshot.StageStats[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            LatencyHistogram h = histograms[i];
+            stats[i] = new MetricsSnapshot.StageStats(stages[i], h.getCount(),
+                    h.percentileMicros(50), h.percentileMicros(95), h.percentileMicros(99),
+                    h.getMaxMicros());
+        }
+        return new MetricsSnapshot(System.nanoTime() - startNanos, stats,
+                framesReceived.get(), framesDetected.get(), framesRefined.get(), framesTracked.get(),
+                framesDropped.get(), framesGated.get(), framesClosedLate.get(),
+                identityHits.get(), identityMisses.get());
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        framesReceived.set(0);
+        framesDetected.set(0);
+        framesRefined.set(0);
+        framesTracked.set(0);
+        framesDropped.set(0);
+        framesGated.set(0);
+        framesClosedLate.set(0);
+        identityHits.set(0);
+        identityMisses.set(0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.facerecognitionapp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 人脸检测结果数据模型（与具体检测器无关）
+ * 既是检测器的输出，也是流水线经 TripleBuffer 交给UI的结果快照（此时带有轨迹ID与识别结果）
+ * 对象可复用：clear() 后通过 addFace() 取回已分配的 FaceInfo，稳态下不产生分配
+ */
+public class FaceDetectionResult {
+    public int faceCount;
+    public final List<FaceInfo> faces = new ArrayList<>(); // 前 faceCount 个有效
+    public int imageWidth;       // 原始帧宽度
+    public int imageHeight;      // 原始帧高度
+    public int rotationDegrees;  // 帧需要顺时针旋转的角度
+    public long timestamp;       // 帧时间戳（纳秒）
+    public long publishedNanos;  // 流水线发布该结果的时刻
+
+    /**
+     * 清空结果，保留已分配的 FaceInfo
+     */
+    public void clear() {
+        faceCount = 0;
+    }
+
+    /**
+     * 追加一张人脸，返回待填充的（已重置的）FaceInfo
+     */
+    public FaceInfo addFace() {
+        if (faceCount == faces.size()) {
+            faces.add(new FaceInfo());
+        }
+        FaceInfo info = faces.get(faceCount++);
+        info.reset();
+        return info;
+    }
+
+    public FaceInfo getFace(int index) {
+        return faces.get(index);
+    }
+
+    /**
+     * 拷贝另一份结果的全部内容（复用本对象已分配的 FaceInfo）
+     */
+    public void copyFrom(FaceDetectionResult other) {
+        clear();
+        imageWidth = other.imageWidth;
+        imageHeight = other.imageHeight;
+        rotationDegrees = other.rotationDegrees;
+        timestamp = other.timestamp;
+        publishedNanos = other.publishedNanos;
+        for (int i = 0; i < other.faceCount; i++) {
+            addFace().copyFrom(other.getFace(i));
+        }
+    }
+
+    /**
+     * 单个人脸信息，框为正立图像坐标系
+     */
+    public static class FaceInfo {
+        // 五点关键点序号，landmarks[2 * i] / landmarks[2 * i + 1] 为第 i 个点的 x / y
+        public static final int LANDMARK_LEFT_EYE = 0;
+        public static final int LANDMARK_RIGHT_EYE = 1;
+        public static final int LANDMARK_NOSE_BASE = 2;
+        public static final int LANDMARK_MOUTH_LEFT = 3;
+        public static final int LANDMARK_MOUTH_RIGHT = 4;
+        public static final int LANDMARK_COUNT = 5;
+
+        public float left;
+        public float top;
+        public float right;
+        public float bottom;
+        // 缺失的属性为NaN
+        public float smileProbability;
+        public float leftEyeOpenProbability;
+        public float rightEyeOpenProbability;
+        public float headEulerAngleX;
+        public float headEulerAngleY;
+        public float headEulerAngleZ;
+        // 关键点（正立坐标系），只有精确检测提供，hasLandmarks 为false时无效
+        public final float[] landmarks = new float[LANDMARK_COUNT * 2];
+        public boolean hasLandmarks;
+        // 跟踪与识别结果（仅流水线发布的结果中有效）
+        public int trackId;
+        public String name;          // 识别出的用户名，未识别为null
+        public float matchScore;
+
+        public FaceInfo() {
+            reset();
+        }
+
+        public void setBoundingBox(float left, float top, float right, float bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        public void copyFrom(FaceInfo other) {
+            left = other.left;
+            top = other.top;
+            right = other.right;
+            bottom = other.bottom;
+            smileProbability = other.smileProbability;
+            leftEyeOpenProbability = other.leftEyeOpenProbability;
+            rightEyeOpenProbability = other.rightEyeOpenProbability;
+            headEulerAngleX = other.headEulerAngleX;
+            headEulerAngleY = other.headEulerAngleY;
+            headEulerAngleZ = other.headEulerAngleZ;
+            hasLandmarks = other.hasLandmarks;
+            if (hasLandmarks) {
+                System.arraycopy(other.landmarks, 0, landmarks, 0, landmarks.length);
+            }
+            trackId = other.trackId;
+            name = other.name;
+            matchScore = other.matchScore;
+        }
+
+        public void reset() {
+            left = top = right = bottom = 0f;
+            smileProbability = Float.NaN;
+            leftEyeOpenProbability = Float.NaN;
+            rightEyeOpenProbability = Float.NaN;
+            headEulerAngleX = Float.NaN;
+            headEulerAngleY = Float.NaN;
+            headEulerAngleZ = Float.NaN;
+            hasLandmarks = false;
+            trackId = -1;
+            name = null;
+            matchScore = Float.NaN;
+        }
+    }
+}
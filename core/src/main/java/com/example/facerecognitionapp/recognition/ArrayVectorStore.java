@@ -0,0 +1,53 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Arrays;
+
+/**
+ * 堆内连续float数组实现的可追加向量存储
+ */
+public class ArrayVectorStore implements VectorStore {
+    private final int dimension;
+    private float[] data;
+    private int count;
+
+    public ArrayVectorStore(int dimension, int initialCapacity) {
+        this.dimension = dimension;
+        this.data = new float[Math.max(1, initialCapacity) * dimension];
+    }
+
+    /**
+     * 追加一个向量，返回其编号
+     */
+    public int add(float[] vector) {
+        if ((count + 1) * dimension > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, (count + 1) * dimension));
+        }
+        System.arraycopy(vector, 0, data, count * dimension, dimension);
+        return count++;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public float dot(int index, float[] query) {
+        int base = index * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += data[base + i] * query[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void getEmbedding(int index, float[] out) {
+        System.arraycopy(data, index * dimension, out, 0, dimension);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Arrays;
+
+/**
+ * 精确线性扫描检索，适用于小规模人脸库，也作为近似索引的召回率基准
+ */
+public class BruteForceIndex implements EmbeddingIndex {
+    private final VectorStore store;
+    private final ScoreHeap heap = new ScoreHeap(16, true);
+    private ScoreHeap[] batchHeaps = new ScoreHeap[0];
+
+    public BruteForceIndex(VectorStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * 非线程安全：内部复用了堆
+     */
+    @Override
+    public int search(float[] query, int k, int[] outIds, float[] outScores) {
+        heap.clear();
+        int count = store.size();
+        for (int i = 0; i < count; i++) {
+            offer(heap, i, store.dot(i, query), k);
+        }
+        return heap.drainDescending(outIds, outScores);
+    }
+
+    /**
+     * 一次遍历人脸库处理整批查询。非线程安全：内部复用了堆
+     */
+    @Override
+    public void searchBatch(float[][] queries, int queryCount, int k, int[] outIds, float[] outScores,
+                            int[] outCounts) {
+        batchHeaps = ensureHeaps(batchHeaps, queryCount);
+        scan(store, 0, store.size(), queries, queryCount, k, batchHeaps);
+        for (int q = 0; q < queryCount; q++) {
+            outCounts[q] = batchHeaps[q].drainDescending(outIds, outScores, q * k, k);
+        }
+    }
+
+    /**
+     * 扫描 [start, end) 区间，每个查询的 top-k 保留在 heaps[q] 中（调用方负责清空）。
+     * 外层按向量、内层按查询遍历，每个向量读入缓存后与整批查询比较
+     */
+    static void scan(VectorStore store, int start, int end, float[][] queries, int queryCount, int k,
+                     ScoreHeap[] heaps) {
+        for (int q = 0; q < queryCount; q++) {
+            heaps[q].clear();
+        }
+        for (int i = start; i < end; i++) {
+            for (int q = 0; q < queryCount; q++) {
+                offer(heaps[q], i, store.dot(i, queries[q]), k);
+            }
+        }
+    }
+
+    static void offer(ScoreHeap heap, int id, float score, int k) {
+        if (heap.size() < k) {
+            heap.push(id, score);
+        } else if (score > heap.peekScore()) {
+            heap.pop();
+            heap.push(id, score);
+        }
+    }
+
+    /**
+     * 保证至少有 count 个堆，不足时扩容并保留已有的堆
+     */
+    static ScoreHeap[] ensureHeaps(ScoreHeap[] heaps, int count) {
+        if (heaps.length >= count) {
+            return heaps;
+        }
+        ScoreHeap[] grown = Arrays.copyOf(heaps, count);
+        for (int i = heaps.length; i < count; i++) {
+            grown[i] = new ScoreHeap(16, true);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 特征向量近邻检索接口（相似度为点积，越大越相似）
+ */
+public interface EmbeddingIndex {
+
+    /**
+     * 已建立索引的向量数量
+     */
+    int size();
+
+    /**
+     * 检索与query最相似的k个向量，结果按相似度降序写入outIds/outScores
+     *
+     * @return 实际返回的结果数（<= k）
+     */
+    int search(float[] query, int k, int[] outIds, float[] outScores);
+
+    /**
+     * 批量检索 queryCount 个查询（同一帧中的多个人脸），第 q 个查询的结果按相似度降序写入
+     * outIds/outScores 的 [q * k, q * k + outCounts[q]) 区间。默认逐个检索；
+     * 线性扫描的实现一次遍历人脸库处理整批查询，向量矩阵每批只经过缓存一次
+     */
+    default void searchBatch(float[][] queries, int queryCount, int k, int[] outIds, float[] outScores,
+                             int[] outCounts) {
+        int[] ids = new int[k];
+        float[] scores = new float[k];
+        for (int q = 0; q < queryCount; q++) {
+            int found = search(queries[q], k, ids, scores);
+            System.arraycopy(ids, 0, outIds, q * k, found);
+            System.arraycopy(scores, 0, outScores, q * k, found);
+            outCounts[q] = found;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.model.FaceDetectionResult.FaceInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * 人脸对齐：由五点关键点估计到标准模板的相似变换（缩放 + 旋转 + 平移，最小二乘），
+ * 直接对相机帧的 YUV 平面做双线性采样，输出 size x size 的归一化浮点张量（HWC，(v - 127.5) / 128）
+ * 采样坐标一次性合成"输出像素 -> 正立坐标 -> 原始坐标"的仿射变换，按行增量计算；
+ * 只把人脸所在窗口的各行批量拷出后采样，不经过 Bitmap，稳态下不产生分配。非线程安全：每个线程使用各自的实例
+ */
+public class FaceAligner {
+    public static final int DEFAULT_SIZE = 112;
+
+    /**
+     * 112x112 标准模板（常用的 ArcFace 五点模板），按 FaceInfo.LANDMARK_* 顺序；
+     * 关键点以被拍摄者为准，正脸时其左眼位于图像右侧
+     */
+    private static final float[] TEMPLATE_112 = {
+            73.5318f, 51.5014f,  // 左眼
+            38.2946f, 51.6963f,  // 右眼
+            56.0252f, 71.7366f,  // 鼻尖
+            70.7299f, 92.2041f,  // 左嘴角
+            41.5493f, 92.3655f   // 右嘴角
+    };
+    private static final float MIN_SCALE = 1e-3f;
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        LUMA(1),  // 仅亮度
+        RGB(3);   // 由 YUV 换算的 RGB
+
+        final int channels;
+
+        Format(int channels) {
+            this.channels = channels;
+        }
+    }
+
+    private final int size;
+    private final Format format;
+    private final float[] template = new float[FaceInfo.LANDMARK_COUNT * 2];
+    // 输出像素 (u, v) -> 正立坐标：x = a * u - b * v + tx，y = b * u + a * v + ty
+    private float a;
+    private float b;
+    private float tx;
+    private float ty;
+    // 采样窗口（原始坐标）及其拷贝
+    private int winX0;
+    private int winY0;
+    private int winX1;
+    private int winY1;
+    private byte[] yWindow = new byte[0];
+    private byte[] uWindow = new byte[0];
+    private byte[] vWindow = new byte[0];
+
+    public FaceAligner() {
+        this(DEFAULT_SIZE, Format.RGB);
+    }
+
+    public FaceAligner(int size, Format format) {
+        this.size = size;
+        this.format = format;
+        float scale = size / 112f;
+        for (int i = 0; i < template.length; i++) {
+            template[i] = TEMPLATE_112[i] * scale;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * 每张人脸输出的 float 个数
+     */
+    public int getTensorSize() {
+        return size * size * format.channels;
+    }
+
+    /**
+     * 由正立坐标的五点关键点（x/y交错，FaceInfo.LANDMARK_* 顺序）估计相似变换，退化时返回false
+     */
+    public boolean estimateTransform(float[] landmarks) {
+        int n = FaceInfo.LANDMARK_COUNT;
+        float tMeanX = 0f;
+        float tMeanY = 0f;
+        float pMeanX = 0f;
+        float pMeanY = 0f;
+        for (int i = 0; i < n; i++) {
+            tMeanX += template[2 * i];
+            tMeanY += template[2 * i + 1];
+            pMeanX += landmarks[2 * i];
+            pMeanY += landmarks[2 * i + 1];
+        }
+        tMeanX /= n;
+        tMeanY /= n;
+        pMeanX /= n;
+        pMeanY /= n;
+
+        // 模板 -> 图像的最小二乘相似变换：p = [a -b; b a] * t + translation
+        float dot = 0f;
+        float cross = 0f;
+        float norm = 0f;
+        for (int i = 0; i < n; i++) {
+            float qx = template[2 * i] - tMeanX;
+            float qy = template[2 * i + 1] - tMeanY;
+            float px = landmarks[2 * i] - pMeanX;
+            float py = landmarks[2 * i + 1] - pMeanY;
+            dot += qx * px + qy * py;
+            cross += qx * py - qy * px;
+            norm += qx * qx + qy * qy;
+        }
+        float sa = dot / norm;
+        float sb = cross / norm;
+        if (!(Math.abs(sa) + Math.abs(sb) > MIN_SCALE)) {
+            return false;
+        }
+        a = sa;
+        b = sb;
+        tx = pMeanX - (sa * tMeanX - sb * tMeanY);
+        ty = pMeanY - (sb * tMeanX + sa * tMeanY);
+        return true;
+    }
+
+    /**
+     * 按估计出的变换把输出像素 (u, v) 映射到正立坐标，写入 out[0..1]
+     */
+    public void mapToUpright(float u, float v, float[] out) {
+        out[0] = a * u - b * v + tx;
+        out[1] = b * u + a * v + ty;
+    }
+
+    /**
+     * 估计变换并对齐一张人脸，写入 out 的当前位置（position 前移 getTensorSize()）
+     *
+     * @return 关键点退化时返回false，out 不变
+     */
+    public boolean align(Frame frame, float[] landmarks, FloatBuffer out) {
+        if (!estimateTransform(landmarks)) {
+            return false;
+        }
+        sample(frame, out);
+        return true;
+    }
+
+    /**
+     * 用当前变换采样（调用前须 estimateTransform 成功）
+     */
+    public void sample(Frame frame, FloatBuffer out) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int rotation = frame.getRotationDegrees();
+
+        // 正立 -> 原始：raw = [r00 r01; r10 r11] * upright + (c0, c1)
+        float r00;
+        float r01;
+        float r10;
+        float r11;
+        float c0;
+        float c1;
+        switch (rotation) {
+            case 90:
+                r00 = 0; r01 = 1; r10 = -1; r11 = 0; c0 = 0; c1 = height - 1;
+                break;
+            case 180:
+                r00 = -1; r01 = 0; r10 = 0; r11 = -1; c0 = width - 1; c1 = height - 1;
+                break;
+            case 270:
+                r00 = 0; r01 = -1; r10 = 1; r11 = 0; c0 = width - 1; c1 = 0;
+                break;
+            default:
+                r00 = 1; r01 = 0; r10 = 0; r11 = 1; c0 = 0; c1 = 0;
+                break;
+        }
+        // 合成：输出像素 -> 原始坐标
+        float m00 = r00 * a + r01 * b;
+        float m01 = -r00 * b + r01 * a;
+        float m10 = r10 * a + r11 * b;
+        float m11 = -r10 * b + r11 * a;
+        float m02 = r00 * tx + r01 * ty + c0;
+        float m12 = r10 * tx + r11 * ty + c1;
+
+        // 采样范围：四个角映射到原始坐标后的外接矩形（仿射变换保持凸包），整行批量拷贝出来再采样
+        computeWindow(m00, m01, m10, m11, m02, m12, width, height);
+        Frame.Plane yPlane = frame.getPlane(0);
+        yWindow = copyWindow(yPlane, winX0, winY0, winX1, winY1, yWindow);
+        int yStride = windowRowBytes(yPlane.getPixelStride(), winX0, winX1);
+        int yPixelStride = yPlane.getPixelStride();
+        float maxX = winX1 - winX0 - 1.001f;
+        float maxY = winY1 - winY0 - 1.001f;
+        float offsetX = winX0;
+        float offsetY = winY0;
+
+        boolean rgb = format == Format.RGB;
+        int cx0 = winX0 / 2;
+        int cy0 = winY0 / 2;
+        int cx1 = Math.min((width + 1) / 2, (winX1 + 2) / 2);
+        int cy1 = Math.min((height + 1) / 2, (winY1 + 2) / 2);
+        int uStride = 0;
+        int vStride = 0;
+        int uPixelStride = 0;
+        int vPixelStride = 0;
+        if (rgb) {
+            Frame.Plane uPlane = frame.getPlane(1);
+            Frame.Plane vPlane = frame.getPlane(2);
+            uWindow = copyWindow(uPlane, cx0, cy0, cx1, cy1, uWindow);
+            vWindow = copyWindow(vPlane, cx0, cy0, cx1, cy1, vWindow);
+            uPixelStride = uPlane.getPixelStride();
+            vPixelStride = vPlane.getPixelStride();
+            uStride = windowRowBytes(uPixelStride, cx0, cx1);
+            vStride = windowRowBytes(vPixelStride, cx0, cx1);
+        }
+        float maxCx = cx1 - cx0 - 1.001f;
+        float maxCy = cy1 - cy0 - 1.001f;
+        byte[] yData = yWindow;
+        byte[] uData = uWindow;
+        byte[] vData = vWindow;
+
+        int base = out.position();
+        int index = base;
+        for (int v = 0; v < size; v++) {
+            // 采样像素中心，坐标相对窗口
+            float x = m00 * 0.5f + m01 * (v + 0.5f) + m02 - offsetX;
+            float y = m10 * 0.5f + m11 * (v + 0.5f) + m12 - offsetY;
+            for (int u = 0; u < size; u++, x += m00, y += m10) {
+                float sx = clamp(x, maxX);
+                float sy = clamp(y, maxY);
+                float luma = bilinear(yData, yStride, yPixelStride, sx, sy);
+                if (!rgb) {
+                    out.put(index++, (luma - 127.5f) * (1f / 128f));
+                    continue;
+                }
+                // 色度平面为半分辨率，采样点中心对齐
+                float cx = clamp((sx + offsetX) * 0.5f - 0.25f - cx0, maxCx);
+                float cy = clamp((sy + offsetY) * 0.5f - 0.25f - cy0, maxCy);
+                float cb = bilinear(uData, uStride, uPixelStride, cx, cy) - 128f;
+                float cr = bilinear(vData, vStride, vPixelStride, cx, cy) - 128f;
+                // BT.601 全范围
+                float r = luma + 1.402f * cr;
+                float g = luma - 0.344136f * cb - 0.714136f * cr;
+                float bl = luma + 1.772f * cb;
+                out.put(index++, (clamp255(r) - 127.5f) * (1f / 128f));
+                out.put(index++, (clamp255(g) - 127.5f) * (1f / 128f));
+                out.put(index++, (clamp255(bl) - 127.5f) * (1f / 128f));
+            }
+        }
+        out.position(base + getTensorSize());
+    }
+
+    /**
+     * 输出四角映射到原始坐标的外接矩形（多留1像素给双线性邻域），截断到图像内且至少 2x2
+     */
+    private void computeWindow(float m00, float m01, float m10, float m11, float m02, float m12,
+                               int width, int height) {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            float u = (corner & 1) == 0 ? 0f : size;
+            float v = (corner & 2) == 0 ? 0f : size;
+            float x = m00 * u + m01 * v + m02;
+            float y = m10 * u + m11 * v + m12;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        winX0 = clampIndex((int) Math.floor(minX) - 1, width - 2);
+        winY0 = clampIndex((int) Math.floor(minY) - 1, height - 2);
+        winX1 = Math.max(winX0 + 2, clampIndex((int) Math.ceil(maxX) + 2, width));
+        winY1 = Math.max(winY0 + 2, clampIndex((int) Math.ceil(maxY) + 2, height));
+    }
+
+    private static int clampIndex(int value, int max) {
+        return value < 0 ? 0 : (value > max ? max : value);
+    }
+
+    private static int windowRowBytes(int pixelStride, int x0, int x1) {
+        return (x1 - x0 - 1) * pixelStride + 1;
+    }
+
+    /**
+     * 把平面中 [x0, x1) x [y0, y1) 的各行批量拷贝到 dst（容量不足时扩容，稳态下复用）
+     */
+    private static byte[] copyWindow(Frame.Plane plane, int x0, int y0, int x1, int y1, byte[] dst) {
+        ByteBuffer buffer = plane.getBuffer();
+        int rowStride = plane.getRowStride();
+        int pixelStride = plane.getPixelStride();
+        int rowBytes = windowRowBytes(pixelStride, x0, x1);
+        int needed = rowBytes * (y1 - y0);
+        if (dst.length < needed) {
+            dst = new byte[needed];
+        }
+        for (int y = y0; y < y1; y++) {
+            buffer.position(y * rowStride + x0 * pixelStride);
+            buffer.get(dst, (y - y0) * rowBytes, rowBytes);
+        }
+        buffer.rewind();
+        return dst;
+    }
+
+    private static float clamp(float value, float max) {
+        return value < 0f ? 0f : (value > max ? max : value);
+    }
+
+    private static float clamp255(float value) {
+        return value < 0f ? 0f : (value > 255f ? 255f : value);
+    }
+
+    /**
+     * 双线性采样，调用方保证 (x, y) 与 (x + 1, y + 1) 都在窗口内
+     */
+    private static float bilinear(byte[] data, int rowStride, int pixelStride, float x, float y) {
+        int x0 = (int) x;
+        int y0 = (int) y;
+        float fx = x - x0;
+        float fy = y - y0;
+        int offset = y0 * rowStride + x0 * pixelStride;
+        int p00 = data[offset] & 0xFF;
+        int p01 = data[offset + pixelStride] & 0xFF;
+        int p10 = data[offset + rowStride] & 0xFF;
+        int p11 = data[offset + rowStride + pixelStride] & 0xFF;
+        float top = p00 + (p01 - p00) * fx;
+        float bottom = p10 + (p11 - p10) * fx;
+        return top + (bottom - top) * fy;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+
+/**
+ * 人脸特征提取器接口
+ * 输出定长、L2归一化的特征向量，两个向量的点积即余弦相似度
+ */
+public interface FaceEmbedder {
+
+    /**
+     * 特征向量维度
+     */
+    int getDimension();
+
+    /**
+     * 从正立坐标系下的人脸框提取特征，写入out（长度 >= getDimension()）
+     */
+    void embed(LumaImage image, float left, float top, float right, float bottom, float[] out);
+}
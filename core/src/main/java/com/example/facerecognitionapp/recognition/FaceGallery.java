@@ -0,0 +1,164 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 内存映射的人脸特征库
+ * 文件布局（小端序）：
+ * <pre>
+ * [header 32B] magic, version, dimension, count, sourceFingerprint(long), vectorsOffset, namesOffset
+ * [vectors]    count * dimension 个 float，连续存放
+ * [names]      (count + 1) 个 int 偏移量 + UTF-8 名称字节
+ * </pre>
+ * 特征向量直接从映射区读取，不占用Java堆；名称在首次访问时解码
+ */
+public class FaceGallery implements Closeable, NamedVectorStore {
+    static final int MAGIC = 0x46474C59; // "FGLY"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer mapped;
+    private final FloatBuffer vectors;
+    private final int dimension;
+    private final int count;
+    private final long sourceFingerprint;
+    private final int namesOffset;
+    private final String[] nameCache;
+
+    private FaceGallery(RandomAccessFile file, MappedByteBuffer mapped) throws IOException {
+        this.file = file;
+        this.mapped = mapped;
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的人脸库文件");
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("不支持的人脸库版本: " + mapped.getInt(4));
+        }
+        this.dimension = mapped.getInt(8);
+        this.count = mapped.getInt(12);
+        this.sourceFingerprint = mapped.getLong(16);
+        int vectorsOffset = mapped.getInt(24);
+        this.namesOffset = mapped.getInt(28);
+        if (vectorsOffset + (long) count * dimension * 4 > namesOffset
+                || namesOffset + (count + 1L) * 4 > mapped.capacity()) {
+            throw new IOException("人脸库文件已损坏");
+        }
+
+        mapped.position(vectorsOffset);
+        mapped.limit(vectorsOffset + count * dimension * 4);
+        this.vectors = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        mapped.clear();
+
+        this.nameCache = new String[count];
+    }
+
+    /**
+     * 以只读方式映射人脸库文件
+     */
+    public static FaceGallery open(File path) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new FaceGallery(raf, mapped);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 生成该库时源数据的指纹，用于判断是否需要重建
+     */
+    public long getSourceFingerprint() {
+        return sourceFingerprint;
+    }
+
+    /**
+     * 获取用户名（按需解码并缓存）
+     */
+    @Override
+    public String getName(int index) {
+        String name = nameCache[index];
+        if (name == null) {
+            int tableStart = namesOffset;
+            int dataStart = tableStart + (count + 1) * 4;
+            int start = mapped.getInt(tableStart + index * 4);
+            int end = mapped.getInt(tableStart + (index + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = mapped.get(dataStart + start + i);
+            }
+            name = new String(bytes, StandardCharsets.UTF_8);
+            nameCache[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * 拷贝第 index 个特征向量到 out
+     */
+    @Override
+    public void getEmbedding(int index, float[] out) {
+        int base = index * dimension;
+        for (int i = 0; i < dimension; i++) {
+            out[i] = vectors.get(base + i);
+        }
+    }
+
+    /**
+     * 计算第 index 个特征与查询向量的点积（即余弦相似度）
+     */
+    @Override
+    public float dot(int index, float[] query) {
+        int base = index * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += vectors.get(base + i) * query[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 线性扫描找出最相似的人脸，库为空时返回 -1
+     */
+    public int findBestIndex(float[] query) {
+        int best = -1;
+        float bestScore = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            float score = dot(i, query);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // MappedByteBuffer 由GC回收映射，这里只关闭文件句柄
+        file.close();
+    }
+}
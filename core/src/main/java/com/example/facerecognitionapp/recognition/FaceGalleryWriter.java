@@ -0,0 +1,85 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 人脸库文件写入器
+ * 先写临时文件再重命名，保证读取方不会映射到写了一半的文件
+ */
+public final class FaceGalleryWriter {
+
+    private FaceGalleryWriter() {
+    }
+
+    /**
+     * 写入人脸库文件，embeddings 中每个向量长度必须等于 dimension
+     */
+    public static void write(File file, int dimension, List<String> names,
+                             List<float[]> embeddings, long sourceFingerprint) throws IOException {
+        if (names.size() != embeddings.size()) {
+            throw new IllegalArgumentException("names/embeddings 数量不一致");
+        }
+        int count = names.size();
+
+        byte[][] encodedNames = new byte[count][];
+        int nameBytes = 0;
+        for (int i = 0; i < count; i++) {
+            encodedNames[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            nameBytes += encodedNames[i].length;
+        }
+
+        int vectorsOffset = FaceGallery.HEADER_SIZE;
+        int namesOffset = vectorsOffset + count * dimension * 4;
+        int totalSize = namesOffset + (count + 1) * 4 + nameBytes;
+
+        ByteBuffer out = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(FaceGallery.MAGIC);
+        out.putInt(FaceGallery.VERSION);
+        out.putInt(dimension);
+        out.putInt(count);
+        out.putLong(sourceFingerprint);
+        out.putInt(vectorsOffset);
+        out.putInt(namesOffset);
+
+        for (float[] embedding : embeddings) {
+            if (embedding.length != dimension) {
+                throw new IllegalArgumentException("特征维度不一致: " + embedding.length);
+            }
+            for (float v : embedding) {
+                out.putFloat(v);
+            }
+        }
+
+        // 名称表：count+1 个偏移量 + UTF-8 字节，读取时按需解码
+        int offset = 0;
+        for (byte[] encoded : encodedNames) {
+            out.putInt(offset);
+            offset += encoded.length;
+        }
+        out.putInt(offset);
+        for (byte[] encoded : encodedNames) {
+            out.put(encoded);
+        }
+        out.flip();
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             FileChannel channel = fos.getChannel()) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        if (!tmpFile.renameTo(file)) {
+            tmpFile.delete();
+            throw new IOException("重命名人脸库文件失败: " + file);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.FrameGeometry;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 人脸质量评估：在识别前过滤模糊、曝光不当或姿态过大的人脸
+ * <ul>
+ *   <li>清晰度：人脸框中心区域内拉普拉斯响应的方差</li>
+ *   <li>曝光：同一区域的亮度均值与标准差（对比度）</li>
+ *   <li>姿态：检测结果携带的头部欧拉角（缺失时不检查）</li>
+ * </ul>
+ * 直接按原始坐标读取Y平面缓冲区（拉普拉斯算子与旋转无关），无分配；非线程安全，只应在分析线程调用
+ */
+public class FaceQualityScorer {
+    public static final float DEFAULT_MIN_SHARPNESS = 60f;
+    public static final float DEFAULT_MIN_BRIGHTNESS = 50f;
+    public static final float DEFAULT_MAX_BRIGHTNESS = 210f;
+    public static final float DEFAULT_MIN_CONTRAST = 18f;
+    public static final float DEFAULT_MAX_YAW = 25f;
+    public static final float DEFAULT_MAX_PITCH = 20f;
+    public static final float DEFAULT_MAX_ROLL = 30f;
+    public static final int DEFAULT_MIN_FACE_SIZE = 48;
+    // 只评估框中心区域，避免背景边缘抬高清晰度
+    private static final float INNER_MARGIN = 0.15f;
+    // 每个方向最多采样的点数
+    private static final int MAX_SAMPLES_PER_AXIS = 64;
+
+    /**
+     * 评估结论
+     */
+    public enum Verdict {
+        GOOD,
+        TOO_SMALL,
+        BAD_POSE,
+        UNDEREXPOSED,
+        OVEREXPOSED,
+        LOW_CONTRAST,
+        BLURRY
+    }
+
+    private float minSharpness = DEFAULT_MIN_SHARPNESS;
+    private float minBrightness = DEFAULT_MIN_BRIGHTNESS;
+    private float maxBrightness = DEFAULT_MAX_BRIGHTNESS;
+    private float minContrast = DEFAULT_MIN_CONTRAST;
+    private float maxYaw = DEFAULT_MAX_YAW;
+    private float maxPitch = DEFAULT_MAX_PITCH;
+    private float maxRoll = DEFAULT_MAX_ROLL;
+    private int minFaceSize = DEFAULT_MIN_FACE_SIZE;
+
+    private final int[] rawRect = new int[4];
+    private final long[] verdictCounts = new long[Verdict.values().length];
+    private float sharpness;
+    private float brightness;
+    private float contrast;
+    private float score;
+
+    public void setMinSharpness(float minSharpness) {
+        this.minSharpness = minSharpness;
+    }
+
+    /**
+     * 亮度均值允许范围（0-255）
+     */
+    public void setBrightnessRange(float min, float max) {
+        this.minBrightness = min;
+        this.maxBrightness = max;
+    }
+
+    public void setMinContrast(float minContrast) {
+        this.minContrast = minContrast;
+    }
+
+    /**
+     * 欧拉角上限（度）：yaw 为左右转头（Y），pitch 为抬头低头（X），roll 为歪头（Z）
+     */
+    public void setMaxPose(float yaw, float pitch, float roll) {
+        this.maxYaw = yaw;
+        this.maxPitch = pitch;
+        this.maxRoll = roll;
+    }
+
+    /**
+     * 人脸框短边的最小像素数
+     */
+    public void setMinFaceSize(int minFaceSize) {
+        this.minFaceSize = minFaceSize;
+    }
+
+    /**
+     * 评估一张人脸，image 为该帧的亮度图像，face 的框为正立坐标系
+     */
+    public Verdict evaluate(LumaImage image, FaceDetectionResult.FaceInfo face) {
+        Verdict verdict = score(image, face);
+        verdictCounts[verdict.ordinal()]++;
+        return verdict;
+    }
+
+    private Verdict score(LumaImage image, FaceDetectionResult.FaceInfo face) {
+        sharpness = 0f;
+        brightness = 0f;
+        contrast = 0f;
+        score = 0f;
+        float faceW = face.right - face.left;
+        float faceH = face.bottom - face.top;
+        if (Math.min(faceW, faceH) < minFaceSize) {
+            return Verdict.TOO_SMALL;
+        }
+        float poseFactor = poseFactor(face);
+        if (poseFactor <= 0f) {
+            return Verdict.BAD_POSE;
+        }
+
+        // 中心区域换算到原始坐标，留出1像素给拉普拉斯邻域
+        int width = image.getWidth();
+        int height = image.getHeight();
+        FrameGeometry.uprightToRaw(
+                (int) (face.left + faceW * INNER_MARGIN), (int) (face.top + faceH * INNER_MARGIN),
+                (int) (face.right - faceW * INNER_MARGIN), (int) (face.bottom - faceH * INNER_MARGIN),
+                image.getRotationDegrees(), width, height, rawRect);
+        int x0 = Math.max(1, rawRect[0]);
+        int y0 = Math.max(1, rawRect[1]);
+        int x1 = Math.min(width - 1, rawRect[2]);
+        int y1 = Math.min(height - 1, rawRect[3]);
+        if (x1 - x0 < 3 || y1 - y0 < 3) {
+            return Verdict.TOO_SMALL;
+        }
+        measure(image.getBuffer(), image.getRowStride(), image.getPixelStride(), x0, y0, x1, y1);
+
+        if (brightness < minBrightness) {
+            return Verdict.UNDEREXPOSED;
+        }
+        if (brightness > maxBrightness) {
+            return Verdict.OVEREXPOSED;
+        }
+        if (contrast < minContrast) {
+            return Verdict.LOW_CONTRAST;
+        }
+        if (sharpness < minSharpness) {
+            return Verdict.BLURRY;
+        }
+        // 各项相对阈值的余量合成 0-1 分数，供同一轨迹的多帧之间比较
+        float sharpFactor = Math.min(1f, sharpness / (4f * minSharpness));
+        float contrastFactor = Math.min(1f, contrast / (3f * minContrast));
+        score = sharpFactor * contrastFactor * poseFactor;
+        return Verdict.GOOD;
+    }
+
+    /**
+     * 姿态余量（1 为正脸，0 及以下为超出阈值）
+     */
+    private float poseFactor(FaceDetectionResult.FaceInfo face) {
+        float factor = 1f;
+        factor = Math.min(factor, angleFactor(face.headEulerAngleY, maxYaw));
+        factor = Math.min(factor, angleFactor(face.headEulerAngleX, maxPitch));
+        factor = Math.min(factor, angleFactor(face.headEulerAngleZ, maxRoll));
+        return factor;
+    }
+
+    private static float angleFactor(float angle, float max) {
+        if (Float.isNaN(angle)) {
+            return 1f;
+        }
+        return 1f - Math.abs(angle) / max;
+    }
+
+    /**
+     * 在原始坐标区域 [x0, x1) x [y0, y1) 内稀疏采样，统计亮度均值/标准差与拉普拉斯方差
+     */
+    private void measure(ByteBuffer buffer, int rowStride, int pixelStride, int x0, int y0, int x1, int y1) {
+        int stepX = Math.max(1, (x1 - x0) / MAX_SAMPLES_PER_AXIS);
+        int stepY = Math.max(1, (y1 - y0) / MAX_SAMPLES_PER_AXIS);
+        long sum = 0;
+        long sumSq = 0;
+        long lapSum = 0;
+        long lapSumSq = 0;
+        int count = 0;
+        for (int y = y0; y < y1; y += stepY) {
+            int row = y * rowStride;
+            for (int x = x0; x < x1; x += stepX) {
+                int offset = row + x * pixelStride;
+                int center = buffer.get(offset) & 0xFF;
+                int laplacian = 4 * center
+                        - (buffer.get(offset - pixelStride) & 0xFF)
+                        - (buffer.get(offset + pixelStride) & 0xFF)
+                        - (buffer.get(offset - rowStride) & 0xFF)
+                        - (buffer.get(offset + rowStride) & 0xFF);
+                sum += center;
+                sumSq += center * center;
+                lapSum += laplacian;
+                lapSumSq += laplacian * laplacian;
+                count++;
+            }
+        }
+        double mean = (double) sum / count;
+        brightness = (float) mean;
+        contrast = (float) Math.sqrt(Math.max(0.0, (double) sumSq / count - mean * mean));
+        double lapMean = (double) lapSum / count;
+        sharpness = (float) Math.max(0.0, (double) lapSumSq / count - lapMean * lapMean);
+    }
+
+    /**
+     * 最近一次评估的拉普拉斯方差
+     */
+    public float getSharpness() {
+        return sharpness;
+    }
+
+    /**
+     * 最近一次评估的亮度均值
+     */
+    public float getBrightness() {
+        return brightness;
+    }
+
+    /**
+     * 最近一次评估的亮度标准差
+     */
+    public float getContrast() {
+        return contrast;
+    }
+
+    /**
+     * 最近一次评估的综合分数（0-1，未通过时为0）
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * 各结论的累计次数
+     */
+    public long getCount(Verdict verdict) {
+        return verdictCounts[verdict.ordinal()];
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 人脸识别器：特征提取 + 人脸库 1:N 比对
+ * <p>
+ * 人脸库以不可变版本（GallerySnapshot）发布：比对线程一次 volatile 读取当前版本并持有引用，
+ * 整个比对期间不加锁；注册等修改方在别处构建好下一个版本后原子替换，互不阻塞。
+ * 旧版本在没有进行中的比对后回收
+ */
+public class FaceRecognizer {
+    public static final float DEFAULT_MATCH_THRESHOLD = 0.75f;
+
+    private final FaceEmbedder embedder;
+    private final float[] query;
+    private final int[] topId = new int[1];
+    private final float[] topScore = new float[1];
+    private final AtomicReference<GallerySnapshot> current = new AtomicReference<>();
+    private long nextVersion = 1;
+    private float matchThreshold = DEFAULT_MATCH_THRESHOLD;
+    // 未提供索引时用于分片并行扫描的线程池，null 表示单线程扫描
+    private Executor searchExecutor;
+    private int searchParallelism = 1;
+    // 批量识别的查询与结果缓冲，按需扩容
+    private float[][] batchQueries = new float[0][];
+    private int[] batchIds = new int[0];
+    private float[] batchScores = new float[0];
+    private int[] batchCounts = new int[0];
+
+    public FaceRecognizer(FaceEmbedder embedder) {
+        this.embedder = embedder;
+        this.query = new float[embedder.getDimension()];
+    }
+
+    /**
+     * 设置比对用的人脸库（可为null表示暂不识别），使用精确线性扫描
+     */
+    public void setGallery(NamedVectorStore gallery) {
+        setGallery(gallery, null);
+    }
+
+    /**
+     * 设置未提供索引时线性扫描使用的线程池；人脸库足够大时按 parallelism 分片并行扫描。
+     * 须在 setGallery 之前调用
+     *
+     * @param parallelism 分片数上限（含调用线程）
+     */
+    public void setSearchExecutor(Executor executor, int parallelism) {
+        this.searchExecutor = executor;
+        this.searchParallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 设置人脸库及建立在其上的检索索引（如HNSW），index为null时线性扫描
+     * （设置了 searchExecutor 且人脸库足够大时分片并行扫描）
+     */
+    public void setGallery(NamedVectorStore gallery, EmbeddingIndex index) {
+        setGallery(gallery, index, null);
+    }
+
+    /**
+     * 发布新的人脸库版本，可在任意线程调用，不等待进行中的比对
+     *
+     * @param resource 该版本被替换且不再被比对使用时关闭的资源（如映射快照的引用），可为null
+     */
+    public void setGallery(NamedVectorStore gallery, EmbeddingIndex index, Closeable resource) {
+        if (gallery != null && gallery.getDimension() != embedder.getDimension()) {
+            throw new IllegalArgumentException("人脸库维度与特征提取器不一致");
+        }
+        if (gallery == null && resource != null) {
+            closeQuietly(resource);
+        }
+        if (gallery != null && index == null) {
+            index = searchExecutor != null && searchParallelism > 1
+                    && gallery.size() >= 2 * ShardedIndex.DEFAULT_MIN_SHARD_SIZE
+                    ? new ShardedIndex(gallery, searchExecutor, searchParallelism)
+                    : new BruteForceIndex(gallery);
+        }
+        GallerySnapshot previous;
+        // 只在发布方之间互斥，保证版本号与替换顺序一致；比对线程从不获取该锁
+        synchronized (current) {
+            GallerySnapshot next = gallery != null
+                    ? new GallerySnapshot(gallery, index, nextVersion++, resource) : null;
+            previous = current.getAndSet(next);
+        }
+        if (previous != null) {
+            // 归还发布方的引用，进行中的比对结束后回收
+            previous.release();
+        }
+    }
+
+    public NamedVectorStore getGallery() {
+        GallerySnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.gallery : null;
+    }
+
+    /**
+     * 当前人脸库版本号（每次 setGallery 递增），无人脸库时为0
+     */
+    public long getGalleryVersion() {
+        GallerySnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.version : 0L;
+    }
+
+    /**
+     * 取得当前版本并持有一个引用，用完后须调用 release；无人脸库时返回null。
+     * 读到的版本恰好被替换并回收时重新读取，无锁
+     */
+    public GallerySnapshot acquireGallery() {
+        while (true) {
+            GallerySnapshot snapshot = current.get();
+            if (snapshot == null || snapshot.tryRetain()) {
+                return snapshot;
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException ignored) {
+            // 资源只是引用计数，关闭失败无需处理
+        }
+    }
+
+    /**
+     * 设置匹配阈值（余弦相似度）
+     */
+    public void setMatchThreshold(float matchThreshold) {
+        this.matchThreshold = matchThreshold;
+    }
+
+    /**
+     * 识别正立坐标系下人脸框内的人脸，未匹配或无人脸库时返回null
+     * 非线程安全：只应在分析线程调用
+     */
+    public GalleryMatch recognize(LumaImage image, float left, float top, float right, float bottom) {
+        GallerySnapshot snapshot = acquireGallery();
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            if (snapshot.index.size() == 0) {
+                return null;
+            }
+            embedder.embed(image, left, top, right, bottom, query);
+            if (snapshot.index.search(query, 1, topId, topScore) == 0 || topScore[0] < matchThreshold) {
+                return null;
+            }
+            return new GalleryMatch(topId[0], snapshot.gallery.getName(topId[0]), topScore[0]);
+        } finally {
+            snapshot.release();
+        }
+    }
+
+    /**
+     * 批量识别同一帧中的多个人脸：逐个提取特征后一次检索整批，线性扫描时人脸库只遍历一次。
+     * boxes 依次为 count 个 [left, top, right, bottom]（正立坐标），结果写入 out，未匹配为null。
+     * 非线程安全：只应在分析线程调用
+     */
+    public void recognizeBatch(LumaImage image, float[] boxes, int count, GalleryMatch[] out) {
+        GallerySnapshot snapshot = acquireGallery();
+        if (snapshot == null) {
+            for (int i = 0; i < count; i++) {
+                out[i] = null;
+            }
+            return;
+        }
+        try {
+            recognizeBatch(snapshot, image, boxes, count, out);
+        } finally {
+            snapshot.release();
+        }
+    }
+
+    private void recognizeBatch(GallerySnapshot snapshot, LumaImage image, float[] boxes, int count,
+                                GalleryMatch[] out) {
+        if (snapshot.index.size() == 0) {
+            for (int i = 0; i < count; i++) {
+                out[i] = null;
+            }
+            return;
+        }
+        ensureBatchCapacity(count);
+        for (int i = 0; i < count; i++) {
+            embedder.embed(image, boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3],
+                    batchQueries[i]);
+        }
+        snapshot.index.searchBatch(batchQueries, count, 1, batchIds, batchScores, batchCounts);
+        for (int i = 0; i < count; i++) {
+            if (batchCounts[i] == 0 || batchScores[i] < matchThreshold) {
+                out[i] = null;
+            } else {
+                out[i] = new GalleryMatch(batchIds[i], snapshot.gallery.getName(batchIds[i]), batchScores[i]);
+            }
+        }
+    }
+
+    private void ensureBatchCapacity(int count) {
+        if (batchQueries.length >= count) {
+            return;
+        }
+        float[][] queries = new float[count][];
+        System.arraycopy(batchQueries, 0, queries, 0, batchQueries.length);
+        for (int i = batchQueries.length; i < count; i++) {
+            queries[i] = new float[embedder.getDimension()];
+        }
+        batchQueries = queries;
+        batchIds = new int[count];
+        batchScores = new float[count];
+        batchCounts = new int[count];
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * 对齐人脸张量池：固定数量、固定长度的直接 FloatBuffer（本地字节序，可直接交给推理引擎）
+ * acquire 取出的缓冲区用完后须 release 归还；池耗尽时返回null，稳态下不产生分配。线程安全
+ */
+public class FaceTensorPool {
+    private final int tensorSize;
+    private final FloatBuffer[] free;
+    private int freeCount;
+
+    /**
+     * @param capacity   缓冲区数量
+     * @param tensorSize 每个缓冲区的 float 个数（如 FaceAligner.getTensorSize()）
+     */
+    public FaceTensorPool(int capacity, int tensorSize) {
+        if (capacity <= 0 || tensorSize <= 0) {
+            throw new IllegalArgumentException("容量与张量长度必须大于0");
+        }
+        this.tensorSize = tensorSize;
+        this.free = new FloatBuffer[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = ByteBuffer.allocateDirect(tensorSize * Float.BYTES)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * 取出一个已清空（position 为0）的缓冲区，池耗尽时返回null
+     */
+    public synchronized FloatBuffer acquire() {
+        if (freeCount == 0) {
+            return null;
+        }
+        FloatBuffer buffer = free[--freeCount];
+        free[freeCount] = null;
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还 acquire 取出的缓冲区
+     */
+    public synchronized void release(FloatBuffer buffer) {
+        if (buffer.capacity() != tensorSize || freeCount == free.length) {
+            throw new IllegalArgumentException("不属于该池的缓冲区");
+        }
+        free[freeCount++] = buffer;
+    }
+
+    public int getTensorSize() {
+        return tensorSize;
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+
+    /**
+     * 当前空闲的缓冲区数
+     */
+    public synchronized int getAvailable() {
+        return freeCount;
+    }
+}
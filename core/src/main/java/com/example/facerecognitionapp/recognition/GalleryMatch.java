@@ -0,0 +1,16 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 1:N 比对结果
+ */
+public class GalleryMatch {
+    public final int index;      // 人脸库中的序号
+    public final String name;    // 用户名
+    public final float score;    // 余弦相似度
+
+    public GalleryMatch(int index, String name, float score) {
+        this.index = index;
+        this.name = name;
+        this.score = score;
+    }
+}
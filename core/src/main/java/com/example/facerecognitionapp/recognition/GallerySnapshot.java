@@ -0,0 +1,73 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 人脸库的不可变版本：人脸库 + 建立在其上的检索索引 + 版本号，二者总是成对替换。
+ * <p>
+ * 带引用计数：发布方（FaceRecognizer）持有一个引用，每次比对期间比对方持有一个。
+ * 被新版本替换且没有进行中的比对时计数归零，释放附带的资源（如映射快照的引用）
+ */
+public final class GallerySnapshot {
+    private static final String TAG = "GallerySnapshot";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    public final NamedVectorStore gallery;
+    public final EmbeddingIndex index;
+    public final long version;
+    private final Closeable resource;
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    /**
+     * @param resource 最后一个引用归还时关闭的资源，可为null
+     */
+    GallerySnapshot(NamedVectorStore gallery, EmbeddingIndex index, long version, Closeable resource) {
+        this.gallery = gallery;
+        this.index = index;
+        this.version = version;
+        this.resource = resource;
+    }
+
+    /**
+     * 增加一个引用；已被回收时返回false，调用方应重新读取当前版本
+     */
+    boolean tryRetain() {
+        while (true) {
+            int count = refs.get();
+            if (count == 0) {
+                return false;
+            }
+            if (refs.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还一个引用，最后一个引用归还时在调用线程关闭附带的资源
+     */
+    public void release() {
+        int count = refs.decrementAndGet();
+        if (count < 0) {
+            throw new IllegalStateException("人脸库版本引用计数为负");
+        }
+        if (count == 0 && resource != null) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "释放人脸库版本资源失败", e);
+            }
+        }
+    }
+
+    /**
+     * 是否已被回收（计数归零）
+     */
+    public boolean isReclaimed() {
+        return refs.get() == 0;
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * HNSW（分层可导航小世界图）近似最近邻索引
+ * 向量由 VectorStore 提供（可直接是内存映射的人脸库），索引只保存图结构。
+ * <p>
+ * 调参：
+ * <ul>
+ *   <li>m：每层最大邻居数（第0层为2m），越大召回越高、内存越大</li>
+ *   <li>efConstruction：建图时的候选集大小，影响建图质量与耗时</li>
+ *   <li>efSearch：查询时的候选集大小，可运行时调整，是召回率/延迟的主要旋钮</li>
+ * </ul>
+ * 非线程安全：查询与插入需在同一线程，或由调用方加锁
+ */
+public class HnswIndex implements EmbeddingIndex {
+    static final int MAGIC = 0x484E5357; // "HNSW"
+    static final int VERSION = 1;
+    private static final int MAX_LEVEL = 16;
+
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 100;
+    public static final int DEFAULT_EF_SEARCH = 64;
+
+    private final VectorStore store;
+    private final int m;
+    private final int m0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private int efSearch = DEFAULT_EF_SEARCH;
+
+    // 图结构
+    private int count;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int[] levels;
+    private int[] layer0;          // 每个节点 (m0 + 1) 个int：[邻居数, 邻居...]
+    private int[][] upperLinks;    // upperLinks[node]：第1..level层，每层 (m + 1) 个int
+
+    // 查询/插入复用的临时状态
+    private int[] visitedMarks;
+    private int visitedEpoch;
+    private final ScoreHeap candidates = new ScoreHeap(64, false);
+    private final ScoreHeap results = new ScoreHeap(64, true);
+    private final float[] insertVector;
+    private final float[] baseVector;
+    private final float[] otherVector;
+    private int[] scratchIds;
+    private float[] scratchScores;
+    private final int[] selectedIds;
+    private final float[] selectedScores;
+    private final int[] pruneIds;
+    private final float[] pruneScores;
+    private final int[] keptIds;
+    private final float[] keptScores;
+    private final boolean[] rejected;
+
+    public HnswIndex(VectorStore store) {
+        this(store, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 42L);
+    }
+
+    public HnswIndex(VectorStore store, int m, int efConstruction, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m 必须 >= 2");
+        }
+        this.store = store;
+        this.m = m;
+        this.m0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new Random(seed);
+
+        int capacity = Math.max(16, store.size());
+        this.levels = new int[capacity];
+        this.layer0 = new int[capacity * (m0 + 1)];
+        this.upperLinks = new int[capacity][];
+        this.visitedMarks = new int[capacity];
+
+        int dim = store.getDimension();
+        this.insertVector = new float[dim];
+        this.baseVector = new float[dim];
+        this.otherVector = new float[dim];
+        this.scratchIds = new int[this.efConstruction + 1];
+        this.scratchScores = new float[this.efConstruction + 1];
+        this.selectedIds = new int[m0];
+        this.selectedScores = new float[m0];
+        this.pruneIds = new int[m0 + 1];
+        this.pruneScores = new float[m0 + 1];
+        this.keptIds = new int[m0];
+        this.keptScores = new float[m0];
+        this.rejected = new boolean[Math.max(this.efConstruction, m0) + 1];
+    }
+
+    /**
+     * 为存储中所有尚未索引的向量建立索引
+     */
+    public static HnswIndex build(VectorStore store, int m, int efConstruction) {
+        HnswIndex index = new HnswIndex(store, m, efConstruction, 42L);
+        index.addAll();
+        return index;
+    }
+
+    /**
+     * 设置查询候选集大小（召回率/延迟权衡）
+     */
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(1, efSearch);
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 追加索引存储中新增的所有向量（增量插入）
+     */
+    public void addAll() {
+        int target = store.size();
+        while (count < target) {
+            add(count);
+        }
+    }
+
+    /**
+     * 插入编号为id的向量，编号必须按顺序递增（等于当前size()）
+     */
+    public void add(int id) {
+        if (id != count) {
+            throw new IllegalArgumentException("必须按顺序插入，期望 " + count + " 实际 " + id);
+        }
+        if (id >= store.size()) {
+            throw new IllegalArgumentException("向量存储中不存在编号 " + id);
+        }
+        int level = randomLevel();
+        ensureCapacity(id + 1);
+        levels[id] = level;
+        layer0[id * (m0 + 1)] = 0;
+        upperLinks[id] = level > 0 ? new int[level * (m + 1)] : null;
+        count++;
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        store.getEmbedding(id, insertVector);
+        int current = entryPoint;
+        float currentScore = store.dot(current, insertVector);
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(insertVector, current, currentScore, l);
+            currentScore = store.dot(current, insertVector);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            searchLayer(insertVector, current, currentScore, efConstruction, l);
+            int n = results.size();
+            ensureScratch(n);
+            n = results.drainDescending(scratchIds, scratchScores);
+            current = scratchIds[0];
+            currentScore = scratchScores[0];
+
+            int maxLinks = l == 0 ? m0 : m;
+            int selected = selectNeighbors(scratchIds, scratchScores, n, maxLinks, selectedIds, selectedScores);
+            int[] links = linksArray(id, l);
+            int offset = linksOffset(id, l);
+            links[offset] = selected;
+            System.arraycopy(selectedIds, 0, links, offset + 1, selected);
+            for (int i = 0; i < selected; i++) {
+                connect(selectedIds[i], id, selectedScores[i], l);
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    @Override
+    public int search(float[] query, int k, int[] outIds, float[] outScores) {
+        if (count == 0 || k <= 0) {
+            return 0;
+        }
+        int current = entryPoint;
+        float currentScore = store.dot(current, query);
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, currentScore, l);
+            currentScore = store.dot(current, query);
+        }
+        searchLayer(query, current, currentScore, Math.max(efSearch, k), 0);
+        while (results.size() > k) {
+            results.pop();
+        }
+        return results.drainDescending(outIds, outScores);
+    }
+
+    /**
+     * 在高层图上贪心移动到最相似的节点
+     */
+    private int greedyClosest(float[] query, int current, float currentScore, int level) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] links = linksArray(current, level);
+            int offset = linksOffset(current, level);
+            int n = links[offset];
+            for (int i = 1; i <= n; i++) {
+                int neighbor = links[offset + i];
+                float score = store.dot(neighbor, query);
+                if (score > currentScore) {
+                    currentScore = score;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 单层beam搜索，结果保留在 results（最小堆，大小 <= ef）
+     */
+    private void searchLayer(float[] query, int entry, float entryScore, int ef, int level) {
+        nextVisitedEpoch();
+        candidates.clear();
+        results.clear();
+        visitedMarks[entry] = visitedEpoch;
+        candidates.push(entry, entryScore);
+        results.push(entry, entryScore);
+
+        while (!candidates.isEmpty()) {
+            float candidateScore = candidates.peekScore();
+            if (results.size() >= ef && candidateScore < results.peekScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] links = linksArray(candidate, level);
+            int offset = linksOffset(candidate, level);
+            int n = links[offset];
+            for (int i = 1; i <= n; i++) {
+                int neighbor = links[offset + i];
+                if (visitedMarks[neighbor] == visitedEpoch) {
+                    continue;
+                }
+                visitedMarks[neighbor] = visitedEpoch;
+                float score = store.dot(neighbor, query);
+                if (results.size() < ef || score > results.peekScore()) {
+                    candidates.push(neighbor, score);
+                    results.push(neighbor, score);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 启发式选邻：候选按相似度降序，只有当候选与基准点的相似度高于与所有已选邻居的相似度时才选中，
+     * 使邻居分布在不同方向；不足 maxLinks 时用被拒绝的候选补齐
+     */
+    private int selectNeighbors(int[] ids, float[] scores, int n, int maxLinks,
+                                int[] outIds, float[] outScores) {
+        if (n <= maxLinks) {
+            System.arraycopy(ids, 0, outIds, 0, n);
+            System.arraycopy(scores, 0, outScores, 0, n);
+            return n;
+        }
+        int selected = 0;
+        for (int i = 0; i < n && selected < maxLinks; i++) {
+            store.getEmbedding(ids[i], otherVector);
+            boolean keep = true;
+            for (int j = 0; j < selected; j++) {
+                if (store.dot(outIds[j], otherVector) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            rejected[i] = !keep;
+            if (keep) {
+                outIds[selected] = ids[i];
+                outScores[selected] = scores[i];
+                selected++;
+            }
+        }
+        for (int i = 0; i < n && selected < maxLinks; i++) {
+            if (rejected[i]) {
+                outIds[selected] = ids[i];
+                outScores[selected] = scores[i];
+                selected++;
+            }
+        }
+        Arrays.fill(rejected, 0, n, false);
+        return selected;
+    }
+
+    /**
+     * 为已有节点添加一条指向新节点的反向边，超出容量时重新选邻
+     */
+    private void connect(int node, int newNeighbor, float score, int level) {
+        int[] links = linksArray(node, level);
+        int offset = linksOffset(node, level);
+        int n = links[offset];
+        int maxLinks = level == 0 ? m0 : m;
+        if (n < maxLinks) {
+            links[offset + 1 + n] = newNeighbor;
+            links[offset] = n + 1;
+            return;
+        }
+
+        store.getEmbedding(node, baseVector);
+        for (int i = 0; i < n; i++) {
+            pruneIds[i] = links[offset + 1 + i];
+            pruneScores[i] = store.dot(pruneIds[i], baseVector);
+        }
+        pruneIds[n] = newNeighbor;
+        pruneScores[n] = score;
+        sortDescending(pruneIds, pruneScores, n + 1);
+
+        int kept = selectNeighbors(pruneIds, pruneScores, n + 1, maxLinks, keptIds, keptScores);
+        links[offset] = kept;
+        System.arraycopy(keptIds, 0, links, offset + 1, kept);
+    }
+
+    private int[] linksArray(int node, int level) {
+        return level == 0 ? layer0 : upperLinks[node];
+    }
+
+    private int linksOffset(int node, int level) {
+        return level == 0 ? node * (m0 + 1) : (level - 1) * (m + 1);
+    }
+
+    private int randomLevel() {
+        double r = -Math.log(1.0 - random.nextDouble()) * levelMultiplier;
+        return (int) Math.min(r, MAX_LEVEL);
+    }
+
+    private void nextVisitedEpoch() {
+        if (++visitedEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedMarks, 0);
+            visitedEpoch = 1;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= levels.length) {
+            return;
+        }
+        int capacity = Math.max(required, levels.length * 2);
+        levels = Arrays.copyOf(levels, capacity);
+        layer0 = Arrays.copyOf(layer0, capacity * (m0 + 1));
+        upperLinks = Arrays.copyOf(upperLinks, capacity);
+        visitedMarks = Arrays.copyOf(visitedMarks, capacity);
+    }
+
+    private void ensureScratch(int required) {
+        if (scratchIds.length < required) {
+            scratchIds = new int[required];
+            scratchScores = new float[required];
+        }
+    }
+
+    private static void sortDescending(int[] ids, float[] scores, int n) {
+        for (int i = 1; i < n; i++) {
+            int id = ids[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                ids[j + 1] = ids[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * 保存图结构（不含向量），sourceFingerprint 用于加载时校验与向量存储是否匹配
+     */
+    public void save(File file, long sourceFingerprint) throws IOException {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceFingerprint);
+            out.writeInt(store.getDimension());
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(efSearch);
+            out.writeInt(count);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < count; node++) {
+                out.writeByte(levels[node]);
+                for (int l = 0; l <= levels[node]; l++) {
+                    int[] links = linksArray(node, l);
+                    int offset = linksOffset(node, l);
+                    int n = links[offset];
+                    out.writeShort(n);
+                    for (int i = 1; i <= n; i++) {
+                        out.writeInt(links[offset + i]);
+                    }
+                }
+            }
+        }
+        if (!tmpFile.renameTo(file)) {
+            tmpFile.delete();
+            throw new IOException("重命名索引文件失败: " + file);
+        }
+    }
+
+    /**
+     * 加载图结构并绑定到向量存储，指纹或维度不匹配、文件截断或图结构越界时抛出IOException
+     */
+    public static HnswIndex load(File file, VectorStore store, long expectedFingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("不是有效的HNSW索引文件");
+            }
+            if (in.readLong() != expectedFingerprint) {
+                throw new IOException("索引与人脸库不匹配");
+            }
+            int dimension = in.readInt();
+            int m = in.readInt();
+            int efConstruction = in.readInt();
+            int efSearch = in.readInt();
+            int count = in.readInt();
+            if (dimension != store.getDimension() || count < 0 || count > store.size()) {
+                throw new IOException("索引与人脸库不匹配");
+            }
+            // 邻居数按short存储
+            checkRange("m", m, 2, Short.MAX_VALUE / 2);
+
+            HnswIndex index = new HnswIndex(store, m, efConstruction, 42L);
+            index.setEfSearch(efSearch);
+            index.ensureCapacity(count);
+            int entryPoint = in.readInt();
+            int maxLevel = in.readInt();
+            if (count == 0) {
+                checkRange("entryPoint", entryPoint, -1, -1);
+                checkRange("maxLevel", maxLevel, -1, -1);
+            } else {
+                checkRange("entryPoint", entryPoint, 0, count - 1);
+                checkRange("maxLevel", maxLevel, 0, MAX_LEVEL);
+            }
+            index.count = count;
+            index.entryPoint = entryPoint;
+            index.maxLevel = maxLevel;
+            for (int node = 0; node < count; node++) {
+                int level = checkRange("level", in.readByte(), 0, maxLevel);
+                index.levels[node] = level;
+                index.upperLinks[node] = level > 0 ? new int[level * (m + 1)] : null;
+                for (int l = 0; l <= level; l++) {
+                    int[] links = index.linksArray(node, l);
+                    int offset = index.linksOffset(node, l);
+                    int n = checkRange("邻居数", in.readShort(), 0, l == 0 ? index.m0 : m);
+                    links[offset] = n;
+                    for (int i = 1; i <= n; i++) {
+                        links[offset + i] = checkRange("邻居", in.readInt(), 0, count - 1);
+                    }
+                }
+            }
+            if (count > 0 && index.levels[entryPoint] != maxLevel) {
+                throw new IOException("HNSW索引入口点层数不一致");
+            }
+            return index;
+        }
+    }
+
+    private static int checkRange(String name, int value, int min, int max) throws IOException {
+        if (value < min || value > max) {
+            throw new IOException("HNSW索引已损坏: " + name + " = " + value);
+        }
+        return value;
+    }
+}
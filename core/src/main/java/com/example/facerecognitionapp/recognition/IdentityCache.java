@@ -0,0 +1,385 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+
+import java.util.Arrays;
+
+/**
+ * 按轨迹缓存的身份：每条轨迹保存投票得出的身份、置信度与最近一次验证时间，
+ * 同一轨迹的后续检测帧直接复用，不再重复提取特征与 1:N 比对。满足以下任一条件时重新验证：
+ * <ul>
+ *   <li>轨迹尚无缓存，或投票数不足 minVotes（标签未稳定）</li>
+ *   <li>距上次验证超过 verifyInterval</li>
+ *   <li>人脸质量分数比上次验证时高出 qualityGain 以上</li>
+ *   <li>外观漂移：人脸框内 8x8 亮度签名与上次验证时的余弦相似度低于 driftSimilarity</li>
+ * </ul>
+ * 每次验证结果进入长度为 windowSize 的滑动窗口，按票数（同票比较分数和）决定标签。
+ * 缓存容量固定，轨迹消失时由跟踪器回调 remove；满员时淘汰最久未访问的条目，
+ * 但从不淘汰等待验证结果的条目，因此同时等待验证的轨迹不能超过容量。
+ * 非线程安全：调用方负责同步（流水线中在 tracker 锁内访问）
+ */
+public class IdentityCache {
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final int DEFAULT_WINDOW_SIZE = 5;
+    public static final int DEFAULT_MIN_VOTES = 3;
+    public static final long DEFAULT_VERIFY_INTERVAL_NANOS = 1_000_000_000L;
+    public static final float DEFAULT_QUALITY_GAIN = 0.15f;
+    public static final float DEFAULT_DRIFT_SIMILARITY = 0.85f;
+
+    private static final int SIGNATURE_GRID = 8;
+    private static final int SIGNATURE_SIZE = SIGNATURE_GRID * SIGNATURE_GRID;
+    // 未匹配（陌生人）的投票
+    private static final int UNKNOWN = -1;
+
+    /**
+     * 是否需要重新验证及其原因
+     */
+    public enum Reason {
+        NONE,       // 命中缓存
+        NEW_TRACK,
+        UNSETTLED,
+        INTERVAL,
+        QUALITY,
+        DRIFT
+    }
+
+    private static final class Entry {
+        int trackId = -1;              // -1 表示空槽
+        long lastAccess;               // LRU 序号
+        GalleryMatch identity;         // 投票得出的身份，陌生人为null
+        float confidence;              // 标签所得票数 / 窗口内总票数
+        long verifiedNanos;
+        float quality;
+        final float[] signature = new float[SIGNATURE_SIZE];
+        // check 返回非 NONE 后等待 onVerified，此时的签名在验证时存入 signature
+        final float[] pendingSignature = new float[SIGNATURE_SIZE];
+        boolean pending;
+        // 投票窗口（环形）
+        final GalleryMatch[] votes;
+        int voteCount;
+        int voteHead;
+
+        Entry(int windowSize) {
+            votes = new GalleryMatch[windowSize];
+        }
+
+        void reset(int trackId) {
+            this.trackId = trackId;
+            identity = null;
+            confidence = 0f;
+            verifiedNanos = 0L;
+            quality = 0f;
+            voteCount = 0;
+            voteHead = 0;
+            pending = false;
+            Arrays.fill(votes, null);
+        }
+    }
+
+    private final Entry[] entries;
+    private final int windowSize;
+    private int minVotes = DEFAULT_MIN_VOTES;
+    private long verifyIntervalNanos = DEFAULT_VERIFY_INTERVAL_NANOS;
+    private float qualityGain = DEFAULT_QUALITY_GAIN;
+    private float driftSimilarity = DEFAULT_DRIFT_SIMILARITY;
+    private long accessCounter;
+    private long evictions;
+
+    public IdentityCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param capacity   最多缓存的轨迹数
+     * @param windowSize 投票窗口长度
+     */
+    public IdentityCache(int capacity, int windowSize) {
+        if (capacity <= 0 || windowSize <= 0) {
+            throw new IllegalArgumentException("capacity/windowSize 必须大于0");
+        }
+        this.windowSize = windowSize;
+        this.entries = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new Entry(windowSize);
+        }
+    }
+
+    /**
+     * 设置标签稳定前需要的最少验证次数（不超过窗口长度）
+     */
+    public void setMinVotes(int minVotes) {
+        this.minVotes = Math.max(1, Math.min(windowSize, minVotes));
+    }
+
+    /**
+     * 设置标签稳定后的定期重新验证间隔
+     */
+    public void setVerifyIntervalNanos(long verifyIntervalNanos) {
+        this.verifyIntervalNanos = Math.max(0L, verifyIntervalNanos);
+    }
+
+    /**
+     * 设置触发重新验证的质量分数提升幅度
+     */
+    public void setQualityGain(float qualityGain) {
+        this.qualityGain = Math.max(0f, qualityGain);
+    }
+
+    /**
+     * 设置外观签名相似度下限，低于该值视为外观漂移
+     */
+    public void setDriftSimilarity(float driftSimilarity) {
+        this.driftSimilarity = driftSimilarity;
+    }
+
+    /**
+     * 判断轨迹在本帧是否需要重新验证。返回 NONE 时应直接使用 getIdentity 的缓存结果；
+     * 否则调用方做 1:N 比对后调用 onVerified。同一帧的多条轨迹可以先全部 check，
+     * 批量比对后再逐个 onVerified，但一批不能超过 getCapacity() 条（见 getPendingCount）。人脸框为正立坐标
+     *
+     * @throws IllegalStateException 新轨迹需要缓存槽而所有条目都在等待验证结果
+     */
+    public Reason check(int trackId, LumaImage image, float left, float top, float right, float bottom,
+                        float quality, long nowNanos) {
+        Entry entry = find(trackId);
+        boolean created = entry == null;
+        if (created) {
+            entry = allocate(trackId);
+        }
+        computeSignature(image, left, top, right, bottom, entry.pendingSignature);
+        Reason reason;
+        if (created) {
+            reason = Reason.NEW_TRACK;
+        } else if (entry.voteCount < minVotes) {
+            reason = Reason.UNSETTLED;
+        } else if (nowNanos - entry.verifiedNanos >= verifyIntervalNanos) {
+            reason = Reason.INTERVAL;
+        } else if (quality > entry.quality + qualityGain) {
+            reason = Reason.QUALITY;
+        } else if (cosine(entry.pendingSignature, entry.signature) < driftSimilarity) {
+            reason = Reason.DRIFT;
+        } else {
+            reason = Reason.NONE;
+        }
+        entry.lastAccess = ++accessCounter;
+        entry.pending = reason != Reason.NONE;
+        return reason;
+    }
+
+    /**
+     * 记录一次验证结果（match 为null表示未匹配），返回投票后的身份。
+     * 必须在同一轨迹返回非 NONE 的 check 之后调用，每次 check 至多一次
+     */
+    public GalleryMatch onVerified(int trackId, GalleryMatch match, float quality, long nowNanos) {
+        Entry entry = find(trackId);
+        if (entry == null || !entry.pending) {
+            throw new IllegalStateException("onVerified 之前没有对应的 check: " + trackId);
+        }
+        entry.pending = false;
+        entry.votes[entry.voteHead] = match;
+        entry.voteHead = (entry.voteHead + 1) % windowSize;
+        entry.voteCount = Math.min(windowSize, entry.voteCount + 1);
+        entry.verifiedNanos = nowNanos;
+        entry.quality = quality;
+        System.arraycopy(entry.pendingSignature, 0, entry.signature, 0, SIGNATURE_SIZE);
+        vote(entry);
+        return entry.identity;
+    }
+
+    /**
+     * 轨迹缓存的身份（未缓存或陌生人为null）
+     */
+    public GalleryMatch getIdentity(int trackId) {
+        Entry entry = find(trackId);
+        return entry != null ? entry.identity : null;
+    }
+
+    /**
+     * 轨迹身份的置信度（标签所得票数占比），未缓存为0
+     */
+    public float getConfidence(int trackId) {
+        Entry entry = find(trackId);
+        return entry != null ? entry.confidence : 0f;
+    }
+
+    /**
+     * 轨迹最近一次验证的时间，未缓存为0
+     */
+    public long getVerifiedNanos(int trackId) {
+        Entry entry = find(trackId);
+        return entry != null ? entry.verifiedNanos : 0L;
+    }
+
+    /**
+     * 轨迹消失时移除其缓存
+     */
+    public void remove(int trackId) {
+        Entry entry = find(trackId);
+        if (entry != null) {
+            entry.reset(-1);
+        }
+    }
+
+    /**
+     * 清空缓存（人脸库更换后旧身份失效）
+     */
+    public void clear() {
+        for (Entry entry : entries) {
+            entry.reset(-1);
+        }
+    }
+
+    /**
+     * 当前缓存的轨迹数
+     */
+    public int size() {
+        int size = 0;
+        for (Entry entry : entries) {
+            if (entry.trackId >= 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * 已 check 但尚未 onVerified 的轨迹数，达到 getCapacity() 时不能再 check 新轨迹
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.pending) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 因容量不足被淘汰的条目数
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    private Entry find(int trackId) {
+        for (Entry entry : entries) {
+            if (entry.trackId == trackId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取空槽，没有则淘汰最久未访问、且不在等待验证结果的条目
+     */
+    private Entry allocate(int trackId) {
+        Entry victim = null;
+        for (Entry entry : entries) {
+            if (entry.trackId < 0) {
+                victim = entry;
+                break;
+            }
+            if (!entry.pending && (victim == null || entry.lastAccess < victim.lastAccess)) {
+                victim = entry;
+            }
+        }
+        if (victim == null) {
+            throw new IllegalStateException("等待验证的轨迹已占满身份缓存: " + entries.length);
+        }
+        if (victim.trackId >= 0) {
+            evictions++;
+        }
+        victim.reset(trackId);
+        return victim;
+    }
+
+    /**
+     * 窗口内按身份计票，票数相同取分数和较高者；标签取该身份最近一次的比对结果
+     */
+    private void vote(Entry entry) {
+        GalleryMatch best = null;
+        int bestVotes = 0;
+        float bestScore = -Float.MAX_VALUE;
+        // 从最新一票往回遍历，保证 best 指向该身份最近一次的比对结果
+        for (int i = 0; i < entry.voteCount; i++) {
+            GalleryMatch candidate = entry.votes[slot(entry, i)];
+            int id = candidate != null ? candidate.index : UNKNOWN;
+            boolean counted = false;
+            for (int j = 0; j < i; j++) {
+                GalleryMatch earlier = entry.votes[slot(entry, j)];
+                if ((earlier != null ? earlier.index : UNKNOWN) == id) {
+                    counted = true;
+                    break;
+                }
+            }
+            if (counted) {
+                continue;
+            }
+            int votes = 0;
+            float score = 0f;
+            for (int j = i; j < entry.voteCount; j++) {
+                GalleryMatch other = entry.votes[slot(entry, j)];
+                if ((other != null ? other.index : UNKNOWN) == id) {
+                    votes++;
+                    score += other != null ? other.score : 0f;
+                }
+            }
+            if (votes > bestVotes || (votes == bestVotes && score > bestScore)) {
+                best = candidate;
+                bestVotes = votes;
+                bestScore = score;
+            }
+        }
+        entry.identity = best;
+        entry.confidence = entry.voteCount > 0 ? bestVotes / (float) entry.voteCount : 0f;
+    }
+
+    /**
+     * 第 age 新的一票（0 为最新）在环形数组中的位置
+     */
+    private int slot(Entry entry, int age) {
+        return ((entry.voteHead - 1 - age) % windowSize + windowSize) % windowSize;
+    }
+
+    /**
+     * 人脸框内 8x8 网格亮度，去均值后L2归一化，抵消整体亮度变化
+     */
+    private static void computeSignature(LumaImage image, float left, float top, float right, float bottom,
+                                         float[] out) {
+        float cellW = (right - left) / SIGNATURE_GRID;
+        float cellH = (bottom - top) / SIGNATURE_GRID;
+        float mean = 0f;
+        for (int gy = 0; gy < SIGNATURE_GRID; gy++) {
+            for (int gx = 0; gx < SIGNATURE_GRID; gx++) {
+                float value = image.sampleUpright(left + (gx + 0.5f) * cellW, top + (gy + 0.5f) * cellH);
+                out[gy * SIGNATURE_GRID + gx] = value;
+                mean += value;
+            }
+        }
+        mean /= SIGNATURE_SIZE;
+        float norm = 0f;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            float v = out[i] - mean;
+            out[i] = v;
+            norm += v * v;
+        }
+        float inv = norm > 0f ? (float) (1.0 / Math.sqrt(norm)) : 0f;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            out[i] *= inv;
+        }
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        float dot = 0f;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Arrays;
+
+/**
+ * int8 量化的可追加向量存储：每个向量按自身最大绝对值缩放到 [-127, 127]，
+ * 另存一个 float 比例，占用约为 float 存储的 1/4
+ * <p>
+ * 查询同样量化为 int8 后用整数点积粗排（dotInt8），或直接用 float 查询做非对称点积（dot）
+ */
+public class Int8VectorStore implements VectorStore {
+    private final int dimension;
+    private byte[] codes;
+    private float[] scales;
+    private int count;
+
+    public Int8VectorStore(int dimension, int initialCapacity) {
+        this.dimension = dimension;
+        int capacity = Math.max(1, initialCapacity);
+        this.codes = new byte[capacity * dimension];
+        this.scales = new float[capacity];
+    }
+
+    /**
+     * 量化整个存储
+     */
+    public static Int8VectorStore quantize(VectorStore source) {
+        int dimension = source.getDimension();
+        Int8VectorStore store = new Int8VectorStore(dimension, source.size());
+        float[] vector = new float[dimension];
+        for (int i = 0; i < source.size(); i++) {
+            source.getEmbedding(i, vector);
+            store.add(vector);
+        }
+        return store;
+    }
+
+    /**
+     * 量化并追加一个向量，返回其编号
+     */
+    public int add(float[] vector) {
+        if (count == scales.length) {
+            int capacity = scales.length * 2;
+            codes = Arrays.copyOf(codes, capacity * dimension);
+            scales = Arrays.copyOf(scales, capacity);
+        }
+        scales[count] = quantize(vector, dimension, codes, count * dimension);
+        return count++;
+    }
+
+    /**
+     * 把向量前 length 维对称量化为 int8 写入 out[offset..]，返回比例（原值 ≈ code * scale）
+     */
+    public static float quantize(float[] vector, int length, byte[] out, int offset) {
+        float maxAbs = 0f;
+        for (int i = 0; i < length; i++) {
+            maxAbs = Math.max(maxAbs, Math.abs(vector[i]));
+        }
+        if (maxAbs == 0f) {
+            Arrays.fill(out, offset, offset + length, (byte) 0);
+            return 0f;
+        }
+        float inv = 127f / maxAbs;
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = (byte) Math.round(vector[i] * inv);
+        }
+        return maxAbs / 127f;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public float getScale(int index) {
+        return scales[index];
+    }
+
+    /**
+     * 量化码与比例占用的字节数
+     */
+    public long getMemoryBytes() {
+        return (long) count * dimension + (long) count * 4;
+    }
+
+    /**
+     * float 查询与第 index 个量化向量的非对称点积。
+     * float 累加顺序不能重排，编译器不会向量化，手动展开为4个独立累加器以隐藏乘加延迟
+     */
+    @Override
+    public float dot(int index, float[] query) {
+        int base = index * dimension;
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        for (; i + 3 < dimension; i += 4) {
+            s0 += codes[base + i] * query[i];
+            s1 += codes[base + i + 1] * query[i + 1];
+            s2 += codes[base + i + 2] * query[i + 2];
+            s3 += codes[base + i + 3] * query[i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += codes[base + i] * query[i];
+        }
+        return (s0 + s1 + s2 + s3) * scales[index];
+    }
+
+    /**
+     * 已量化查询与第 index 个量化向量的整数点积（未乘比例）
+     */
+    public int dotInt8(int index, byte[] query) {
+        return dotInt8(codes, index * dimension, query, 0, dimension);
+    }
+
+    /**
+     * int8 点积内核，整数累加不会溢出（127 * 127 * 维度 远小于 int 上限）。
+     * 有意写成单累加器的简单循环：JIT/ART 会把它识别为整数归约并向量化，
+     * 手动展开多累加器后反而无法向量化，实测慢约一倍（见 QuantizationBenchmark）
+     */
+    static int dotInt8(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * 反量化第 index 个向量到 out
+     */
+    @Override
+    public void getEmbedding(int index, float[] out) {
+        int base = index * dimension;
+        float scale = scales[index];
+        for (int i = 0; i < dimension; i++) {
+            out[i] = codes[base + i] * scale;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 随机超平面局部敏感哈希（SimHash）索引，用于查找余弦相似度很高的近似重复向量
+ * 向量由 VectorStore 提供，索引只保存每个向量在各哈希表中的签名与桶链表。
+ * <p>
+ * 每个哈希表用 bitsPerTable 个随机超平面给向量打签名（每位 = 与超平面点积的符号），
+ * 两个夹角为 θ 的向量每位相同的概率为 1 - θ/π，整个签名相同的概率随位数指数下降；
+ * 多个独立的哈希表中任一签名相同即成为候选，再用精确点积确认。
+ * 默认 24 表 x 16 位：余弦 0.95 的一对约 99% 被召回，0.9 约 88%；无关向量（余弦约0）
+ * 成为候选的概率约 4e-4，查询与全库去重都只需比较候选，不必两两比较。
+ * <p>
+ * 非线程安全：查询与插入需在同一线程，或由调用方加锁
+ */
+public class LshIndex {
+    public static final int DEFAULT_TABLES = 24;
+    public static final int DEFAULT_BITS_PER_TABLE = 16;
+    private static final int NONE = -1;
+
+    /**
+     * 候选对回调（a < b），score 为精确余弦相似度
+     */
+    public interface PairVisitor {
+        void onPair(int a, int b, float score);
+    }
+
+    private final VectorStore store;
+    private final int dimension;
+    private final int tables;
+    private final int bits;
+    private final float[] planes;       // tables * bits 个超平面法向量
+    private final BucketTable[] buckets;
+
+    private int count;
+    private int[] signatures;           // 每个向量 tables 个签名
+    private int[] next;                 // 每个 (向量, 表) 在桶链表中的下一个向量
+
+    // 查询复用的临时状态
+    private final int[] querySignature;
+    private final float[] vector;
+    private int[] visitedMarks;
+    private int visitedEpoch;
+    private long lastCandidates;
+
+    public LshIndex(VectorStore store) {
+        this(store, DEFAULT_TABLES, DEFAULT_BITS_PER_TABLE, 42L);
+    }
+
+    /**
+     * 相同的 tables/bitsPerTable/seed 生成相同的超平面，签名可跨索引比较
+     *
+     * @param bitsPerTable 每个签名的位数（1-32），越多候选越少、召回越低
+     */
+    public LshIndex(VectorStore store, int tables, int bitsPerTable, long seed) {
+        if (tables < 1 || bitsPerTable < 1 || bitsPerTable > 32) {
+            throw new IllegalArgumentException("tables 必须 >= 1，bitsPerTable 须在 1-32 之间");
+        }
+        this.store = store;
+        this.dimension = store.getDimension();
+        this.tables = tables;
+        this.bits = bitsPerTable;
+        this.planes = new float[tables * bitsPerTable * dimension];
+        Random random = new Random(seed);
+        for (int i = 0; i < planes.length; i++) {
+            planes[i] = (float) random.nextGaussian();
+        }
+        this.buckets = new BucketTable[tables];
+        for (int t = 0; t < tables; t++) {
+            buckets[t] = new BucketTable();
+        }
+        int capacity = Math.max(16, store.size());
+        this.signatures = new int[capacity * tables];
+        this.next = new int[capacity * tables];
+        this.visitedMarks = new int[capacity];
+        this.querySignature = new int[tables];
+        this.vector = new float[dimension];
+    }
+
+    /**
+     * 为存储中所有向量建立索引
+     */
+    public static LshIndex build(VectorStore store) {
+        LshIndex index = new LshIndex(store);
+        index.addAll();
+        return index;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 追加索引存储中新增的所有向量（增量插入）
+     */
+    public void addAll() {
+        int target = store.size();
+        while (count < target) {
+            add(count);
+        }
+    }
+
+    /**
+     * 索引存储中编号为 id 的向量，须按编号顺序插入（id == size()）
+     */
+    public void add(int id) {
+        if (id != count) {
+            throw new IllegalArgumentException("须按编号顺序插入: " + id + " != " + count);
+        }
+        ensureCapacity(count + 1);
+        store.getEmbedding(id, vector);
+        int base = id * tables;
+        sign(vector, signatures, base);
+        for (int t = 0; t < tables; t++) {
+            next[base + t] = buckets[t].push(signatures[base + t], id);
+        }
+        count++;
+    }
+
+    /**
+     * 查找与 query 余弦相似度不低于 threshold 的向量，按相似度降序写入 outIds/outScores，
+     * 最多 outIds.length 个，返回个数
+     */
+    public int search(float[] query, float threshold, int[] outIds, float[] outScores) {
+        sign(query, querySignature, 0);
+        if (++visitedEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedMarks, 0);
+            visitedEpoch = 1;
+        }
+        int found = 0;
+        long candidates = 0;
+        for (int t = 0; t < tables; t++) {
+            for (int id = buckets[t].head(querySignature[t]); id != NONE; id = next[id * tables + t]) {
+                if (visitedMarks[id] == visitedEpoch) {
+                    continue;
+                }
+                visitedMarks[id] = visitedEpoch;
+                candidates++;
+                float score = store.dot(id, query);
+                if (score >= threshold) {
+                    found = insertSorted(outIds, outScores, found, id, score);
+                }
+            }
+        }
+        lastCandidates = candidates;
+        return found;
+    }
+
+    /**
+     * 枚举所有相似度不低于 threshold 的向量对，每对只回调一次。
+     * 只比较同桶的候选对；一对在多个表中同桶时只在第一个表中比较。返回比较过的候选对数
+     */
+    public long forEachPair(float threshold, PairVisitor visitor) {
+        int[] members = new int[16];
+        long candidates = 0;
+        for (int t = 0; t < tables; t++) {
+            BucketTable table = buckets[t];
+            for (int slot = 0; slot < table.heads.length; slot++) {
+                int size = 0;
+                for (int id = table.heads[slot]; id != NONE; id = next[id * tables + t]) {
+                    if (size == members.length) {
+                        members = Arrays.copyOf(members, size * 2);
+                    }
+                    members[size++] = id;
+                }
+                for (int i = 0; i < size; i++) {
+                    int a = members[i];
+                    store.getEmbedding(a, vector);
+                    for (int j = i + 1; j < size; j++) {
+                        int b = members[j];
+                        if (collidedBefore(a, b, t)) {
+                            continue;
+                        }
+                        candidates++;
+                        float score = store.dot(b, vector);
+                        if (score >= threshold) {
+                            visitor.onPair(Math.min(a, b), Math.max(a, b), score);
+                        }
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 最近一次 search 精确比较的候选数
+     */
+    public long getLastCandidateCount() {
+        return lastCandidates;
+    }
+
+    /**
+     * a、b 是否在第 table 个表之前的某个表中同桶
+     */
+    private boolean collidedBefore(int a, int b, int table) {
+        int baseA = a * tables;
+        int baseB = b * tables;
+        for (int t = 0; t < table; t++) {
+            if (signatures[baseA + t] == signatures[baseB + t]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sign(float[] v, int[] out, int offset) {
+        int plane = 0;
+        for (int t = 0; t < tables; t++) {
+            int signature = 0;
+            for (int b = 0; b < bits; b++, plane += dimension) {
+                float dot = 0f;
+                for (int i = 0; i < dimension; i++) {
+                    dot += planes[plane + i] * v[i];
+                }
+                signature = (signature << 1) | (dot >= 0f ? 1 : 0);
+            }
+            out[offset + t] = signature;
+        }
+    }
+
+    private static int insertSorted(int[] ids, float[] scores, int size, int id, float score) {
+        int capacity = ids.length;
+        if (size == capacity && (capacity == 0 || score <= scores[capacity - 1])) {
+            return size;
+        }
+        int pos = Math.min(size, capacity - 1);
+        while (pos > 0 && scores[pos - 1] < score) {
+            ids[pos] = ids[pos - 1];
+            scores[pos] = scores[pos - 1];
+            pos--;
+        }
+        ids[pos] = id;
+        scores[pos] = score;
+        return Math.min(size + 1, capacity);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= visitedMarks.length) {
+            return;
+        }
+        int capacity = Math.max(needed, visitedMarks.length * 2);
+        signatures = Arrays.copyOf(signatures, capacity * tables);
+        next = Arrays.copyOf(next, capacity * tables);
+        visitedMarks = Arrays.copyOf(visitedMarks, capacity);
+    }
+
+    /**
+     * 签名 -> 桶链表头的开放寻址哈希表（线性探测），同一签名的向量串成一条链表（链接存于 next）
+     */
+    private static final class BucketTable {
+        int[] keys = new int[64];
+        int[] heads = filled(64);
+        int used;
+
+        /**
+         * 把 id 放到签名所在桶的链表头，返回原链表头
+         */
+        int push(int key, int id) {
+            if ((used + 1) * 2 > heads.length) {
+                grow();
+            }
+            int slot = find(key);
+            int previous = heads[slot];
+            if (previous == NONE) {
+                keys[slot] = key;
+                used++;
+            }
+            heads[slot] = id;
+            return previous;
+        }
+
+        int head(int key) {
+            return heads[find(key)];
+        }
+
+        private int find(int key) {
+            int mask = heads.length - 1;
+            int slot = mix(key) & mask;
+            while (heads[slot] != NONE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = new int[oldKeys.length * 2];
+            heads = filled(oldHeads.length * 2);
+            for (int i = 0; i < oldHeads.length; i++) {
+                if (oldHeads[i] != NONE) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, NONE);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 带用户名的特征向量存储，即可用于 1:N 比对的人脸库（文件映射的 FaceGallery 或注册库的视图）
+ */
+public interface NamedVectorStore extends VectorStore {
+
+    /**
+     * 第 index 个向量对应的用户名
+     */
+    String getName(int index);
+}
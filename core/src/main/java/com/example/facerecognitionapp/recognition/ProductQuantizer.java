@@ -0,0 +1,207 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 乘积量化（PQ）：把向量切成 subspaces 段，每段用 256 个中心的码本编码为 1 字节，
+ * 128 维 float 向量（512B）在 16 段时压缩为 16B
+ * <p>
+ * 检索使用非对称距离（ADC）：查询不量化，先算出查询每段与该段所有中心的点积表，
+ * 之后每个库向量的相似度只需 subspaces 次查表相加
+ */
+public class ProductQuantizer {
+    public static final int CENTROIDS = 256;
+    // 每段 k-means 最多使用的训练样本数，训练耗时与库规模无关
+    private static final int MAX_TRAINING_SAMPLES = CENTROIDS * 32;
+
+    private final int dimension;
+    private final int subspaces;
+    private final int subDimension;
+    // [subspace][centroid][subDimension]
+    private final float[] codebooks;
+
+    private ProductQuantizer(int dimension, int subspaces, float[] codebooks) {
+        this.dimension = dimension;
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.codebooks = codebooks;
+    }
+
+    /**
+     * 在样本上逐段训练 k-means 码本
+     *
+     * @param subspaces  分段数，须整除维度
+     * @param iterations k-means 迭代次数
+     */
+    public static ProductQuantizer train(VectorStore samples, int subspaces, int iterations, long seed) {
+        int dimension = samples.getDimension();
+        if (subspaces <= 0 || dimension % subspaces != 0) {
+            throw new IllegalArgumentException("分段数必须整除维度: " + subspaces);
+        }
+        if (samples.size() == 0) {
+            throw new IllegalArgumentException("没有训练样本");
+        }
+        Random random = new Random(seed);
+        int n = Math.min(samples.size(), MAX_TRAINING_SAMPLES);
+        // 样本过多时随机抽取（部分洗牌）
+        int[] order = new int[samples.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = 0; i < n; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        float[] data = new float[n * dimension];
+        float[] vector = new float[dimension];
+        for (int i = 0; i < n; i++) {
+            samples.getEmbedding(order[i], vector);
+            System.arraycopy(vector, 0, data, i * dimension, dimension);
+        }
+
+        int subDimension = dimension / subspaces;
+        float[] codebooks = new float[subspaces * CENTROIDS * subDimension];
+        for (int m = 0; m < subspaces; m++) {
+            trainSubspace(data, n, dimension, m * subDimension, subDimension, iterations, random,
+                    codebooks, m * CENTROIDS * subDimension);
+        }
+        return new ProductQuantizer(dimension, subspaces, codebooks);
+    }
+
+    private static void trainSubspace(float[] data, int n, int dimension, int offset, int subDimension,
+                                      int iterations, Random random, float[] codebooks, int bookOffset) {
+        for (int c = 0; c < CENTROIDS; c++) {
+            int sample = c < n ? c : random.nextInt(n);
+            System.arraycopy(data, sample * dimension + offset, codebooks, bookOffset + c * subDimension, subDimension);
+        }
+        float[] sums = new float[CENTROIDS * subDimension];
+        int[] counts = new int[CENTROIDS];
+        for (int iter = 0; iter < iterations; iter++) {
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                int c = nearest(codebooks, bookOffset, data, i * dimension + offset, subDimension);
+                counts[c]++;
+                for (int d = 0; d < subDimension; d++) {
+                    sums[c * subDimension + d] += data[i * dimension + offset + d];
+                }
+            }
+            for (int c = 0; c < CENTROIDS; c++) {
+                int target = bookOffset + c * subDimension;
+                if (counts[c] == 0) {
+                    // 空簇：重新取一个随机样本作为中心
+                    System.arraycopy(data, random.nextInt(n) * dimension + offset, codebooks, target, subDimension);
+                    continue;
+                }
+                float inv = 1f / counts[c];
+                for (int d = 0; d < subDimension; d++) {
+                    codebooks[target + d] = sums[c * subDimension + d] * inv;
+                }
+            }
+        }
+    }
+
+    /**
+     * 欧氏距离最近的中心
+     */
+    private static int nearest(float[] codebooks, int bookOffset, float[] vector, int offset, int subDimension) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < CENTROIDS; c++) {
+            int base = bookOffset + c * subDimension;
+            float distance = 0f;
+            for (int d = 0; d < subDimension; d++) {
+                float diff = codebooks[base + d] - vector[offset + d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 分段数，即每个向量编码后的字节数
+     */
+    public int getSubspaces() {
+        return subspaces;
+    }
+
+    /**
+     * 码本占用的字节数
+     */
+    public long getCodebookBytes() {
+        return codebooks.length * 4L;
+    }
+
+    /**
+     * 把向量编码为 subspaces 个字节写入 out[offset..]
+     */
+    public void encode(float[] vector, byte[] out, int offset) {
+        for (int m = 0; m < subspaces; m++) {
+            out[offset + m] = (byte) nearest(codebooks, m * CENTROIDS * subDimension, vector,
+                    m * subDimension, subDimension);
+        }
+    }
+
+    /**
+     * 由编码重建近似向量
+     */
+    public void decode(byte[] codes, int offset, float[] out) {
+        for (int m = 0; m < subspaces; m++) {
+            int centroid = codes[offset + m] & 0xFF;
+            System.arraycopy(codebooks, (m * CENTROIDS + centroid) * subDimension, out, m * subDimension, subDimension);
+        }
+    }
+
+    /**
+     * 计算查询的 ADC 点积表：table[m * 256 + c] = 查询第 m 段与第 c 个中心的点积
+     *
+     * @param table 长度至少 subspaces * 256，复用以避免分配
+     */
+    public void computeTable(float[] query, float[] table) {
+        for (int m = 0; m < subspaces; m++) {
+            int queryOffset = m * subDimension;
+            int bookOffset = m * CENTROIDS * subDimension;
+            int tableOffset = m * CENTROIDS;
+            for (int c = 0; c < CENTROIDS; c++) {
+                int base = bookOffset + c * subDimension;
+                float sum = 0f;
+                for (int d = 0; d < subDimension; d++) {
+                    sum += codebooks[base + d] * query[queryOffset + d];
+                }
+                table[tableOffset + c] = sum;
+            }
+        }
+    }
+
+    /**
+     * ADC 内核：按编码查表累加近似点积，手动展开4路
+     */
+    public float score(float[] table, byte[] codes, int offset) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int m = 0;
+        for (; m + 3 < subspaces; m += 4) {
+            s0 += table[(m << 8) | (codes[offset + m] & 0xFF)];
+            s1 += table[((m + 1) << 8) | (codes[offset + m + 1] & 0xFF)];
+            s2 += table[((m + 2) << 8) | (codes[offset + m + 2] & 0xFF)];
+            s3 += table[((m + 3) << 8) | (codes[offset + m + 3] & 0xFF)];
+        }
+        for (; m < subspaces; m++) {
+            s0 += table[(m << 8) | (codes[offset + m] & 0xFF)];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 量化粗排 + float 精排的精确线性扫描检索
+ * <p>
+ * 粗排只读量化码（int8 或 PQ），取相似度最高的 rerankCount 个候选，再用原始 float 向量重新打分。
+ * 原始向量通常来自内存映射的人脸库，只有候选对应的页会被读入，常驻内存的只有量化码：
+ * 128 维时 int8 每人 132B、PQ(16段) 每人 16B，float 为 512B
+ */
+public class QuantizedIndex implements EmbeddingIndex {
+    public static final int DEFAULT_RERANK_COUNT = 32;
+    public static final int DEFAULT_PQ_SUBSPACES = 16;
+    private static final int PQ_TRAINING_ITERATIONS = 12;
+
+    public enum Mode {
+        INT8,
+        PQ
+    }
+
+    private final Mode mode;
+    private final VectorStore exact;
+    private final int dimension;
+    private final int count;
+    // INT8
+    private final Int8VectorStore int8;
+    private final byte[] queryCodes;
+    // PQ
+    private final ProductQuantizer quantizer;
+    private final byte[] pqCodes;
+    private final float[] table;
+
+    private final ScoreHeap heap = new ScoreHeap(DEFAULT_RERANK_COUNT, true);
+    private int[] candidateIds = new int[DEFAULT_RERANK_COUNT];
+    private float[] candidateScores = new float[DEFAULT_RERANK_COUNT];
+    private int rerankCount = DEFAULT_RERANK_COUNT;
+
+    private QuantizedIndex(Mode mode, VectorStore exact, Int8VectorStore int8, ProductQuantizer quantizer,
+                           byte[] pqCodes) {
+        this.mode = mode;
+        this.exact = exact;
+        this.dimension = exact.getDimension();
+        this.count = exact.size();
+        this.int8 = int8;
+        this.queryCodes = int8 != null ? new byte[dimension] : null;
+        this.quantizer = quantizer;
+        this.pqCodes = pqCodes;
+        this.table = quantizer != null ? new float[quantizer.getSubspaces() * ProductQuantizer.CENTROIDS] : null;
+    }
+
+    /**
+     * 以 int8（每向量一个比例）量化 exact 中的全部向量
+     */
+    public static QuantizedIndex buildInt8(VectorStore exact) {
+        return new QuantizedIndex(Mode.INT8, exact, Int8VectorStore.quantize(exact), null, null);
+    }
+
+    /**
+     * 在 exact 上训练 PQ 码本并编码全部向量
+     *
+     * @param subspaces 分段数（每人编码字节数），须整除维度
+     */
+    public static QuantizedIndex buildPq(VectorStore exact, int subspaces) {
+        ProductQuantizer quantizer = ProductQuantizer.train(exact, subspaces, PQ_TRAINING_ITERATIONS, 0x5EED);
+        return buildPq(exact, quantizer);
+    }
+
+    /**
+     * 用已训练的码本编码 exact 中的全部向量
+     */
+    public static QuantizedIndex buildPq(VectorStore exact, ProductQuantizer quantizer) {
+        if (quantizer.getDimension() != exact.getDimension()) {
+            throw new IllegalArgumentException("码本维度不一致: " + quantizer.getDimension());
+        }
+        int subspaces = quantizer.getSubspaces();
+        byte[] codes = new byte[exact.size() * subspaces];
+        float[] vector = new float[exact.getDimension()];
+        for (int i = 0; i < exact.size(); i++) {
+            exact.getEmbedding(i, vector);
+            quantizer.encode(vector, codes, i * subspaces);
+        }
+        return new QuantizedIndex(Mode.PQ, exact, null, quantizer, codes);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 精排的候选数，0 表示直接返回量化相似度
+     */
+    public void setRerankCount(int rerankCount) {
+        this.rerankCount = Math.max(0, rerankCount);
+    }
+
+    /**
+     * 常驻内存的量化数据字节数（量化码 + 比例/码本），不含精排用的原始向量
+     */
+    public long getMemoryBytes() {
+        return mode == Mode.INT8 ? int8.getMemoryBytes() : pqCodes.length + quantizer.getCodebookBytes();
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 非线程安全：内部复用了堆与查询缓冲
+     */
+    @Override
+    public int search(float[] query, int k, int[] outIds, float[] outScores) {
+        int candidates = rerankCount > 0 ? Math.max(k, rerankCount) : k;
+        heap.clear();
+        if (mode == Mode.INT8) {
+            scanInt8(query, candidates);
+        } else {
+            scanPq(query, candidates);
+        }
+        if (rerankCount == 0) {
+            return heap.drainDescending(outIds, outScores);
+        }
+
+        if (candidateIds.length < candidates) {
+            candidateIds = new int[candidates];
+            candidateScores = new float[candidates];
+        }
+        int found = heap.drainDescending(candidateIds, candidateScores);
+        // 精排：候选按原始 float 向量重新打分
+        heap.clear();
+        for (int i = 0; i < found; i++) {
+            int id = candidateIds[i];
+            offer(id, exact.dot(id, query), k);
+        }
+        return heap.drainDescending(outIds, outScores);
+    }
+
+    private void scanInt8(float[] query, int candidates) {
+        // 查询也量化为 int8，库向量比例各不相同，整数点积乘以各自比例后再比较
+        float queryScale = Int8VectorStore.quantize(query, dimension, queryCodes, 0);
+        for (int i = 0; i < count; i++) {
+            offer(i, int8.dotInt8(i, queryCodes) * int8.getScale(i) * queryScale, candidates);
+        }
+    }
+
+    private void scanPq(float[] query, int candidates) {
+        quantizer.computeTable(query, table);
+        int subspaces = quantizer.getSubspaces();
+        for (int i = 0; i < count; i++) {
+            offer(i, quantizer.score(table, pqCodes, i * subspaces), candidates);
+        }
+    }
+
+    private void offer(int id, float score, int k) {
+        if (heap.size() < k) {
+            heap.push(id, score);
+        } else if (score > heap.peekScore()) {
+            heap.pop();
+            heap.push(id, score);
+        }
+    }
+}
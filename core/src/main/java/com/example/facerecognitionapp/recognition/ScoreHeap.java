@@ -0,0 +1,118 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 基于原始数组的 (id, score) 二叉堆，避免装箱与对象分配
+ * minHeap=true 时堆顶为最小分数（常用于保留top-k），否则堆顶为最大分数
+ */
+public class ScoreHeap {
+    private final boolean minHeap;
+    private int[] ids;
+    private float[] scores;
+    private int size;
+
+    public ScoreHeap(int initialCapacity, boolean minHeap) {
+        this.minHeap = minHeap;
+        this.ids = new int[Math.max(1, initialCapacity)];
+        this.scores = new float[ids.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int peekId() {
+        return ids[0];
+    }
+
+    public float peekScore() {
+        return scores[0];
+    }
+
+    public void push(int id, float score) {
+        if (size == ids.length) {
+            int newCapacity = ids.length * 2;
+            ids = java.util.Arrays.copyOf(ids, newCapacity);
+            scores = java.util.Arrays.copyOf(scores, newCapacity);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(score, scores[parent])) {
+                break;
+            }
+            ids[i] = ids[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        ids[i] = id;
+        scores[i] = score;
+    }
+
+    /**
+     * 弹出堆顶，返回其id
+     */
+    public int pop() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            int lastId = ids[size];
+            float lastScore = scores[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && before(scores[right], scores[child])) {
+                    child = right;
+                }
+                if (!before(scores[child], lastScore)) {
+                    break;
+                }
+                ids[i] = ids[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            ids[i] = lastId;
+            scores[i] = lastScore;
+        }
+        return top;
+    }
+
+    /**
+     * 将最小堆中的元素按分数降序写出并清空堆
+     *
+     * @return 写出的元素个数
+     */
+    public int drainDescending(int[] outIds, float[] outScores) {
+        return drainDescending(outIds, outScores, 0, outIds.length);
+    }
+
+    /**
+     * 将最小堆中分数最高的至多 limit 个元素按分数降序写入 out[offset..] 并清空堆
+     *
+     * @return 写出的元素个数
+     */
+    public int drainDescending(int[] outIds, float[] outScores, int offset, int limit) {
+        int n = Math.min(size, limit);
+        while (size > n) {
+            pop();
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            outScores[offset + i] = peekScore();
+            outIds[offset + i] = pop();
+        }
+        return n;
+    }
+
+    private boolean before(float a, float b) {
+        return minHeap ? a < b : a > b;
+    }
+}
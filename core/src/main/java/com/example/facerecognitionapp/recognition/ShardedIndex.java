@@ -0,0 +1,189 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 多核分片的精确线性扫描：把向量矩阵按编号切成连续分片并行扫描，
+ * 每个分片用自己的原始数组堆保留 top-k，全部完成后归并。
+ * 适用于不值得建立近似索引、单线程扫描又太慢的人脸库（例如运行时增删改后尚未重建索引）
+ * <p>
+ * 调用线程自己扫描第一个分片，其余分片交给 executor；分片任务与堆预先分配，检索过程不分配对象。
+ * 非线程安全：同一时刻只能有一个调用方
+ */
+public class ShardedIndex implements EmbeddingIndex {
+    // 分片过小时调度开销超过并行收益
+    public static final int DEFAULT_MIN_SHARD_SIZE = 2048;
+
+    private final VectorStore store;
+    private final Executor executor;
+    private final Shard[] shards;
+    private final int minShardSize;
+    private final ScoreHeap mergeHeap = new ScoreHeap(16, true);
+    private final float[][] singleQuery = new float[1][];
+    private final int[] singleCount = new int[1];
+
+    // 当前检索任务，由调用线程写入后提交分片（executor 提交建立 happens-before）
+    private float[][] queries;
+    private int queryCount;
+    private int k;
+    // 未完成的分片数与分片中抛出的异常，由 this 锁保护
+    private int pending;
+    private RuntimeException failure;
+
+    /**
+     * @param parallelism 最多分片数（含调用线程），通常为 executor 线程数 + 1
+     */
+    public ShardedIndex(VectorStore store, Executor executor, int parallelism) {
+        this(store, executor, parallelism, DEFAULT_MIN_SHARD_SIZE);
+    }
+
+    public ShardedIndex(VectorStore store, Executor executor, int parallelism, int minShardSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism 必须大于0");
+        }
+        this.store = store;
+        this.executor = executor;
+        this.minShardSize = Math.max(1, minShardSize);
+        this.shards = new Shard[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public int search(float[] query, int k, int[] outIds, float[] outScores) {
+        singleQuery[0] = query;
+        try {
+            searchBatch(singleQuery, 1, k, outIds, outScores, singleCount);
+        } finally {
+            singleQuery[0] = null;
+        }
+        return singleCount[0];
+    }
+
+    @Override
+    public void searchBatch(float[][] queries, int queryCount, int k, int[] outIds, float[] outScores,
+                            int[] outCounts) {
+        int count = store.size();
+        int shardCount = (int) Math.max(1, Math.min(shards.length, (long) count / minShardSize));
+        this.queries = queries;
+        this.queryCount = queryCount;
+        this.k = k;
+        try {
+            for (int s = 0; s < shardCount; s++) {
+                shards[s].prepare((int) ((long) count * s / shardCount), (int) ((long) count * (s + 1) / shardCount),
+                        queryCount, k);
+            }
+            synchronized (this) {
+                pending = shardCount;
+                failure = null;
+            }
+            for (int s = 1; s < shardCount; s++) {
+                try {
+                    executor.execute(shards[s]);
+                } catch (RejectedExecutionException e) {
+                    // 线程池已关闭，在调用线程补做
+                    shards[s].run();
+                }
+            }
+            shards[0].run();
+            awaitShards();
+            merge(shardCount, outIds, outScores, outCounts);
+        } finally {
+            this.queries = null;
+        }
+    }
+
+    /**
+     * 等待所有分片完成。分片引用着调用方的查询与输出，中断时也必须等完再返回
+     */
+    private void awaitShards() {
+        boolean interrupted = false;
+        synchronized (this) {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (failure != null) {
+                RuntimeException e = failure;
+                failure = null;
+                throw e;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void onShardDone(RuntimeException error) {
+        if (error != null && failure == null) {
+            failure = error;
+        }
+        if (--pending == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * 归并各分片的 top-k
+     */
+    private void merge(int shardCount, int[] outIds, float[] outScores, int[] outCounts) {
+        for (int q = 0; q < queryCount; q++) {
+            mergeHeap.clear();
+            for (int s = 0; s < shardCount; s++) {
+                Shard shard = shards[s];
+                int base = q * k;
+                for (int j = 0; j < shard.counts[q]; j++) {
+                    BruteForceIndex.offer(mergeHeap, shard.ids[base + j], shard.scores[base + j], k);
+                }
+            }
+            outCounts[q] = mergeHeap.drainDescending(outIds, outScores, q * k, k);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        int start;
+        int end;
+        ScoreHeap[] heaps = new ScoreHeap[0];
+        // 每个查询的 top-k：[q * k, q * k + counts[q])
+        int[] ids = new int[0];
+        float[] scores = new float[0];
+        int[] counts = new int[0];
+
+        void prepare(int start, int end, int queryCount, int k) {
+            this.start = start;
+            this.end = end;
+            heaps = BruteForceIndex.ensureHeaps(heaps, queryCount);
+            if (ids.length < queryCount * k) {
+                ids = new int[queryCount * k];
+                scores = new float[queryCount * k];
+            }
+            if (counts.length < queryCount) {
+                counts = new int[queryCount];
+            }
+        }
+
+        @Override
+        public void run() {
+            RuntimeException error = null;
+            try {
+                BruteForceIndex.scan(store, start, end, queries, queryCount, k, heaps);
+                for (int q = 0; q < queryCount; q++) {
+                    counts[q] = heaps[q].drainDescending(ids, scores, q * k, k);
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            onShardDone(error);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+
+/**
+ * 基于亮度缩略图的轻量特征提取器
+ * 将人脸框均匀划分为 GRID_WIDTH x GRID_HEIGHT 个单元，每个单元取多点采样均值，
+ * 去均值后做L2归一化。无需模型文件，后续可替换为神经网络实现
+ */
+public class ThumbnailFaceEmbedder implements FaceEmbedder {
+    private static final int GRID_WIDTH = 16;
+    private static final int GRID_HEIGHT = 16;
+    private static final int SAMPLES_PER_AXIS = 2; // 每个单元 2x2 次采样
+
+    @Override
+    public int getDimension() {
+        return GRID_WIDTH * GRID_HEIGHT;
+    }
+
+    @Override
+    public void embed(LumaImage image, float left, float top, float right, float bottom, float[] out) {
+        float cellW = (right - left) / GRID_WIDTH;
+        float cellH = (bottom - top) / GRID_HEIGHT;
+        float stepX = cellW / SAMPLES_PER_AXIS;
+        float stepY = cellH / SAMPLES_PER_AXIS;
+        int dim = getDimension();
+
+        float mean = 0f;
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                float x0 = left + gx * cellW + stepX * 0.5f;
+                float y0 = top + gy * cellH + stepY * 0.5f;
+                float sum = 0f;
+                for (int sy = 0; sy < SAMPLES_PER_AXIS; sy++) {
+                    for (int sx = 0; sx < SAMPLES_PER_AXIS; sx++) {
+                        sum += image.sampleUpright(x0 + sx * stepX, y0 + sy * stepY);
+                    }
+                }
+                float value = sum / (SAMPLES_PER_AXIS * SAMPLES_PER_AXIS);
+                out[gy * GRID_WIDTH + gx] = value;
+                mean += value;
+            }
+        }
+        mean /= dim;
+
+        // 去均值 + L2归一化，抵消整体亮度与对比度变化
+        float norm = 0f;
+        for (int i = 0; i < dim; i++) {
+            float v = out[i] - mean;
+            out[i] = v;
+            norm += v * v;
+        }
+        float inv = norm > 0f ? (float) (1.0 / Math.sqrt(norm)) : 0f;
+        for (int i = 0; i < dim; i++) {
+            out[i] *= inv;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.facerecognitionapp.recognition;
+
+/**
+ * 只读的特征向量存储，索引结构只保存图/编号，向量本身由存储提供
+ */
+public interface VectorStore {
+
+    int getDimension();
+
+    int size();
+
+    /**
+     * 第 index 个向量与查询向量的点积
+     */
+    float dot(int index, float[] query);
+
+    /**
+     * 拷贝第 index 个向量到 out
+     */
+    void getEmbedding(int index, float[] out);
+}
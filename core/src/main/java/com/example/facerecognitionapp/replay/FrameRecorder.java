@@ -0,0 +1,95 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvCropper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * 帧录制器：把 YUV_420_888 帧去掉行填充/像素间隔后按 I420 紧凑存储（见 FrameRecording）
+ * 所有帧尺寸与旋转角度必须一致；非线程安全
+ */
+public class FrameRecorder implements Closeable {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int rotationDegrees;
+    private final ByteBuffer frameBuffer;
+    private int frameCount;
+
+    public FrameRecorder(File file, int width, int height, int rotationDegrees) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = rotationDegrees;
+        this.frameBuffer = ByteBuffer.allocate(FrameRecording.frameRecordSize(width, height))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader();
+        channel.position(FrameRecording.HEADER_SIZE);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 追加一帧（不会关闭 frame）
+     */
+    public void write(Frame frame) throws IOException {
+        if (frame.getWidth() != width || frame.getHeight() != height
+                || frame.getRotationDegrees() != rotationDegrees) {
+            throw new IllegalArgumentException("帧尺寸/旋转与录制参数不一致");
+        }
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        frameBuffer.clear();
+        frameBuffer.putLong(frame.getTimestampNanos());
+        packPlane(frame.getPlane(0), width, height);
+        packPlane(frame.getPlane(1), chromaWidth, chromaHeight);
+        packPlane(frame.getPlane(2), chromaWidth, chromaHeight);
+        frameBuffer.flip();
+        while (frameBuffer.hasRemaining()) {
+            channel.write(frameBuffer);
+        }
+        frameCount++;
+    }
+
+    private void packPlane(Frame.Plane plane, int planeWidth, int planeHeight) {
+        YuvCropper.packPlane(plane.getBuffer(), plane.getRowStride(), plane.getPixelStride(),
+                planeWidth, planeHeight, frameBuffer);
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FrameRecording.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FrameRecording.MAGIC);
+        header.putInt(FrameRecording.VERSION);
+        header.putInt(width);
+        header.putInt(height);
+        header.putInt(rotationDegrees);
+        header.putInt(frameCount);
+        header.flip();
+        channel.write(header, 0);
+    }
+
+    /**
+     * 回写帧数并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeHeader();
+            channel.force(false);
+        } finally {
+            file.close();
+        }
+    }
+}
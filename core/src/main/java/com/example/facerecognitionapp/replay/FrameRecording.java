@@ -0,0 +1,134 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.frame.YuvFrame;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 录制帧文件（只读，按帧内存映射）
+ * 文件布局（小端序）：
+ * <pre>
+ * [header 32B] magic, version, width, height, rotationDegrees, frameCount, 保留
+ * [frames]     frameCount 条定长记录：timestampNanos(long) + I420 数据
+ *              （Y: width*height，U/V: 各 ((width+1)/2)*((height+1)/2)）
+ * </pre>
+ * 定长记录可随机访问第 i 帧
+ */
+public class FrameRecording implements Closeable {
+    static final int MAGIC = 0x46524543; // "FREC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int rotationDegrees;
+    private final int frameCount;
+    private final int recordSize;
+
+    private FrameRecording(RandomAccessFile file) throws IOException {
+        this.file = file;
+        this.channel = file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) != HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的帧录制文件");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("不支持的帧录制版本: " + header.getInt(4));
+        }
+        this.width = header.getInt(8);
+        this.height = header.getInt(12);
+        this.rotationDegrees = header.getInt(16);
+        this.recordSize = frameRecordSize(width, height);
+        // 录制中途崩溃时头部帧数未回写，以文件长度为准
+        long available = (channel.size() - HEADER_SIZE) / recordSize;
+        int declared = header.getInt(20);
+        this.frameCount = declared > 0 ? (int) Math.min(declared, available) : (int) available;
+    }
+
+    /**
+     * 打开录制文件
+     */
+    public static FrameRecording open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return new FrameRecording(raf);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    static int frameRecordSize(int width, int height) {
+        int chroma = ((width + 1) / 2) * ((height + 1) / 2);
+        return 8 + width * height + chroma * 2;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 读取第 index 帧的时间戳
+     */
+    public long getTimestampNanos(int index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(buffer, recordOffset(index));
+        return buffer.getLong(0);
+    }
+
+    /**
+     * 映射第 index 帧，平面数据直接引用映射区（不拷贝）
+     */
+    public YuvFrame readFrame(int index) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, recordOffset(index), recordSize);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        long timestamp = mapped.getLong(0);
+        int ySize = width * height;
+        int chromaWidth = (width + 1) / 2;
+        int chromaSize = chromaWidth * ((height + 1) / 2);
+        return new YuvFrame(width, height, rotationDegrees, timestamp,
+                new YuvFrame.BufferPlane(slice(mapped, 8, ySize), width, 1),
+                new YuvFrame.BufferPlane(slice(mapped, 8 + ySize, chromaSize), chromaWidth, 1),
+                new YuvFrame.BufferPlane(slice(mapped, 8 + ySize + chromaSize, chromaSize), chromaWidth, 1));
+    }
+
+    private long recordOffset(int index) {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("帧序号越界: " + index);
+        }
+        return HEADER_SIZE + (long) index * recordSize;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.FrameSource;
+import com.example.facerecognitionapp.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 回放录制帧的帧来源，在独立线程上推送
+ * <ul>
+ * <li>MAX_SPEED：上一帧关闭后立即推送下一帧（不空等），用于测吞吐；
+ *     虚拟时钟在推送时跳到帧时间戳，调度器看到的节奏与实时一致</li>
+ * <li>ORIGINAL_TIMING：按录制时间戳推送，模拟相机 KEEP_ONLY_LATEST 行为：
+ *     监听器处理太慢导致下一帧已到期时丢弃当前帧，未关闭帧数达到上限时也丢帧</li>
+ * </ul>
+ * 记录每帧从推送到 close 的持有时长。nanoTime() 提供与帧时间戳同域的虚拟时钟，
+ * 可注入 FaceAnalysisPipeline.setClock
+ */
+public class ReplayFrameSource implements FrameSource {
+    private static final String TAG = "ReplayFrameSource";
+    private static final Logger LOG = Logger.getLogger(TAG);
+    // 相机 ImageReader 允许同时被分析器持有的帧数
+    public static final int DEFAULT_MAX_OUTSTANDING_FRAMES = 3;
+
+    /**
+     * 推送节奏
+     */
+    public enum Pacing {
+        MAX_SPEED,
+        ORIGINAL_TIMING
+    }
+
+    private final FrameRecording recording;
+    private final Pacing pacing;
+    private final LatencyHistogram holdLatency = new LatencyHistogram();
+    private final Object lock = new Object();
+    private int maxOutstandingFrames = DEFAULT_MAX_OUTSTANDING_FRAMES;
+    private int loopCount = 1;
+
+    private volatile boolean running;
+    private Thread thread;
+    private int outstanding;       // 受 lock 保护
+    private long deliveredCount;
+    private long droppedCount;
+    private long startNanos;
+    private long endNanos;
+    // 虚拟时钟 = System.nanoTime() + clockOffset
+    private volatile long clockOffset;
+
+    public ReplayFrameSource(FrameRecording recording, Pacing pacing) {
+        this.recording = recording;
+        this.pacing = pacing;
+    }
+
+    /**
+     * 设置 ORIGINAL_TIMING 下可同时未关闭的最大帧数（MAX_SPEED 始终逐帧串行）
+     */
+    public void setMaxOutstandingFrames(int maxOutstandingFrames) {
+        this.maxOutstandingFrames = Math.max(1, maxOutstandingFrames);
+    }
+
+    /**
+     * 设置循环回放次数（时间戳逐轮顺延，保持单调）
+     */
+    public void setLoopCount(int loopCount) {
+        this.loopCount = Math.max(1, loopCount);
+    }
+
+    @Override
+    public synchronized void start(FrameListener listener) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> replay(listener), "frame-replay");
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * 等待回放线程结束，再最多等待 drainTimeoutMillis 让已推送的帧全部被关闭
+     */
+    public void awaitCompletion(long drainTimeoutMillis) throws InterruptedException {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current != null) {
+            current.join();
+        }
+        long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        synchronized (lock) {
+            long remaining;
+            while (outstanding > 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                lock.wait(remaining);
+            }
+        }
+    }
+
+    public long getDeliveredCount() {
+        synchronized (lock) {
+            return deliveredCount;
+        }
+    }
+
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * 回放耗时（从第一帧推送到最后一帧推送完成）
+     */
+    public long getElapsedNanos() {
+        synchronized (lock) {
+            return endNanos - startNanos;
+        }
+    }
+
+    /**
+     * 虚拟时钟（与帧时间戳同域，单调递增）
+     */
+    public long nanoTime() {
+        return System.nanoTime() + clockOffset;
+    }
+
+    /**
+     * 帧持有时长分布（推送 -> close）
+     */
+    public LatencyHistogram getHoldLatency() {
+        return holdLatency;
+    }
+
+    private void replay(FrameListener listener) {
+        int count = recording.getFrameCount();
+        try {
+            if (count == 0) {
+                return;
+            }
+            long[] timestamps = new long[count];
+            for (int i = 0; i < count; i++) {
+                timestamps[i] = recording.getTimestampNanos(i);
+            }
+            long firstTimestamp = timestamps[0];
+            long interval = count > 1 ? (timestamps[count - 1] - firstTimestamp) / (count - 1) : 33_333_333L;
+            long loopDuration = timestamps[count - 1] - firstTimestamp + interval;
+
+            synchronized (lock) {
+                startNanos = System.nanoTime();
+            }
+            clockOffset = firstTimestamp - startNanos;
+            for (int loop = 0; loop < loopCount && running; loop++) {
+                long loopOffset = loop * loopDuration;
+                for (int i = 0; i < count && running; i++) {
+                    long shifted = timestamps[i] + loopOffset;
+                    if (pacing == Pacing.ORIGINAL_TIMING) {
+                        long due = startNanos + (shifted - firstTimestamp);
+                        sleepUntil(due);
+                        // 下一帧也已到期：当前帧在相机侧会被新帧覆盖
+                        long nextDue = i + 1 < count
+                                ? startNanos + (timestamps[i + 1] + loopOffset - firstTimestamp)
+                                : due + interval;
+                        if (System.nanoTime() >= nextDue || !tryAcquire()) {
+                            synchronized (lock) {
+                                droppedCount++;
+                            }
+                            continue;
+                        }
+                    } else {
+                        if (!acquire(1)) {
+                            break;
+                        }
+                        // 处理比实时快时，虚拟时钟直接跳到该帧时间
+                        long now = System.nanoTime();
+                        if (shifted > now + clockOffset) {
+                            clockOffset = shifted - now;
+                        }
+                    }
+                    Frame frame = new ReplayFrame(recording.readFrame(i), shifted);
+                    synchronized (lock) {
+                        deliveredCount++;
+                    }
+                    listener.onFrame(frame);
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "读取录制帧失败", e);
+        } finally {
+            synchronized (lock) {
+                endNanos = System.nanoTime();
+            }
+            running = false;
+        }
+    }
+
+    private boolean tryAcquire() {
+        synchronized (lock) {
+            if (outstanding >= maxOutstandingFrames) {
+                return false;
+            }
+            outstanding++;
+            return true;
+        }
+    }
+
+    /**
+     * 等待未关闭帧数低于 limit，被 stop 打断时返回 false
+     */
+    private boolean acquire(int limit) {
+        synchronized (lock) {
+            while (outstanding >= limit) {
+                if (!running) {
+                    return false;
+                }
+                try {
+                    lock.wait(10);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+            outstanding++;
+            return true;
+        }
+    }
+
+    private void release(long heldNanos) {
+        holdLatency.recordNanos(heldNanos);
+        synchronized (lock) {
+            outstanding--;
+            lock.notifyAll();
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 回放帧：改写时间戳，close 时归还配额并记录持有时长
+     */
+    private class ReplayFrame implements Frame {
+        private final Frame frame;
+        private final long timestampNanos;
+        private final long deliveredNanos = System.nanoTime();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ReplayFrame(Frame frame, long timestampNanos) {
+            this.frame = frame;
+            this.timestampNanos = timestampNanos;
+        }
+
+        @Override
+        public int getWidth() {
+            return frame.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return frame.getHeight();
+        }
+
+        @Override
+        public int getRotationDegrees() {
+            return frame.getRotationDegrees();
+        }
+
+        @Override
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        @Override
+        public Plane getPlane(int index) {
+            return frame.getPlane(index);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                frame.close();
+                release(System.nanoTime() - deliveredNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.detection.FaceAnalysisPipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回放基准：把录制帧送入配置好的流水线，统计吞吐、延迟分布与丢帧
+ * 调用方事先配置好流水线（检测器、调度参数、ROI 等），便于对比不同配置
+ */
+public final class ReplayHarness {
+    // 回放结束后等待异步检测收尾的最长时间
+    private static final long DRAIN_TIMEOUT_MS = 10_000;
+
+    private ReplayHarness() {
+    }
+
+    /**
+     * 回放 loopCount 轮并返回报告（会替换流水线的监听器和时钟，并清空其统计）
+     */
+    public static ReplayReport run(FrameRecording recording, FaceAnalysisPipeline pipeline,
+                                   ReplayFrameSource.Pacing pacing, int loopCount) throws InterruptedException {
+        AtomicLong results = new AtomicLong();
+        pipeline.setListener(result -> results.incrementAndGet());
+        pipeline.getMetrics().reset();
+
+        ReplayFrameSource source = new ReplayFrameSource(recording, pacing);
+        source.setLoopCount(loopCount);
+        pipeline.setClock(source::nanoTime);
+        source.start(pipeline);
+        source.awaitCompletion(DRAIN_TIMEOUT_MS);
+
+        return new ReplayReport(pacing, (long) recording.getFrameCount() * loopCount,
+                source.getDeliveredCount(), source.getDroppedCount(), results.get(),
+                source.getElapsedNanos(), source.getHoldLatency(), pipeline.getMetrics().snapshot());
+    }
+}
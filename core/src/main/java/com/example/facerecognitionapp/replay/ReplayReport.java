@@ -0,0 +1,68 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.metrics.LatencyHistogram;
+import com.example.facerecognitionapp.metrics.MetricsSnapshot;
+
+import java.util.Locale;
+
+/**
+ * 一次回放的结果（不可变）
+ */
+public class ReplayReport {
+    public final ReplayFrameSource.Pacing pacing;
+    public final long totalFrames;       // 录制帧数 * 轮数
+    public final long deliveredFrames;   // 实际送入流水线的帧
+    public final long sourceDropped;     // 回放端丢弃（模拟相机覆盖/队列满）
+    public final long results;           // 监听器收到的结果数
+    public final long elapsedNanos;
+    // 帧持有时长（推送 -> close，微秒）
+    public final long holdP50Micros;
+    public final long holdP95Micros;
+    public final long holdP99Micros;
+    public final long holdMaxMicros;
+    public final MetricsSnapshot pipeline;
+
+    public ReplayReport(ReplayFrameSource.Pacing pacing, long totalFrames, long deliveredFrames,
+                        long sourceDropped, long results, long elapsedNanos,
+                        LatencyHistogram holdLatency, MetricsSnapshot pipeline) {
+        this.pacing = pacing;
+        this.totalFrames = totalFrames;
+        this.deliveredFrames = deliveredFrames;
+        this.sourceDropped = sourceDropped;
+        this.results = results;
+        this.elapsedNanos = elapsedNanos;
+        this.holdP50Micros = holdLatency.percentileMicros(50);
+        this.holdP95Micros = holdLatency.percentileMicros(95);
+        this.holdP99Micros = holdLatency.percentileMicros(99);
+        this.holdMaxMicros = holdLatency.getMaxMicros();
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 送入流水线的帧率
+     */
+    public double getFramesPerSecond() {
+        return elapsedNanos > 0 ? deliveredFrames * 1e9 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * 输出结果的帧率（检测 + 跟踪）
+     */
+    public double getResultsPerSecond() {
+        return elapsedNanos > 0 ? results * 1e9 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "replay %s: %d frames in %.2f s%n",
+                pacing, totalFrames, elapsedNanos / 1e9));
+        sb.append(String.format(Locale.US, "delivered %d (%.1f fps)  source dropped %d  results %d (%.1f fps)%n",
+                deliveredFrames, getFramesPerSecond(), sourceDropped, results, getResultsPerSecond()));
+        sb.append(String.format(Locale.US, "frame hold  p50 %6.1f p95 %6.1f p99 %6.1f max %6.1f ms%n",
+                holdP50Micros / 1000.0, holdP95Micros / 1000.0, holdP99Micros / 1000.0,
+                holdMaxMicros / 1000.0));
+        sb.append(pipeline);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.facerecognitionapp.startup;
+
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.detection.FaceDetectorPool;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 检测器预热：在合成帧上做一次推理，使模型加载、推理引擎初始化与首次 JIT 发生在启动阶段，
+ * 而不是第一帧真实画面上。合成帧内容无关紧要（没有人脸也能完成完整的推理路径）
+ */
+public final class DetectorWarmup {
+    private static final String TAG = "DetectorWarmup";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    private DetectorWarmup() {
+    }
+
+    /**
+     * 中灰 I420 合成帧，亮度带水平渐变，避免检测器对全平图像走捷径
+     */
+    public static Frame syntheticFrame(int width, int height) {
+        int ySize = width * height;
+        int chromaSize = ((width + 1) / 2) * ((height + 1) / 2);
+        byte[] data = new byte[ySize + 2 * chromaSize];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                data[y * width + x] = (byte) (64 + 128 * x / Math.max(1, width - 1));
+            }
+        }
+        Arrays.fill(data, ySize, data.length, (byte) 128);
+        return YuvFrame.fromI420(data, width, height, 0, 0L);
+    }
+
+    /**
+     * 在所有检测器上并发预热，全部回调后完成。检测器池按实例数发起同样多的检测：
+     * 异步检测期间实例保持占用，并发请求会分派到不同实例，从而每个实例都被预热
+     * <p>
+     * 预热中的检测错误只记录日志，不使启动失败（真实帧上会再次暴露）
+     */
+    public static void warmUp(Frame frame, StartupOrchestrator.Completion completion, FaceDetector... detectors) {
+        int total = 0;
+        for (FaceDetector detector : detectors) {
+            total += detectionsFor(detector);
+        }
+        if (total == 0) {
+            completion.complete();
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(total);
+        FaceDetector.Callback callback = new FaceDetector.Callback() {
+            @Override
+            public void onFacesDetected(FaceDetectionResult result) {
+                onDone();
+            }
+
+            @Override
+            public void onDetectionError(Exception e) {
+                LOG.log(Level.WARNING, "检测器预热失败", e);
+                onDone();
+            }
+
+            private void onDone() {
+                if (remaining.decrementAndGet() == 0) {
+                    completion.complete();
+                }
+            }
+        };
+        for (FaceDetector detector : detectors) {
+            for (int i = detectionsFor(detector); i > 0; i--) {
+                detector.detect(frame, null, callback);
+            }
+        }
+    }
+
+    private static int detectionsFor(FaceDetector detector) {
+        if (detector == null) {
+            return 0;
+        }
+        return detector instanceof FaceDetectorPool ? ((FaceDetectorPool) detector).size() : 1;
+    }
+}
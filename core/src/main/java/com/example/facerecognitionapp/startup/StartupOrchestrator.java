@@ -0,0 +1,298 @@
+package com.example.facerecognitionapp.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 启动编排：把冷启动拆成带依赖关系的阶段（如相机提供者、检测器预热、人脸库加载），
+ * 依赖全部完成的阶段立即提交到各自的线程池并行执行，每个阶段的时刻记入 StartupTrace
+ * <p>
+ * 阶段可以是同步的（run 返回即完成），也可以是异步的（在回调中调用 Completion）。
+ * 阶段失败时所有直接或间接依赖它的阶段被跳过，其余阶段不受影响
+ */
+public class StartupOrchestrator {
+    private static final String TAG = "StartupOrchestrator";
+    private static final Logger LOG = Logger.getLogger(TAG);
+
+    /**
+     * 同步阶段
+     */
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * 异步阶段：开始后须恰好调用一次 complete 或 fail（可在任意线程）
+     */
+    public interface AsyncTask {
+        void start(Completion completion) throws Exception;
+    }
+
+    public interface Completion {
+        void complete();
+
+        void fail(Throwable error);
+    }
+
+    /**
+     * 启动完成监听器，所有阶段结束（完成、失败或跳过）后在最后结束的阶段所在线程回调一次
+     */
+    public interface Listener {
+        void onStartupFinished(StartupTrace trace);
+    }
+
+    private final Executor defaultExecutor;
+    private final StartupTrace trace;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private Listener listener;
+    private boolean started;
+    // 未结束的阶段数，由 this 锁保护
+    private int unfinished;
+
+    /**
+     * @param defaultExecutor 未单独指定线程池的阶段所在线程池
+     */
+    public StartupOrchestrator(Executor defaultExecutor, StartupTrace trace) {
+        this.defaultExecutor = defaultExecutor;
+        this.trace = trace;
+    }
+
+    public StartupTrace getTrace() {
+        return trace;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 添加在默认线程池执行的同步阶段
+     */
+    public void addPhase(String name, Task task, String... dependencies) {
+        addPhase(name, null, task, dependencies);
+    }
+
+    /**
+     * 添加同步阶段
+     *
+     * @param executor 阶段所在线程池（如主线程），为null时使用默认线程池
+     */
+    public void addPhase(String name, Executor executor, Task task, String... dependencies) {
+        addAsyncPhase(name, executor, completion -> {
+            task.run();
+            completion.complete();
+        }, dependencies);
+    }
+
+    /**
+     * 添加异步阶段，start 在 executor 上调用，阶段在调用 Completion 时结束
+     *
+     * @param dependencies 须先完成的阶段名，可在之后才添加
+     */
+    public synchronized void addAsyncPhase(String name, Executor executor, AsyncTask task, String... dependencies) {
+        if (started) {
+            throw new IllegalStateException("启动编排已开始");
+        }
+        if (phases.containsKey(name)) {
+            throw new IllegalArgumentException("重复的启动阶段: " + name);
+        }
+        phases.put(name, new Phase(name, executor != null ? executor : defaultExecutor, task, dependencies));
+        trace.onPhaseRegistered(name);
+    }
+
+    /**
+     * 校验依赖图（未知依赖、环）并启动所有无依赖的阶段
+     */
+    public void start() {
+        List<Phase> ready = new ArrayList<>();
+        synchronized (this) {
+            if (started) {
+                throw new IllegalStateException("启动编排已开始");
+            }
+            for (Phase phase : phases.values()) {
+                for (String dependency : phase.dependencies) {
+                    Phase upstream = phases.get(dependency);
+                    if (upstream == null) {
+                        throw new IllegalStateException("阶段 " + phase.name + " 依赖未知阶段 " + dependency);
+                    }
+                    upstream.dependents.add(phase);
+                }
+                phase.remaining = phase.dependencies.length;
+            }
+            checkAcyclic();
+            started = true;
+            unfinished = phases.size();
+            for (Phase phase : phases.values()) {
+                if (phase.remaining == 0) {
+                    ready.add(phase);
+                }
+            }
+        }
+        if (ready.isEmpty()) {
+            notifyFinished();
+            return;
+        }
+        for (Phase phase : ready) {
+            submit(phase);
+        }
+    }
+
+    /**
+     * Kahn 拓扑排序，剩余未排出的阶段即在环上
+     */
+    private void checkAcyclic() {
+        Map<Phase, Integer> inDegree = new LinkedHashMap<>();
+        List<Phase> queue = new ArrayList<>();
+        for (Phase phase : phases.values()) {
+            inDegree.put(phase, phase.dependencies.length);
+            if (phase.dependencies.length == 0) {
+                queue.add(phase);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            for (Phase dependent : queue.get(i).dependents) {
+                int degree = inDegree.get(dependent) - 1;
+                inDegree.put(dependent, degree);
+                if (degree == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (queue.size() != phases.size()) {
+            List<String> cycle = new ArrayList<>();
+            for (Map.Entry<Phase, Integer> entry : inDegree.entrySet()) {
+                if (entry.getValue() > 0) {
+                    cycle.add(entry.getKey().name);
+                }
+            }
+            throw new IllegalStateException("启动阶段存在循环依赖: " + cycle);
+        }
+    }
+
+    private void submit(Phase phase) {
+        trace.onPhaseReady(phase.name);
+        try {
+            phase.executor.execute(phase);
+        } catch (RejectedExecutionException e) {
+            phase.fail(e);
+        }
+    }
+
+    private void onPhaseFinished(Phase phase, StartupTrace.Status status, Throwable error) {
+        trace.onPhaseFinished(phase.name, status, error);
+        if (error != null) {
+            LOG.log(Level.WARNING, "启动阶段 " + phase.name + " 失败", error);
+        }
+        List<Phase> ready = new ArrayList<>();
+        List<Phase> skipped = new ArrayList<>();
+        boolean finished;
+        synchronized (this) {
+            if (status == StartupTrace.Status.DONE) {
+                for (Phase dependent : phase.dependents) {
+                    if (--dependent.remaining == 0 && !dependent.skipped) {
+                        ready.add(dependent);
+                    }
+                }
+            } else {
+                collectSkipped(phase, skipped);
+            }
+            unfinished -= 1 + skipped.size();
+            finished = unfinished == 0;
+        }
+        for (Phase dependent : skipped) {
+            trace.onPhaseFinished(dependent.name, StartupTrace.Status.SKIPPED, null);
+        }
+        for (Phase dependent : ready) {
+            submit(dependent);
+        }
+        if (finished) {
+            notifyFinished();
+        }
+    }
+
+    /**
+     * 标记所有直接或间接依赖 failed 的阶段为跳过（调用方持有锁）
+     */
+    private void collectSkipped(Phase failed, List<Phase> out) {
+        for (Phase dependent : failed.dependents) {
+            if (!dependent.skipped) {
+                dependent.skipped = true;
+                out.add(dependent);
+                collectSkipped(dependent, out);
+            }
+        }
+    }
+
+    private void notifyFinished() {
+        LOG.info(trace.toReport());
+        Listener target = listener;
+        if (target != null) {
+            target.onStartupFinished(trace);
+        }
+    }
+
+    /**
+     * 单个阶段，同时作为提交到线程池的任务与异步阶段的完成回调
+     */
+    private final class Phase implements Runnable, Completion {
+        final String name;
+        final Executor executor;
+        final AsyncTask task;
+        final String[] dependencies;
+        final List<Phase> dependents = new ArrayList<>();
+        // 以下由 StartupOrchestrator 的锁保护
+        int remaining;
+        boolean skipped;
+        private boolean finished;
+
+        Phase(String name, Executor executor, AsyncTask task, String[] dependencies) {
+            this.name = name;
+            this.executor = executor;
+            this.task = task;
+            this.dependencies = dependencies.clone();
+        }
+
+        @Override
+        public void run() {
+            trace.onPhaseStarted(name);
+            try {
+                task.start(this);
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            if (markFinished()) {
+                onPhaseFinished(this, StartupTrace.Status.DONE, null);
+            }
+        }
+
+        @Override
+        public void fail(Throwable error) {
+            if (markFinished()) {
+                onPhaseFinished(this, StartupTrace.Status.FAILED, error);
+            }
+        }
+
+        /**
+         * 重复的 complete/fail 被忽略（例如同步阶段 complete 之后又抛出异常）
+         */
+        private boolean markFinished() {
+            synchronized (StartupOrchestrator.this) {
+                if (finished) {
+                    return false;
+                }
+                finished = true;
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.facerecognitionapp.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 启动追踪：记录各启动阶段的就绪/开始/结束时刻与所在线程，以及“首帧预览”“首次识别出人脸”等里程碑。
+ * 所有时刻都相对同一个起点（通常为进程启动），便于区分等待依赖、排队与实际执行各占多少
+ * <p>
+ * 线程安全；里程碑只记录第一次到达的时刻
+ */
+public class StartupTrace {
+    private final LongSupplier clock;
+    private final long originNanos;
+    private final Map<String, PhaseRecord> phases = new LinkedHashMap<>();
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    /**
+     * 阶段结束状态
+     */
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED,
+        SKIPPED   // 依赖的阶段失败，未执行
+    }
+
+    /**
+     * 单个阶段的记录，时刻为相对起点的纳秒，未到达时为 -1
+     */
+    public static class PhaseRecord {
+        public final String name;
+        public long readyNanos = -1;
+        public long startNanos = -1;
+        public long endNanos = -1;
+        public String thread;
+        public Status status = Status.PENDING;
+        public Throwable error;
+
+        PhaseRecord(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 依赖全部完成到开始执行的排队时间
+         */
+        public long getQueueNanos() {
+            return startNanos >= 0 && readyNanos >= 0 ? startNanos - readyNanos : -1;
+        }
+
+        public long getDurationNanos() {
+            return endNanos >= 0 && startNanos >= 0 ? endNanos - startNanos : -1;
+        }
+    }
+
+    public StartupTrace() {
+        this(System::nanoTime, System.nanoTime());
+    }
+
+    /**
+     * @param originNanos 起点在 clock 上的时刻，可早于构造时刻（如由进程启动时间推算）
+     */
+    public StartupTrace(LongSupplier clock, long originNanos) {
+        this.clock = clock;
+        this.originNanos = originNanos;
+    }
+
+    /**
+     * 当前时刻（相对起点）
+     */
+    public long now() {
+        return clock.getAsLong() - originNanos;
+    }
+
+    synchronized void onPhaseRegistered(String name) {
+        phases.put(name, new PhaseRecord(name));
+    }
+
+    synchronized void onPhaseReady(String name) {
+        phases.get(name).readyNanos = now();
+    }
+
+    synchronized void onPhaseStarted(String name) {
+        PhaseRecord record = phases.get(name);
+        record.startNanos = now();
+        record.thread = Thread.currentThread().getName();
+        record.status = Status.RUNNING;
+    }
+
+    synchronized void onPhaseFinished(String name, Status status, Throwable error) {
+        PhaseRecord record = phases.get(name);
+        if (record.startNanos >= 0) {
+            record.endNanos = now();
+        }
+        record.status = status;
+        record.error = error;
+    }
+
+    /**
+     * 记录里程碑，返回是否为第一次到达
+     */
+    public synchronized boolean mark(String milestone) {
+        if (milestones.containsKey(milestone)) {
+            return false;
+        }
+        milestones.put(milestone, now());
+        return true;
+    }
+
+    public synchronized boolean isMarked(String milestone) {
+        return milestones.containsKey(milestone);
+    }
+
+    /**
+     * 里程碑时刻（相对起点），未到达时返回 -1
+     */
+    public synchronized long getMilestoneNanos(String milestone) {
+        Long nanos = milestones.get(milestone);
+        return nanos != null ? nanos : -1L;
+    }
+
+    /**
+     * 阶段记录的拷贝，按注册顺序；未注册时返回null
+     */
+    public synchronized PhaseRecord getPhase(String name) {
+        PhaseRecord record = phases.get(name);
+        return record != null ? copy(record) : null;
+    }
+
+    public synchronized List<PhaseRecord> getPhases() {
+        List<PhaseRecord> records = new ArrayList<>(phases.size());
+        for (PhaseRecord record : phases.values()) {
+            records.add(copy(record));
+        }
+        return records;
+    }
+
+    private static PhaseRecord copy(PhaseRecord record) {
+        PhaseRecord copy = new PhaseRecord(record.name);
+        copy.readyNanos = record.readyNanos;
+        copy.startNanos = record.startNanos;
+        copy.endNanos = record.endNanos;
+        copy.thread = record.thread;
+        copy.status = record.status;
+        copy.error = record.error;
+        return copy;
+    }
+
+    /**
+     * 多行文本报告：每个阶段的 就绪 / 开始-结束 / 耗时 / 线程，随后是各里程碑，单位毫秒
+     */
+    public synchronized String toReport() {
+        StringBuilder sb = new StringBuilder("启动追踪 (ms, 相对起点)\n");
+        for (PhaseRecord record : phases.values()) {
+            sb.append(String.format(Locale.US, "  %-18s %-8s ready %7s  run %7s - %7s  (%s ms, queued %s ms) [%s]",
+                    record.name, record.status, millis(record.readyNanos), millis(record.startNanos),
+                    millis(record.endNanos), millis(record.getDurationNanos()), millis(record.getQueueNanos()),
+                    record.thread != null ? record.thread : "-"));
+            if (record.error != null) {
+                sb.append(" ").append(record.error);
+            }
+            sb.append('\n');
+        }
+        for (Map.Entry<String, Long> milestone : milestones.entrySet()) {
+            sb.append(String.format(Locale.US, "  * %-16s at %7s\n", milestone.getKey(), millis(milestone.getValue())));
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return nanos >= 0 ? String.format(Locale.US, "%.1f", nanos / 1e6) : "-";
+    }
+}
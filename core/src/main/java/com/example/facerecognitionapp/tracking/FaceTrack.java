@@ -0,0 +1,131 @@
+package com.example.facerecognitionapp.tracking;
+
+import com.example.facerecognitionapp.recognition.GalleryMatch;
+
+/**
+ * 单个人脸轨迹：稳定ID + 框的卡尔曼状态 + 最近一次检测的属性
+ * 框坐标与检测结果一致（正立图像坐标系）
+ */
+public class FaceTrack {
+    // 卡尔曼滤波参数（像素单位）
+    private static final float ACCELERATION_STD = 400f;
+    private static final float MEASUREMENT_STD = 6f;
+    private static final float INITIAL_VELOCITY_STD = 300f;
+
+    int id;
+    final KalmanFilter1D centerX = new KalmanFilter1D(ACCELERATION_STD, MEASUREMENT_STD);
+    final KalmanFilter1D centerY = new KalmanFilter1D(ACCELERATION_STD, MEASUREMENT_STD);
+    final KalmanFilter1D width = new KalmanFilter1D(ACCELERATION_STD * 0.5f, MEASUREMENT_STD);
+    final KalmanFilter1D height = new KalmanFilter1D(ACCELERATION_STD * 0.5f, MEASUREMENT_STD);
+    long lastPredictNanos;
+
+    // 当前（预测或更新后）的框
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public int hits;                // 累计匹配到检测的次数
+    public int misses;              // 连续未匹配的检测轮数
+    public int detectionIndex = -1; // 最近一次 update 中匹配到的检测序号，-1 表示未匹配
+    public long lastSeenNanos;      // 最近一次被检测到的时间
+
+    // 最近一次检测带来的属性，缺失时为NaN
+    public float smileProbability = Float.NaN;
+    public float leftEyeOpenProbability = Float.NaN;
+    public float rightEyeOpenProbability = Float.NaN;
+    public GalleryMatch match;      // 识别结果（投票后的缓存身份），未识别为null
+    public float matchConfidence;   // 身份投票置信度（0-1）
+    public long verifiedNanos;      // 最近一次实际做 1:N 比对的时间，0 表示尚未比对
+    public float quality;           // 最近一次通过质量评估的分数（0-1），尚未通过为0
+    // 最近一次精确检测的关键点，按框归一化（0-1），随框移动；hasLandmarks 为false时无效
+    public final float[] landmarks = new float[10];
+    public boolean hasLandmarks;
+    public long landmarksNanos;     // 关键点对应的检测时间
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 保存关键点（正立坐标，x/y交错），按检测框 [l, t, r, b) 归一化，之后随轨迹框移动
+     */
+    public void setLandmarks(float[] points, float l, float t, float r, float b, long nowNanos) {
+        float w = Math.max(1f, r - l);
+        float h = Math.max(1f, b - t);
+        for (int i = 0; i < landmarks.length; i += 2) {
+            landmarks[i] = (points[i] - l) / w;
+            landmarks[i + 1] = (points[i + 1] - t) / h;
+        }
+        hasLandmarks = true;
+        landmarksNanos = nowNanos;
+    }
+
+    /**
+     * 把关键点映射到当前框，写入 out（正立坐标，x/y交错）
+     */
+    public void getLandmarks(float[] out) {
+        float w = right - left;
+        float h = bottom - top;
+        for (int i = 0; i < landmarks.length; i += 2) {
+            out[i] = left + landmarks[i] * w;
+            out[i + 1] = top + landmarks[i + 1] * h;
+        }
+    }
+
+    void start(int id, float l, float t, float r, float b, long nowNanos) {
+        this.id = id;
+        centerX.reset((l + r) * 0.5f, INITIAL_VELOCITY_STD);
+        centerY.reset((t + b) * 0.5f, INITIAL_VELOCITY_STD);
+        width.reset(r - l, INITIAL_VELOCITY_STD * 0.5f);
+        height.reset(b - t, INITIAL_VELOCITY_STD * 0.5f);
+        lastPredictNanos = nowNanos;
+        lastSeenNanos = nowNanos;
+        hits = 1;
+        misses = 0;
+        smileProbability = Float.NaN;
+        leftEyeOpenProbability = Float.NaN;
+        rightEyeOpenProbability = Float.NaN;
+        match = null;
+        matchConfidence = 0f;
+        verifiedNanos = 0L;
+        quality = 0f;
+        hasLandmarks = false;
+        syncBox();
+    }
+
+    void predict(long nowNanos) {
+        float dt = (nowNanos - lastPredictNanos) / 1e9f;
+        if (dt <= 0f) {
+            return;
+        }
+        centerX.predict(dt);
+        centerY.predict(dt);
+        width.predict(dt);
+        height.predict(dt);
+        lastPredictNanos = nowNanos;
+        syncBox();
+    }
+
+    void correct(float l, float t, float r, float b, long nowNanos) {
+        centerX.update((l + r) * 0.5f);
+        centerY.update((t + b) * 0.5f);
+        width.update(r - l);
+        height.update(b - t);
+        lastSeenNanos = nowNanos;
+        hits++;
+        misses = 0;
+        syncBox();
+    }
+
+    private void syncBox() {
+        float cx = centerX.getPosition();
+        float cy = centerY.getPosition();
+        float halfW = Math.max(1f, width.getPosition()) * 0.5f;
+        float halfH = Math.max(1f, height.getPosition()) * 0.5f;
+        left = cx - halfW;
+        right = cx + halfW;
+        top = cy - halfH;
+        bottom = cy + halfH;
+    }
+}
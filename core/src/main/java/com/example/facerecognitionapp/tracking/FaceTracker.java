@@ -0,0 +1,196 @@
+package com.example.facerecognitionapp.tracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 多人脸跟踪器
+ * 检测帧：先将所有轨迹预测到当前时间，再按IoU贪心关联检测框并用卡尔曼滤波修正；
+ * 跳过检测的帧：只做预测，输出外推的框。纯Java实现，不依赖Android
+ */
+public class FaceTracker {
+    public static final float DEFAULT_IOU_THRESHOLD = 0.3f;
+    public static final int DEFAULT_MAX_MISSES = 3;
+
+    private final float iouThreshold;
+    private final int maxMisses;
+    private final List<FaceTrack> tracks = new ArrayList<>();
+    private final List<FaceTrack> readOnlyTracks = Collections.unmodifiableList(tracks);
+    private final List<FaceTrack> freeTracks = new ArrayList<>();
+    private int nextId = 1;
+    private TrackListener trackListener;
+
+    // 关联时复用的临时数组
+    private float[] iou = new float[0];
+    private boolean[] detectionUsed = new boolean[0];
+    private boolean[] trackUsed = new boolean[0];
+
+    /**
+     * 轨迹生命周期监听器，在 update/reset 的调用线程中回调
+     */
+    public interface TrackListener {
+        /**
+         * 轨迹连续丢失超过上限或被 reset 清除；回调返回后该对象会被复用，不应保留引用
+         */
+        void onTrackRemoved(FaceTrack track);
+    }
+
+    public FaceTracker() {
+        this(DEFAULT_IOU_THRESHOLD, DEFAULT_MAX_MISSES);
+    }
+
+    public FaceTracker(float iouThreshold, int maxMisses) {
+        this.iouThreshold = iouThreshold;
+        this.maxMisses = maxMisses;
+    }
+
+    /**
+     * 设置轨迹移除监听器（可为null），用于释放按轨迹保存的状态
+     */
+    public void setTrackListener(TrackListener trackListener) {
+        this.trackListener = trackListener;
+    }
+
+    /**
+     * 用一帧检测结果更新跟踪器
+     *
+     * @param boxes 检测框，按 [left, top, right, bottom] 连续存放
+     * @param count 检测框个数
+     * @return 当前活跃轨迹（只读视图，下次调用前有效）；每条轨迹的 detectionIndex 指向匹配的检测
+     */
+    public List<FaceTrack> update(float[] boxes, int count, long nowNanos) {
+        int trackCount = tracks.size();
+        for (int i = 0; i < trackCount; i++) {
+            FaceTrack track = tracks.get(i);
+            track.predict(nowNanos);
+            track.detectionIndex = -1;
+        }
+        ensureScratch(trackCount, count);
+
+        for (int t = 0; t < trackCount; t++) {
+            FaceTrack track = tracks.get(t);
+            for (int d = 0; d < count; d++) {
+                iou[t * count + d] = iou(track.left, track.top, track.right, track.bottom,
+                        boxes[d * 4], boxes[d * 4 + 1], boxes[d * 4 + 2], boxes[d * 4 + 3]);
+            }
+        }
+
+        // 贪心关联：每次取剩余中IoU最大的一对
+        while (true) {
+            int bestT = -1;
+            int bestD = -1;
+            float best = iouThreshold;
+            for (int t = 0; t < trackCount; t++) {
+                if (trackUsed[t]) {
+                    continue;
+                }
+                for (int d = 0; d < count; d++) {
+                    float v = iou[t * count + d];
+                    if (!detectionUsed[d] && v >= best) {
+                        best = v;
+                        bestT = t;
+                        bestD = d;
+                    }
+                }
+            }
+            if (bestT < 0) {
+                break;
+            }
+            trackUsed[bestT] = true;
+            detectionUsed[bestD] = true;
+            FaceTrack track = tracks.get(bestT);
+            track.correct(boxes[bestD * 4], boxes[bestD * 4 + 1], boxes[bestD * 4 + 2], boxes[bestD * 4 + 3], nowNanos);
+            track.detectionIndex = bestD;
+        }
+
+        // 未匹配的轨迹累计丢失次数，超过上限则移除
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (!trackUsed[t]) {
+                FaceTrack track = tracks.get(t);
+                if (++track.misses > maxMisses) {
+                    tracks.remove(t);
+                    freeTracks.add(track);
+                    notifyRemoved(track);
+                }
+            }
+        }
+
+        // 未匹配的检测开启新轨迹
+        for (int d = 0; d < count; d++) {
+            if (!detectionUsed[d]) {
+                FaceTrack track = freeTracks.isEmpty() ? new FaceTrack() : freeTracks.remove(freeTracks.size() - 1);
+                track.start(nextId++, boxes[d * 4], boxes[d * 4 + 1], boxes[d * 4 + 2], boxes[d * 4 + 3], nowNanos);
+                track.detectionIndex = d;
+                tracks.add(track);
+            }
+        }
+        return readOnlyTracks;
+    }
+
+    /**
+     * 跳过检测的帧：将所有轨迹外推到当前时间
+     */
+    public List<FaceTrack> predict(long nowNanos) {
+        for (int i = 0; i < tracks.size(); i++) {
+            FaceTrack track = tracks.get(i);
+            track.predict(nowNanos);
+            track.detectionIndex = -1;
+        }
+        return readOnlyTracks;
+    }
+
+    /**
+     * 当前活跃轨迹（只读视图）
+     */
+    public List<FaceTrack> getTracks() {
+        return readOnlyTracks;
+    }
+
+    /**
+     * 清空所有轨迹
+     */
+    public void reset() {
+        for (int i = tracks.size() - 1; i >= 0; i--) {
+            FaceTrack track = tracks.remove(i);
+            freeTracks.add(track);
+            notifyRemoved(track);
+        }
+    }
+
+    private void notifyRemoved(FaceTrack track) {
+        if (trackListener != null) {
+            trackListener.onTrackRemoved(track);
+        }
+    }
+
+    private void ensureScratch(int trackCount, int detectionCount) {
+        if (iou.length < trackCount * detectionCount) {
+            iou = new float[trackCount * detectionCount * 2];
+        }
+        if (trackUsed.length < trackCount) {
+            trackUsed = new boolean[trackCount * 2];
+        }
+        if (detectionUsed.length < detectionCount) {
+            detectionUsed = new boolean[detectionCount * 2];
+        }
+        Arrays.fill(trackUsed, 0, trackCount, false);
+        Arrays.fill(detectionUsed, 0, detectionCount, false);
+    }
+
+    /**
+     * 两个框的交并比
+     */
+    public static float iou(float l1, float t1, float r1, float b1,
+                            float l2, float t2, float r2, float b2) {
+        float iw = Math.min(r1, r2) - Math.max(l1, l2);
+        float ih = Math.min(b1, b2) - Math.max(t1, t2);
+        if (iw <= 0f || ih <= 0f) {
+            return 0f;
+        }
+        float inter = iw * ih;
+        float union = (r1 - l1) * (b1 - t1) + (r2 - l2) * (b2 - t2) - inter;
+        return union > 0f ? inter / union : 0f;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.facerecognitionapp.tracking;
+
+/**
+ * 一维匀速模型卡尔曼滤波器，状态为 [位置, 速度]
+ */
+class KalmanFilter1D {
+    private final float accelerationVariance;  // 过程噪声（加速度方差，单位/s²）
+    private final float measurementVariance;   // 观测噪声方差
+
+    private float position;
+    private float velocity;
+    private float p00;
+    private float p01;
+    private float p11;
+
+    KalmanFilter1D(float accelerationStd, float measurementStd) {
+        this.accelerationVariance = accelerationStd * accelerationStd;
+        this.measurementVariance = measurementStd * measurementStd;
+    }
+
+    /**
+     * 用首次观测初始化，速度未知时给较大的初始方差
+     */
+    void reset(float measurement, float initialVelocityStd) {
+        position = measurement;
+        velocity = 0f;
+        p00 = measurementVariance;
+        p01 = 0f;
+        p11 = initialVelocityStd * initialVelocityStd;
+    }
+
+    /**
+     * 预测 dt 秒后的状态
+     */
+    void predict(float dt) {
+        if (dt <= 0f) {
+            return;
+        }
+        position += velocity * dt;
+        float dt2 = dt * dt;
+        float q = accelerationVariance;
+        p00 += dt * 2f * p01 + dt2 * p11 + q * dt2 * dt2 * 0.25f;
+        p01 += dt * p11 + q * dt2 * dt * 0.5f;
+        p11 += q * dt2;
+    }
+
+    /**
+     * 融合一次位置观测
+     */
+    void update(float measurement) {
+        float s = p00 + measurementVariance;
+        float k0 = p00 / s;
+        float k1 = p01 / s;
+        float residual = measurement - position;
+        position += k0 * residual;
+        velocity += k1 * residual;
+        float oldP01 = p01;
+        p11 -= k1 * oldP01;
+        p01 -= k0 * oldP01;
+        p00 -= k0 * p00;
+    }
+
+    float getPosition() {
+        return position;
+    }
+
+    float getVelocity() {
+        return velocity;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.enrollment.EnrollmentStore;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.example.facerecognitionapp.recognition.ThumbnailFaceEmbedder;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * 离线批量识别基准：按不同并行度识别一个图片目录，输出吞吐（图片/秒）
+ * 手动运行：main [图片目录] [人脸库目录]，不带参数时生成合成 JPEG 与 1000 人的随机人脸库
+ * JVM 上没有 ML Kit，用模拟检测器代替：固定耗时，返回图片中央的一个人脸框；
+ * 解码用 ImageIO 按 2 的幂次隔行隔列采样（与 app 中 BitmapFactory 的 inSampleSize 一致）
+ */
+public class BatchIdentificationBenchmark {
+    private static final int IMAGES = 200;
+    private static final int IMAGE_WIDTH = 1920;
+    private static final int IMAGE_HEIGHT = 1080;
+    private static final int GALLERY_SIZE = 1000;
+    private static final long DETECT_NANOS = 2_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        File dir;
+        if (args.length > 0) {
+            dir = new File(args[0]);
+        } else {
+            dir = tempDir("batch-images");
+            synthesize(dir);
+        }
+        File storeDir = args.length > 1 ? new File(args[1]) : tempDir("batch-gallery");
+        int dimension = new ThumbnailFaceEmbedder().getDimension();
+        try (EnrollmentStore store = EnrollmentStore.open(storeDir, dimension, null)) {
+            if (store.getGallery().size() == 0) {
+                Random random = new Random(1);
+                for (int i = 0; i < GALLERY_SIZE; i++) {
+                    store.put("user" + i, randomUnit(random, dimension));
+                }
+            }
+            int cores = Runtime.getRuntime().availableProcessors();
+            System.out.printf("%s, gallery %d, %d cores%n", dir, store.getGallery().size(), cores);
+            for (int parallelism = 1; parallelism <= cores * 2; parallelism *= 2) {
+                BatchIdentifier identifier = new BatchIdentifier(store.getGallery(), new SubsamplingDecoder(),
+                        CentreDetector::new, ThumbnailFaceEmbedder::new, parallelism);
+                Runtime.getRuntime().gc();
+                BatchIdentifier.Report report;
+                try (ResultWriter writer = new CsvResultWriter(OutputStream.nullOutputStream())) {
+                    report = identifier.identifyDirectory(dir, writer);
+                }
+                long heap = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+                System.out.printf("parallelism %2d: %s, heap %d MB%n", parallelism, report, heap >> 20);
+            }
+        }
+    }
+
+    /**
+     * ImageIO 解码：按目标尺寸选 2 的幂次采样步长，解码时跳过行列，不产生全分辨率位图
+     */
+    static class SubsamplingDecoder implements BatchIdentifier.ImageDecoder {
+        @Override
+        public Frame decode(File image, int targetSize) throws IOException {
+            try (ImageInputStream input = ImageIO.createImageInputStream(image)) {
+                Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+                if (readers == null || !readers.hasNext()) {
+                    throw new IOException("无法识别的图片格式: " + image);
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, true, true);
+                    int sample = 1;
+                    int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                    while (longSide / (sample * 2) >= targetSize) {
+                        sample *= 2;
+                    }
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(sample, sample, 0, 0);
+                    BufferedImage decoded = reader.read(0, param);
+                    int width = decoded.getWidth();
+                    int height = decoded.getHeight();
+                    int[] pixels = decoded.getRGB(0, 0, width, height, null, 0, width);
+                    return YuvFrame.fromArgb(pixels, width, height);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+    }
+
+    /**
+     * 模拟检测器：同步返回图片中央的人脸框
+     */
+    static class CentreDetector implements FaceDetector {
+        private final FaceDetectionResult result = new FaceDetectionResult();
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            long until = System.nanoTime() + DETECT_NANOS;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            float size = Math.min(frame.getWidth(), frame.getHeight()) * 0.4f;
+            float cx = frame.getWidth() / 2f;
+            float cy = frame.getHeight() / 2f;
+            result.clear();
+            result.imageWidth = frame.getWidth();
+            result.imageHeight = frame.getHeight();
+            result.addFace().setBoundingBox(cx - size / 2, cy - size / 2, cx + size / 2, cy + size / 2);
+            callback.onFacesDetected(result);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void synthesize(File dir) throws IOException {
+        Random random = new Random(1);
+        BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int i = 0; i < IMAGES; i++) {
+            g.setColor(new Color(random.nextInt(0x1000000)));
+            g.fillRect(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+            for (int k = 0; k < 40; k++) {
+                g.setColor(new Color(random.nextInt(0x1000000)));
+                g.fillOval(random.nextInt(IMAGE_WIDTH), random.nextInt(IMAGE_HEIGHT), 200, 260);
+            }
+            ImageIO.write(image, "jpg", new File(dir, String.format("img_%04d.jpg", i)));
+        }
+        g.dispose();
+    }
+
+    private static float[] randomUnit(Random random, int dimension) {
+        float[] v = new float[dimension];
+        float norm = 0f;
+        for (int i = 0; i < dimension; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        norm = (float) Math.sqrt(norm);
+        for (int i = 0; i < dimension; i++) {
+            v[i] /= norm;
+        }
+        return v;
+    }
+
+    private static File tempDir(String prefix) throws IOException {
+        File dir = File.createTempFile(prefix, "");
+        dir.delete();
+        dir.mkdirs();
+        dir.deleteOnExit();
+        return dir;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.facerecognitionapp.batch;
+
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.enrollment.EnrollmentStore;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.example.facerecognitionapp.recognition.ThumbnailFaceEmbedder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BatchIdentifierTest {
+    private static final int SIZE = 160;
+    // 模拟检测器总是在该位置"检测到"人脸（帧左上角像素非0时）
+    private static final float[] FACE_BOX = {40f, 40f, 120f, 120f};
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void identifiesFolder_andWritesCsv() throws Exception {
+        File dir = tmp.newFolder("photos");
+        image(dir, "a/alice_1.jpg", "alice");
+        image(dir, "a/bob_1.jpg", "bob");
+        image(dir, "b/carol.jpg", "carol");
+        image(dir, "b/empty.jpg", "");
+        image(dir, "b/broken.jpg", "!");
+
+        try (EnrollmentStore store = enroll("alice", "bob")) {
+            BatchIdentifier identifier = new BatchIdentifier(store.getGallery(), BatchIdentifierTest::decode,
+                    SyncDetector::new, ThumbnailFaceEmbedder::new, 2);
+            List<String> images = List.of("a/alice_1.jpg", "a/bob_1.jpg", "b/carol.jpg", "b/empty.jpg",
+                    "b/broken.jpg");
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            BatchIdentifier.Report report;
+            try (CsvResultWriter writer = new CsvResultWriter(csv)) {
+                report = identifier.identify(dir, images, writer);
+            }
+            assertTrue(report.completed);
+            assertEquals(5, report.processed);
+            assertEquals(3, report.faces);
+            assertEquals(2, report.matched);
+            assertEquals(1, report.noFace);
+            assertEquals(1, report.failed);
+
+            String[] lines = csv.toString(StandardCharsets.UTF_8.name()).split("\n");
+            assertEquals(CsvResultWriter.HEADER, lines[0]);
+            Map<String, String> rows = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                rows.put(lines[i].substring(0, lines[i].indexOf(',')), lines[i]);
+            }
+            assertEquals(5, rows.size());
+            assertTrue(rows.get("a/alice_1.jpg").startsWith("a/alice_1.jpg,0,40.0,40.0,120.0,120.0,alice,"));
+            assertTrue(rows.get("a/alice_1.jpg").endsWith(",OK"));
+            assertTrue(rows.get("a/bob_1.jpg").contains(",bob,"));
+            assertEquals("b/carol.jpg,0,40.0,40.0,120.0,120.0,,-1,,OK", rows.get("b/carol.jpg"));
+            assertEquals("b/empty.jpg,-1,,,,,,-1,,NO_FACE", rows.get("b/empty.jpg"));
+            assertEquals("b/broken.jpg,-1,,,,,,-1,,FAILED", rows.get("b/broken.jpg"));
+        }
+    }
+
+    @Test
+    public void asyncDetector_processesEveryImageWithBoundedWorkers() throws Exception {
+        File dir = tmp.newFolder("photos");
+        String[] people = {"alice", "bob", "carol"};
+        for (int i = 0; i < 60; i++) {
+            image(dir, String.format("p%02d.jpg", i), people[i % people.length]);
+        }
+        ExecutorService callbacks = Executors.newFixedThreadPool(2);
+        AtomicInteger decoding = new AtomicInteger();
+        AtomicInteger maxDecoding = new AtomicInteger();
+        try (EnrollmentStore store = enroll("alice", "bob")) {
+            BatchIdentifier identifier = new BatchIdentifier(store.getGallery(), (file, targetSize) -> {
+                maxDecoding.accumulateAndGet(decoding.incrementAndGet(), Math::max);
+                try {
+                    Frame frame = decode(file, targetSize);
+                    // 解码出的帧在 close 时才算释放
+                    return new YuvFrame(frame.getWidth(), frame.getHeight(), 0, 0L,
+                            frame.getPlane(0), frame.getPlane(1), frame.getPlane(2)) {
+                        @Override
+                        public void close() {
+                            decoding.decrementAndGet();
+                        }
+                    };
+                } catch (IOException e) {
+                    decoding.decrementAndGet();
+                    throw e;
+                }
+            }, () -> new AsyncDetector(callbacks), ThumbnailFaceEmbedder::new, 3);
+            AtomicInteger progress = new AtomicInteger();
+            identifier.setProgressListener((processed, total) -> progress.incrementAndGet());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BatchIdentifier.Report report;
+            try (BinaryResultWriter writer = new BinaryResultWriter(out)) {
+                report = identifier.identifyDirectory(dir, writer);
+            }
+            assertTrue(report.completed);
+            assertEquals(60, report.total);
+            assertEquals(60, report.faces);
+            assertEquals(40, report.matched);
+            assertEquals(60, progress.get());
+            assertTrue(maxDecoding.get() <= 3);
+            assertEquals(0, decoding.get());
+
+            Map<String, String> identities = new HashMap<>();
+            List<ResultWriter.Status> statuses = new ArrayList<>();
+            int images = BinaryResultWriter.read(new ByteArrayInputStream(out.toByteArray()),
+                    (path, status, faceCount, boxes, galleryIndices, scores, names) -> {
+                        statuses.add(status);
+                        assertEquals(1, faceCount);
+                        assertEquals(120f, boxes[2], 0f);
+                        identities.put(path, names[0]);
+                    });
+            assertEquals(60, images);
+            assertFalse(statuses.contains(ResultWriter.Status.FAILED));
+            assertEquals("alice", identities.get("p00.jpg"));
+            assertEquals("bob", identities.get("p01.jpg"));
+            assertNull(identities.get("p02.jpg"));
+        } finally {
+            callbacks.shutdown();
+        }
+    }
+
+    @Test
+    public void cancel_stopsBeforeRemainingImages() throws Exception {
+        File dir = tmp.newFolder("photos");
+        for (int i = 0; i < 40; i++) {
+            image(dir, String.format("p%02d.jpg", i), "alice");
+        }
+        try (EnrollmentStore store = enroll("alice")) {
+            BatchIdentifier[] holder = new BatchIdentifier[1];
+            holder[0] = new BatchIdentifier(store.getGallery(), BatchIdentifierTest::decode,
+                    SyncDetector::new, ThumbnailFaceEmbedder::new, 1);
+            holder[0].setProgressListener((processed, total) -> {
+                if (processed == 10) {
+                    holder[0].cancel();
+                }
+            });
+            BatchIdentifier.Report report = holder[0].identifyDirectory(dir,
+                    new CsvResultWriter(new ByteArrayOutputStream()));
+            assertFalse(report.completed);
+            assertTrue(report.processed >= 10 && report.processed < 40);
+        }
+    }
+
+    private EnrollmentStore enroll(String... names) throws IOException {
+        ThumbnailFaceEmbedder embedder = new ThumbnailFaceEmbedder();
+        EnrollmentStore store = EnrollmentStore.open(tmp.newFolder(), embedder.getDimension(), null);
+        for (String name : names) {
+            LumaImage luma = new LumaImage();
+            Frame frame = face(name);
+            Frame.Plane y = frame.getPlane(0);
+            luma.set(y.getBuffer(), y.getRowStride(), y.getPixelStride(), SIZE, SIZE, 0);
+            float[] embedding = new float[embedder.getDimension()];
+            embedder.embed(luma, FACE_BOX[0], FACE_BOX[1], FACE_BOX[2], FACE_BOX[3], embedding);
+            store.put(name, embedding);
+        }
+        return store;
+    }
+
+    /**
+     * 图片文件内容即人物名：空文件无人脸，"!" 表示损坏
+     */
+    private static void image(File dir, String path, String person) throws IOException {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), person.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Frame decode(File file, int targetSize) throws IOException {
+        String person = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        if (person.equals("!")) {
+            throw new IOException("损坏的图片: " + file);
+        }
+        return person.isEmpty() ? YuvFrame.fromI420(new byte[SIZE * SIZE * 3 / 2], SIZE, SIZE, 0, 0L)
+                : face(person);
+    }
+
+    /**
+     * 每个人物一个固定的随机纹理
+     */
+    private static Frame face(String person) {
+        Random random = new Random(person.hashCode());
+        byte[] data = new byte[SIZE * SIZE * 3 / 2];
+        random.nextBytes(data);
+        data[0] = 1;
+        return YuvFrame.fromI420(data, SIZE, SIZE, 0, 0L);
+    }
+
+    private static void fill(Frame frame, FaceDetectionResult result) {
+        result.clear();
+        if (frame.getPlane(0).getBuffer().get(0) != 0) {
+            result.addFace().setBoundingBox(FACE_BOX[0], FACE_BOX[1], FACE_BOX[2], FACE_BOX[3]);
+        }
+    }
+
+    private static class SyncDetector implements FaceDetector {
+        private final FaceDetectionResult result = new FaceDetectionResult();
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            fill(frame, result);
+            callback.onFacesDetected(result);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class AsyncDetector implements FaceDetector {
+        private final ExecutorService executor;
+
+        AsyncDetector(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            executor.execute(() -> {
+                FaceDetectionResult result = new FaceDetectionResult();
+                fill(frame, result);
+                callback.onFacesDetected(result);
+            });
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.facerecognitionapp.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TripleBufferTest {
+
+    /**
+     * 写入时两个字段保持 b == a * 2，读者若看到写了一半的缓冲区即可发现
+     */
+    private static class Pair {
+        long a;
+        long b;
+    }
+
+    @Test
+    public void readerSeesOnlyLatestPublished() {
+        TripleBuffer<Pair> buffer = new TripleBuffer<>(Pair::new);
+        assertFalse(buffer.swapIfNew());
+
+        for (long i = 1; i <= 3; i++) {
+            buffer.getWriteBuffer().a = i;
+            buffer.publish();
+        }
+        assertTrue(buffer.swapIfNew());
+        assertEquals(3, buffer.getReadBuffer().a);
+        assertFalse(buffer.swapIfNew());
+        assertEquals(3, buffer.getReadBuffer().a);
+    }
+
+    @Test
+    public void concurrentWriterAndReader_neverTearOrGoBackwards() throws Exception {
+        TripleBuffer<Pair> buffer = new TripleBuffer<>(Pair::new);
+        long iterations = 2_000_000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= iterations; i++) {
+                Pair pair = buffer.getWriteBuffer();
+                pair.a = i;
+                pair.b = i * 2;
+                buffer.publish();
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        long swaps = 0;
+        while (last < iterations && failure.get() == null) {
+            if (buffer.swapIfNew()) {
+                Pair pair = buffer.getReadBuffer();
+                long a = pair.a;
+                long b = pair.b;
+                if (b != a * 2 || a <= last) {
+                    failure.set(new AssertionError("torn or stale read: a=" + a + " b=" + b + " last=" + last));
+                }
+                last = a;
+                swaps++;
+            }
+        }
+        writer.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(iterations, last);
+        assertTrue(swaps > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.facerecognitionapp.detection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DetectionSchedulerTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void firstFrame_isDetected() {
+        DetectionScheduler scheduler = new DetectionScheduler();
+        assertEquals(DetectionScheduler.Decision.DETECT, scheduler.decide(0));
+    }
+
+    @Test
+    public void slowDetector_isThrottledToCpuBudget() {
+        DetectionScheduler scheduler = new DetectionScheduler(4);
+        scheduler.setTargetResultFps(30f);
+        scheduler.setCpuBudget(0.5f);
+
+        // 检测耗时 50ms，50% 预算 => 至少间隔 100ms 才能再次检测
+        long t = 0;
+        assertEquals(DetectionScheduler.Decision.DETECT, scheduler.decide(t));
+        scheduler.onDetectionFinished(t, t + 50 * MS);
+
+        assertEquals(DetectionScheduler.Decision.TRACK, scheduler.decide(t + 84 * MS));
+        assertEquals(DetectionScheduler.Decision.DROP, scheduler.decide(t + 90 * MS));
+        assertEquals(DetectionScheduler.Decision.DETECT, scheduler.decide(t + 100 * MS));
+        assertEquals(50 * MS, scheduler.getAverageLatencyNanos());
+    }
+
+    @Test
+    public void fastDetector_runsAtTargetResultRate() {
+        DetectionScheduler scheduler = new DetectionScheduler(4);
+        scheduler.setTargetResultFps(10f);
+        scheduler.setCpuBudget(1f);
+
+        long t = 0;
+        int detects = 0;
+        for (int frame = 0; frame < 30; frame++) {
+            // 30fps 相机，检测耗时 5ms
+            if (scheduler.decide(t) == DetectionScheduler.Decision.DETECT) {
+                detects++;
+                scheduler.onDetectionFinished(t, t + 5 * MS);
+            }
+            t += 33 * MS;
+        }
+        assertEquals(10, detects);
+        assertEquals(20, scheduler.getDropCount() + scheduler.getTrackCount());
+    }
+
+    @Test
+    public void latencyWindow_forgetsOldSamples() {
+        DetectionScheduler scheduler = new DetectionScheduler(2);
+        scheduler.onDetectionFinished(0, 100 * MS);
+        scheduler.onDetectionFinished(0, 10 * MS);
+        scheduler.onDetectionFinished(0, 20 * MS);
+        assertEquals(15 * MS, scheduler.getAverageLatencyNanos());
+    }
+}
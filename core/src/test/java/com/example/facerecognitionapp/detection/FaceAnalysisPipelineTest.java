@@ -0,0 +1,290 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.metrics.MetricsSnapshot;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+import com.example.facerecognitionapp.recognition.FaceGallery;
+import com.example.facerecognitionapp.recognition.FaceGalleryWriter;
+import com.example.facerecognitionapp.recognition.IdentityCache;
+import com.example.facerecognitionapp.recognition.ThumbnailFaceEmbedder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FaceAnalysisPipelineTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+    private static final float[] FACE = {100, 60, 200, 180};
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void stubDetector_tracksAndRecognizesWithoutAndroid() throws Exception {
+        byte[] data = randomI420(new Random(7));
+        File file = tmp.newFile("gallery.bin");
+        ThumbnailFaceEmbedder embedder = new ThumbnailFaceEmbedder();
+        float[] embedding = new float[embedder.getDimension()];
+        LumaImage luma = new LumaImage();
+        YuvFrame source = YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0);
+        Frame.Plane y = source.getPlane(0);
+        luma.set(y.getBuffer(), y.getRowStride(), y.getPixelStride(), WIDTH, HEIGHT, 0);
+        embedder.embed(luma, FACE[0], FACE[1], FACE[2], FACE[3], embedding);
+        FaceGalleryWriter.write(file, embedding.length, Collections.singletonList("alice"),
+                Collections.singletonList(embedding), 1L);
+
+        StubDetector detector = new StubDetector();
+        detector.landmarks = true;
+        FaceAnalysisPipeline pipeline = new FaceAnalysisPipeline(detector);
+        int[] published = new int[1];
+        pipeline.setListener(result -> published[0]++);
+        // 虚拟时钟与帧时间同步，按 30fps 节奏调度检测
+        long[] now = new long[1];
+        pipeline.setClock(() -> now[0]);
+
+        int frames = 200;
+        int[] closed = new int[1];
+        try (FaceGallery gallery = FaceGallery.open(file)) {
+            pipeline.setGallery(gallery, null);
+            for (int i = 0; i < frames; i++) {
+                long timestamp = i * 33_333_333L;
+                now[0] = timestamp;
+                pipeline.onFrame(new YuvFrame(WIDTH, HEIGHT, 0, timestamp,
+                        source.getPlane(0), source.getPlane(1), source.getPlane(2)) {
+                    @Override
+                    public void close() {
+                        closed[0]++;
+                    }
+                });
+            }
+        }
+        pipeline.release();
+
+        assertTrue(detector.calls > 0);
+        assertTrue(detector.closed);
+        assertEquals(frames, closed[0]);
+
+        MetricsSnapshot snapshot = pipeline.getMetrics().snapshot();
+        assertEquals(frames, snapshot.framesReceived);
+        assertEquals(frames, snapshot.framesDetected + snapshot.framesTracked + snapshot.framesDropped);
+        assertEquals(detector.calls, snapshot.framesDetected);
+        // 静止人脸：投票稳定后命中身份缓存，只有少数检测帧真正做 1:N 比对
+        assertTrue(snapshot.identityMisses >= IdentityCache.DEFAULT_MIN_VOTES);
+        assertTrue(snapshot.identityHits > snapshot.identityMisses);
+        assertTrue(snapshot.identityHits + snapshot.identityMisses <= snapshot.framesDetected);
+
+        assertTrue(published[0] >= detector.calls);
+        assertTrue(pipeline.getResults().swapIfNew());
+        FaceDetectionResult result = pipeline.getResults().getReadBuffer();
+        assertEquals(WIDTH, result.imageWidth);
+        assertEquals(1, result.faceCount);
+        FaceDetectionResult.FaceInfo face = result.getFace(0);
+        assertEquals(FACE[0], face.left, 2f);
+        assertEquals(FACE[3], face.bottom, 2f);
+        assertEquals(0.5f, face.smileProbability, 0f);
+        assertTrue(face.trackId > 0);
+        assertEquals("alice", face.name);
+    }
+
+    @Test
+    public void pipelinedMode_closesFramesEarlyAndDeliversInOrder() {
+        byte[] data = randomI420(new Random(11));
+        YuvFrame source = YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0);
+        ManualDetector detector = new ManualDetector();
+        FaceAnalysisPipeline pipeline = new FaceAnalysisPipeline(detector);
+        pipeline.setMaxInFlight(3);
+        long[] now = new long[1];
+        pipeline.setClock(() -> now[0]);
+        List<Long> published = new ArrayList<>();
+        pipeline.setListener(result -> published.add(result.timestamp));
+
+        int[] closed = new int[1];
+        for (int i = 0; i < 5; i++) {
+            now[0] = i * 40_000_000L;
+            pipeline.onFrame(new YuvFrame(WIDTH, HEIGHT, 0, now[0],
+                    source.getPlane(0), source.getPlane(1), source.getPlane(2)) {
+                @Override
+                public void close() {
+                    closed[0]++;
+                }
+            });
+        }
+
+        // 原始帧全部立即关闭，在途检测数受上限约束，多出的帧改为跟踪
+        assertEquals(5, closed[0]);
+        assertEquals(3, detector.frames.size());
+        MetricsSnapshot snapshot = pipeline.getMetrics().snapshot();
+        assertEquals(3, snapshot.framesDetected);
+        assertEquals(2, snapshot.framesTracked);
+        assertEquals(0, snapshot.framesClosedLate);
+
+        // 检测器拿到的是像素一致的拷贝
+        Frame copy = detector.frames.get(1);
+        assertEquals(40_000_000L, copy.getTimestampNanos());
+        assertEquals(data[WIDTH + 1], copy.getPlane(0).getBuffer().get(WIDTH + 1));
+        assertEquals(data[WIDTH * HEIGHT + 3], copy.getPlane(1).getBuffer().get(3));
+        assertEquals(data[WIDTH * HEIGHT * 5 / 4 + 3], copy.getPlane(2).getBuffer().get(3));
+
+        // 乱序完成，按发起顺序交付
+        detector.complete(2);
+        assertTrue(published.isEmpty());
+        detector.complete(0);
+        assertEquals(Collections.singletonList(0L), published);
+        detector.complete(1);
+        assertEquals(List.of(0L, 40_000_000L, 80_000_000L), published);
+
+        // 交付后槽位归还，可以继续检测
+        now[0] = 400_000_000L;
+        pipeline.onFrame(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, now[0]));
+        assertEquals(4, detector.frames.size());
+        pipeline.release();
+    }
+
+    @Test
+    public void dualMode_refreshesLandmarksAndKeepsThemOnTrack() {
+        byte[] data = randomI420(new Random(5));
+        StubDetector fast = new StubDetector();
+        StubDetector accurate = new StubDetector();
+        accurate.landmarks = true;
+        FaceAnalysisPipeline pipeline = new FaceAnalysisPipeline(fast, accurate);
+        pipeline.getRefreshPolicy().setRefreshInterval(4);
+        long[] now = new long[1];
+        pipeline.setClock(() -> now[0]);
+
+        for (int i = 0; i < 20; i++) {
+            now[0] = i * 40_000_000L;
+            pipeline.onFrame(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, now[0]));
+        }
+        pipeline.release();
+
+        // 第一帧及之后每4次快速检测一次精确检测
+        assertEquals(4, accurate.calls);
+        assertEquals(16, fast.calls);
+        assertEquals(4, pipeline.getMetrics().snapshot().framesRefined);
+
+        assertTrue(pipeline.getResults().swapIfNew());
+        FaceDetectionResult.FaceInfo face = pipeline.getResults().getReadBuffer().getFace(0);
+        assertTrue(face.hasLandmarks);
+        int eye = FaceDetectionResult.FaceInfo.LANDMARK_LEFT_EYE * 2;
+        assertEquals(130f, face.landmarks[eye], 2f);
+        assertEquals(100f, face.landmarks[eye + 1], 2f);
+        // 快速检测没有分类结果，保留精确检测的值
+        assertEquals(0.5f, face.smileProbability, 0f);
+    }
+
+    @Test
+    public void detectorPool_rejectsWhenAllBusy() {
+        List<ManualDetector> delegates = new ArrayList<>();
+        FaceDetectorPool pool = new FaceDetectorPool(2, () -> {
+            ManualDetector detector = new ManualDetector();
+            delegates.add(detector);
+            return detector;
+        });
+        Frame frame = YuvFrame.fromI420(new byte[WIDTH * HEIGHT * 3 / 2], WIDTH, HEIGHT, 0, 0);
+        int[] errors = new int[1];
+        int[] results = new int[1];
+        FaceDetector.Callback callback = new FaceDetector.Callback() {
+            @Override
+            public void onFacesDetected(FaceDetectionResult result) {
+                results[0]++;
+            }
+
+            @Override
+            public void onDetectionError(Exception e) {
+                errors[0]++;
+            }
+        };
+
+        pool.detect(frame, null, callback);
+        pool.detect(frame, null, callback);
+        pool.detect(frame, null, callback);
+        assertEquals(1, errors[0]);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, delegates.get(0).frames.size());
+        assertEquals(1, delegates.get(1).frames.size());
+
+        delegates.get(1).complete(0);
+        assertEquals(1, results[0]);
+        assertEquals(1, pool.getIdleCount());
+        pool.close();
+        assertTrue(delegates.get(0).closed && delegates.get(1).closed);
+    }
+
+    private static byte[] randomI420(Random random) {
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        random.nextBytes(data);
+        return data;
+    }
+
+    /**
+     * 同步返回固定人脸框的检测器
+     */
+    private static class StubDetector implements FaceDetector {
+        private final FaceDetectionResult result = new FaceDetectionResult();
+        int calls;
+        boolean closed;
+        // 为true时模拟精确检测器：输出关键点与分类
+        boolean landmarks;
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            calls++;
+            result.clear();
+            FaceDetectionResult.FaceInfo face = result.addFace();
+            face.setBoundingBox(FACE[0], FACE[1], FACE[2], FACE[3]);
+            if (landmarks) {
+                face.smileProbability = 0.5f;
+                for (int i = 0; i < FaceDetectionResult.FaceInfo.LANDMARK_COUNT; i++) {
+                    face.landmarks[2 * i] = FACE[0] + 30 + 10 * i;
+                    face.landmarks[2 * i + 1] = FACE[1] + 40;
+                }
+                face.hasLandmarks = true;
+            }
+            callback.onFacesDetected(result);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * 保存请求、由测试决定完成顺序的异步检测器
+     */
+    private static class ManualDetector implements FaceDetector {
+        final List<Frame> frames = new ArrayList<>();
+        final List<Callback> callbacks = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            frames.add(frame);
+            callbacks.add(callback);
+        }
+
+        void complete(int index) {
+            FaceDetectionResult result = new FaceDetectionResult();
+            result.timestamp = frames.get(index).getTimestampNanos();
+            FaceDetectionResult.FaceInfo face = result.addFace();
+            face.setBoundingBox(FACE[0], FACE[1], FACE[2], FACE[3]);
+            callbacks.get(index).onFacesDetected(result);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
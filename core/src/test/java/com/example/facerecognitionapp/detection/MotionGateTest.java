@@ -0,0 +1,80 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.frame.YuvFrame;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MotionGateTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    @Test
+    public void staticNoisySceneIsGatedUntilForcedCheck() {
+        MotionGate gate = new MotionGate();
+        gate.setEnabled(true);
+        Random random = new Random(3);
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+
+        int detected = 0;
+        for (int i = 0; i < 60; i++) {
+            // 静止场景 + 传感器噪声
+            fillScene(data, random, -1);
+            if (gate.shouldDetect(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0), i * FRAME_NANOS)) {
+                detected++;
+            }
+        }
+        // 第一帧建立参考，之后每秒强制检测一次
+        assertEquals(2, detected);
+        assertEquals(1, gate.getForcedCount());
+        assertEquals(0, gate.getMotionCount());
+        assertEquals(58, gate.getGatedCount());
+    }
+
+    @Test
+    public void movingObjectPassesGate() {
+        MotionGate gate = new MotionGate();
+        gate.setEnabled(true);
+        Random random = new Random(4);
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        fillScene(data, random, -1);
+        assertTrue(gate.shouldDetect(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0), 0));
+
+        // 一个 80x80 的亮块进入画面
+        fillScene(data, random, 100);
+        assertTrue(gate.shouldDetect(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0), FRAME_NANOS));
+        assertEquals(1, gate.getMotionCount());
+        // 亮块静止后再次被门控
+        fillScene(data, random, 100);
+        assertFalse(gate.shouldDetect(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, 0), 2 * FRAME_NANOS));
+    }
+
+    @Test
+    public void disabledGateAlwaysDetects() {
+        MotionGate gate = new MotionGate();
+        YuvFrame frame = YuvFrame.fromI420(new byte[WIDTH * HEIGHT * 3 / 2], WIDTH, HEIGHT, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(gate.shouldDetect(frame, i * FRAME_NANOS));
+        }
+        assertEquals(0, gate.getCheckCount());
+    }
+
+    /**
+     * 渐变背景加噪声，blockX >= 0 时在 (blockX, 200) 处画一个 80x80 的亮块
+     */
+    private static void fillScene(byte[] data, Random random, int blockX) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = 40 + x / 8 + random.nextInt(9) - 4;
+                if (blockX >= 0 && x >= blockX && x < blockX + 80 && y >= 200 && y < 280) {
+                    value = 220;
+                }
+                data[y * WIDTH + x] = (byte) value;
+            }
+        }
+    }
+}
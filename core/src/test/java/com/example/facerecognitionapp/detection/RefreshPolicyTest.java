@@ -0,0 +1,53 @@
+package com.example.facerecognitionapp.detection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RefreshPolicyTest {
+
+    @Test
+    public void firstDetectionThenEveryInterval() {
+        RefreshPolicy policy = new RefreshPolicy();
+        policy.setRefreshInterval(3);
+        assertEquals(RefreshPolicy.Reason.INTERVAL, policy.shouldRefresh());
+        policy.onRefreshFinished();
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+        assertEquals(RefreshPolicy.Reason.INTERVAL, policy.shouldRefresh());
+        assertEquals(2, policy.getIntervalCount());
+    }
+
+    @Test
+    public void newTrackAndConfidenceDropTriggerOnce() {
+        RefreshPolicy policy = new RefreshPolicy();
+        policy.setRefreshInterval(100);
+        policy.shouldRefresh();
+        policy.onRefreshFinished();
+
+        policy.onNewTrack();
+        assertEquals(RefreshPolicy.Reason.NEW_TRACK, policy.shouldRefresh());
+        policy.onRefreshFinished();
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+
+        // 小幅波动与从未识别不触发
+        policy.onRecognition(0.90f, 0.85f);
+        policy.onRecognition(Float.NaN, Float.NaN);
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+        policy.onRecognition(0.90f, Float.NaN);
+        assertEquals(RefreshPolicy.Reason.LOW_CONFIDENCE, policy.shouldRefresh());
+        assertEquals(1, policy.getNewTrackCount());
+        assertEquals(1, policy.getLowConfidenceCount());
+    }
+
+    @Test
+    public void pendingRefreshWaitsForInFlightRefresh() {
+        RefreshPolicy policy = new RefreshPolicy();
+        assertEquals(RefreshPolicy.Reason.INTERVAL, policy.shouldRefresh());
+        policy.onNewTrack();
+        assertEquals(RefreshPolicy.Reason.NONE, policy.shouldRefresh());
+        policy.onRefreshFinished();
+        assertEquals(RefreshPolicy.Reason.NEW_TRACK, policy.shouldRefresh());
+    }
+}
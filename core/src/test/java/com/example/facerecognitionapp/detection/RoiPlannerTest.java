@@ -0,0 +1,71 @@
+package com.example.facerecognitionapp.detection;
+
+import com.example.facerecognitionapp.tracking.FaceTrack;
+import com.example.facerecognitionapp.tracking.FaceTracker;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RoiPlannerTest {
+
+    private static List<FaceTrack> oneFace(float l, float t, float r, float b) {
+        FaceTracker tracker = new FaceTracker();
+        return tracker.update(new float[]{l, t, r, b}, 1, 0);
+    }
+
+    @Test
+    public void firstDetection_isFullScan() {
+        RoiPlanner planner = new RoiPlanner();
+        assertFalse(planner.plan(oneFace(100, 100, 200, 220), 480, 640, new int[4]));
+    }
+
+    @Test
+    public void trackedFace_getsEvenAlignedRoiWithMargin() {
+        RoiPlanner planner = new RoiPlanner();
+        planner.setMargin(0.5f);
+        int[] roi = new int[4];
+        List<FaceTrack> tracks = oneFace(101, 100, 201, 220);
+        planner.plan(tracks, 480, 640, roi);
+        planner.onDetectionResult(false, 1);
+
+        assertTrue(planner.plan(tracks, 480, 640, roi));
+        assertEquals(50, roi[0]);
+        assertEquals(40, roi[1]);
+        assertEquals(252, roi[2]);
+        assertEquals(280, roi[3]);
+        for (int v : roi) {
+            assertEquals(0, v & 1);
+        }
+    }
+
+    @Test
+    public void fullScan_isForcedPeriodicallyAndAfterEmptyRoi() {
+        RoiPlanner planner = new RoiPlanner();
+        planner.setFullScanInterval(3);
+        int[] roi = new int[4];
+        List<FaceTrack> tracks = oneFace(100, 100, 200, 220);
+
+        assertFalse(planner.plan(tracks, 480, 640, roi));
+        assertTrue(planner.plan(tracks, 480, 640, roi));
+        assertTrue(planner.plan(tracks, 480, 640, roi));
+        assertTrue(planner.plan(tracks, 480, 640, roi));
+        assertFalse(planner.plan(tracks, 480, 640, roi));
+
+        assertTrue(planner.plan(tracks, 480, 640, roi));
+        planner.onDetectionResult(true, 0);
+        assertFalse(planner.plan(tracks, 480, 640, roi));
+    }
+
+    @Test
+    public void largeOrMissingFaces_fallBackToFullFrame() {
+        RoiPlanner planner = new RoiPlanner();
+        int[] roi = new int[4];
+        planner.plan(Collections.<FaceTrack>emptyList(), 480, 640, roi);
+        assertFalse(planner.plan(Collections.<FaceTrack>emptyList(), 480, 640, roi));
+        assertFalse(planner.plan(oneFace(0, 0, 400, 500), 480, 640, roi));
+    }
+}
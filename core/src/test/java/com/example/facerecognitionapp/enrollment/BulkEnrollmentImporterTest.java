@@ -0,0 +1,132 @@
+package com.example.facerecognitionapp.enrollment;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BulkEnrollmentImporterTest {
+    private static final int DIMENSION = 8;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void importsAllPhotos_withBoundedInFlight() throws Exception {
+        File photos = tmp.newFolder("photos");
+        for (int i = 0; i < 50; i++) {
+            touch(new File(photos, "face_user" + i + ".jpg"));
+        }
+        touch(new File(photos, "notes.txt"));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        BulkEnrollmentImporter.PhotoProcessor processor = photo -> {
+            int now = inFlight.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return vector(photo.getName().hashCode());
+        };
+
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder("store"), DIMENSION, null)) {
+            BulkEnrollmentImporter importer = new BulkEnrollmentImporter(store, processor, 4, 6);
+            importer.setBatchSize(8);
+            BulkEnrollmentImporter.Report report = importer.importDirectory(photos, tmp.newFile("checkpoint"));
+            assertTrue(report.completed);
+            assertEquals(50, report.total);
+            assertEquals(50, report.imported);
+            assertEquals(50, store.getGallery().size());
+            assertTrue(store.contains("user17"));
+            assertTrue(peak.get() <= 4);
+        }
+    }
+
+    @Test
+    public void cancelledImport_resumesFromCheckpoint() throws Exception {
+        File photos = tmp.newFolder("photos");
+        for (int i = 0; i < 20; i++) {
+            touch(new File(photos, String.format("face_user%02d.jpg", i)));
+        }
+        File checkpoint = new File(tmp.getRoot(), "checkpoint");
+        AtomicInteger calls = new AtomicInteger();
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder("store"), DIMENSION, null)) {
+            BulkEnrollmentImporter[] importer = new BulkEnrollmentImporter[1];
+            importer[0] = new BulkEnrollmentImporter(store, photo -> {
+                if (calls.incrementAndGet() == 5) {
+                    importer[0].cancel();
+                }
+                return vector(calls.get());
+            }, 1, 1);
+            BulkEnrollmentImporter.Report first = importer[0].importDirectory(photos, checkpoint);
+            assertFalse(first.completed);
+            assertEquals(5, first.imported);
+
+            BulkEnrollmentImporter.Report second = new BulkEnrollmentImporter(store, photo -> {
+                calls.incrementAndGet();
+                return vector(1);
+            }, 2, 4).importDirectory(photos, checkpoint);
+            assertTrue(second.completed);
+            assertEquals(5, second.skipped);
+            assertEquals(15, second.imported);
+            assertEquals(20, calls.get());
+            assertEquals(20, store.getGallery().size());
+        }
+    }
+
+    @Test
+    public void noFaceAndFailedPhotos_areCountedAndCheckpointed() throws Exception {
+        File photos = tmp.newFolder("photos");
+        touch(new File(photos, "face_alice.jpg"));
+        touch(new File(photos, "face_blank.png"));
+        touch(new File(photos, "face_broken.jpg"));
+        BulkEnrollmentImporter.PhotoProcessor processor = photo -> {
+            if (photo.getName().contains("blank")) {
+                return null;
+            }
+            if (photo.getName().contains("broken")) {
+                throw new IOException("解码失败");
+            }
+            return vector(1);
+        };
+        File checkpoint = new File(tmp.getRoot(), "checkpoint");
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder("store"), DIMENSION, null)) {
+            BulkEnrollmentImporter.Report report =
+                    new BulkEnrollmentImporter(store, processor, 2, 2).importDirectory(photos, checkpoint);
+            assertEquals(1, report.imported);
+            assertEquals(1, report.noFace);
+            assertEquals(1, report.failed);
+            assertTrue(report.completed);
+
+            BulkEnrollmentImporter.Report again =
+                    new BulkEnrollmentImporter(store, processor, 2, 2).importDirectory(photos, checkpoint);
+            assertEquals(3, again.skipped);
+            assertEquals(0, again.imported);
+        }
+    }
+
+    @Test
+    public void nameOf_stripsDirectoryExtensionAndPrefix() {
+        assertEquals("john", BulkEnrollmentImporter.nameOf("dept/face_john.jpg"));
+        assertEquals("mary.s", BulkEnrollmentImporter.nameOf("mary.s.png"));
+        assertEquals("face_", BulkEnrollmentImporter.nameOf("face_.jpg"));
+    }
+
+    private static void touch(File file) throws IOException {
+        assertTrue(file.createNewFile());
+    }
+
+    private static float[] vector(int seed) {
+        float[] v = new float[DIMENSION];
+        v[Math.floorMod(seed, DIMENSION)] = 1f;
+        return v;
+    }
+}
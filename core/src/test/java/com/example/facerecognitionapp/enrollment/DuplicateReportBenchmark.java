@@ -0,0 +1,110 @@
+package com.example.facerecognitionapp.enrollment;
+
+import com.example.facerecognitionapp.recognition.ArrayVectorStore;
+import com.example.facerecognitionapp.recognition.NamedVectorStore;
+
+import java.util.Random;
+
+/**
+ * 全库近似重复报告基准：n 个随机身份中混入 1% 的近似副本（以另一个名字注册），
+ * 对比 LSH 候选对比较与两两比较（按前 SAMPLE 人实测后按 n^2 外推）的耗时与召回
+ * 手动运行：main [人数] [维度]
+ */
+public class DuplicateReportBenchmark {
+    private static final int SAMPLE = 5000;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int dim = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        Random random = new Random(1);
+        ArrayVectorStore vectors = new ArrayVectorStore(dim, n);
+        int planted = n / 100;
+        int unique = n - planted;
+        for (int i = 0; i < unique; i++) {
+            vectors.add(unit(random, dim));
+        }
+        float[] v = new float[dim];
+        for (int i = 0; i < planted; i++) {
+            vectors.getEmbedding(random.nextInt(unique), v);
+            vectors.add(near(random, v, 0.2f));
+        }
+        NamedVectorStore gallery = new NamedVectorStore() {
+            @Override
+            public String getName(int index) {
+                return "user" + index;
+            }
+
+            @Override
+            public int getDimension() {
+                return vectors.getDimension();
+            }
+
+            @Override
+            public int size() {
+                return vectors.size();
+            }
+
+            @Override
+            public float dot(int index, float[] query) {
+                return vectors.dot(index, query);
+            }
+
+            @Override
+            public void getEmbedding(int index, float[] out) {
+                vectors.getEmbedding(index, out);
+            }
+        };
+
+        DuplicateReport report = DuplicateReport.build(gallery, NearDuplicateDetector.DEFAULT_THRESHOLD);
+        System.out.println("lsh        : " + report);
+        System.out.printf("planted %d duplicates, %d identities in duplicate groups%n", planted,
+                report.getDuplicateCount());
+
+        int sample = Math.min(SAMPLE, n);
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int a = 0; a < sample; a++) {
+            vectors.getEmbedding(a, v);
+            for (int b = a + 1; b < sample; b++) {
+                if (vectors.dot(b, v) >= NearDuplicateDetector.DEFAULT_THRESHOLD) {
+                    sink++;
+                }
+            }
+        }
+        double sampleSeconds = (System.nanoTime() - start) / 1e9;
+        double scale = (double) n * (n - 1) / ((double) sample * (sample - 1));
+        System.out.printf("all pairs  : %.1fs for %d identities, ~%.0fs extrapolated to %d (%d)%n",
+                sampleSeconds, sample, sampleSeconds * scale, n, sink);
+    }
+
+    private static float[] unit(Random random, int dim) {
+        float[] v = new float[dim];
+        float norm = 0f;
+        for (int i = 0; i < dim; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dim; i++) {
+            v[i] *= inv;
+        }
+        return v;
+    }
+
+    private static float[] near(Random random, float[] v, float noise) {
+        float[] delta = unit(random, v.length);
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) {
+            out[i] = v[i] + noise * delta[i];
+        }
+        float norm = 0f;
+        for (float x : out) {
+            norm += x * x;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < out.length; i++) {
+            out[i] *= inv;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.facerecognitionapp.enrollment;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EnrollmentStoreTest {
+    private static final int DIMENSION = 8;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void putUpdateRemove_surviveReopenByLogReplay() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            assertEquals(0, store.getGallery().size());
+            store.put("alice", vector(1));
+            store.put("bob", vector(2));
+            store.put("carol", vector(3));
+            store.put("bob", vector(4));
+            assertTrue(store.remove("alice"));
+            assertFalse(store.remove("dave"));
+            assertEquals(List.of("bob", "carol"), names(store.getGallery()));
+            assertEquals(5, store.getLogRecordCount());
+        }
+
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            EnrollmentGallery gallery = store.getGallery();
+            assertEquals(List.of("bob", "carol"), names(gallery));
+            assertEquals(1f, gallery.dot(0, vector(4)), 1e-6f);
+            assertEquals(5, store.getLogRecordCount());
+            assertTrue(store.contains("bob"));
+            assertFalse(store.contains("alice"));
+        }
+    }
+
+    @Test
+    public void compaction_writesSnapshotAndStartsEmptyLog() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        EnrollmentGallery before;
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            for (int i = 0; i < 10; i++) {
+                store.put("user" + i, vector(i));
+            }
+            store.compact();
+            assertEquals(1, store.getGeneration());
+            assertEquals(0, store.getLogRecordCount());
+            // 压缩后在快照基线上继续修改：替换与删除都引用快照序号
+            store.put("user3", vector(30));
+            store.remove("user5");
+            store.put("user10", vector(10));
+            before = store.getGallery();
+        }
+        String[] files = dir.list();
+        assertNotNull(files);
+        Arrays.sort(files);
+        assertArrayEquals(new String[]{"enrollment.1.log", "snapshot.1.bin"}, files);
+
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            assertEquals(3, store.getLogRecordCount());
+            assertSameContent(before, store.getGallery());
+            assertEquals(List.of("user0", "user1", "user2", "user4", "user6", "user7", "user8", "user9",
+                    "user3", "user10"), names(store.getGallery()));
+        }
+    }
+
+    @Test
+    public void backgroundCompaction_triggersAtThreshold() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        List<Runnable> tasks = new ArrayList<>();
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, tasks::add)) {
+            store.setCompactionThreshold(4);
+            for (int i = 0; i < 3; i++) {
+                store.put("user" + i, vector(i));
+            }
+            assertTrue(tasks.isEmpty());
+            store.put("user3", vector(3));
+            assertEquals(1, tasks.size());
+
+            tasks.get(0).run();
+            assertEquals(1, store.getGeneration());
+            assertEquals(4, store.getGallery().size());
+        }
+    }
+
+    @Test
+    public void tornTailRecord_isDroppedAndLogStaysAppendable() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            store.put("alice", vector(1));
+            store.put("bob", vector(2));
+        }
+        File log = new File(dir, "enrollment.0.log");
+        long length = log.length();
+        try (RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+            // 模拟写到一半崩溃：最后一条记录只留下一部分
+            raf.setLength(length - 5);
+        }
+
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            assertEquals(List.of("alice"), names(store.getGallery()));
+            store.put("carol", vector(3));
+        }
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            assertEquals(List.of("alice", "carol"), names(store.getGallery()));
+        }
+    }
+
+    @Test
+    public void interruptedCompaction_isRecoveredByReplayingBothLogs() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        EnrollmentGallery before;
+        File blocker = new File(dir, "snapshot.1.bin");
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            store.put("alice", vector(1));
+            store.put("bob", vector(2));
+            // 新快照的位置被占用，写快照失败，相当于切换日志后、快照落盘前崩溃
+            assertTrue(blocker.mkdirs());
+            try {
+                store.compact();
+                fail("快照写入应失败");
+            } catch (IOException expected) {
+                // 期望
+            }
+            // 失败后仍以内存中的视图为基线继续接受修改
+            store.put("alice", vector(5));
+            store.put("carol", vector(3));
+            before = store.getGallery();
+        }
+        assertTrue(blocker.delete());
+
+        List<Runnable> tasks = new ArrayList<>();
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, tasks::add)) {
+            assertSameContent(before, store.getGallery());
+            assertEquals(1, store.getGeneration());
+            // 恢复后安排一次压缩
+            assertEquals(1, tasks.size());
+            tasks.get(0).run();
+            assertEquals(2, store.getGeneration());
+            assertSameContent(before, store.getGallery());
+        }
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            assertSameContent(before, store.getGallery());
+            assertEquals(0, store.getLogRecordCount());
+        }
+    }
+
+    @Test
+    public void publishedGalleryIsImmutable() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            List<EnrollmentGallery> published = new ArrayList<>();
+            store.setListener(published::add);
+            store.put("alice", vector(1));
+            EnrollmentGallery first = store.getGallery();
+            store.put("alice", vector(2));
+            store.remove("alice");
+            assertEquals(3, published.size());
+            assertEquals(1, first.size());
+            assertEquals(1f, first.dot(0, vector(1)), 1e-6f);
+            assertEquals(0, store.getGallery().size());
+            assertNotEquals(first.getVersion(), store.getGallery().getVersion());
+        }
+    }
+
+    @Test
+    public void retainedBase_staysOpenAcrossCompactionUntilReleased() throws Exception {
+        File dir = tmp.newFolder("enrollment");
+        try (EnrollmentStore store = EnrollmentStore.open(dir, DIMENSION, null)) {
+            store.put("alice", vector(1));
+            store.compact();
+            EnrollmentGallery old = store.getGallery();
+            Closeable lease = old.retainBase();
+            assertNotNull(lease);
+            store.put("bob", vector(2));
+            store.compact();
+            // 旧视图仍可读，直到归还引用
+            assertFalse(old.isBaseClosed());
+            assertEquals(1f, old.dot(0, vector(1)), 1e-6f);
+            lease.close();
+            assertTrue(old.isBaseClosed());
+            assertNull(old.retainBase());
+            // 重复归还无效，不影响当前快照
+            lease.close();
+            assertFalse(store.getGallery().isBaseClosed());
+        }
+    }
+
+    private static void assertSameContent(EnrollmentGallery expected, EnrollmentGallery actual) {
+        assertEquals(names(expected), names(actual));
+        float[] a = new float[DIMENSION];
+        float[] b = new float[DIMENSION];
+        for (int i = 0; i < expected.size(); i++) {
+            expected.getEmbedding(i, a);
+            actual.getEmbedding(i, b);
+            assertArrayEquals(a, b, 0f);
+        }
+    }
+
+    private static List<String> names(EnrollmentGallery gallery) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < gallery.size(); i++) {
+            names.add(gallery.getName(i));
+        }
+        return names;
+    }
+
+    /**
+     * 单位向量，seed 决定方向
+     */
+    private static float[] vector(int seed) {
+        float[] v = new float[DIMENSION];
+        v[seed % DIMENSION] = 1f;
+        if (seed >= DIMENSION) {
+            v[(seed + 1) % DIMENSION] = 0.5f;
+        }
+        return v;
+    }
+}
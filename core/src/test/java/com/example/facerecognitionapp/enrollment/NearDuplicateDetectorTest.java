@@ -0,0 +1,140 @@
+package com.example.facerecognitionapp.enrollment;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NearDuplicateDetectorTest {
+    private static final int DIM = 64;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void add_reportsDuplicatesAgainstGalleryAndEarlierInserts() throws Exception {
+        Random random = new Random(1);
+        float[] alice = unit(random);
+        float[] bob = unit(random);
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder(), DIM, null)) {
+            store.put("alice", alice);
+            store.put("bob", bob);
+            for (int i = 0; i < 200; i++) {
+                store.put("user" + i, unit(random));
+            }
+            NearDuplicateDetector detector = new NearDuplicateDetector(store.getGallery(), DIM,
+                    NearDuplicateDetector.DEFAULT_THRESHOLD);
+
+            // 同一照片换了名字
+            List<NearDuplicateDetector.Duplicate> found = detector.add("alice.smith", near(random, alice));
+            assertEquals(1, found.size());
+            assertEquals("alice.smith", found.get(0).name);
+            assertEquals("alice", found.get(0).otherName);
+            assertTrue(found.get(0).score >= NearDuplicateDetector.DEFAULT_THRESHOLD);
+
+            // 同名视为更新
+            assertTrue(detector.add("bob", near(random, bob)).isEmpty());
+            assertTrue(detector.add("carol", unit(random)).isEmpty());
+
+            // 与本次已导入的条目重复
+            found = detector.add("a.smith", near(random, alice));
+            assertEquals(2, found.size());
+            assertTrue(found.get(0).score >= found.get(1).score);
+        }
+    }
+
+    @Test
+    public void report_groupsDuplicatesTransitively() throws Exception {
+        Random random = new Random(2);
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder(), DIM, null)) {
+            float[] alice = unit(random);
+            float[] bob = unit(random);
+            store.put("alice", alice);
+            store.put("alice2", near(random, alice));
+            store.put("alice3", near(random, alice));
+            for (int i = 0; i < 500; i++) {
+                store.put("user" + i, unit(random));
+            }
+            store.put("bob", bob);
+            store.put("robert", near(random, bob));
+
+            DuplicateReport report = DuplicateReport.build(store.getGallery(),
+                    NearDuplicateDetector.DEFAULT_THRESHOLD);
+            assertEquals(505, report.identities);
+            assertEquals(2, report.groups.size());
+            assertEquals(5, report.getDuplicateCount());
+            DuplicateReport.Group first = report.groups.get(0);
+            assertArrayEquals(new String[]{"alice", "alice2", "alice3"}, first.names);
+            assertArrayEquals(new String[]{"bob", "robert"}, report.groups.get(1).names);
+            assertTrue(first.maxScore >= NearDuplicateDetector.DEFAULT_THRESHOLD);
+            assertTrue(report.candidatePairs < 505L * 504 / 2 / 100);
+        }
+    }
+
+    @Test
+    public void bulkImport_countsDuplicates() throws Exception {
+        Random random = new Random(3);
+        float[] alice = unit(random);
+        File dir = tmp.newFolder("photos");
+        for (String name : new String[]{"face_alice.jpg", "face_alice_copy.jpg", "face_bob.jpg"}) {
+            assertTrue(new File(dir, name).createNewFile());
+        }
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder(), DIM, null)) {
+            float[] bob = unit(random);
+            float[] copy = near(random, alice);
+            BulkEnrollmentImporter importer = new BulkEnrollmentImporter(store, photo -> {
+                switch (photo.getName()) {
+                    case "face_alice.jpg":
+                        return alice;
+                    case "face_alice_copy.jpg":
+                        return copy;
+                    default:
+                        return bob;
+                }
+            }, 1, 1);
+            importer.setDuplicateDetector(new NearDuplicateDetector(null, DIM,
+                    NearDuplicateDetector.DEFAULT_THRESHOLD));
+            BulkEnrollmentImporter.Report report = importer.importDirectory(dir,
+                    new File(tmp.getRoot(), "import.checkpoint"));
+            assertEquals(3, report.imported);
+            assertEquals(1, report.duplicates);
+        }
+    }
+
+    private static float[] unit(Random random) {
+        float[] v = new float[DIM];
+        float norm = 0f;
+        for (int i = 0; i < DIM; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < DIM; i++) {
+            v[i] *= inv;
+        }
+        return v;
+    }
+
+    /**
+     * 近似副本，余弦约 0.99
+     */
+    private static float[] near(Random random, float[] v) {
+        float[] noise = unit(random);
+        float[] out = new float[DIM];
+        float norm = 0f;
+        for (int i = 0; i < DIM; i++) {
+            out[i] = v[i] + 0.1f * noise[i];
+            norm += out[i] * out[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < DIM; i++) {
+            out[i] *= inv;
+        }
+        return out;
+    }
+}
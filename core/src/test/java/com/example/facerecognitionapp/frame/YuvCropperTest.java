@@ -0,0 +1,66 @@
+package com.example.facerecognitionapp.frame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class YuvCropperTest {
+
+    @Test
+    public void cropToNv21_copiesLumaAndInterleavesChroma() {
+        int w = 8;
+        int h = 6;
+        int rowStride = 10; // 带行填充
+        ByteBuffer y = ByteBuffer.allocate(rowStride * h);
+        for (int r = 0; r < h; r++) {
+            for (int c = 0; c < w; c++) {
+                y.put(r * rowStride + c, (byte) (r * 16 + c));
+            }
+        }
+        // 半平面交错色度（pixelStride = 2），U/V 共享底层缓冲区
+        ByteBuffer uv = ByteBuffer.allocate(rowStride * h / 2);
+        for (int r = 0; r < h / 2; r++) {
+            for (int c = 0; c < w / 2; c++) {
+                uv.put(r * rowStride + c * 2, (byte) (100 + r * 10 + c));      // U
+                uv.put(r * rowStride + c * 2 + 1, (byte) (200 + r * 10 + c));  // V
+            }
+        }
+        ByteBuffer u = uv.duplicate();
+        ByteBuffer v = ByteBuffer.wrap(uv.array(), 1, uv.capacity() - 1).slice();
+
+        byte[] out = new byte[YuvCropper.nv21Size(4, 2)];
+        YuvCropper.cropToNv21(y, rowStride, 1, u, rowStride, 2, v, rowStride, 2, 2, 2, 4, 2, out);
+
+        assertArrayEquals(new byte[]{
+                34, 35, 36, 37,
+                50, 51, 52, 53,
+                (byte) 211, 111, (byte) 212, 112}, out);
+    }
+
+    @Test
+    public void uprightToRaw_matchesLumaImageRotation() {
+        int rawW = 8;
+        int rawH = 6;
+        byte[] pixels = new byte[rawW * rawH];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) i;
+        }
+        int[] raw = new int[4];
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            LumaImage image = new LumaImage();
+            image.set(ByteBuffer.wrap(pixels), rawW, 1, rawW, rawH, rotation);
+            // 正立坐标的单像素矩形应映射到同一个原始像素
+            for (int uy = 0; uy < image.getUprightHeight(); uy++) {
+                for (int ux = 0; ux < image.getUprightWidth(); ux++) {
+                    FrameGeometry.uprightToRaw(ux, uy, ux + 1, uy + 1, rotation, rawW, rawH, raw);
+                    assertEquals(1, raw[2] - raw[0]);
+                    assertEquals(1, raw[3] - raw[1]);
+                    assertEquals("rotation " + rotation,
+                            image.getUpright(ux, uy), image.getRaw(raw[0], raw[1]));
+                }
+            }
+        }
+    }
+}
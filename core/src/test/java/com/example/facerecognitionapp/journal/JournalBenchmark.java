@@ -0,0 +1,51 @@
+package com.example.facerecognitionapp.journal;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 事件日志写入基准：每条事件的耗时与写线程分配的字节数（应为0），对比逐条格式化日志字符串的开销
+ * 手动运行：main [事件数]
+ */
+public class JournalBenchmark {
+    private static final int CAPACITY = 65536;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        File file = File.createTempFile("events", ".journal");
+        file.delete();
+        file.deleteOnExit();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        try (RecognitionJournal journal = RecognitionJournal.open(file, CAPACITY,
+                RecognitionJournal.DEFAULT_FLUSH_INTERVAL_MILLIS)) {
+            int identity = RecognitionJournal.identityOf("alice");
+            // 预热
+            for (int i = 0; i < events / 4; i++) {
+                journal.append(i, i & 7, 3, identity, 0.9f, 0.8f, 0.7f, 10f, 20f, 110f, 140f);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                journal.append(System.currentTimeMillis(), i & 7, 3, identity, 0.9f, 0.8f, 0.7f,
+                        10f, 20f, 110f, 140f);
+            }
+            long elapsed = System.nanoTime() - start;
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+            System.out.printf("journal append : %6.1f ns/event, %d bytes allocated over %d events%n",
+                    elapsed / (double) events, allocated, events);
+        }
+
+        // 对照：原先逐帧 Log.d 的字符串拼接（不含实际写 logcat 的系统调用）
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            String line = "track " + (i & 7) + " 识别为 alice score " + 0.9f + " box [10.0, 20.0, 110.0, 140.0]";
+            sink += line.length();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("string format  : %6.1f ns/event (%d)%n", elapsed / (double) events, sink);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.facerecognitionapp.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketIndex_isMonotonicAndBoundsContainValue() {
+        int previous = -1;
+        for (long v = 0; v < 1_000_000; v += (v < 64 ? 1 : v / 64)) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(index >= previous);
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= v);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < v);
+            }
+            previous = index;
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordMicros(i * 10L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertEquals(5005, histogram.getMeanMicros());
+        assertRelative(5000, histogram.percentileMicros(50));
+        assertRelative(9500, histogram.percentileMicros(95));
+        assertRelative(9900, histogram.percentileMicros(99));
+        assertEquals(10_000, histogram.percentileMicros(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(50));
+    }
+
+    @Test
+    public void snapshot_countsFramesPerStage() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.onFrameReceived();
+        metrics.onFrameReceived();
+        metrics.onFrameDetected();
+        metrics.onFrameDropped();
+        metrics.record(PipelineMetrics.Stage.DETECT, 20_000_000L);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.framesReceived);
+        assertEquals(1, snapshot.framesDetected);
+        assertEquals(1, snapshot.framesDropped);
+        assertEquals(1, snapshot.get(PipelineMetrics.Stage.DETECT).count);
+        assertRelative(20_000, snapshot.get(PipelineMetrics.Stage.DETECT).p50Micros);
+        assertEquals(0, snapshot.get(PipelineMetrics.Stage.DRAW).count);
+    }
+
+    private static void assertRelative(long expected, long actual) {
+        // 子桶相对误差 1/8
+        assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 8 + 1);
+    }
+}
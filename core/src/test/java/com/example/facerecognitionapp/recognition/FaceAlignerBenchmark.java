@@ -0,0 +1,49 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.FrameCopyPool;
+
+import java.nio.FloatBuffer;
+
+/**
+ * 人脸对齐JVM基准：640x480 直接缓冲区帧（旋转270），单线程对齐到 112x112 池化张量
+ * 手动运行：直接执行 main，目标为单核每张人脸远低于 1 ms
+ */
+public class FaceAlignerBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    public static void main(String[] args) {
+        // 与相机帧一样使用直接缓冲区（流水线模式下的池化拷贝）
+        Frame frame = new FrameCopyPool(1).copyOf(FaceAlignerTest.uprightGradientFrame(270));
+        float[] template = {
+                73.5318f, 51.5014f, 38.2946f, 51.6963f, 56.0252f, 71.7366f, 70.7299f, 92.2041f, 41.5493f, 92.3655f
+        };
+        // 约 190 像素宽、轻微倾斜的人脸
+        float[] landmarks = FaceAlignerTest.transform(template, 1.7f, 0.15, 120f, 200f);
+
+        for (FaceAligner.Format format : FaceAligner.Format.values()) {
+            FaceAligner aligner = new FaceAligner(FaceAligner.DEFAULT_SIZE, format);
+            FaceTensorPool pool = new FaceTensorPool(4, aligner.getTensorSize());
+            float checksum = 0f;
+            for (int i = 0; i < WARMUP; i++) {
+                checksum += alignOnce(aligner, pool, frame, landmarks);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                checksum += alignOnce(aligner, pool, frame, landmarks);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-5s %dx%d: %8.1f us/face  (checksum %.1f)%n", format,
+                    aligner.getSize(), aligner.getSize(), elapsed / 1000.0 / ITERATIONS, checksum);
+        }
+    }
+
+    private static float alignOnce(FaceAligner aligner, FaceTensorPool pool, Frame frame, float[] landmarks) {
+        FloatBuffer tensor = pool.acquire();
+        aligner.align(frame, landmarks, tensor);
+        float value = tensor.get(1234);
+        pool.release(tensor);
+        return value;
+    }
+}
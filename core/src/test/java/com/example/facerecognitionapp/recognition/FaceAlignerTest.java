@@ -0,0 +1,150 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.model.FaceDetectionResult.FaceInfo;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class FaceAlignerTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    // 模板（112x112）中的五点，与 FaceAligner 一致
+    private static final float[] TEMPLATE = {
+            73.5318f, 51.5014f, 38.2946f, 51.6963f, 56.0252f, 71.7366f, 70.7299f, 92.2041f, 41.5493f, 92.3655f
+    };
+
+    @Test
+    public void estimatesSimilarityFromTransformedTemplate() {
+        float scale = 1.7f;
+        double angle = Math.toRadians(20);
+        float[] landmarks = transform(TEMPLATE, scale, angle, 150f, 90f);
+
+        FaceAligner aligner = new FaceAligner();
+        assertTrue(aligner.estimateTransform(landmarks));
+        float[] point = new float[2];
+        for (int i = 0; i < FaceInfo.LANDMARK_COUNT; i++) {
+            aligner.mapToUpright(TEMPLATE[2 * i], TEMPLATE[2 * i + 1], point);
+            assertEquals(landmarks[2 * i], point[0], 1e-3f);
+            assertEquals(landmarks[2 * i + 1], point[1], 1e-3f);
+        }
+        assertFalse(aligner.estimateTransform(new float[10]));
+    }
+
+    @Test
+    public void samplesUprightCoordinatesForEveryRotation() {
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            // 正立坐标 (ux, uy) 处的亮度 = ux / 4，检验采样点经过了正确的旋转换算
+            Frame frame = uprightGradientFrame(rotation);
+            int uprightWidth = rotation % 180 == 0 ? WIDTH : HEIGHT;
+            float[] landmarks = transform(TEMPLATE, 1.5f, 0, uprightWidth / 2f - 84f, 60f);
+
+            FaceAligner aligner = new FaceAligner(FaceAligner.DEFAULT_SIZE, FaceAligner.Format.LUMA);
+            FloatBuffer out = FloatBuffer.allocate(aligner.getTensorSize());
+            assertTrue(aligner.align(frame, landmarks, out));
+            assertEquals(aligner.getTensorSize(), out.position());
+
+            float[] point = new float[2];
+            for (int u = 8; u < 112; u += 24) {
+                aligner.mapToUpright(u + 0.5f, 50.5f, point);
+                float expected = ((int) point[0] / 4 - 127.5f) / 128f;
+                assertEquals("rotation " + rotation, expected, out.get(50 * 112 + u), 0.02f);
+            }
+        }
+    }
+
+    @Test
+    public void rgbOutputMatchesYuvColor() {
+        // 均匀的纯色帧：Y=150, U=100, V=180
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        java.util.Arrays.fill(data, 0, WIDTH * HEIGHT, (byte) 150);
+        java.util.Arrays.fill(data, WIDTH * HEIGHT, WIDTH * HEIGHT * 5 / 4, (byte) 100);
+        java.util.Arrays.fill(data, WIDTH * HEIGHT * 5 / 4, data.length, (byte) 180);
+        Frame frame = YuvFrame.fromI420(data, WIDTH, HEIGHT, 90, 0);
+
+        FaceAligner aligner = new FaceAligner();
+        FloatBuffer out = FloatBuffer.allocate(aligner.getTensorSize());
+        assertTrue(aligner.align(frame, transform(TEMPLATE, 2f, 0.3, 100f, 100f), out));
+        float r = 150 + 1.402f * 52;
+        float g = 150 - 0.344136f * -28 - 0.714136f * 52;
+        float b = 150 + 1.772f * -28;
+        int pixel = (60 * 112 + 60) * 3;
+        assertEquals((r - 127.5f) / 128f, out.get(pixel), 1e-3f);
+        assertEquals((g - 127.5f) / 128f, out.get(pixel + 1), 1e-3f);
+        assertEquals((b - 127.5f) / 128f, out.get(pixel + 2), 1e-3f);
+    }
+
+    @Test
+    public void alignIntoPooledBufferDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Frame frame = uprightGradientFrame(270);
+        float[] landmarks = transform(TEMPLATE, 1.8f, 0.1, 100f, 120f);
+        FaceAligner aligner = new FaceAligner();
+        FaceTensorPool pool = new FaceTensorPool(2, aligner.getTensorSize());
+        for (int i = 0; i < 2_000; i++) {
+            FloatBuffer out = pool.acquire();
+            aligner.align(frame, landmarks, out);
+            pool.release(out);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000; i++) {
+            FloatBuffer out = pool.acquire();
+            aligner.align(frame, landmarks, out);
+            pool.release(out);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+
+        assertNotNull(pool.acquire());
+        assertNotNull(pool.acquire());
+        assertNull(pool.acquire());
+    }
+
+    static float[] transform(float[] points, float scale, double angle, float dx, float dy) {
+        float cos = (float) (scale * Math.cos(angle));
+        float sin = (float) (scale * Math.sin(angle));
+        float[] out = new float[points.length];
+        for (int i = 0; i < points.length; i += 2) {
+            out[i] = cos * points[i] - sin * points[i + 1] + dx;
+            out[i + 1] = sin * points[i] + cos * points[i + 1] + dy;
+        }
+        return out;
+    }
+
+    /**
+     * 正立坐标下亮度 = ux / 4 的帧（原始平面按 rotation 反向排布）
+     */
+    static Frame uprightGradientFrame(int rotation) {
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        for (int ry = 0; ry < HEIGHT; ry++) {
+            for (int rx = 0; rx < WIDTH; rx++) {
+                int ux;
+                switch (rotation) {
+                    case 90:
+                        ux = HEIGHT - 1 - ry;
+                        break;
+                    case 180:
+                        ux = WIDTH - 1 - rx;
+                        break;
+                    case 270:
+                        ux = ry;
+                        break;
+                    default:
+                        ux = rx;
+                        break;
+                }
+                data[ry * WIDTH + rx] = (byte) (ux / 4);
+            }
+        }
+        java.util.Arrays.fill(data, WIDTH * HEIGHT, data.length, (byte) 128);
+        return YuvFrame.fromI420(data, WIDTH, HEIGHT, rotation, 0);
+    }
+}
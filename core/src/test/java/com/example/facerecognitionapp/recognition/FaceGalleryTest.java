@@ -0,0 +1,60 @@
+package com.example.facerecognitionapp.recognition;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FaceGalleryTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void writeThenOpen_roundTripsVectorsAndNames() throws Exception {
+        File file = tmp.newFile("gallery.bin");
+        List<String> names = Arrays.asList("lax", "cx", "张三");
+        List<float[]> embeddings = Arrays.asList(
+                new float[]{1f, 0f, 0f},
+                new float[]{0f, 1f, 0f},
+                new float[]{0f, 0.6f, 0.8f});
+
+        FaceGalleryWriter.write(file, 3, names, embeddings, 42L);
+
+        try (FaceGallery gallery = FaceGallery.open(file)) {
+            assertEquals(3, gallery.size());
+            assertEquals(3, gallery.getDimension());
+            assertEquals(42L, gallery.getSourceFingerprint());
+            assertEquals("张三", gallery.getName(2));
+            assertEquals("lax", gallery.getName(0));
+
+            float[] out = new float[3];
+            gallery.getEmbedding(2, out);
+            assertArrayEquals(new float[]{0f, 0.6f, 0.8f}, out, 0f);
+
+            assertEquals(2, gallery.findBestIndex(new float[]{0f, 0.5f, 0.9f}));
+            assertEquals(0.8f, gallery.dot(2, new float[]{0f, 0f, 1f}), 1e-6f);
+        }
+    }
+
+    @Test
+    public void emptyGallery_hasNoBestMatch() throws Exception {
+        File file = tmp.newFile("empty.bin");
+        FaceGalleryWriter.write(file, 4, Arrays.asList(), Arrays.asList(), 0L);
+        try (FaceGallery gallery = FaceGallery.open(file)) {
+            assertEquals(0, gallery.size());
+            assertEquals(-1, gallery.findBestIndex(new float[4]));
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void open_rejectsForeignFile() throws Exception {
+        File file = tmp.newFile("junk.bin");
+        java.nio.file.Files.write(file.toPath(), new byte[64]);
+        FaceGallery.open(file);
+    }
+}
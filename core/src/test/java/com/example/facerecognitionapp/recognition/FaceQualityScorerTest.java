@@ -0,0 +1,117 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FaceQualityScorerTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    public void sharpFrontalFaceIsGood() {
+        FaceQualityScorer scorer = new FaceQualityScorer();
+        LumaImage image = image(texture(128, 60), 90);
+        FaceDetectionResult.FaceInfo face = face(60, 40, 180, 200);
+        assertEquals(FaceQualityScorer.Verdict.GOOD, scorer.evaluate(image, face));
+        assertTrue(scorer.getScore() > 0f && scorer.getScore() <= 1f);
+        assertEquals(128f, scorer.getBrightness(), 10f);
+    }
+
+    @Test
+    public void rejectsBlurExposureAndPose() {
+        FaceQualityScorer scorer = new FaceQualityScorer();
+        FaceDetectionResult.FaceInfo face = face(60, 40, 180, 200);
+
+        assertEquals(FaceQualityScorer.Verdict.BLURRY, scorer.evaluate(image(blur(texture(128, 60)), 0), face));
+        assertEquals(FaceQualityScorer.Verdict.UNDEREXPOSED, scorer.evaluate(image(texture(25, 20), 0), face));
+        assertEquals(FaceQualityScorer.Verdict.OVEREXPOSED, scorer.evaluate(image(texture(235, 15), 0), face));
+
+        LumaImage good = image(texture(128, 60), 0);
+        face.headEulerAngleY = 40f;
+        assertEquals(FaceQualityScorer.Verdict.BAD_POSE, scorer.evaluate(good, face));
+        face.headEulerAngleY = 5f;
+        assertEquals(FaceQualityScorer.Verdict.GOOD, scorer.evaluate(good, face));
+        assertEquals(FaceQualityScorer.Verdict.TOO_SMALL, scorer.evaluate(good, face(10, 10, 40, 40)));
+        assertEquals(1, scorer.getCount(FaceQualityScorer.Verdict.BLURRY));
+        assertEquals(1, scorer.getCount(FaceQualityScorer.Verdict.GOOD));
+    }
+
+    @Test
+    public void evaluateDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        FaceQualityScorer scorer = new FaceQualityScorer();
+        LumaImage image = image(texture(128, 60), 270);
+        FaceDetectionResult.FaceInfo face = face(40, 60, 200, 260);
+        for (int i = 0; i < 20_000; i++) {
+            scorer.evaluate(image, face);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            scorer.evaluate(image, face);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static FaceDetectionResult.FaceInfo face(float left, float top, float right, float bottom) {
+        FaceDetectionResult.FaceInfo face = new FaceDetectionResult.FaceInfo();
+        face.setBoundingBox(left, top, right, bottom);
+        return face;
+    }
+
+    private static LumaImage image(byte[] luma, int rotation) {
+        LumaImage image = new LumaImage();
+        image.set(ByteBuffer.wrap(luma), WIDTH, 1, WIDTH, HEIGHT, rotation);
+        return image;
+    }
+
+    /**
+     * 以 mean 为中心的低频明暗结构（幅度 amplitude）加细小噪声，模拟五官轮廓与皮肤纹理
+     */
+    private static byte[] texture(int mean, int amplitude) {
+        Random random = new Random(mean);
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                double structure = amplitude * Math.sin(x / 6.0) * Math.cos(y / 7.0);
+                int v = (int) (mean + structure) + random.nextInt(21) - 10;
+                luma[y * WIDTH + x] = (byte) Math.max(0, Math.min(255, v));
+            }
+        }
+        return luma;
+    }
+
+    /**
+     * 7x7 均值模糊，保持均值基本不变
+     */
+    private static byte[] blur(byte[] luma) {
+        byte[] out = new byte[luma.length];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dy = -3; dy <= 3; dy++) {
+                    for (int dx = -3; dx <= 3; dx++) {
+                        int sx = Math.min(WIDTH - 1, Math.max(0, x + dx));
+                        int sy = Math.min(HEIGHT - 1, Math.max(0, y + dy));
+                        sum += luma[sy * WIDTH + sx] & 0xFF;
+                        count++;
+                    }
+                }
+                out[y * WIDTH + x] = (byte) (sum / count);
+            }
+        }
+        return out;
+    }
+}
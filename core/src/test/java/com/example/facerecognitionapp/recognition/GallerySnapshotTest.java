@@ -0,0 +1,140 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.enrollment.EnrollmentGallery;
+import com.example.facerecognitionapp.enrollment.EnrollmentStore;
+import com.example.facerecognitionapp.frame.LumaImage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class GallerySnapshotTest {
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 160;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void replacedSnapshot_isReclaimedAfterLastRelease() throws Exception {
+        FaceRecognizer recognizer = new FaceRecognizer(new ThumbnailFaceEmbedder());
+        AtomicInteger closed = new AtomicInteger();
+        Random random = new Random(1);
+        EnrollmentGallery first;
+        EnrollmentGallery second;
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder("store"), 256, null)) {
+            store.put("alice", vector(random));
+            first = store.getGallery();
+            store.put("bob", vector(random));
+            second = store.getGallery();
+        }
+        recognizer.setGallery(first, null, closed::incrementAndGet);
+        long firstVersion = recognizer.getGalleryVersion();
+
+        GallerySnapshot inFlight = recognizer.acquireGallery();
+        recognizer.setGallery(second, null, closed::incrementAndGet);
+        assertTrue(recognizer.getGalleryVersion() > firstVersion);
+        // 比对仍持有旧版本，资源不能关闭
+        assertEquals(0, closed.get());
+        assertFalse(inFlight.isReclaimed());
+        assertEquals(1, inFlight.gallery.size());
+
+        inFlight.release();
+        assertEquals(1, closed.get());
+        assertTrue(inFlight.isReclaimed());
+        // 回收后的版本不会再被取得
+        GallerySnapshot latest = recognizer.acquireGallery();
+        assertEquals(2, latest.gallery.size());
+        latest.release();
+
+        recognizer.setGallery(null);
+        assertEquals(2, closed.get());
+        assertNull(recognizer.acquireGallery());
+        assertEquals(0, recognizer.getGalleryVersion());
+    }
+
+    @Test
+    public void matchingNeverStallsUnderContinuousEnrollment() throws Exception {
+        ThumbnailFaceEmbedder embedder = new ThumbnailFaceEmbedder();
+        FaceRecognizer recognizer = new FaceRecognizer(embedder);
+        LumaImage image = image(new Random(3));
+        ExecutorService compaction = Executors.newSingleThreadExecutor();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> writerFailure = new AtomicReference<>();
+        AtomicInteger published = new AtomicInteger();
+
+        try (EnrollmentStore store = EnrollmentStore.open(tmp.newFolder("store"), embedder.getDimension(),
+                compaction)) {
+            store.setCompactionThreshold(64);
+            store.setListener(changed -> {
+                recognizer.setGallery(changed, null, changed.retainBase());
+                published.incrementAndGet();
+            });
+            Thread writer = new Thread(() -> {
+                Random random = new Random(5);
+                try {
+                    for (int i = 0; running.get(); i++) {
+                        store.put("user" + (i % 500), vector(random));
+                    }
+                } catch (Throwable e) {
+                    writerFailure.set(e);
+                }
+            }, "enrollment-writer");
+            writer.start();
+
+            List<Long> latencies = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                recognizer.recognize(image, 20, 20, 140, 140);
+                latencies.add(System.nanoTime() - start);
+            }
+            running.set(false);
+            writer.join();
+            assertNull(writerFailure.get());
+            assertTrue(published.get() > 100);
+            assertTrue(store.getGeneration() > 0);
+
+            // 比对与注册并行推进，单次比对不等待写入或压缩（上限留足调度抖动的余量）
+            long worst = latencies.stream().mapToLong(Long::longValue).max().orElse(0L);
+            assertTrue("最长比对耗时 " + worst / 1_000_000 + "ms", worst < TimeUnit.MILLISECONDS.toNanos(200));
+            assertTrue(latencies.size() > 100);
+        } finally {
+            compaction.shutdown();
+            assertTrue(compaction.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        // 注册库关闭后发布方仍持有最后一个版本，替换为null即回收
+        recognizer.setGallery(null);
+    }
+
+    private static float[] vector(Random random) {
+        float[] v = new float[256];
+        for (int d = 0; d < v.length; d++) {
+            v[d] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+
+    private static LumaImage image(Random random) {
+        byte[] data = new byte[WIDTH * HEIGHT];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (40 + random.nextInt(160));
+        }
+        LumaImage image = new LumaImage();
+        image.set(ByteBuffer.wrap(data), WIDTH, 1, WIDTH, HEIGHT, 0);
+        return image;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Random;
+
+/**
+ * HNSW 与精确线性扫描的JVM基准对比（1k / 10k / 100k 人）
+ * 手动运行：直接执行 main，可通过参数指定规模，例如 "1000 10000"
+ * 查询为库中向量加噪声，模拟同一人的不同照片
+ */
+public class HnswBenchmark {
+    private static final int DIM = 128;
+    private static final int QUERIES = 1000;
+    private static final int[] EF_SEARCH = {16, 32, 64, 128};
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        Random random = new Random(size);
+        ArrayVectorStore store = new ArrayVectorStore(DIM, size);
+        for (int i = 0; i < size; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        float[][] queries = new float[QUERIES][];
+        float[] base = new float[DIM];
+        for (int q = 0; q < QUERIES; q++) {
+            store.getEmbedding(random.nextInt(size), base);
+            float[] noise = HnswIndexTest.randomUnitVector(random, DIM);
+            float[] query = new float[DIM];
+            float norm = 0f;
+            for (int i = 0; i < DIM; i++) {
+                query[i] = base[i] + 0.6f * noise[i];
+                norm += query[i] * query[i];
+            }
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < DIM; i++) {
+                query[i] *= inv;
+            }
+            queries[q] = query;
+        }
+
+        System.out.println("==== gallery size " + size + ", dim " + DIM + " ====");
+        BruteForceIndex exact = new BruteForceIndex(store);
+        int[] truth = new int[QUERIES];
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        long start = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            exact.search(queries[q], 1, ids, scores);
+            truth[q] = ids[0];
+        }
+        double exactUs = (System.nanoTime() - start) / 1e3 / QUERIES;
+        System.out.printf("brute force      : %9.1f us/query%n", exactUs);
+
+        start = System.nanoTime();
+        HnswIndex hnsw = HnswIndex.build(store, HnswIndex.DEFAULT_M, HnswIndex.DEFAULT_EF_CONSTRUCTION);
+        System.out.printf("hnsw build       : %9.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        for (int ef : EF_SEARCH) {
+            hnsw.setEfSearch(ef);
+            // 预热
+            for (int q = 0; q < QUERIES; q++) {
+                hnsw.search(queries[q], 1, ids, scores);
+            }
+            int hits = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                hnsw.search(queries[q], 1, ids, scores);
+                if (ids[0] == truth[q]) {
+                    hits++;
+                }
+            }
+            double us = (System.nanoTime() - start) / 1e3 / QUERIES;
+            System.out.printf("hnsw efSearch=%-3d: %9.1f us/query  recall@1=%.3f  speedup=%.1fx%n",
+                    ef, us, hits / (double) QUERIES, exactUs / us);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.facerecognitionapp.recognition;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HnswIndexTest {
+    private static final int DIM = 32;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    static float[] randomUnitVector(Random random, int dim) {
+        float[] v = new float[dim];
+        float norm = 0f;
+        for (int i = 0; i < dim; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dim; i++) {
+            v[i] *= inv;
+        }
+        return v;
+    }
+
+    private static ArrayVectorStore randomStore(int n, long seed) {
+        Random random = new Random(seed);
+        ArrayVectorStore store = new ArrayVectorStore(DIM, n);
+        for (int i = 0; i < n; i++) {
+            store.add(randomUnitVector(random, DIM));
+        }
+        return store;
+    }
+
+    @Test
+    public void search_matchesBruteForceTop1() {
+        ArrayVectorStore store = randomStore(2000, 1);
+        HnswIndex hnsw = HnswIndex.build(store, 16, 100);
+        BruteForceIndex exact = new BruteForceIndex(store);
+        hnsw.setEfSearch(64);
+
+        Random random = new Random(7);
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        int[] exactIds = new int[1];
+        float[] exactScores = new float[1];
+        int hits = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random, DIM);
+            hnsw.search(query, 1, ids, scores);
+            exact.search(query, 1, exactIds, exactScores);
+            if (ids[0] == exactIds[0]) {
+                hits++;
+            }
+        }
+        assertTrue("recall@1 = " + hits / (float) queries, hits >= queries * 0.95);
+    }
+
+    @Test
+    public void search_returnsTopKInDescendingOrder() {
+        ArrayVectorStore store = randomStore(500, 3);
+        HnswIndex hnsw = HnswIndex.build(store, 8, 64);
+        float[] query = new float[DIM];
+        store.getEmbedding(123, query);
+
+        int[] ids = new int[5];
+        float[] scores = new float[5];
+        assertEquals(5, hnsw.search(query, 5, ids, scores));
+        assertEquals(123, ids[0]);
+        for (int i = 1; i < 5; i++) {
+            assertTrue(scores[i - 1] >= scores[i]);
+        }
+    }
+
+    @Test
+    public void incrementalInsert_findsNewVectors() {
+        ArrayVectorStore store = randomStore(300, 5);
+        HnswIndex hnsw = HnswIndex.build(store, 8, 64);
+        float[] added = randomUnitVector(new Random(11), DIM);
+        store.add(added);
+        hnsw.addAll();
+
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        hnsw.search(added, 1, ids, scores);
+        assertEquals(300, ids[0]);
+        assertEquals(301, hnsw.size());
+    }
+
+    @Test
+    public void saveThenLoad_givesIdenticalResults() throws Exception {
+        ArrayVectorStore store = randomStore(1000, 9);
+        HnswIndex hnsw = HnswIndex.build(store, 12, 80);
+        File file = tmp.newFile("index.hnsw");
+        hnsw.save(file, 99L);
+        HnswIndex loaded = HnswIndex.load(file, store, 99L);
+
+        Random random = new Random(13);
+        int[] a = new int[10];
+        int[] b = new int[10];
+        float[] sa = new float[10];
+        float[] sb = new float[10];
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomUnitVector(random, DIM);
+            int na = hnsw.search(query, 10, a, sa);
+            int nb = loaded.search(query, 10, b, sb);
+            assertEquals(na, nb);
+            assertArrayEquals(a, b);
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void load_rejectsFingerprintMismatch() throws Exception {
+        ArrayVectorStore store = randomStore(50, 2);
+        File file = tmp.newFile("index.hnsw");
+        HnswIndex.build(store, 8, 32).save(file, 1L);
+        HnswIndex.load(file, store, 2L);
+    }
+
+    @Test
+    public void load_rejectsCorruptGraph() throws Exception {
+        ArrayVectorStore store = randomStore(50, 3);
+        File file = tmp.newFile("index.hnsw");
+        HnswIndex.build(store, 8, 32).save(file, 1L);
+        // 头部 44 字节后依次是节点0的层数(1)、第0层邻居数(2)、第一个邻居(4)
+        assertCorruptRejected(file, store, 36, 50);     // entryPoint
+        assertCorruptRejected(file, store, 40, 17);     // maxLevel
+        assertCorruptRejected(file, store, 47, 1000);   // 邻居序号
+        assertCorruptRejected(file, store, 47, -1);
+
+        // 截断
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        try {
+            HnswIndex.load(file, store, 1L);
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private static void assertCorruptRejected(File file, VectorStore store, long offset, int value)
+            throws IOException {
+        int original;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            original = raf.readInt();
+            raf.seek(offset);
+            raf.writeInt(value);
+        }
+        try {
+            HnswIndex.load(file, store, 1L);
+            fail("offset " + offset + " = " + value);
+        } catch (IOException expected) {
+        } finally {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(offset);
+                raf.writeInt(original);
+            }
+        }
+        // 恢复后可正常加载
+        HnswIndex.load(file, store, 1L);
+    }
+}
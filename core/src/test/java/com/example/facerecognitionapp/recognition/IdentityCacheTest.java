@@ -0,0 +1,179 @@
+package com.example.facerecognitionapp.recognition;
+
+import com.example.facerecognitionapp.frame.LumaImage;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IdentityCacheTest {
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 160;
+    private static final long FRAME_NANOS = 33_333_333L;
+    private static final GalleryMatch ALICE = new GalleryMatch(0, "alice", 0.9f);
+    private static final GalleryMatch BOB = new GalleryMatch(1, "bob", 0.8f);
+
+    @Test
+    public void settledTrackHitsUntilIntervalExpires() {
+        IdentityCache cache = new IdentityCache();
+        LumaImage image = image(new Random(1));
+        long now = 0;
+        // 标签稳定前每次都验证
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 7, image, 0.6f, now));
+        assertSame(ALICE, cache.onVerified(7, ALICE, 0.6f, now));
+        for (int i = 1; i < IdentityCache.DEFAULT_MIN_VOTES; i++) {
+            now += FRAME_NANOS;
+            assertEquals(IdentityCache.Reason.UNSETTLED, check(cache, 7, image, 0.6f, now));
+            cache.onVerified(7, ALICE, 0.6f, now);
+        }
+        long verified = now;
+        assertEquals(1f, cache.getConfidence(7), 0f);
+        assertEquals(verified, cache.getVerifiedNanos(7));
+
+        now += FRAME_NANOS;
+        assertEquals(IdentityCache.Reason.NONE, check(cache, 7, image, 0.6f, now));
+        assertSame(ALICE, cache.getIdentity(7));
+        assertEquals(IdentityCache.Reason.QUALITY, check(cache, 7, image, 0.9f, now));
+        cache.onVerified(7, ALICE, 0.9f, now);
+
+        now += IdentityCache.DEFAULT_VERIFY_INTERVAL_NANOS;
+        assertEquals(IdentityCache.Reason.INTERVAL, check(cache, 7, image, 0.9f, now));
+    }
+
+    @Test
+    public void appearanceDriftTriggersVerification() {
+        IdentityCache cache = new IdentityCache();
+        cache.setMinVotes(1);
+        LumaImage first = image(new Random(1));
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 3, first, 0.5f, 0));
+        cache.onVerified(3, ALICE, 0.5f, 0);
+        assertEquals(IdentityCache.Reason.NONE, check(cache, 3, first, 0.5f, FRAME_NANOS));
+        // 整体变亮不算漂移，换一张脸才算
+        assertEquals(IdentityCache.Reason.NONE, check(cache, 3, brighter(first), 0.5f, FRAME_NANOS));
+        assertEquals(IdentityCache.Reason.DRIFT, check(cache, 3, image(new Random(2)), 0.5f, FRAME_NANOS));
+    }
+
+    @Test
+    public void slidingWindowVoteStabilisesLabel() {
+        IdentityCache cache = new IdentityCache(4, 5);
+        cache.setVerifyIntervalNanos(0);
+        LumaImage image = image(new Random(3));
+        GalleryMatch[] sequence = {ALICE, ALICE, BOB, null, ALICE, BOB, BOB, BOB};
+        GalleryMatch[] expected = {ALICE, ALICE, ALICE, ALICE, ALICE, ALICE, BOB, BOB};
+        for (int i = 0; i < sequence.length; i++) {
+            assertNotEquals(IdentityCache.Reason.NONE, check(cache, 1, image, 0.5f, 0));
+            GalleryMatch voted = cache.onVerified(1, sequence[i], 0.5f, 0);
+            assertSame("vote " + i, expected[i], voted);
+        }
+        // 窗口内 BOB 3 票、ALICE 1 票、未匹配 1 票
+        assertEquals(0.6f, cache.getConfidence(1), 1e-6f);
+    }
+
+    @Test
+    public void boundedCapacityEvictsLeastRecentlyUsed() {
+        IdentityCache cache = new IdentityCache(2, 3);
+        LumaImage image = image(new Random(4));
+        check(cache, 1, image, 0.5f, 0);
+        cache.onVerified(1, ALICE, 0.5f, 0);
+        check(cache, 2, image, 0.5f, 0);
+        cache.onVerified(2, BOB, 0.5f, 0);
+        check(cache, 1, image, 0.5f, 0);
+        cache.onVerified(1, ALICE, 0.5f, 0);
+
+        // 轨迹2最久未访问，被轨迹3挤掉
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 3, image, 0.5f, 0));
+        cache.onVerified(3, null, 0.5f, 0);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.getIdentity(2));
+        assertSame(ALICE, cache.getIdentity(1));
+
+        cache.remove(1);
+        assertEquals(1, cache.size());
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 1, image, 0.5f, 0));
+    }
+
+    @Test
+    public void batchedChecksCanBeVerifiedAfterwards() {
+        IdentityCache cache = new IdentityCache();
+        cache.setMinVotes(1);
+        LumaImage first = image(new Random(1));
+        LumaImage second = image(new Random(2));
+        // 同一帧两条轨迹先全部 check，批量比对后再逐个 onVerified
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 1, first, 0.5f, 0));
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 2, second, 0.5f, 0));
+        assertSame(BOB, cache.onVerified(2, BOB, 0.5f, 0));
+        assertSame(ALICE, cache.onVerified(1, ALICE, 0.5f, 0));
+        // 各自保存了自己的签名
+        assertEquals(IdentityCache.Reason.NONE, check(cache, 1, first, 0.5f, FRAME_NANOS));
+        assertEquals(IdentityCache.Reason.NONE, check(cache, 2, second, 0.5f, FRAME_NANOS));
+        assertEquals(IdentityCache.Reason.DRIFT, check(cache, 1, second, 0.5f, FRAME_NANOS));
+    }
+
+    @Test
+    public void moreTracksThanSlotsNeverEvictPendingEntries() {
+        IdentityCache cache = new IdentityCache(4, 3);
+        cache.setMinVotes(1);
+        LumaImage image = image(new Random(1));
+        for (int trackId = 0; trackId < 4; trackId++) {
+            assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, trackId, image, 0.5f, 0));
+        }
+        assertEquals(4, cache.getPendingCount());
+        // 第五条轨迹没有可用槽位，不能挤掉等待比对结果的条目
+        try {
+            check(cache, 4, image, 0.5f, 0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        for (int trackId = 0; trackId < 4; trackId++) {
+            assertSame(ALICE, cache.onVerified(trackId, ALICE, 0.5f, 0));
+        }
+        assertEquals(0, cache.getPendingCount());
+        assertEquals(0, cache.getEvictionCount());
+        // 验证完成后新轨迹淘汰最久未访问的条目
+        assertEquals(IdentityCache.Reason.NEW_TRACK, check(cache, 4, image, 0.5f, FRAME_NANOS));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(4, cache.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void verifiedTwiceForOneCheckIsRejected() {
+        IdentityCache cache = new IdentityCache();
+        check(cache, 1, image(new Random(1)), 0.5f, 0);
+        cache.onVerified(1, ALICE, 0.5f, 0);
+        cache.onVerified(1, ALICE, 0.5f, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void verifiedWithoutCheckIsRejected() {
+        new IdentityCache().onVerified(1, ALICE, 0.5f, 0);
+    }
+
+    private static IdentityCache.Reason check(IdentityCache cache, int trackId, LumaImage image,
+                                              float quality, long now) {
+        return cache.check(trackId, image, 20, 20, 140, 140, quality, now);
+    }
+
+    private static LumaImage image(Random random) {
+        byte[] data = new byte[WIDTH * HEIGHT];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (40 + random.nextInt(160));
+        }
+        LumaImage image = new LumaImage();
+        image.set(ByteBuffer.wrap(data), WIDTH, 1, WIDTH, HEIGHT, 0);
+        return image;
+    }
+
+    private static LumaImage brighter(LumaImage source) {
+        byte[] data = new byte[WIDTH * HEIGHT];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ((source.getBuffer().get(i) & 0xFF) + 40);
+        }
+        LumaImage image = new LumaImage();
+        image.set(ByteBuffer.wrap(data), WIDTH, 1, WIDTH, HEIGHT, 0);
+        return image;
+    }
+}
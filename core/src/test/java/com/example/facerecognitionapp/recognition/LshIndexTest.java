@@ -0,0 +1,136 @@
+package com.example.facerecognitionapp.recognition;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LshIndexTest {
+    private static final int DIM = 64;
+    private static final float THRESHOLD = 0.9f;
+
+    /**
+     * v 加一个随机扰动后归一化，余弦相似度约为 1/sqrt(1 + noise^2)
+     */
+    static float[] perturb(Random random, float[] v, float noise) {
+        float[] delta = HnswIndexTest.randomUnitVector(random, v.length);
+        float[] out = new float[v.length];
+        float norm = 0f;
+        for (int i = 0; i < v.length; i++) {
+            out[i] = v[i] + noise * delta[i];
+            norm += out[i] * out[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) {
+            out[i] *= inv;
+        }
+        return out;
+    }
+
+    /**
+     * n 个随机向量，其后每隔 10 个追加一个前者的近似副本（余弦约 0.97）
+     */
+    private static ArrayVectorStore storeWithTwins(int n, long seed) {
+        Random random = new Random(seed);
+        ArrayVectorStore store = new ArrayVectorStore(DIM, n + n / 10);
+        for (int i = 0; i < n; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        float[] v = new float[DIM];
+        for (int i = 0; i < n; i += 10) {
+            store.getEmbedding(i, v);
+            store.add(perturb(random, v, 0.25f));
+        }
+        return store;
+    }
+
+    @Test
+    public void search_findsNearDuplicateWithFewCandidates() {
+        ArrayVectorStore store = storeWithTwins(5000, 1);
+        LshIndex index = LshIndex.build(store);
+        assertEquals(store.size(), index.size());
+
+        int[] ids = new int[4];
+        float[] scores = new float[4];
+        float[] query = new float[DIM];
+        int hits = 0;
+        long candidates = 0;
+        for (int i = 0; i < 5000; i += 10) {
+            store.getEmbedding(i, query);
+            int found = index.search(query, THRESHOLD, ids, scores);
+            // 自身总在结果首位
+            assertTrue(found >= 1);
+            assertEquals(i, ids[0]);
+            assertEquals(1f, scores[0], 1e-4f);
+            if (found >= 2 && ids[1] == 5000 + i / 10) {
+                hits++;
+            }
+            candidates += index.getLastCandidateCount();
+        }
+        assertTrue("recall " + hits, hits >= 490);
+        // 远少于全库比较
+        assertTrue("candidates " + candidates / 500, candidates / 500 < 50);
+
+        float[] unrelated = HnswIndexTest.randomUnitVector(new Random(9), DIM);
+        assertEquals(0, index.search(unrelated, THRESHOLD, ids, scores));
+    }
+
+    @Test
+    public void forEachPair_reportsEachVerifiedPairOnce() {
+        ArrayVectorStore store = storeWithTwins(3000, 2);
+        LshIndex index = new LshIndex(store);
+        index.addAll();
+
+        Set<Long> pairs = new HashSet<>();
+        long candidates = index.forEachPair(THRESHOLD, (a, b, score) -> {
+            assertTrue(a < b);
+            assertTrue(score >= THRESHOLD);
+            assertTrue("重复回调 " + a + "," + b, pairs.add((long) a << 32 | b));
+        });
+
+        // 与两两比较的结果一致（LSH 可能漏报，不会误报）
+        Set<Long> exact = new HashSet<>();
+        float[] v = new float[DIM];
+        for (int a = 0; a < store.size(); a++) {
+            store.getEmbedding(a, v);
+            for (int b = a + 1; b < store.size(); b++) {
+                if (store.dot(b, v) >= THRESHOLD) {
+                    exact.add((long) a << 32 | b);
+                }
+            }
+        }
+        assertTrue(exact.containsAll(pairs));
+        assertTrue("found " + pairs.size() + " of " + exact.size(), pairs.size() >= exact.size() * 0.95);
+        long allPairs = (long) store.size() * (store.size() - 1) / 2;
+        assertTrue("candidates " + candidates, candidates < allPairs / 100);
+    }
+
+    @Test
+    public void incrementalAdd_isSearchable() {
+        ArrayVectorStore store = new ArrayVectorStore(DIM, 4);
+        LshIndex index = new LshIndex(store);
+        Random random = new Random(3);
+        float[] first = HnswIndexTest.randomUnitVector(random, DIM);
+        store.add(first);
+        index.addAll();
+        for (int i = 0; i < 100; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        store.add(perturb(random, first, 0.1f));
+        index.addAll();
+        assertEquals(102, index.size());
+
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        assertEquals(1, index.search(first, THRESHOLD, ids, scores));
+        assertEquals(0, ids[0]);
+        try {
+            index.add(5);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
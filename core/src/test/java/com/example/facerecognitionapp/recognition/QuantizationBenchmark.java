@@ -0,0 +1,94 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Random;
+
+/**
+ * 量化存储与 float 存储的JVM基准对比：常驻内存、每秒查询数、recall@1（以 float 精确扫描为准）
+ * 手动运行：直接执行 main，可通过参数指定规模，例如 "10000 100000"
+ * 查询为库中向量加噪声，模拟同一人的不同照片
+ */
+public class QuantizationBenchmark {
+    private static final int DIM = 128;
+    private static final int QUERIES = 300;
+    private static final int RERANK = QuantizedIndex.DEFAULT_RERANK_COUNT;
+    // 噪声较大时与真值的相似度约 0.55，接近随机向量中的最大值，量化误差才会影响排序
+    private static final float NOISE = 1.5f;
+
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        Random random = new Random(size);
+        ArrayVectorStore store = new ArrayVectorStore(DIM, size);
+        for (int i = 0; i < size; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        float[][] queries = new float[QUERIES][];
+        float[] base = new float[DIM];
+        for (int q = 0; q < QUERIES; q++) {
+            store.getEmbedding(random.nextInt(size), base);
+            queries[q] = QuantizedIndexTest.noisy(random, base, NOISE);
+        }
+
+        System.out.println("==== gallery size " + size + ", dim " + DIM + " ====");
+        BruteForceIndex exact = new BruteForceIndex(store);
+        int[] truth = new int[QUERIES];
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        for (int q = 0; q < QUERIES; q++) {
+            exact.search(queries[q], 1, ids, scores);
+            truth[q] = ids[0];
+        }
+        report("float32", (long) size * DIM * 4, exact, queries, truth);
+
+        long start = System.nanoTime();
+        QuantizedIndex int8 = QuantizedIndex.buildInt8(store);
+        System.out.printf("int8 build        : %9.1f ms%n", (System.nanoTime() - start) / 1e6);
+        int8.setRerankCount(0);
+        report("int8", int8.getMemoryBytes(), int8, queries, truth);
+        int8.setRerankCount(RERANK);
+        report("int8 + rerank " + RERANK, int8.getMemoryBytes(), int8, queries, truth);
+
+        for (int subspaces : new int[]{16, 32}) {
+            start = System.nanoTime();
+            QuantizedIndex pq = QuantizedIndex.buildPq(store, subspaces);
+            System.out.printf("pq%-2d build        : %9.1f ms%n", subspaces, (System.nanoTime() - start) / 1e6);
+            pq.setRerankCount(0);
+            report("pq" + subspaces, pq.getMemoryBytes(), pq, queries, truth);
+            pq.setRerankCount(RERANK);
+            report("pq" + subspaces + " + rerank " + RERANK, pq.getMemoryBytes(), pq, queries, truth);
+            pq.setRerankCount(RERANK * 4);
+            report("pq" + subspaces + " + rerank " + RERANK * 4, pq.getMemoryBytes(), pq, queries, truth);
+        }
+    }
+
+    private static void report(String label, long bytes, EmbeddingIndex index, float[][] queries, int[] truth) {
+        int[] ids = new int[1];
+        float[] scores = new float[1];
+        // 预热
+        for (float[] query : queries) {
+            index.search(query, 1, ids, scores);
+        }
+        int hits = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < queries.length; q++) {
+            index.search(queries[q], 1, ids, scores);
+            if (ids[0] == truth[q]) {
+                hits++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-18s: %8.2f MB  %9.1f qps  recall@1=%.3f%n",
+                label, bytes / (1024.0 * 1024.0), queries.length / seconds, hits / (double) queries.length);
+    }
+}
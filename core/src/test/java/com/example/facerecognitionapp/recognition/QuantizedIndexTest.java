@@ -0,0 +1,147 @@
+package com.example.facerecognitionapp.recognition;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuantizedIndexTest {
+    private static final int DIM = 64;
+
+    @Test
+    public void int8Store_roundTripAndKernelsMatchReference() {
+        Random random = new Random(1);
+        ArrayVectorStore floats = randomStore(random, 50);
+        Int8VectorStore int8 = Int8VectorStore.quantize(floats);
+        float[] original = new float[DIM];
+        float[] restored = new float[DIM];
+        float[] query = HnswIndexTest.randomUnitVector(random, DIM);
+        byte[] queryCodes = new byte[DIM];
+        Int8VectorStore.quantize(query, DIM, queryCodes, 0);
+        byte[] codes = new byte[DIM];
+        for (int i = 0; i < floats.size(); i++) {
+            floats.getEmbedding(i, original);
+            int8.getEmbedding(i, restored);
+            for (int d = 0; d < DIM; d++) {
+                // 量化误差不超过半个量化步长
+                assertEquals(original[d], restored[d], int8.getScale(i) * 0.5f + 1e-6f);
+            }
+            assertEquals(floats.dot(i, query), int8.dot(i, query), 0.01f);
+
+            Int8VectorStore.quantize(original, DIM, codes, 0);
+            int expected = 0;
+            for (int d = 0; d < DIM; d++) {
+                expected += codes[d] * queryCodes[d];
+            }
+            assertEquals(expected, int8.dotInt8(i, queryCodes));
+        }
+    }
+
+    @Test
+    public void int8Kernel_handlesTailAndExtremes() {
+        byte[] a = new byte[13];
+        byte[] b = new byte[13];
+        int expected = 0;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (byte) (i % 2 == 0 ? 127 : -127);
+            b[i] = (byte) (i % 3 == 0 ? -127 : 127);
+            expected += a[i] * b[i];
+        }
+        assertEquals(expected, Int8VectorStore.dotInt8(a, 0, b, 0, a.length));
+    }
+
+    @Test
+    public void productQuantizer_adcMatchesDecodedDot() {
+        Random random = new Random(2);
+        ArrayVectorStore floats = randomStore(random, 600);
+        ProductQuantizer quantizer = ProductQuantizer.train(floats, 8, 5, 3);
+        byte[] codes = new byte[8];
+        float[] vector = new float[DIM];
+        float[] decoded = new float[DIM];
+        float[] table = new float[8 * ProductQuantizer.CENTROIDS];
+        float[] query = HnswIndexTest.randomUnitVector(random, DIM);
+        quantizer.computeTable(query, table);
+        for (int i = 0; i < 20; i++) {
+            floats.getEmbedding(i, vector);
+            quantizer.encode(vector, codes, 0);
+            quantizer.decode(codes, 0, decoded);
+            float expected = 0f;
+            for (int d = 0; d < DIM; d++) {
+                expected += decoded[d] * query[d];
+            }
+            assertEquals(expected, quantizer.score(table, codes, 0), 1e-4f);
+        }
+    }
+
+    @Test
+    public void rerankedSearch_matchesExactTopOne() {
+        Random random = new Random(3);
+        ArrayVectorStore floats = randomStore(random, 2000);
+        BruteForceIndex exact = new BruteForceIndex(floats);
+        QuantizedIndex int8 = QuantizedIndex.buildInt8(floats);
+        QuantizedIndex pq = QuantizedIndex.buildPq(floats, 16);
+        int[] expectedIds = new int[5];
+        float[] expectedScores = new float[5];
+        int[] ids = new int[5];
+        float[] scores = new float[5];
+        float[] base = new float[DIM];
+        int pqHits = 0;
+        for (int q = 0; q < 100; q++) {
+            floats.getEmbedding(random.nextInt(floats.size()), base);
+            float[] query = noisy(random, base, 0.3f);
+            exact.search(query, 5, expectedIds, expectedScores);
+
+            assertEquals(5, int8.search(query, 5, ids, scores));
+            assertEquals(expectedIds[0], ids[0]);
+            // 精排后的分数是精确的 float 点积
+            assertEquals(expectedScores[0], scores[0], 1e-6f);
+
+            pq.search(query, 5, ids, scores);
+            if (ids[0] == expectedIds[0]) {
+                pqHits++;
+            }
+        }
+        assertTrue("pq recall@1 " + pqHits, pqHits >= 95);
+        assertTrue(pq.getMemoryBytes() < int8.getMemoryBytes());
+    }
+
+    @Test
+    public void withoutRerank_returnsQuantizedScores() {
+        Random random = new Random(4);
+        ArrayVectorStore floats = randomStore(random, 100);
+        QuantizedIndex index = QuantizedIndex.buildInt8(floats);
+        index.setRerankCount(0);
+        float[] query = new float[DIM];
+        floats.getEmbedding(7, query);
+        int[] ids = new int[3];
+        float[] scores = new float[3];
+        assertEquals(3, index.search(query, 3, ids, scores));
+        assertEquals(7, ids[0]);
+        assertEquals(1f, scores[0], 0.02f);
+        assertTrue(scores[0] >= scores[1] && scores[1] >= scores[2]);
+    }
+
+    static ArrayVectorStore randomStore(Random random, int size) {
+        ArrayVectorStore store = new ArrayVectorStore(DIM, size);
+        for (int i = 0; i < size; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        return store;
+    }
+
+    static float[] noisy(Random random, float[] base, float amount) {
+        float[] noise = HnswIndexTest.randomUnitVector(random, base.length);
+        float[] query = new float[base.length];
+        float norm = 0f;
+        for (int i = 0; i < base.length; i++) {
+            query[i] = base[i] + amount * noise[i];
+            norm += query[i] * query[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < base.length; i++) {
+            query[i] *= inv;
+        }
+        return query;
+    }
+}
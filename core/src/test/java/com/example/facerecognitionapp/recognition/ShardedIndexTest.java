@@ -0,0 +1,98 @@
+package com.example.facerecognitionapp.recognition;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ShardedIndexTest {
+    private static final int DIM = 32;
+    private static final int K = 5;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shardedSearch_matchesBruteForce() {
+        Random random = new Random(1);
+        ArrayVectorStore store = randomStore(random, 5003);
+        BruteForceIndex exact = new BruteForceIndex(store);
+        ShardedIndex sharded = new ShardedIndex(store, executor, 4, 100);
+        int[] expectedIds = new int[K];
+        float[] expectedScores = new float[K];
+        int[] ids = new int[K];
+        float[] scores = new float[K];
+        for (int q = 0; q < 50; q++) {
+            float[] query = HnswIndexTest.randomUnitVector(random, DIM);
+            assertEquals(K, exact.search(query, K, expectedIds, expectedScores));
+            assertEquals(K, sharded.search(query, K, ids, scores));
+            assertArrayEquals(expectedIds, ids);
+            assertArrayEquals(expectedScores, scores, 0f);
+        }
+    }
+
+    @Test
+    public void batchSearch_matchesPerQuerySearch() {
+        Random random = new Random(2);
+        ArrayVectorStore store = randomStore(random, 3000);
+        BruteForceIndex exact = new BruteForceIndex(store);
+        EmbeddingIndex[] indexes = {exact, new ShardedIndex(store, executor, 4, 100)};
+        float[][] queries = new float[6][];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = HnswIndexTest.randomUnitVector(random, DIM);
+        }
+        int[] expectedIds = new int[K];
+        float[] expectedScores = new float[K];
+        for (EmbeddingIndex index : indexes) {
+            int[] ids = new int[queries.length * K];
+            float[] scores = new float[queries.length * K];
+            int[] counts = new int[queries.length];
+            index.searchBatch(queries, queries.length, K, ids, scores, counts);
+            for (int q = 0; q < queries.length; q++) {
+                exact.search(queries[q], K, expectedIds, expectedScores);
+                assertEquals(K, counts[q]);
+                for (int j = 0; j < K; j++) {
+                    assertEquals(expectedIds[j], ids[q * K + j]);
+                    assertEquals(expectedScores[j], scores[q * K + j], 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void smallGalleryAndShutdownExecutor_fallBackToCallerThread() {
+        Random random = new Random(3);
+        ArrayVectorStore store = randomStore(random, 3);
+        ShardedIndex index = new ShardedIndex(store, executor, 4, 100);
+        int[] ids = new int[K];
+        float[] scores = new float[K];
+        float[] query = new float[DIM];
+        store.getEmbedding(1, query);
+        // 不足 k 个时返回全部
+        assertEquals(3, index.search(query, K, ids, scores));
+        assertEquals(1, ids[0]);
+
+        ArrayVectorStore large = randomStore(random, 1000);
+        executor.shutdown();
+        ShardedIndex afterShutdown = new ShardedIndex(large, executor, 4, 100);
+        large.getEmbedding(700, query);
+        assertEquals(K, afterShutdown.search(query, K, ids, scores));
+        assertEquals(700, ids[0]);
+    }
+
+    private static ArrayVectorStore randomStore(Random random, int size) {
+        ArrayVectorStore store = new ArrayVectorStore(DIM, size);
+        for (int i = 0; i < size; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        return store;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.facerecognitionapp.recognition;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分片并行扫描与批量查询的JVM基准：单线程 vs 多分片，逐个查询 vs 同帧批量查询
+ * 手动运行：直接执行 main，可通过参数指定规模，例如 "20000 100000"
+ */
+public class ShardedSearchBenchmark {
+    private static final int DIM = 128;
+    private static final int FRAMES = 200;
+    private static final int FACES_PER_FRAME = 4;
+
+    public static void main(String[] args) {
+        int[] sizes = {20_000, 100_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(3, cores - 1));
+        try {
+            for (int size : sizes) {
+                run(size, executor, cores);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void run(int size, ExecutorService executor, int cores) {
+        Random random = new Random(size);
+        ArrayVectorStore store = new ArrayVectorStore(DIM, size);
+        for (int i = 0; i < size; i++) {
+            store.add(HnswIndexTest.randomUnitVector(random, DIM));
+        }
+        float[][][] frames = new float[FRAMES][FACES_PER_FRAME][];
+        for (float[][] frame : frames) {
+            for (int f = 0; f < FACES_PER_FRAME; f++) {
+                frame[f] = HnswIndexTest.randomUnitVector(random, DIM);
+            }
+        }
+
+        System.out.println("==== gallery size " + size + ", dim " + DIM + ", " + FACES_PER_FRAME
+                + " faces/frame, " + cores + " cores ====");
+        report("brute force", new BruteForceIndex(store), frames);
+        // 核数不足时分片数超过核数，结果只反映调度开销
+        for (int parallelism = 2; parallelism <= Math.max(4, cores); parallelism *= 2) {
+            report("sharded x" + parallelism, new ShardedIndex(store, executor, parallelism), frames);
+        }
+    }
+
+    private static void report(String label, EmbeddingIndex index, float[][][] frames) {
+        int[] ids = new int[FACES_PER_FRAME];
+        float[] scores = new float[FACES_PER_FRAME];
+        int[] counts = new int[FACES_PER_FRAME];
+        for (int warmup = 0; warmup < 2; warmup++) {
+            perFace(index, frames, ids, scores);
+            batched(index, frames, ids, scores, counts);
+        }
+        long start = System.nanoTime();
+        perFace(index, frames, ids, scores);
+        double perFaceMs = (System.nanoTime() - start) / 1e6 / frames.length;
+        start = System.nanoTime();
+        batched(index, frames, ids, scores, counts);
+        double batchedMs = (System.nanoTime() - start) / 1e6 / frames.length;
+        System.out.printf("%-14s: per-face %7.2f ms/frame  batched %7.2f ms/frame%n", label, perFaceMs, batchedMs);
+    }
+
+    private static void perFace(EmbeddingIndex index, float[][][] frames, int[] ids, float[] scores) {
+        for (float[][] frame : frames) {
+            for (float[] query : frame) {
+                index.search(query, 1, ids, scores);
+            }
+        }
+    }
+
+    private static void batched(EmbeddingIndex index, float[][][] frames, int[] ids, float[] scores, int[] counts) {
+        for (float[][] frame : frames) {
+            index.searchBatch(frame, frame.length, 1, ids, scores, counts);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameRecordingTest {
+    private static final int W = 6;
+    private static final int H = 4;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void recordThenRead_stripsStridesAndKeepsTimestamps() throws Exception {
+        File file = tmp.newFile("frames.frec");
+        try (FrameRecorder recorder = new FrameRecorder(file, W, H, 90)) {
+            recorder.write(semiPlanarFrame(1000L, 0, 90));
+            recorder.write(semiPlanarFrame(2000L, 50, 90));
+        }
+
+        try (FrameRecording recording = FrameRecording.open(file)) {
+            assertEquals(2, recording.getFrameCount());
+            assertEquals(W, recording.getWidth());
+            assertEquals(H, recording.getHeight());
+            assertEquals(90, recording.getRotationDegrees());
+            assertEquals(2000L, recording.getTimestampNanos(1));
+
+            Frame frame = recording.readFrame(1);
+            assertEquals(2000L, frame.getTimestampNanos());
+            Frame.Plane y = frame.getPlane(0);
+            assertEquals(W, y.getRowStride());
+            assertEquals(50 + 2 * 16 + 5, y.getBuffer().get(2 * W + 5));
+            Frame.Plane u = frame.getPlane(1);
+            Frame.Plane v = frame.getPlane(2);
+            assertEquals(1, u.getPixelStride());
+            assertEquals(100 + 1 * 10 + 2, u.getBuffer().get(1 * 3 + 2));
+            assertEquals(200 + 1 * 10 + 2 - 256, v.getBuffer().get(1 * 3 + 2));
+        }
+    }
+
+    @Test
+    public void replayMaxSpeed_deliversAndClosesEveryFrame() throws Exception {
+        File file = recordFrames(20);
+        try (FrameRecording recording = FrameRecording.open(file)) {
+            ReplayFrameSource source = new ReplayFrameSource(recording, ReplayFrameSource.Pacing.MAX_SPEED);
+            source.setLoopCount(2);
+            List<Long> timestamps = new ArrayList<>();
+            source.start(frame -> {
+                timestamps.add(frame.getTimestampNanos());
+                frame.close();
+            });
+            source.awaitCompletion(1000);
+
+            assertEquals(40, source.getDeliveredCount());
+            assertEquals(0, source.getDroppedCount());
+            assertEquals(40, source.getHoldLatency().getCount());
+            for (int i = 1; i < timestamps.size(); i++) {
+                assertTrue(timestamps.get(i) > timestamps.get(i - 1));
+            }
+        }
+    }
+
+    @Test
+    public void replayOriginalTiming_dropsFramesWhenListenerIsSlow() throws Exception {
+        File file = recordFrames(30); // 1 秒 @30fps
+        try (FrameRecording recording = FrameRecording.open(file)) {
+            ReplayFrameSource source = new ReplayFrameSource(recording, ReplayFrameSource.Pacing.ORIGINAL_TIMING);
+            source.start(frame -> {
+                try {
+                    Thread.sleep(70); // 约两帧时间
+                } catch (InterruptedException ignored) {
+                }
+                frame.close();
+            });
+            source.awaitCompletion(1000);
+
+            assertTrue(source.getDroppedCount() > 10);
+            assertEquals(30, source.getDeliveredCount() + source.getDroppedCount());
+            assertTrue(source.getElapsedNanos() >= 900_000_000L);
+        }
+    }
+
+    private File recordFrames(int count) throws Exception {
+        File file = tmp.newFile();
+        try (FrameRecorder recorder = new FrameRecorder(file, W, H, 0)) {
+            for (int i = 0; i < count; i++) {
+                recorder.write(semiPlanarFrame(5_000_000_000L + i * 33_333_333L, i, 0));
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 带行填充的 Y 平面 + 交错 UV（pixelStride = 2），模拟相机输出
+     */
+    private static Frame semiPlanarFrame(long timestamp, int seed, int rotation) {
+        int rowStride = W + 2;
+        ByteBuffer y = ByteBuffer.allocate(rowStride * H);
+        for (int r = 0; r < H; r++) {
+            for (int c = 0; c < W; c++) {
+                y.put(r * rowStride + c, (byte) (seed + r * 16 + c));
+            }
+        }
+        ByteBuffer uv = ByteBuffer.allocate(rowStride * H / 2);
+        for (int r = 0; r < H / 2; r++) {
+            for (int c = 0; c < W / 2; c++) {
+                uv.put(r * rowStride + c * 2, (byte) (100 + r * 10 + c));
+                uv.put(r * rowStride + c * 2 + 1, (byte) (200 + r * 10 + c));
+            }
+        }
+        ByteBuffer u = uv.duplicate();
+        ByteBuffer v = uv.duplicate();
+        v.position(1);
+        v = v.slice();
+        return new YuvFrame(W, H, rotation, timestamp,
+                new YuvFrame.BufferPlane(y, rowStride, 1),
+                new YuvFrame.BufferPlane(u, rowStride, 2),
+                new YuvFrame.BufferPlane(v, rowStride, 2));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.facerecognitionapp.replay;
+
+import com.example.facerecognitionapp.detection.FaceAnalysisPipeline;
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.detection.FaceDetectorPool;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.frame.YuvFrame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 回放基准：把录制帧按不同流水线配置回放，对比吞吐/延迟/丢帧
+ * 手动运行：main [录制文件.frec]，不带参数时生成一段合成录制（一张人脸左右往复）
+ * JVM 上没有 ML Kit，用模拟检测器代替：耗时 = 固定开销 + 与检测面积成正比的部分，异步回调；
+ * 流水线配置用 FaceDetectorPool 持有多个模拟检测器
+ */
+public class ReplayBenchmark {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int FRAMES = 300;
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    public static void main(String[] args) throws Exception {
+        File file;
+        if (args.length > 0) {
+            file = new File(args[0]);
+        } else {
+            file = File.createTempFile("replay", ".frec");
+            file.deleteOnExit();
+            synthesize(file);
+        }
+
+        try (FrameRecording recording = FrameRecording.open(file)) {
+            System.out.printf("recording %s: %dx%d rot %d, %d frames%n%n", file.getName(),
+                    recording.getWidth(), recording.getHeight(), recording.getRotationDegrees(),
+                    recording.getFrameCount());
+            for (ReplayFrameSource.Pacing pacing : ReplayFrameSource.Pacing.values()) {
+                run(recording, pacing, "default", true, 30f, 0.5f, 1);
+                run(recording, pacing, "no-roi", false, 30f, 0.5f, 1);
+                run(recording, pacing, "budget-1.0", true, 30f, 1f, 1);
+                // MAX_SPEED 以帧关闭作为背压，流水线模式拷贝后立即关闭帧，只在原始节奏下比较
+                if (pacing == ReplayFrameSource.Pacing.ORIGINAL_TIMING) {
+                    run(recording, pacing, "pipelined-4", true, 30f, 0.5f, 4);
+                    run(recording, pacing, "pipelined-4-no-roi", false, 30f, 0.5f, 4);
+                }
+            }
+        }
+    }
+
+    private static void run(FrameRecording recording, ReplayFrameSource.Pacing pacing, String name,
+                            boolean roi, float targetFps, float cpuBudget, int inFlight) throws Exception {
+        FaceDetector detector = inFlight > 1
+                ? new FaceDetectorPool(inFlight, SimulatedDetector::new) : new SimulatedDetector();
+        FaceAnalysisPipeline pipeline = new FaceAnalysisPipeline(detector);
+        pipeline.setMaxInFlight(inFlight);
+        pipeline.getRoiPlanner().setEnabled(roi);
+        pipeline.getScheduler().setTargetResultFps(targetFps);
+        pipeline.getScheduler().setCpuBudget(cpuBudget);
+
+        ReplayReport report = ReplayHarness.run(recording, pipeline, pacing, 1);
+        pipeline.release();
+        System.out.println("== " + name + " ==");
+        System.out.println(report);
+    }
+
+    /**
+     * 生成合成录制：噪声背景上一个亮色方块作为"人脸"
+     */
+    private static void synthesize(File file) throws Exception {
+        Random random = new Random(1);
+        byte[] data = new byte[WIDTH * HEIGHT * 3 / 2];
+        try (FrameRecorder recorder = new FrameRecorder(file, WIDTH, HEIGHT, 0)) {
+            for (int i = 0; i < FRAMES; i++) {
+                random.nextBytes(data);
+                for (int k = 0; k < WIDTH * HEIGHT; k++) {
+                    data[k] = (byte) ((data[k] & 0x3F) + 32);
+                }
+                int x = faceLeft(i);
+                for (int r = 140; r < 340; r++) {
+                    for (int c = x; c < x + 160; c++) {
+                        data[r * WIDTH + c] = (byte) 200;
+                    }
+                }
+                recorder.write(YuvFrame.fromI420(data, WIDTH, HEIGHT, 0, i * FRAME_NANOS));
+            }
+        }
+    }
+
+    private static int faceLeft(int frameIndex) {
+        return 240 + (int) (180 * Math.sin(frameIndex * 0.05));
+    }
+
+    /**
+     * 模拟检测器：在检测区域内查找亮块，耗时与面积成正比
+     */
+    private static class SimulatedDetector implements FaceDetector {
+        private static final long BASE_NANOS = 4_000_000L;
+        private static final double NANOS_PER_PIXEL = 40.0; // 640x480 约 16ms
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private final FaceDetectionResult result = new FaceDetectionResult();
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                int left = uprightRoi != null ? uprightRoi[0] : 0;
+                int top = uprightRoi != null ? uprightRoi[1] : 0;
+                int right = uprightRoi != null ? uprightRoi[2] : frame.getWidth();
+                int bottom = uprightRoi != null ? uprightRoi[3] : frame.getHeight();
+                findBlob(frame, left, top, right, bottom);
+                long cost = BASE_NANOS + (long) ((right - left) * (bottom - top) * NANOS_PER_PIXEL);
+                while (System.nanoTime() - start < cost) {
+                    Thread.onSpinWait();
+                }
+                callback.onFacesDetected(result);
+            });
+        }
+
+        private void findBlob(Frame frame, int left, int top, int right, int bottom) {
+            Frame.Plane y = frame.getPlane(0);
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = -1;
+            int maxY = -1;
+            for (int r = top; r < bottom; r += 2) {
+                for (int c = left; c < right; c += 2) {
+                    if ((y.getBuffer().get(r * y.getRowStride() + c) & 0xFF) > 150) {
+                        minX = Math.min(minX, c);
+                        minY = Math.min(minY, r);
+                        maxX = Math.max(maxX, c);
+                        maxY = Math.max(maxY, r);
+                    }
+                }
+            }
+            result.clear();
+            result.imageWidth = frame.getWidth();
+            result.imageHeight = frame.getHeight();
+            result.timestamp = frame.getTimestampNanos();
+            if (maxX >= 0) {
+                result.addFace().setBoundingBox(minX, minY, maxX + 1, maxY + 1);
+            }
+        }
+
+        @Override
+        public void close() {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.facerecognitionapp.startup;
+
+import com.example.facerecognitionapp.detection.FaceDetector;
+import com.example.facerecognitionapp.detection.FaceDetectorPool;
+import com.example.facerecognitionapp.frame.Frame;
+import com.example.facerecognitionapp.model.FaceDetectionResult;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DetectorWarmupTest {
+
+    @Test
+    public void everyPooledInstanceAndSingleDetectorIsWarmedBeforeCompletion() {
+        List<DeferredDetector> instances = new ArrayList<>();
+        FaceDetectorPool pool = new FaceDetectorPool(3, () -> {
+            DeferredDetector detector = new DeferredDetector();
+            instances.add(detector);
+            return detector;
+        });
+        DeferredDetector accurate = new DeferredDetector();
+        AtomicInteger completed = new AtomicInteger();
+        Frame frame = DetectorWarmup.syntheticFrame(64, 48);
+
+        DetectorWarmup.warmUp(frame, completion(completed), pool, accurate);
+        for (DeferredDetector instance : instances) {
+            assertEquals(1, instance.pending.size());
+        }
+        assertEquals(1, accurate.pending.size());
+
+        instances.get(0).finish(false);
+        instances.get(1).finish(true);
+        instances.get(2).finish(false);
+        assertEquals(0, completed.get());
+        // 预热失败不影响启动
+        accurate.finish(true);
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void syntheticFrameIsI420() {
+        Frame frame = DetectorWarmup.syntheticFrame(64, 48);
+        assertEquals(64 * 48, frame.getPlane(0).getBuffer().remaining());
+        assertEquals(32 * 24, frame.getPlane(1).getBuffer().remaining());
+        assertEquals((byte) 128, frame.getPlane(2).getBuffer().get(0));
+    }
+
+    private static StartupOrchestrator.Completion completion(AtomicInteger completed) {
+        return new StartupOrchestrator.Completion() {
+            @Override
+            public void complete() {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void fail(Throwable error) {
+                throw new AssertionError("预热不应失败", error);
+            }
+        };
+    }
+
+    /**
+     * 回调延后到 finish 时的检测器，模拟异步推理
+     */
+    private static class DeferredDetector implements FaceDetector {
+        final List<Callback> pending = new ArrayList<>();
+
+        @Override
+        public void detect(Frame frame, int[] uprightRoi, Callback callback) {
+            pending.add(callback);
+        }
+
+        void finish(boolean error) {
+            Callback callback = pending.remove(0);
+            if (error) {
+                callback.onDetectionError(new IllegalStateException("模型加载失败"));
+            } else {
+                callback.onFacesDetected(new FaceDetectionResult());
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
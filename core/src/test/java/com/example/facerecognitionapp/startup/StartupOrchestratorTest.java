@@ -0,0 +1,149 @@
+package com.example.facerecognitionapp.startup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class StartupOrchestratorTest {
+
+    @Test
+    public void independentPhasesRunConcurrently_dependentsWaitForAll() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            StartupOrchestrator startup = new StartupOrchestrator(executor, new StartupTrace());
+            // 三个独立阶段互相等待对方开始，串行执行会超时
+            CountDownLatch allStarted = new CountDownLatch(3);
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            for (String name : new String[]{"camera", "detectors", "gallery"}) {
+                startup.addPhase(name, () -> {
+                    allStarted.countDown();
+                    assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                    order.add(name);
+                });
+            }
+            startup.addPhase("bind", () -> order.add("bind"), "camera", "pipeline");
+            startup.addPhase("pipeline", () -> order.add("pipeline"), "detectors");
+            StartupTrace trace = runToEnd(startup);
+
+            assertEquals(5, order.size());
+            assertTrue(order.indexOf("pipeline") > order.indexOf("detectors"));
+            assertTrue(order.indexOf("bind") > order.indexOf("pipeline"));
+            assertTrue(order.indexOf("bind") > order.indexOf("camera"));
+            for (StartupTrace.PhaseRecord record : trace.getPhases()) {
+                assertEquals(record.name, StartupTrace.Status.DONE, record.status);
+                assertTrue(record.getDurationNanos() >= 0);
+                assertTrue(record.readyNanos <= record.startNanos);
+            }
+            assertTrue(trace.getPhase("bind").startNanos >= trace.getPhase("pipeline").endNanos);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncPhaseEndsOnCompletion() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ExecutorService callbacks = Executors.newSingleThreadExecutor();
+        try {
+            long[] now = {0};
+            StartupTrace trace = new StartupTrace(() -> now[0], 0);
+            StartupOrchestrator startup = new StartupOrchestrator(executor, trace);
+            startup.addAsyncPhase("provider", null, completion -> callbacks.execute(() -> {
+                now[0] = 30_000_000L;
+                completion.complete();
+            }));
+            startup.addPhase("bind", () -> assertTrue(trace.mark("bound")), "provider");
+            runToEnd(startup);
+
+            assertEquals(30_000_000L, trace.getPhase("provider").getDurationNanos());
+            assertEquals(30_000_000L, trace.getMilestoneNanos("bound"));
+            assertFalse(trace.mark("bound"));
+            assertEquals(-1, trace.getMilestoneNanos("first_recognized_face"));
+            assertTrue(trace.toReport().contains("provider"));
+        } finally {
+            executor.shutdown();
+            callbacks.shutdown();
+        }
+    }
+
+    @Test
+    public void failedPhaseSkipsDependentsOnly() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            StartupOrchestrator startup = new StartupOrchestrator(executor, new StartupTrace());
+            List<String> ran = Collections.synchronizedList(new ArrayList<>());
+            startup.addAsyncPhase("permission", null, completion -> completion.fail(new SecurityException("拒绝")));
+            startup.addPhase("detectors", () -> ran.add("detectors"));
+            startup.addPhase("pipeline", () -> ran.add("pipeline"), "detectors");
+            startup.addPhase("bind", () -> ran.add("bind"), "permission", "pipeline");
+            startup.addPhase("overlay", () -> ran.add("overlay"), "bind");
+            StartupTrace trace = runToEnd(startup);
+
+            assertEquals(List.of("detectors", "pipeline"), ran);
+            assertEquals(StartupTrace.Status.FAILED, trace.getPhase("permission").status);
+            assertTrue(trace.getPhase("permission").error instanceof SecurityException);
+            assertEquals(StartupTrace.Status.SKIPPED, trace.getPhase("bind").status);
+            assertEquals(StartupTrace.Status.SKIPPED, trace.getPhase("overlay").status);
+            assertEquals(-1, trace.getPhase("bind").startNanos);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void throwingSyncPhaseFails() throws Exception {
+        StartupOrchestrator startup = new StartupOrchestrator(Runnable::run, new StartupTrace());
+        startup.addPhase("gallery", () -> {
+            throw new IllegalStateException("打开注册库失败");
+        });
+        StartupTrace trace = runToEnd(startup);
+        assertEquals(StartupTrace.Status.FAILED, trace.getPhase("gallery").status);
+    }
+
+    @Test
+    public void invalidGraphsAreRejected() {
+        StartupOrchestrator unknown = new StartupOrchestrator(Runnable::run, new StartupTrace());
+        unknown.addPhase("bind", () -> {
+        }, "camera");
+        assertThrows(IllegalStateException.class, unknown::start);
+
+        StartupOrchestrator cyclic = new StartupOrchestrator(Runnable::run, new StartupTrace());
+        cyclic.addPhase("a", () -> {
+        }, "c");
+        cyclic.addPhase("b", () -> {
+        }, "a");
+        cyclic.addPhase("c", () -> {
+        }, "b");
+        cyclic.addPhase("root", () -> {
+        });
+        IllegalStateException e = assertThrows(IllegalStateException.class, cyclic::start);
+        assertTrue(e.getMessage().contains("a"));
+
+        StartupOrchestrator duplicate = new StartupOrchestrator(Runnable::run, new StartupTrace());
+        duplicate.addPhase("a", () -> {
+        });
+        assertThrows(IllegalArgumentException.class, () -> duplicate.addPhase("a", () -> {
+        }));
+    }
+
+    private static StartupTrace runToEnd(StartupOrchestrator startup) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<StartupTrace> result = new AtomicReference<>();
+        startup.setListener(trace -> {
+            result.set(trace);
+            done.countDown();
+        });
+        startup.start();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.facerecognitionapp.tracking;
+
+import java.util.Random;
+
+/**
+ * 跟踪器JVM基准：模拟若干人脸左右往复移动（带检测抖动），统计 update / predict 单次耗时
+ * 手动运行：直接执行 main
+ */
+public class FaceTrackerBenchmark {
+    private static final int FRAMES = 200_000;
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    public static void main(String[] args) {
+        for (int faces : new int[]{1, 4, 16}) {
+            run(faces);
+        }
+    }
+
+    private static void run(int faceCount) {
+        Random random = new Random(faceCount);
+        float[] boxes = new float[faceCount * 4];
+        FaceTracker tracker = new FaceTracker();
+        long t = 0;
+        long updateNanos = 0;
+        long predictNanos = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            float sway = 40f * (float) Math.sin(frame * 0.05);
+            for (int i = 0; i < faceCount; i++) {
+                float x = i * 150f + sway + (float) random.nextGaussian();
+                float y = 100f + (float) random.nextGaussian();
+                boxes[i * 4] = x;
+                boxes[i * 4 + 1] = y;
+                boxes[i * 4 + 2] = x + 120f;
+                boxes[i * 4 + 3] = y + 150f;
+            }
+            t += FRAME_NANOS;
+            long start = System.nanoTime();
+            if (frame % 3 == 0) {
+                tracker.update(boxes, faceCount, t);
+                updateNanos += System.nanoTime() - start;
+            } else {
+                tracker.predict(t);
+                predictNanos += System.nanoTime() - start;
+            }
+        }
+        int updates = (FRAMES + 2) / 3;
+        System.out.printf("faces=%-2d update: %7.2f us  predict: %7.2f us  tracks=%d%n",
+                faceCount, updateNanos / 1e3 / updates, predictNanos / 1e3 / (FRAMES - updates),
+                tracker.getTracks().size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.facerecognitionapp.tracking;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FaceTrackerTest {
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    @Test
+    public void iou_ofIdenticalAndDisjointBoxes() {
+        assertEquals(1f, FaceTracker.iou(0, 0, 10, 10, 0, 0, 10, 10), 1e-6f);
+        assertEquals(0f, FaceTracker.iou(0, 0, 10, 10, 20, 20, 30, 30), 1e-6f);
+        assertEquals(1f / 3f, FaceTracker.iou(0, 0, 10, 10, 5, 0, 15, 10), 1e-6f);
+    }
+
+    @Test
+    public void movingFace_keepsStableIdAndPredictsAhead() {
+        FaceTracker tracker = new FaceTracker();
+        float[] box = new float[4];
+        int id = -1;
+        long t = 0;
+        // 人脸以 300px/s 向右匀速移动
+        for (int frame = 0; frame < 20; frame++) {
+            float x = 100f + 300f * t / 1e9f;
+            box[0] = x;
+            box[1] = 100f;
+            box[2] = x + 120f;
+            box[3] = 250f;
+            List<FaceTrack> tracks = tracker.update(box, 1, t);
+            assertEquals(1, tracks.size());
+            if (id < 0) {
+                id = tracks.get(0).getId();
+            }
+            assertEquals(id, tracks.get(0).getId());
+            assertEquals(0, tracks.get(0).detectionIndex);
+            t += FRAME_NANOS;
+        }
+
+        // 跳过检测 3 帧，预测框应继续向右移动
+        long future = t + 2 * FRAME_NANOS;
+        FaceTrack predicted = tracker.predict(future).get(0);
+        float expectedLeft = 100f + 300f * future / 1e9f;
+        assertEquals(expectedLeft, predicted.left, 6f);
+        assertEquals(-1, predicted.detectionIndex);
+    }
+
+    @Test
+    public void twoFaces_getDistinctIds_andLostTrackIsDropped() {
+        FaceTracker tracker = new FaceTracker(0.3f, 2);
+        float[] boxes = {0, 0, 100, 100, 300, 0, 400, 100};
+        List<FaceTrack> tracks = tracker.update(boxes, 2, 0);
+        assertEquals(2, tracks.size());
+        assertNotEquals(tracks.get(0).getId(), tracks.get(1).getId());
+
+        float[] onlyFirst = {2, 0, 102, 100};
+        long t = 0;
+        for (int i = 0; i < 3; i++) {
+            t += FRAME_NANOS;
+            tracks = tracker.update(onlyFirst, 1, t);
+        }
+        assertEquals(1, tracks.size());
+        assertEquals(0, tracks.get(0).detectionIndex);
+    }
+
+    @Test
+    public void newFaceFarAway_startsNewTrack() {
+        FaceTracker tracker = new FaceTracker();
+        tracker.update(new float[]{0, 0, 100, 100}, 1, 0);
+        int firstId = tracker.getTracks().get(0).getId();
+        List<FaceTrack> tracks = tracker.update(new float[]{500, 500, 600, 600}, 1, FRAME_NANOS);
+        assertEquals(2, tracks.size());
+        FaceTrack fresh = tracks.get(0).detectionIndex == 0 ? tracks.get(0) : tracks.get(1);
+        assertNotEquals(firstId, fresh.getId());
+    }
+
+    @Test
+    public void removedTracks_areReportedToListener() {
+        FaceTracker tracker = new FaceTracker(0.3f, 1);
+        List<Integer> removed = new ArrayList<>();
+        tracker.setTrackListener(track -> removed.add(track.getId()));
+        tracker.update(new float[]{0, 0, 100, 100, 300, 0, 400, 100}, 2, 0);
+        int secondId = tracker.getTracks().get(1).getId();
+
+        float[] onlyFirst = {0, 0, 100, 100};
+        tracker.update(onlyFirst, 1, FRAME_NANOS);
+        assertTrue(removed.isEmpty());
+        tracker.update(onlyFirst, 1, 2 * FRAME_NANOS);
+        assertEquals(Collections.singletonList(secondId), removed);
+
+        int firstId = tracker.getTracks().get(0).getId();
+        tracker.reset();
+        assertEquals(List.of(secondId, firstId), removed);
+    }
+}